@@ -1,6 +1,9 @@
 package cs3500.music;
 
+import cs3500.music.controller.ProviderToCurrentController;
+import cs3500.music.model.ProviderToCurrentModel;
 import cs3500.music.provider.IScore;
+import cs3500.music.util.MidiFileReader;
 import cs3500.music.util.MusicReader;
 import cs3500.music.view.ConsoleView;
 import cs3500.music.view.GuiViewImpl;
@@ -15,7 +18,8 @@ import java.io.IOException;
 /**
  * Class that contains the main function for Music Editor which starts the music editor with a
  * certain midi file and view. The first argument of the main method is the fileName and the second
- * argument of the main method is the type of view to create.
+ * argument of the main method is the type of view to create. Files ending in .mid are read as
+ * Standard Midi Files, and any other file is read in the text format of MusicReader.
  */
 public class MusicEditor {
 
@@ -40,9 +44,16 @@ public class MusicEditor {
       throw new IllegalArgumentException("File does not exist");
     }
 
-    MusicReader reader = new MusicReader();
     ProviderToCurrentModel.Builder builder = new ProviderToCurrentModel.Builder();
-    IScore model = reader.parseFile(new FileReader(fileName), builder);
+    IScore model;
+    if (fileName.toLowerCase().endsWith(".mid")) {
+      model = MidiFileReader.parseFile(file.toPath(), builder);
+    }
+    else {
+      try (FileReader in = new FileReader(file)) {
+        model = MusicReader.parseFile(in, builder);
+      }
+    }
     ProviderToCurrentController controller;
     ViewFactory factory = new ViewFactory();
     controller = new ProviderToCurrentController(factory.createView(viewType), model);
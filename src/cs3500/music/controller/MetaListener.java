@@ -3,9 +3,12 @@ package cs3500.music.controller;
 import javax.sound.midi.MetaEventListener;
 import javax.sound.midi.MetaMessage;
 
+import cs3500.music.view.MidiViewImpl;
+
 /**
  * A Listener for MetaMessages. Once a MetaMessage is encountered in the Sequencer, the Runnable for
- * this MetaListener is run. This class is used to sync the GUI View to the Midi View.
+ * this MetaListener is run. This class is used to sync the GUI View to the Midi View. Tempo
+ * changes are also MetaMessages, but they do not mark a beat, so they are ignored.
  */
 public class MetaListener implements MetaEventListener {
   // The Runnable to be run when a MetaMessage is encountered
@@ -22,6 +25,8 @@ public class MetaListener implements MetaEventListener {
 
   @Override
   public void meta(MetaMessage meta) {
-    runnable.run();
+    if (meta.getType() != MidiViewImpl.SET_TEMPO) {
+      runnable.run();
+    }
   }
 }
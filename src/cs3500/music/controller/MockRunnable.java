@@ -154,7 +154,7 @@ public class MockRunnable implements Runnable, IMouseRunnable {
 
     int octave = (x - 20) / 105 + 1;
 
-    return new Pitch(noteName, octave);
+    return Pitch.of(noteName, octave);
   }
 
   /**
@@ -193,7 +193,7 @@ public class MockRunnable implements Runnable, IMouseRunnable {
     }
 
     int octave = whiteKeyNum / 7 - 1;
-    return new Pitch(noteName, octave);
+    return Pitch.of(noteName, octave);
   }
 }
 
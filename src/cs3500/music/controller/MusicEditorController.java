@@ -2,23 +2,24 @@ package cs3500.music.controller;
 
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
 
+import cs3500.music.model.ConcurrentMusicEditorModel;
 import cs3500.music.model.IMusicNote;
 import cs3500.music.model.IPitch;
-import cs3500.music.model.MusicEditorModelImplReadOnly;
+import cs3500.music.model.ModelChange;
 import cs3500.music.model.MusicEditorOperations;
 import cs3500.music.model.MusicNote;
 import cs3500.music.model.NoteName;
 import cs3500.music.model.Pitch;
-import cs3500.music.view.CompositeView;
+import cs3500.music.model.PitchMask;
+import cs3500.music.model.UndoableMusicEditorModel;
 import cs3500.music.view.GuiViewImpl;
 import cs3500.music.view.IGuiView;
 import cs3500.music.view.IKeyListenerView;
 import cs3500.music.view.IMetaListenerView;
+import cs3500.music.view.IModelListenerView;
 import cs3500.music.view.IMouseListenerView;
 import cs3500.music.view.IPlayPauseView;
 import cs3500.music.view.IView;
@@ -32,6 +33,9 @@ import cs3500.music.view.MidiViewImpl;
 public class MusicEditorController implements IController {
   private IView view; // The view of the Music Editor
   private MusicEditorOperations<IMusicNote<IPitch>, IPitch> model; // The Music Editor model
+
+  // The Music Editor model with undo and redo. Every change to the model goes through it.
+  private UndoableMusicEditorModel undoableModel;
   private int currentBeat; // The current beat being played
 
   // The maximum beat of the composition. Used to make updating the current beat faster.
@@ -43,24 +47,32 @@ public class MusicEditorController implements IController {
   // Whether the Music Editor is in practice mode
   private boolean practiceMode;
 
-  // The active pitches at each beat of the piece
-  private HashMap<Integer, Set<Pitch>> pitchMap;
-
-  // The notes played at the current beat in practice mode
-  private Set<Pitch> notesPlayed;
+  // The pitches played by the user at the current beat in practice mode
+  private PitchMask notesPlayed;
 
   /**
    * Constructor for the controller. Takes in a view and a model. Sets the default currentBeat to 0.
+   * Changes made to the model through the controller can be undone with Ctrl+Z and redone with
+   * Ctrl+Y. The model is only changed under a lock, so the views and the Midi sequencer can read it
+   * on other threads while it is being edited.
+   *
+   * <p>The controller wraps the given model, and from then on the model must only be changed
+   * through the controller. Changes made to the given model directly are not recorded for undo
+   * and are not made under the lock, so a view reading it on another thread may see it half
+   * changed.</p>
    *
    * @param view The Music Editor view
-   * @param model The Music Editor model
+   * @param model The Music Editor model, which the controller now owns
    */
-  public MusicEditorController(IView view, MusicEditorOperations model) {
+  public MusicEditorController(IView view,
+                               MusicEditorOperations<IMusicNote<IPitch>, IPitch> model) {
     this.view = view;
-    this.model = model;
+    this.undoableModel = new UndoableMusicEditorModel(new ConcurrentMusicEditorModel(model));
+    this.model = undoableModel;
     currentBeat = 0;
     play = false;
-    maxBeat = Collections.max(this.model.getNotes().keySet()) + 1;
+    notesPlayed = PitchMask.EMPTY;
+    maxBeat = this.model.getNotesView().lastKey() + 1;
   }
 
   @Override
@@ -75,12 +87,15 @@ public class MusicEditorController implements IController {
       configureMetaListener();
     }
 
-    view.display(new MusicEditorModelImplReadOnly(this.model));
+    view.display(this.model.snapshot());
+    if (view instanceof IModelListenerView) {
+      model.addModelListener(this::updateView);
+    }
     if (view instanceof MidiViewImpl) {
       MidiViewImpl midiViewImpl = (MidiViewImpl) view;
       midiViewImpl.play(0);
       try {
-        Thread.sleep(Collections.max(model.getNotes().keySet()) * model.getTempo() / 1000);
+        Thread.sleep(model.getTempoMap().beatToMicros(model.getNotesView().lastKey()) / 1000);
       } catch (Exception e) {
         return;
       }
@@ -111,6 +126,11 @@ public class MusicEditorController implements IController {
       keyTypes.put(' ', new PlayOrPause());
     }
 
+    if (view instanceof IGuiView) {
+      keyTypes.put('\u001A', new Undo()); // Ctrl+Z
+      keyTypes.put('\u0019', new Redo()); // Ctrl+Y
+    }
+
     KeyboardListener keyboardListener = new KeyboardListener();
     keyboardListener.setKeyTypedMap(keyTypes);
     keyboardListener.setKeyPressedMap(keyPresses);
@@ -197,8 +217,9 @@ public class MusicEditorController implements IController {
     public void run() {
       if (currentBeat != maxBeat
               &&
-              pitchMap.get(currentBeat).equals(notesPlayed)) {
+              model.getPitchMaskAtBeat(currentBeat).equals(notesPlayed)) {
         currentBeat++;
+        notesPlayed = PitchMask.EMPTY;
         IGuiView guiView = (IGuiView) view;
         guiView.updateCurrentBeat(currentBeat);
       }
@@ -235,6 +256,59 @@ public class MusicEditorController implements IController {
     }
   }
 
+  /**
+   * Runnable to undo the last change to the model when Ctrl+Z is typed. This can only be done when
+   * the song is paused.
+   */
+  class Undo implements Runnable {
+    @Override
+    public void run() {
+      if (!play && undoableModel.undo()) {
+        clampCurrentBeat();
+      }
+    }
+  }
+
+  /**
+   * Runnable to redo the last undone change to the model when Ctrl+Y is typed. This can only be
+   * done when the song is paused.
+   */
+  class Redo implements Runnable {
+    @Override
+    public void run() {
+      if (!play && undoableModel.redo()) {
+        clampCurrentBeat();
+      }
+    }
+  }
+
+  /**
+   * Moves the current beat back inside the piece if an undo or redo made the piece shorter.
+   */
+  private void clampCurrentBeat() {
+    if (currentBeat > maxBeat) {
+      currentBeat = maxBeat;
+      IGuiView guiView = (IGuiView) view;
+      guiView.updateCurrentBeat(currentBeat);
+    }
+  }
+
+  /**
+   * Updates the view after a change is made to the model. Only the part of the view that the
+   * change affects is redrawn, from a snapshot of the model after the change.
+   *
+   * @param change The change made to the model
+   */
+  private void updateView(ModelChange change) {
+    if (change.isNoteChange() || change.getType() == ModelChange.Type.NEW_PIECE) {
+      maxBeat = model.getNotesView().isEmpty() ? 0 : model.getNotesView().lastKey() + 1;
+    }
+    @SuppressWarnings("unchecked")
+    IModelListenerView<MusicEditorOperations<IMusicNote<IPitch>, IPitch>> listenerView =
+            (IModelListenerView<MusicEditorOperations<IMusicNote<IPitch>, IPitch>>) view;
+    listenerView.modelChanged(model.snapshot(), change);
+  }
+
   class TogglePracticeMode implements Runnable {
     @Override
     public void run() {
@@ -293,14 +367,7 @@ public class MusicEditorController implements IController {
       model.addNote(new MusicNote(pitch, 1, currentBeat, 1, 100));
       currentBeat++;
       IGuiView guiView = (IGuiView) view;
-      guiView.redraw(new MusicEditorModelImplReadOnly(model), currentBeat);
-
-      if (view instanceof CompositeView) {
-        CompositeView compositeView = (CompositeView) view;
-        compositeView.addNote(new MusicNote(pitch, 1, currentBeat, 1, 100));
-      }
-
-      maxBeat = Collections.max(model.getNotes().keySet()) + 1;
+      guiView.updateCurrentBeat(currentBeat);
     }
   }
 
@@ -331,8 +398,8 @@ public class MusicEditorController implements IController {
         pitch = whiteKeyNumToPitch(whiteKeyNum);
       }
 
-      if (pitchMap.get(currentBeat).contains(pitch)) {
-        notesPlayed.add(pitch);
+      if (model.getPitchMaskAtBeat(currentBeat).contains(pitch)) {
+        notesPlayed = notesPlayed.with(pitch);
       }
     }
   }
@@ -387,7 +454,7 @@ public class MusicEditorController implements IController {
 
     int octave = (x - 20) / 105 - 1;
 
-    return new Pitch(noteName, octave);
+    return Pitch.of(noteName, octave);
   }
 
   /**
@@ -426,7 +493,7 @@ public class MusicEditorController implements IController {
     }
 
     int octave = whiteKeyNum / 7 - 1;
-    return new Pitch(noteName, octave);
+    return Pitch.of(noteName, octave);
   }
 
 }
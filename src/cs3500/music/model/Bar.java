@@ -1,6 +1,7 @@
 package cs3500.music.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -11,24 +12,44 @@ import cs3500.music.provider.Note;
 
 /**
  * Created by DavidThornton on 4/15/17.
+ *
+ * <p>A bar of provider notes that is indexed for the lookups the provider views make while
+ * drawing. Each beat keeps its notes in the order they were added, together with a table from
+ * pitch and octave to the notes of that pitch, so getNote, hasNote and removeNote do not scan the
+ * beat. The notes of the whole bar are also kept by pitch in a sorted map, so topNote and
+ * bottomNote read the highest and lowest entries instead of scanning every note.</p>
  */
 public class Bar implements IBar {
 
-  Map<Integer, List<Note>> notes;
-  int beats;
+  private final Map<Integer, BarBeat> notes; // The notes at each beat
+  private final TreeMap<Integer, List<Note>> byPitch; // The notes of the bar at each pitch
+  private final int beats; // The number of beats in the bar
 
+  /**
+   * Constructor for Bar. Creates an empty bar of 4 beats.
+   */
   public Bar() {
-    this.notes = new HashMap<Integer, List<Note>>();
+    this.notes = new HashMap<Integer, BarBeat>();
+    this.byPitch = new TreeMap<Integer, List<Note>>();
     this.beats = 4;
   }
 
   @Override
   public void addNote(Note newNote, int beatIndex) {
-    if (!notes.containsKey(beatIndex)) {
-      notes.put(beatIndex, new ArrayList<Note>());
+    BarBeat beat = notes.get(beatIndex);
+    if (beat == null) {
+      beat = new BarBeat();
+      notes.put(beatIndex, beat);
     }
 
-    notes.get(beatIndex).add(newNote);
+    int key = pitchKey(newNote.getPitch(), newNote.getOctave());
+    beat.add(key, newNote);
+    List<Note> atPitch = byPitch.get(key);
+    if (atPitch == null) {
+      atPitch = new ArrayList<Note>();
+      byPitch.put(key, atPitch);
+    }
+    atPitch.add(newNote);
   }
 
   @Override
@@ -38,17 +59,19 @@ public class Bar implements IBar {
 
   @Override
   public Note removeNote(int beatIndex, cs3500.music.provider.Pitch p, int oct) {
-    List<Note> beat = notes.get(beatIndex);
-
-    for (int i = 0; i < beat.size(); i++) {
-      Note n = beat.get(i);
-      if (n.getPitch() == p && n.getOctave() == oct) {
-        notes.get(beatIndex).remove(i);
-        return n;
-      }
+    BarBeat beat = notes.get(beatIndex);
+    int key = pitchKey(p, oct);
+    Note n = beat == null ? null : beat.remove(key);
+    if (n == null) {
+      throw new IllegalArgumentException("Note does not exist");
     }
 
-    throw new IllegalArgumentException("Note does not exist");
+    List<Note> atPitch = byPitch.get(key);
+    removeSame(atPitch, n);
+    if (atPitch.isEmpty()) {
+      byPitch.remove(key);
+    }
+    return n;
   }
 
   @Override
@@ -63,78 +86,31 @@ public class Bar implements IBar {
 
   @Override
   public Note getNote(int beatIndex, cs3500.music.provider.Pitch p, int octave) {
-    List<Note> notesAtBeat = notes.get(beatIndex);
-
-    for (Note n : notesAtBeat) {
-      if (n.getOctave() == octave && n.getPitch() == p) {
-        return n;
-      }
-    }
-
-    return null;
+    BarBeat beat = notes.get(beatIndex);
+    return beat == null ? null : beat.get(pitchKey(p, octave));
   }
 
   @Override
   public boolean hasNote(int beatIndex, cs3500.music.provider.Pitch p, int octave) {
-    List<Note> notesAtBeat = notes.get(beatIndex);
-
-    for (Note n : notesAtBeat) {
-      if (n.getPitch() == p && n.getOctave() == octave) {
-        return true;
-      }
-    }
-
-    return false;
+    return getNote(beatIndex, p, octave) != null;
   }
 
   @Override
   public Note topNote() {
-    if (notes.size() == 0) {
+    if (byPitch.isEmpty()) {
       return null;
     }
 
-    TreeMap<Integer, List<Note>> sortedNotes = new TreeMap<Integer, List<Note>>(notes);
-    Note result = notes.get(sortedNotes.firstKey()).get(0);
-
-    for (Integer i : notes.keySet()) {
-      List<Note> notesAtBeat = notes.get(i);
-      for (Note n : notesAtBeat) {
-        if (n.getOctave() > result.getOctave()
-                ||
-                (n.getOctave() == result.getOctave()
-                &&
-                n.getPitch().ordinal() > result.getPitch().ordinal())) {
-          result = n;
-        }
-      }
-    }
-
-    return result;
+    return byPitch.lastEntry().getValue().get(0);
   }
 
   @Override
   public Note bottomNote() {
-    if (notes.size() == 0) {
+    if (byPitch.isEmpty()) {
       return null;
     }
 
-    TreeMap<Integer, List<Note>> sortedNotes = new TreeMap<Integer, List<Note>>(notes);
-    Note result = notes.get(sortedNotes.firstKey()).get(0);
-
-    for (Integer i : notes.keySet()) {
-      List<Note> notesAtBeat = notes.get(i);
-      for (Note n : notesAtBeat) {
-        if (n.getOctave() < result.getOctave()
-                ||
-                (n.getOctave() == result.getOctave()
-                        &&
-                        n.getPitch().ordinal() < result.getPitch().ordinal())) {
-          result = n;
-        }
-      }
-    }
-
-    return result;
+    return byPitch.firstEntry().getValue().get(0);
   }
 
   @Override
@@ -142,12 +118,102 @@ public class Bar implements IBar {
     return beats;
   }
 
+  /**
+   * Gets the notes at the given beat in the order they were added. The list is an unmodifiable
+   * view; notes are added and removed through the bar so that its tables stay up to date.
+   *
+   * @param beatIndex The beat to get the notes of
+   * @return The notes at the beat
+   */
   @Override
   public List<Note> getBeat(int beatIndex) {
-    if (!notes.containsKey(beatIndex)) {
+    BarBeat beat = notes.get(beatIndex);
+    if (beat == null) {
       return new ArrayList<Note>();
     }
 
-    return notes.get(beatIndex);
+    return Collections.unmodifiableList(beat.notes);
+  }
+
+  /**
+   * Gets the key of the given pitch and octave in the pitch tables. Keys are ordered from the
+   * lowest pitch to the highest.
+   *
+   * @param p The pitch
+   * @param octave The octave
+   * @return The key
+   */
+  private static int pitchKey(cs3500.music.provider.Pitch p, int octave) {
+    return octave * 12 + p.ordinal();
+  }
+
+  /**
+   * Removes the first occurrence of the given note from the given list, comparing by identity.
+   *
+   * @param list The list to remove the note from
+   * @param n The note to remove
+   */
+  private static void removeSame(List<Note> list, Note n) {
+    for (int i = 0; i < list.size(); i++) {
+      if (list.get(i) == n) {
+        list.remove(i);
+        return;
+      }
+    }
+  }
+
+  /**
+   * The notes at one beat of a bar, in the order they were added and by pitch.
+   */
+  private static final class BarBeat {
+    private final List<Note> notes = new ArrayList<Note>(); // The notes in the order added
+    private final Map<Integer, List<Note>> byPitch = new HashMap<Integer, List<Note>>();
+
+    /**
+     * Adds a note to this beat.
+     *
+     * @param key The pitch key of the note
+     * @param n The note to add
+     */
+    private void add(int key, Note n) {
+      notes.add(n);
+      List<Note> atPitch = byPitch.get(key);
+      if (atPitch == null) {
+        atPitch = new ArrayList<Note>(1);
+        byPitch.put(key, atPitch);
+      }
+      atPitch.add(n);
+    }
+
+    /**
+     * Gets the first note added to this beat with the given pitch key.
+     *
+     * @param key The pitch key
+     * @return The note, or null if there is none
+     */
+    private Note get(int key) {
+      List<Note> atPitch = byPitch.get(key);
+      return atPitch == null ? null : atPitch.get(0);
+    }
+
+    /**
+     * Removes the first note added to this beat with the given pitch key.
+     *
+     * @param key The pitch key
+     * @return The removed note, or null if there is none
+     */
+    private Note remove(int key) {
+      List<Note> atPitch = byPitch.get(key);
+      if (atPitch == null) {
+        return null;
+      }
+
+      Note n = atPitch.remove(0);
+      if (atPitch.isEmpty()) {
+        byPitch.remove(key);
+      }
+      removeSame(notes, n);
+      return n;
+    }
   }
 }
@@ -0,0 +1,168 @@
+package cs3500.music.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * An unmodifiable, live view of the notes in an interval tree as a map from each beat to the set of
+ * notes played at that beat. Nothing is copied: every call reads the tree, so the view always
+ * shows the current notes of the editor that owns the tree. Iterators remember the version of the
+ * editor when they are created and throw a ConcurrentModificationException if the editor is
+ * changed while they are in use. The view only holds the beats in [fromBeat, toBeat).
+ */
+final class BeatMapView extends AbstractMap<Integer, Set<IMusicNote<IPitch>>>
+        implements SortedMap<Integer, Set<IMusicNote<IPitch>>> {
+  private final MusicEditorOperations<?, ?> model; // The editor that owns the tree
+  private final IntervalNoteTree tree; // The notes to view
+  private final int fromBeat; // The first beat in the view
+  private final int toBeat; // The beat after the last beat in the view
+
+  /**
+   * Constructor for BeatMapView. Views every beat of the given tree.
+   *
+   * @param model The editor that owns the tree
+   * @param tree The notes to view
+   */
+  BeatMapView(MusicEditorOperations<?, ?> model, IntervalNoteTree tree) {
+    this(model, tree, 0, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Constructor for BeatMapView. Views the beats in [fromBeat, toBeat) of the given tree.
+   *
+   * @param model The editor that owns the tree
+   * @param tree The notes to view
+   * @param fromBeat The first beat in the view
+   * @param toBeat The beat after the last beat in the view
+   */
+  BeatMapView(MusicEditorOperations<?, ?> model, IntervalNoteTree tree, int fromBeat, int toBeat) {
+    this.model = model;
+    this.tree = tree;
+    this.fromBeat = Math.max(0, fromBeat);
+    this.toBeat = toBeat;
+  }
+
+  @Override
+  public Comparator<? super Integer> comparator() {
+    return null;
+  }
+
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> subMap(Integer fromKey, Integer toKey) {
+    if (fromKey > toKey) {
+      throw new IllegalArgumentException("fromKey > toKey");
+    }
+    return new BeatMapView(model, tree, Math.max(fromBeat, fromKey), Math.min(toBeat, toKey));
+  }
+
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> headMap(Integer toKey) {
+    return new BeatMapView(model, tree, fromBeat, Math.min(toBeat, toKey));
+  }
+
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> tailMap(Integer fromKey) {
+    return new BeatMapView(model, tree, Math.max(fromBeat, fromKey), toBeat);
+  }
+
+  @Override
+  public Integer firstKey() {
+    int beat = tree.nextSoundingBeat(fromBeat);
+    if (beat < 0 || beat >= toBeat) {
+      throw new NoSuchElementException();
+    }
+    return beat;
+  }
+
+  @Override
+  public Integer lastKey() {
+    int beat = tree.lastSoundingBeatBefore(toBeat);
+    if (beat < fromBeat) {
+      throw new NoSuchElementException();
+    }
+    return beat;
+  }
+
+  @Override
+  public int size() {
+    return fromBeat < toBeat ? tree.countSoundingBeats(fromBeat, toBeat) : 0;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    int beat = tree.nextSoundingBeat(fromBeat);
+    return beat < 0 || beat >= toBeat;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    if (!(key instanceof Integer)) {
+      return false;
+    }
+    int beat = (Integer) key;
+    return beat >= fromBeat && beat < toBeat && tree.isSounding(beat);
+  }
+
+  @Override
+  public Set<IMusicNote<IPitch>> get(Object key) {
+    if (!containsKey(key)) {
+      return null;
+    }
+    return new BeatNoteSetView(model, tree, (Integer) key);
+  }
+
+  @Override
+  public Set<Map.Entry<Integer, Set<IMusicNote<IPitch>>>> entrySet() {
+    return new AbstractSet<Map.Entry<Integer, Set<IMusicNote<IPitch>>>>() {
+      @Override
+      public Iterator<Map.Entry<Integer, Set<IMusicNote<IPitch>>>> iterator() {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size() {
+        return BeatMapView.this.size();
+      }
+    };
+  }
+
+  /**
+   * Iterates over the beats with notes in order, skipping empty beats with the interval tree.
+   */
+  private final class EntryIterator implements Iterator<Map.Entry<Integer,
+          Set<IMusicNote<IPitch>>>> {
+    private final int expectedVersion = model.getVersion();
+    private int next = nextBeat(fromBeat);
+
+    private int nextBeat(int beat) {
+      int result = beat < toBeat ? tree.nextSoundingBeat(beat) : -1;
+      return result < toBeat ? result : -1;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next >= 0;
+    }
+
+    @Override
+    public Map.Entry<Integer, Set<IMusicNote<IPitch>>> next() {
+      if (model.getVersion() != expectedVersion) {
+        throw new ConcurrentModificationException();
+      }
+      if (next < 0) {
+        throw new NoSuchElementException();
+      }
+      int beat = next;
+      next = nextBeat(beat + 1);
+      return new SimpleImmutableEntry<Integer, Set<IMusicNote<IPitch>>>(beat,
+              new BeatNoteSetView(model, tree, beat));
+    }
+  }
+}
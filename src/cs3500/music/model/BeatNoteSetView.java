@@ -0,0 +1,118 @@
+package cs3500.music.model;
+
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+
+/**
+ * An unmodifiable, live view of the set of notes in an interval tree that are played at one beat,
+ * or at some beat in a range of beats, or that start in a range of beats. The notes are read from
+ * the tree every time the set is used, so nothing is copied. Iterators throw a
+ * ConcurrentModificationException if the editor that owns the tree is changed while they are in
+ * use.
+ */
+final class BeatNoteSetView extends AbstractSet<IMusicNote<IPitch>> {
+  private final MusicEditorOperations<?, ?> model; // The editor that owns the tree
+  private final IntervalNoteTree tree; // The notes to view
+  private final int fromBeat; // The first beat to view the notes of
+  private final int toBeat; // The beat after the last beat to view the notes of
+  private final boolean starting; // Whether only notes that start in the range are viewed
+
+  /**
+   * Constructor for BeatNoteSetView. Views the notes played at one beat.
+   *
+   * @param model The editor that owns the tree
+   * @param tree The notes to view
+   * @param beat The beat to view the notes of
+   */
+  BeatNoteSetView(MusicEditorOperations<?, ?> model, IntervalNoteTree tree, int beat) {
+    this(model, tree, beat, beat + 1);
+  }
+
+  /**
+   * Constructor for BeatNoteSetView. Views the notes played at some beat in [fromBeat, toBeat).
+   *
+   * @param model The editor that owns the tree
+   * @param tree The notes to view
+   * @param fromBeat The first beat to view the notes of
+   * @param toBeat The beat after the last beat to view the notes of
+   */
+  BeatNoteSetView(MusicEditorOperations<?, ?> model, IntervalNoteTree tree, int fromBeat,
+                  int toBeat) {
+    this(model, tree, fromBeat, toBeat, false);
+  }
+
+  /**
+   * Constructor for BeatNoteSetView. Views the notes played at some beat in [fromBeat, toBeat), or
+   * only the notes that start in it.
+   *
+   * @param model The editor that owns the tree
+   * @param tree The notes to view
+   * @param fromBeat The first beat to view the notes of
+   * @param toBeat The beat after the last beat to view the notes of
+   * @param starting Whether only the notes that start in the range are viewed
+   */
+  BeatNoteSetView(MusicEditorOperations<?, ?> model, IntervalNoteTree tree, int fromBeat,
+                  int toBeat, boolean starting) {
+    this.model = model;
+    this.tree = tree;
+    this.fromBeat = fromBeat;
+    this.toBeat = toBeat;
+    this.starting = starting;
+  }
+
+  @Override
+  public Iterator<IMusicNote<IPitch>> iterator() {
+    Iterator<IMusicNote<IPitch>> notes = starting ? tree.startingIterator(fromBeat, toBeat)
+            : tree.soundingIterator(fromBeat, toBeat);
+    int expectedVersion = model.getVersion();
+
+    return new Iterator<IMusicNote<IPitch>>() {
+      @Override
+      public boolean hasNext() {
+        return notes.hasNext();
+      }
+
+      @Override
+      public IMusicNote<IPitch> next() {
+        if (model.getVersion() != expectedVersion) {
+          throw new ConcurrentModificationException();
+        }
+        return notes.next();
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return starting ? tree.countStarting(fromBeat, toBeat) : tree.countSounding(fromBeat, toBeat);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    if (fromBeat >= toBeat) {
+      return true;
+    }
+    if (starting) {
+      return !tree.startingIterator(fromBeat, toBeat).hasNext();
+    }
+    int beat = tree.nextSoundingBeat(fromBeat);
+    return beat < 0 || beat >= toBeat;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    if (!(o instanceof IMusicNote)) {
+      return false;
+    }
+
+    IMusicNote<?> note = (IMusicNote<?>) o;
+    int end = starting ? note.getStartBeat() + 1 : note.getStartBeat() + note.getDuration();
+    if (!(note.getPitch() instanceof IPitch) || note.getStartBeat() < 0 || note.getDuration() < 0
+            || note.getStartBeat() >= toBeat || end <= fromBeat) {
+      return false;
+    }
+    return tree.contains(new MusicNote((IPitch) note.getPitch(), note.getDuration(),
+            note.getStartBeat(), note.getInstrument(), note.getVolume()));
+  }
+}
@@ -0,0 +1,358 @@
+package cs3500.music.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A Music Editor that can be used from several threads at once, such as the Swing event thread
+ * editing the piece while the Midi sequencer thread plays it. Changes are passed on to a wrapped
+ * Music Editor one at a time under the write lock of a StampedLock. Reads never look at the
+ * wrapped editor while it is being changed: they are answered from an immutable snapshot of it,
+ * which is taken once after each change and then shared by every reader. Finding the current
+ * snapshot is an optimistic read of the lock, so readers do not block each other or take a lock
+ * at all unless the editor was just changed. The maps and sets returned are views of a snapshot,
+ * so they never throw a ConcurrentModificationException; they show the piece as it was when they
+ * were returned. ModelListeners are told about a change after the write lock is released, so a
+ * listener can read this editor without blocking.
+ */
+public class ConcurrentMusicEditorModel
+        implements MusicEditorOperations<IMusicNote<IPitch>, IPitch> {
+  private final MusicEditorOperations<IMusicNote<IPitch>, IPitch> model; // The wrapped editor
+  private final StampedLock lock; // Serializes changes to the wrapped editor
+
+  /**
+   * A snapshot of the wrapped editor as it is now, or null if the editor was changed since the
+   * last snapshot was taken.
+   */
+  private volatile MusicEditorOperations<IMusicNote<IPitch>, IPitch> current;
+
+  private final ModelChangeSupport listeners; // The listeners of this editor
+  private final List<ModelChange> pending; // Changes made under the write lock, not yet given out
+  private boolean listening; // Whether this editor listens to the wrapped editor
+
+  /**
+   * Constructor for ConcurrentMusicEditorModel. Wraps a new MusicEditorModelImpl.
+   */
+  public ConcurrentMusicEditorModel() {
+    this(new MusicEditorModelImpl());
+  }
+
+  /**
+   * Constructor for ConcurrentMusicEditorModel. The given editor must only be changed through
+   * this editor from now on.
+   *
+   * @param model The editor to wrap
+   * @throws IllegalArgumentException If the model is null
+   */
+  public ConcurrentMusicEditorModel(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model)
+          throws IllegalArgumentException {
+    if (model == null) {
+      throw new IllegalArgumentException("Model cannot be null");
+    }
+    this.model = model;
+    this.lock = new StampedLock();
+    this.current = null;
+    this.listeners = new ModelChangeSupport();
+    this.pending = new ArrayList<ModelChange>();
+    this.listening = false;
+  }
+
+  @Override
+  public void setTempo(int tempo) throws IllegalArgumentException {
+    long stamp = lock.writeLock();
+    try {
+      model.setTempo(tempo);
+    } finally {
+      unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public void setTempoMap(TempoMap tempoMap) throws IllegalArgumentException {
+    long stamp = lock.writeLock();
+    try {
+      model.setTempoMap(tempoMap);
+    } finally {
+      unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public void setBeatsPerMeasure(int beatsPerMeasure) throws IllegalArgumentException {
+    long stamp = lock.writeLock();
+    try {
+      model.setBeatsPerMeasure(beatsPerMeasure);
+    } finally {
+      unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public void newPiece() {
+    long stamp = lock.writeLock();
+    try {
+      model.newPiece();
+    } finally {
+      unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public void addNote(IMusicNote<IPitch> note) throws IllegalArgumentException {
+    long stamp = lock.writeLock();
+    try {
+      model.addNote(note);
+    } finally {
+      unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public void addAll(Collection<? extends IMusicNote<IPitch>> notes)
+          throws IllegalArgumentException {
+    long stamp = lock.writeLock();
+    try {
+      model.addAll(notes);
+    } finally {
+      unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public void removeNote(IMusicNote<IPitch> note) throws IllegalArgumentException {
+    long stamp = lock.writeLock();
+    try {
+      model.removeNote(note);
+    } finally {
+      unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public void removeAll(Collection<? extends IMusicNote<IPitch>> notes)
+          throws IllegalArgumentException {
+    long stamp = lock.writeLock();
+    try {
+      model.removeAll(notes);
+    } finally {
+      unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public void replaceNote(IMusicNote<IPitch> oldNote, IMusicNote<IPitch> newNote)
+          throws IllegalArgumentException {
+    long stamp = lock.writeLock();
+    try {
+      model.replaceNote(oldNote, newNote);
+    } finally {
+      unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Appends the given piece onto the end of this piece. The given piece is read from a snapshot
+   * taken before the write lock is held, so a piece can be appended to itself.
+   *
+   * @param toAppend The piece to be appended at the end of this piece
+   * @throws IllegalArgumentException If the editor to be appended at the end is null
+   */
+  @Override
+  public void append(MusicEditorOperations<?, ?> toAppend) throws IllegalArgumentException {
+    if (toAppend == null) {
+      throw new IllegalArgumentException("Editor to append cannot be null");
+    }
+
+    MusicEditorOperations<?, ?> source = toAppend.snapshot();
+    long stamp = lock.writeLock();
+    try {
+      model.append(source);
+    } finally {
+      unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Combines the given piece on top of this piece. The given piece is read from a snapshot taken
+   * before the write lock is held, so a piece can be combined with itself.
+   *
+   * @param toCombine The piece to be combined to this piece
+   * @throws IllegalArgumentException If the piece to be combined is null
+   */
+  @Override
+  public void combine(MusicEditorOperations<?, ?> toCombine) throws IllegalArgumentException {
+    if (toCombine == null) {
+      throw new IllegalArgumentException("Editor to combine cannot be null");
+    }
+
+    MusicEditorOperations<?, ?> source = toCombine.snapshot();
+    long stamp = lock.writeLock();
+    try {
+      model.combine(source);
+    } finally {
+      unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Adds a listener that is told about every change to this editor. The first listener added
+   * makes this editor listen to the wrapped editor; until then the wrapped editor creates no
+   * changes at all.
+   *
+   * @param listener The listener to add
+   * @throws IllegalArgumentException If the listener is null
+   */
+  @Override
+  public void addModelListener(ModelListener listener) throws IllegalArgumentException {
+    listeners.add(listener);
+    long stamp = lock.writeLock();
+    try {
+      if (!listening) {
+        model.addModelListener(pending::add);
+        listening = true;
+      }
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public void removeModelListener(ModelListener listener) {
+    listeners.remove(listener);
+  }
+
+  @Override
+  public int getTempo() {
+    return snapshot().getTempo();
+  }
+
+  @Override
+  public TempoMap getTempoMap() {
+    return snapshot().getTempoMap();
+  }
+
+  @Override
+  public int getBeatsPerMeasure() {
+    return snapshot().getBeatsPerMeasure();
+  }
+
+  @Override
+  public Map<Integer, Set<IMusicNote<IPitch>>> getNotes() {
+    return snapshot().getNotes();
+  }
+
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> getNotesView() {
+    return snapshot().getNotesView();
+  }
+
+  @Override
+  public Set<IMusicNote<IPitch>> getNotesAtBeat(int beat) throws IllegalArgumentException {
+    return snapshot().getNotesAtBeat(beat);
+  }
+
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> getNotesInRange(int startBeat, int endBeat)
+          throws IllegalArgumentException {
+    return snapshot().getNotesInRange(startBeat, endBeat);
+  }
+
+  @Override
+  public Set<IMusicNote<IPitch>> getNotesSoundingInRange(int startBeat, int endBeat)
+          throws IllegalArgumentException {
+    return snapshot().getNotesSoundingInRange(startBeat, endBeat);
+  }
+
+  @Override
+  public Set<IMusicNote<IPitch>> getNotesStartingInRange(int startBeat, int endBeat)
+          throws IllegalArgumentException {
+    return snapshot().getNotesStartingInRange(startBeat, endBeat);
+  }
+
+  @Override
+  public PitchMask getPitchMaskAtBeat(int beat) throws IllegalArgumentException {
+    return snapshot().getPitchMaskAtBeat(beat);
+  }
+
+  @Override
+  public void forEachNote(NoteVisitor visitor) {
+    snapshot().forEachNote(visitor);
+  }
+
+  @Override
+  public void forEachNoteSoundingInRange(int startBeat, int endBeat, NoteVisitor visitor)
+          throws IllegalArgumentException {
+    snapshot().forEachNoteSoundingInRange(startBeat, endBeat, visitor);
+  }
+
+  @Override
+  public int getVersion() {
+    return snapshot().getVersion();
+  }
+
+  /**
+   * Gets an immutable snapshot of this editor. If the editor has not been changed since the last
+   * snapshot was taken, that snapshot is given out again after an optimistic read of the lock
+   * confirms that no change has started since. Otherwise a new snapshot is taken under the read
+   * lock, which only waits for a change that is in progress.
+   *
+   * @return The snapshot
+   */
+  @Override
+  public MusicEditorOperations<IMusicNote<IPitch>, IPitch> snapshot() {
+    long stamp = lock.tryOptimisticRead();
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> result = current;
+    if (result != null && lock.validate(stamp)) {
+      return result;
+    }
+
+    stamp = lock.readLock();
+    try {
+      result = current;
+      if (result == null) {
+        result = model.snapshot();
+        current = result;
+      }
+      return result;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  @Override
+  public IPitch getLowPitch() {
+    return snapshot().getLowPitch();
+  }
+
+  @Override
+  public IPitch getHighPitch() {
+    return snapshot().getHighPitch();
+  }
+
+  /**
+   * Releases the write lock after a change. The current snapshot is dropped and the changes the
+   * wrapped editor made are given to the listeners once the lock is released.
+   *
+   * @param stamp The stamp of the write lock
+   */
+  private void unlockWrite(long stamp) {
+    current = null;
+    List<ModelChange> changes = null;
+    if (!pending.isEmpty()) {
+      changes = new ArrayList<ModelChange>(pending);
+      pending.clear();
+    }
+    lock.unlockWrite(stamp);
+
+    if (changes != null) {
+      for (ModelChange change : changes) {
+        listeners.fire(change);
+      }
+    }
+  }
+}
@@ -64,4 +64,16 @@ public interface IPitch {
     NoteName name = NoteName.values()[noteName];
     return new String(name.toString() + octave);
   }
+
+  /**
+   * Converts a Pitch into its Midi tone.
+   * @param pitch  The pitch to be converted.
+   * @return tone The equivalent midi tone.
+   */
+  static int pitchToMidi(IPitch pitch) {
+    if (pitch instanceof Pitch) {
+      return ((Pitch) pitch).getMidi();
+    }
+    return (pitch.getOctave() + 1) * 12 + pitch.getNoteName().ordinal();
+  }
 }
@@ -0,0 +1,790 @@
+package cs3500.music.model;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * An interval tree of music notes. Every note is stored exactly once no matter how many beats it
+ * is played for. The notes are ordered by start beat (then pitch, duration, instrument and volume)
+ * and every node also remembers the highest end beat in its subtree, so the notes that are playing
+ * in a range of beats can be found without looking at notes that end before that range. The tree
+ * is kept balanced as an AVL tree, so adding and removing a note is O(log n) regardless of the
+ * duration of the note.
+ *
+ * <p>The nodes of the tree are immutable. Adding or removing a note copies only the O(log n)
+ * nodes on the path to it and shares every other subtree with the previous version, so a snapshot
+ * of the tree is taken in O(1) by keeping its root, and it never sees later changes.</p>
+ */
+final class IntervalNoteTree {
+
+  /**
+   * The number of notes below which a subtree is built on one thread. Larger trees are built on
+   * the common ForkJoinPool.
+   */
+  static final int PARALLEL_THRESHOLD = 1 << 13;
+
+  /**
+   * The root of the tree.
+   *
+   * <p>Class invariant: The root is null if and only if the tree is empty.</p>
+   */
+  private Node root;
+
+  /**
+   * The number of notes in the tree.
+   */
+  private int size;
+
+  /**
+   * Constructor for IntervalNoteTree. Creates an empty tree.
+   */
+  IntervalNoteTree() {
+    this(null, 0);
+  }
+
+  /**
+   * Constructor for IntervalNoteTree. Creates a tree with the given root.
+   *
+   * @param root The root of the tree
+   * @param size The number of notes in the tree
+   */
+  private IntervalNoteTree(Node root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  /**
+   * Gets a snapshot of this tree. The snapshot shares every node with this tree, so it is taken in
+   * O(1), and it keeps the notes this tree has now no matter how this tree is changed later.
+   *
+   * @return The snapshot
+   */
+  IntervalNoteTree snapshot() {
+    return new IntervalNoteTree(root, size);
+  }
+
+  /**
+   * Gets the number of notes in this tree.
+   *
+   * @return The number of notes
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Removes every note from this tree.
+   */
+  void clear() {
+    root = null;
+    size = 0;
+  }
+
+  /**
+   * Gets the beat after the last beat that any note in the tree is played at.
+   *
+   * @return The end beat of the tree, or 0 if the tree is empty
+   */
+  int getEndBeat() {
+    return root == null ? 0 : root.maxEnd;
+  }
+
+  /**
+   * Adds the given note to the tree. Notes with a duration of 0 are never played and are not
+   * added.
+   *
+   * @param note The note to add
+   * @return True if the note was added, false if it was already in the tree or was not played
+   */
+  boolean add(IMusicNote<IPitch> note) {
+    if (note.getDuration() < 1 || contains(note)) {
+      return false;
+    }
+    root = insert(root, note);
+    size++;
+    return true;
+  }
+
+  /**
+   * Adds all the given notes to the tree, skipping duplicates and notes with a duration of 0. The
+   * new notes are sorted once and merged with the notes already in the tree, and the tree is then
+   * rebuilt perfectly balanced from the merged notes, which takes linear time after the sort
+   * instead of one search and rebalance per note. When only a few notes are added to a large tree
+   * they are inserted one at a time instead, since that is cheaper than a rebuild. Either way the
+   * nodes of earlier snapshots are not changed. Large batches are sorted with a parallel sort, and
+   * a large rebuilt tree has its subtrees built in parallel on the common ForkJoinPool.
+   *
+   * @param toAdd The notes to add
+   * @param added The action to give each note that was added to
+   */
+  void addAll(List<? extends IMusicNote<IPitch>> toAdd, Consumer<IMusicNote<IPitch>> added) {
+    IMusicNote<IPitch>[] incoming = toAdd.toArray(newArray(toAdd.size()));
+    Arrays.parallelSort(incoming, IntervalNoteTree::compare);
+
+    if (incoming.length < size / 16) {
+      for (IMusicNote<IPitch> note : incoming) {
+        if (add(note)) {
+          added.accept(note);
+        }
+      }
+      return;
+    }
+
+    IMusicNote<IPitch>[] existing = newArray(size);
+    collect(root, existing, 0);
+    IMusicNote<IPitch>[] merged = newArray(size + incoming.length);
+    int count = 0;
+    int i = 0;
+    for (IMusicNote<IPitch> note : incoming) {
+      if (note.getDuration() < 1) {
+        continue;
+      }
+      while (i < existing.length && compare(existing[i], note) < 0) {
+        merged[count++] = existing[i++];
+      }
+      if ((i < existing.length && compare(existing[i], note) == 0)
+              || (count > 0 && compare(merged[count - 1], note) == 0)) {
+        continue;
+      }
+      merged[count++] = note;
+      added.accept(note);
+    }
+    while (i < existing.length) {
+      merged[count++] = existing[i++];
+    }
+
+    root = buildAll(merged, count);
+    size = count;
+  }
+
+  /**
+   * Removes all the given notes from the tree, or none of them if any is not in the tree. Notes
+   * given more than once are removed once. Like addAll, the notes are sorted once and the notes
+   * that are kept are rebuilt into a perfectly balanced tree in linear time, unless only a few
+   * notes are removed from a large tree, in which case they are deleted one at a time. Either way
+   * the nodes of earlier snapshots are not changed.
+   *
+   * @param toRemove The notes to remove
+   * @param removed The action to give each note that was removed to
+   * @return True if the notes were removed, false if any of them was not in the tree
+   */
+  boolean removeAll(List<? extends IMusicNote<IPitch>> toRemove,
+                    Consumer<IMusicNote<IPitch>> removed) {
+    IMusicNote<IPitch>[] outgoing = toRemove.toArray(newArray(toRemove.size()));
+    Arrays.parallelSort(outgoing, IntervalNoteTree::compare);
+    int unique = 0;
+    for (IMusicNote<IPitch> note : outgoing) {
+      if (unique == 0 || compare(outgoing[unique - 1], note) != 0) {
+        outgoing[unique++] = note;
+      }
+    }
+    if (unique > size) {
+      return false;
+    }
+
+    if (unique < size / 16) {
+      for (int i = 0; i < unique; i++) {
+        if (!contains(outgoing[i])) {
+          return false;
+        }
+      }
+      for (int i = 0; i < unique; i++) {
+        root = delete(root, outgoing[i]);
+        removed.accept(outgoing[i]);
+      }
+      size -= unique;
+      return true;
+    }
+
+    IMusicNote<IPitch>[] existing = newArray(size);
+    collect(root, existing, 0);
+    IMusicNote<IPitch>[] kept = newArray(size - unique);
+    int count = 0;
+    int j = 0;
+    for (IMusicNote<IPitch> note : existing) {
+      int cmp = j < unique ? compare(note, outgoing[j]) : -1;
+      if (cmp == 0) {
+        j++;
+      }
+      else if (cmp > 0 || count == kept.length) {
+        return false;
+      }
+      else {
+        kept[count++] = note;
+      }
+    }
+    if (j < unique) {
+      return false;
+    }
+
+    for (int i = 0; i < unique; i++) {
+      removed.accept(outgoing[i]);
+    }
+    root = buildAll(kept, count);
+    size = count;
+    return true;
+  }
+
+  /**
+   * Removes the given note from the tree.
+   *
+   * @param note The note to remove
+   * @return True if the note was removed, false if it was not in the tree
+   */
+  boolean remove(IMusicNote<IPitch> note) {
+    if (!contains(note)) {
+      return false;
+    }
+    root = delete(root, note);
+    size--;
+    return true;
+  }
+
+  /**
+   * Determines if a note equal to the given note is in the tree.
+   *
+   * @param note The note to look for
+   * @return If the note is in the tree
+   */
+  boolean contains(IMusicNote<IPitch> note) {
+    Node n = root;
+    while (n != null) {
+      int cmp = compare(note, n.note);
+      if (cmp == 0) {
+        return true;
+      }
+      n = cmp < 0 ? n.left : n.right;
+    }
+    return false;
+  }
+
+  /**
+   * Determines if any note is being played at the given beat.
+   *
+   * @param beat The beat to check
+   * @return If a note is played at the beat
+   */
+  boolean isSounding(int beat) {
+    return isSounding(root, beat);
+  }
+
+  /**
+   * Gets the first beat at or after the given beat that a note is played at.
+   *
+   * @param beat The beat to start looking from
+   * @return The first beat with a note, or -1 if no note is played at or after the beat
+   */
+  int nextSoundingBeat(int beat) {
+    if (isSounding(beat)) {
+      return beat;
+    }
+
+    int result = -1;
+    Node n = root;
+    while (n != null) {
+      if (n.start > beat) {
+        result = n.start;
+        n = n.left;
+      }
+      else {
+        n = n.right;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Gets the last beat before the given beat that a note is played at.
+   *
+   * @param beat The beat to look before
+   * @return The last beat with a note that is less than the given beat, or -1 if there is none
+   */
+  int lastSoundingBeatBefore(int beat) {
+    int end = 0;
+    Node n = root;
+    while (n != null) {
+      if (n.start < beat) {
+        end = Math.max(end, Math.min(n.end, beat));
+        if (n.left != null) {
+          end = Math.max(end, Math.min(n.left.maxEnd, beat));
+        }
+        n = n.right;
+      }
+      else {
+        n = n.left;
+      }
+    }
+    return end - 1;
+  }
+
+  /**
+   * Counts the beats in [fromBeat, toBeat) that at least one note is played at.
+   *
+   * @param fromBeat The first beat of the range
+   * @param toBeat The beat after the last beat of the range
+   * @return The number of beats with notes
+   */
+  int countSoundingBeats(int fromBeat, int toBeat) {
+    int count = 0;
+    int covered = fromBeat;
+    Iterator<IMusicNote<IPitch>> it = soundingIterator(fromBeat, toBeat);
+    while (it.hasNext()) {
+      IMusicNote<IPitch> note = it.next();
+      int end = Math.min(note.getStartBeat() + note.getDuration(), toBeat);
+      count += Math.max(0, end - Math.max(note.getStartBeat(), covered));
+      covered = Math.max(covered, end);
+    }
+    return count;
+  }
+
+  /**
+   * Counts the notes that are played at some beat in [fromBeat, toBeat).
+   *
+   * @param fromBeat The first beat of the range
+   * @param toBeat The beat after the last beat of the range
+   * @return The number of notes
+   */
+  int countSounding(int fromBeat, int toBeat) {
+    int count = 0;
+    Iterator<IMusicNote<IPitch>> it = soundingIterator(fromBeat, toBeat);
+    while (it.hasNext()) {
+      it.next();
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Gets an iterator over the notes that are played at some beat in [fromBeat, toBeat), in order
+   * of start beat. The iterator walks the version of the tree from when it was created, so it is
+   * not affected by later changes to the tree.
+   *
+   * @param fromBeat The first beat of the range
+   * @param toBeat The beat after the last beat of the range
+   * @return The iterator
+   */
+  Iterator<IMusicNote<IPitch>> soundingIterator(int fromBeat, int toBeat) {
+    return new SoundingIterator(root, fromBeat, toBeat);
+  }
+
+  /**
+   * Gets an iterator over the notes that start at some beat in [fromBeat, toBeat), in order of
+   * start beat. Like soundingIterator, it walks the version of the tree from when it was created.
+   *
+   * @param fromBeat The first beat of the range
+   * @param toBeat The beat after the last beat of the range
+   * @return The iterator
+   */
+  Iterator<IMusicNote<IPitch>> startingIterator(int fromBeat, int toBeat) {
+    return new StartingIterator(root, fromBeat, toBeat);
+  }
+
+  /**
+   * Counts the notes that start at some beat in [fromBeat, toBeat).
+   *
+   * @param fromBeat The first beat of the range
+   * @param toBeat The beat after the last beat of the range
+   * @return The number of notes
+   */
+  int countStarting(int fromBeat, int toBeat) {
+    int count = 0;
+    Iterator<IMusicNote<IPitch>> it = startingIterator(fromBeat, toBeat);
+    while (it.hasNext()) {
+      it.next();
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Gives every note that is played at some beat in [fromBeat, toBeat) to the given action, in
+   * order of start beat.
+   *
+   * @param fromBeat The first beat of the range
+   * @param toBeat The beat after the last beat of the range
+   * @param action The action to give the notes to
+   */
+  void forEachSounding(int fromBeat, int toBeat, Consumer<IMusicNote<IPitch>> action) {
+    if (fromBeat < toBeat) {
+      forEachSounding(root, fromBeat, toBeat, action);
+    }
+  }
+
+  /**
+   * Gets the pitches of the notes played at the given beat. The notes are found with the same
+   * search as forEachSounding and only their bits are set, so no set of notes is made.
+   *
+   * @param beat The beat
+   * @return The mask of the pitches played at the beat
+   */
+  PitchMask pitchMaskAt(int beat) {
+    long[] words = new long[PitchMask.WORDS];
+    forEachSounding(beat, beat + 1,
+            note -> PitchMask.set(words, IPitch.pitchToMidi(note.getPitch())));
+    return new PitchMask(words);
+  }
+
+  /**
+   * Gives every note in the tree to the given action exactly once, in order of start beat.
+   *
+   * @param action The action to give the notes to
+   */
+  void forEach(Consumer<IMusicNote<IPitch>> action) {
+    forEach(root, action);
+  }
+
+  /**
+   * Compares two notes by start beat, then pitch, duration, instrument and volume. Two notes
+   * compare as 0 exactly when they are equal music notes.
+   *
+   * @param a The first note
+   * @param b The second note
+   * @return The comparison result
+   */
+  static int compare(IMusicNote<IPitch> a, IMusicNote<IPitch> b) {
+    if (a.getStartBeat() != b.getStartBeat()) {
+      return Integer.compare(a.getStartBeat(), b.getStartBeat());
+    }
+
+    int cmp = a.getPitch().compareTo(b.getPitch());
+    if (cmp != 0) {
+      return cmp;
+    }
+
+    if (a.getDuration() != b.getDuration()) {
+      return Integer.compare(a.getDuration(), b.getDuration());
+    }
+
+    if (a.getInstrument() != b.getInstrument()) {
+      return Integer.compare(a.getInstrument(), b.getInstrument());
+    }
+
+    return Integer.compare(a.getVolume(), b.getVolume());
+  }
+
+  private static boolean isSounding(Node n, int beat) {
+    while (n != null && n.maxEnd > beat) {
+      if (n.start <= beat && n.end > beat) {
+        return true;
+      }
+
+      if (n.left != null && n.left.maxEnd > beat) {
+        n = n.left;
+      }
+      else if (n.start <= beat) {
+        n = n.right;
+      }
+      else {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  private static void forEachSounding(Node n, int fromBeat, int toBeat,
+                                      Consumer<IMusicNote<IPitch>> action) {
+    if (n == null || n.maxEnd <= fromBeat) {
+      return;
+    }
+
+    forEachSounding(n.left, fromBeat, toBeat, action);
+
+    if (n.start < toBeat) {
+      if (n.end > fromBeat) {
+        action.accept(n.note);
+      }
+      forEachSounding(n.right, fromBeat, toBeat, action);
+    }
+  }
+
+  private static void forEach(Node n, Consumer<IMusicNote<IPitch>> action) {
+    if (n != null) {
+      forEach(n.left, action);
+      action.accept(n.note);
+      forEach(n.right, action);
+    }
+  }
+
+  private static int collect(Node n, IMusicNote<IPitch>[] notes, int index) {
+    if (n == null) {
+      return index;
+    }
+    index = collect(n.left, notes, index);
+    notes[index++] = n.note;
+    return collect(n.right, notes, index);
+  }
+
+  /**
+   * Creates an array of notes of the given length. Arrays of a generic type cannot be created
+   * directly, but an array of IMusicNote only ever holds the notes of this tree.
+   */
+  @SuppressWarnings("unchecked")
+  private static IMusicNote<IPitch>[] newArray(int length) {
+    return (IMusicNote<IPitch>[]) new IMusicNote<?>[length];
+  }
+
+  /**
+   * Builds a balanced tree of the first count of the given sorted notes, building large trees on
+   * the common ForkJoinPool.
+   */
+  private static Node buildAll(IMusicNote<IPitch>[] notes, int count) {
+    return count < PARALLEL_THRESHOLD ? build(notes, 0, count)
+            : ForkJoinPool.commonPool().invoke(new BuildTask(notes, 0, count));
+  }
+
+  private static Node build(IMusicNote<IPitch>[] notes, int from, int to) {
+    if (from >= to) {
+      return null;
+    }
+    int mid = (from + to) >>> 1;
+    return new Node(notes[mid], build(notes, from, mid), build(notes, mid + 1, to));
+  }
+
+  private static Node insert(Node n, IMusicNote<IPitch> note) {
+    if (n == null) {
+      return new Node(note, null, null);
+    }
+
+    if (compare(note, n.note) < 0) {
+      return balance(n.note, insert(n.left, note), n.right);
+    }
+    return balance(n.note, n.left, insert(n.right, note));
+  }
+
+  private static Node delete(Node n, IMusicNote<IPitch> note) {
+    int cmp = compare(note, n.note);
+    if (cmp < 0) {
+      return balance(n.note, delete(n.left, note), n.right);
+    }
+    if (cmp > 0) {
+      return balance(n.note, n.left, delete(n.right, note));
+    }
+
+    if (n.left == null) {
+      return n.right;
+    }
+    if (n.right == null) {
+      return n.left;
+    }
+
+    Node successor = n.right;
+    while (successor.left != null) {
+      successor = successor.left;
+    }
+    return balance(successor.note, n.left, deleteMin(n.right));
+  }
+
+  private static Node deleteMin(Node n) {
+    if (n.left == null) {
+      return n.right;
+    }
+    return balance(n.note, deleteMin(n.left), n.right);
+  }
+
+  private static int height(Node n) {
+    return n == null ? 0 : n.height;
+  }
+
+  /**
+   * Creates a node with the given note and children, rotating it if the heights of the children
+   * differ by more than 1. None of the given nodes are changed.
+   */
+  private static Node balance(IMusicNote<IPitch> note, Node left, Node right) {
+    int factor = height(left) - height(right);
+    if (factor > 1) {
+      if (height(left.left) < height(left.right)) {
+        left = rotateLeft(left.note, left.left, left.right);
+      }
+      return rotateRight(note, left, right);
+    }
+    if (factor < -1) {
+      if (height(right.right) < height(right.left)) {
+        right = rotateRight(right.note, right.left, right.right);
+      }
+      return rotateLeft(note, left, right);
+    }
+    return new Node(note, left, right);
+  }
+
+  private static Node rotateLeft(IMusicNote<IPitch> note, Node left, Node right) {
+    return new Node(right.note, new Node(note, left, right.left), right.right);
+  }
+
+  private static Node rotateRight(IMusicNote<IPitch> note, Node left, Node right) {
+    return new Node(left.note, left.left, new Node(note, left.right, right));
+  }
+
+  /**
+   * An in-order iterator over the notes of a tree that are played in a range of beats. Subtrees
+   * whose notes all end before the range are skipped, and the iteration stops at the first note
+   * that starts after the range.
+   */
+  private static final class SoundingIterator implements Iterator<IMusicNote<IPitch>> {
+    private final Deque<Node> stack;
+    private final int fromBeat;
+    private final int toBeat;
+    private Node next;
+
+    private SoundingIterator(Node root, int fromBeat, int toBeat) {
+      this.stack = new ArrayDeque<Node>();
+      this.fromBeat = fromBeat;
+      this.toBeat = toBeat;
+      if (fromBeat < toBeat) {
+        pushLeft(root);
+      }
+      advance();
+    }
+
+    private void pushLeft(Node n) {
+      while (n != null && n.maxEnd > fromBeat) {
+        stack.push(n);
+        n = n.left;
+      }
+    }
+
+    private void advance() {
+      next = null;
+      while (!stack.isEmpty()) {
+        Node n = stack.pop();
+        if (n.start >= toBeat) {
+          stack.clear();
+          return;
+        }
+        pushLeft(n.right);
+        if (n.end > fromBeat) {
+          next = n;
+          return;
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public IMusicNote<IPitch> next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      IMusicNote<IPitch> note = next.note;
+      advance();
+      return note;
+    }
+  }
+
+  /**
+   * An in-order iterator over the notes of a tree that start in a range of beats. The iteration
+   * starts at the first note that starts in the range, found with one walk down the tree, and
+   * stops at the first note that starts after the range.
+   */
+  private static final class StartingIterator implements Iterator<IMusicNote<IPitch>> {
+    private final Deque<Node> stack;
+    private final int toBeat;
+
+    private StartingIterator(Node root, int fromBeat, int toBeat) {
+      this.stack = new ArrayDeque<Node>();
+      this.toBeat = toBeat;
+      Node n = root;
+      while (n != null) {
+        if (n.start >= fromBeat) {
+          stack.push(n);
+          n = n.left;
+        }
+        else {
+          n = n.right;
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !stack.isEmpty() && stack.peek().start < toBeat;
+    }
+
+    @Override
+    public IMusicNote<IPitch> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Node n = stack.pop();
+      for (Node child = n.right; child != null; child = child.left) {
+        stack.push(child);
+      }
+      return n.note;
+    }
+  }
+
+  /**
+   * Builds the subtree of a range of sorted notes. The range is split at its middle note, so each
+   * half holds the notes of a range of beats, and the halves are built as separate tasks until
+   * they are small enough to build on one thread. The middle note then joins the two subtrees, so
+   * the result is the same tree that build gives.
+   */
+  private static final class BuildTask extends RecursiveTask<Node> {
+    private static final long serialVersionUID = 1L;
+
+    private final IMusicNote<IPitch>[] notes; // The sorted notes
+    private final int from; // The index of the first note of the subtree
+    private final int to; // The index after the last note of the subtree
+
+    private BuildTask(IMusicNote<IPitch>[] notes, int from, int to) {
+      this.notes = notes;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Node compute() {
+      if (to - from < PARALLEL_THRESHOLD) {
+        return build(notes, from, to);
+      }
+
+      int mid = (from + to) >>> 1;
+      BuildTask left = new BuildTask(notes, from, mid);
+      left.fork();
+      Node right = new BuildTask(notes, mid + 1, to).compute();
+      return new Node(notes[mid], left.join(), right);
+    }
+  }
+
+  /**
+   * A node of the tree, holding one note along with the height and highest end beat of the
+   * subtree rooted at the node. Nodes are never changed once they are created, so a subtree can be
+   * shared by any number of versions of the tree.
+   */
+  private static final class Node {
+    private final IMusicNote<IPitch> note;
+    private final int start; // The start beat of the note
+    private final int end; // The beat after the last beat the note is played at
+    private final int maxEnd; // The highest end beat in this subtree
+    private final int height; // The height of this subtree
+    private final Node left;
+    private final Node right;
+
+    private Node(IMusicNote<IPitch> note, Node left, Node right) {
+      this.note = note;
+      this.start = note.getStartBeat();
+      this.end = note.getStartBeat() + note.getDuration();
+      this.left = left;
+      this.right = right;
+      this.height = Math.max(height(left), height(right)) + 1;
+      int max = end;
+      if (left != null && left.maxEnd > max) {
+        max = left.maxEnd;
+      }
+      if (right != null && right.maxEnd > max) {
+        max = right.maxEnd;
+      }
+      this.maxEnd = max;
+    }
+  }
+}
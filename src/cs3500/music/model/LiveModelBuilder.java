@@ -0,0 +1,81 @@
+package cs3500.music.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import cs3500.music.util.CompositionBuilder;
+
+/**
+ * A builder that adds the notes it is given to an existing Music Editor, such as the one a view
+ * is already showing, instead of making a new one. Notes are held until the builder is flushed
+ * and then added with a single addAll, so listeners of the editor see one change per batch. Tempo
+ * lines change the editor straight away. Used with a StreamingMusicReader, the editor fills in
+ * while the rest of the file is still being read.
+ *
+ * <p>The builder must be used on one thread at a time; if views read the editor from other
+ * threads, the editor should be a ConcurrentMusicEditorModel.</p>
+ */
+public final class LiveModelBuilder
+        implements CompositionBuilder<MusicEditorOperations<IMusicNote<IPitch>, IPitch>> {
+  private final MusicEditorOperations<IMusicNote<IPitch>, IPitch> model; // The filled editor
+  private final List<IMusicNote<IPitch>> pending; // Notes not yet in the editor
+
+  /**
+   * Constructor for LiveModelBuilder.
+   *
+   * @param model The editor to add notes to
+   * @throws IllegalArgumentException If the model is null
+   */
+  public LiveModelBuilder(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model)
+          throws IllegalArgumentException {
+    if (model == null) {
+      throw new IllegalArgumentException("Model cannot be null");
+    }
+
+    this.model = model;
+    this.pending = new ArrayList<IMusicNote<IPitch>>();
+  }
+
+  @Override
+  public MusicEditorOperations<IMusicNote<IPitch>, IPitch> build() {
+    flush();
+    return model;
+  }
+
+  @Override
+  public CompositionBuilder<MusicEditorOperations<IMusicNote<IPitch>, IPitch>> setTempo(
+          int tempo) {
+    model.setTempo(tempo);
+    return this;
+  }
+
+  @Override
+  public CompositionBuilder<MusicEditorOperations<IMusicNote<IPitch>, IPitch>> addTempoChange(
+          int beat, int tempo) {
+    model.setTempoMap(model.getTempoMap().with(beat, tempo));
+    return this;
+  }
+
+  @Override
+  public CompositionBuilder<MusicEditorOperations<IMusicNote<IPitch>, IPitch>> setBeatsPerMeasure(
+          int beatsPerMeasure) {
+    model.setBeatsPerMeasure(beatsPerMeasure);
+    return this;
+  }
+
+  @Override
+  public CompositionBuilder<MusicEditorOperations<IMusicNote<IPitch>, IPitch>> addNote(
+          int start, int end, int instrument, int pitch, int volume) {
+    pending.add(new MusicNote(Pitch.fromMidi(pitch), end - start, start, instrument, volume));
+    return this;
+  }
+
+  @Override
+  public CompositionBuilder<MusicEditorOperations<IMusicNote<IPitch>, IPitch>> flush() {
+    if (!pending.isEmpty()) {
+      model.addAll(pending);
+      pending.clear();
+    }
+    return this;
+  }
+}
@@ -0,0 +1,128 @@
+package cs3500.music.model;
+
+/**
+ * A change made to a Music Editor, given to its ModelListeners. A change has a type and the range
+ * of beats [startBeat, endBeat) that it affects. Changes to the notes only affect the beats the
+ * notes are played at, while the other types of change affect the whole piece. A change to a
+ * single note also holds that note, so a listener can apply it without reading the editor.
+ */
+public final class ModelChange {
+
+  /**
+   * The types of change that can be made to a Music Editor.
+   */
+  public enum Type {
+    NOTES_ADDED, NOTES_REMOVED, PITCH_RANGE_CHANGED, TEMPO_CHANGED, BEATS_PER_MEASURE_CHANGED,
+    NEW_PIECE
+  }
+
+  private final Type type; // The type of the change
+  private final int startBeat; // The first beat affected by the change
+  private final int endBeat; // The beat after the last beat affected by the change
+  private final IMusicNote<IPitch> note; // The note that was added or removed, or null
+
+  /**
+   * Constructor for a ModelChange that affects the whole piece.
+   *
+   * @param type The type of the change
+   * @throws IllegalArgumentException If the type is null
+   */
+  public ModelChange(Type type) throws IllegalArgumentException {
+    this(type, 0, Integer.MAX_VALUE, null);
+  }
+
+  /**
+   * Constructor for a ModelChange to the notes played in [startBeat, endBeat).
+   *
+   * @param type The type of the change
+   * @param startBeat The first beat affected by the change
+   * @param endBeat The beat after the last beat affected by the change
+   * @param note The single note that was added or removed, or null if several notes were
+   * @throws IllegalArgumentException If the type is null, the start beat is negative or the end
+   *                                  beat is before the start beat
+   */
+  public ModelChange(Type type, int startBeat, int endBeat, IMusicNote<IPitch> note)
+          throws IllegalArgumentException {
+    if (type == null) {
+      throw new IllegalArgumentException("Type cannot be null");
+    }
+    MusicEditorModelImpl.checkRange(startBeat, endBeat);
+    this.type = type;
+    this.startBeat = startBeat;
+    this.endBeat = endBeat;
+    this.note = note;
+  }
+
+  /**
+   * Creates a ModelChange for a single note that was added or removed.
+   *
+   * @param type The type of the change
+   * @param note The note
+   * @return The change
+   */
+  static ModelChange ofNote(Type type, IMusicNote<IPitch> note) {
+    return new ModelChange(type, note.getStartBeat(), note.getStartBeat() + note.getDuration(),
+            note);
+  }
+
+  /**
+   * Gets the type of this change.
+   *
+   * @return The type
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * Gets the first beat affected by this change.
+   *
+   * @return The start beat
+   */
+  public int getStartBeat() {
+    return startBeat;
+  }
+
+  /**
+   * Gets the beat after the last beat affected by this change.
+   *
+   * @return The end beat
+   */
+  public int getEndBeat() {
+    return endBeat;
+  }
+
+  /**
+   * Gets the note that was added or removed by this change.
+   *
+   * @return The note, or null if this change is not to a single note
+   */
+  public IMusicNote<IPitch> getNote() {
+    return note;
+  }
+
+  /**
+   * Determines if this change affects any beat in [fromBeat, toBeat).
+   *
+   * @param fromBeat The first beat of the range
+   * @param toBeat The beat after the last beat of the range
+   * @return If the change affects the range
+   */
+  public boolean affects(int fromBeat, int toBeat) {
+    return startBeat < toBeat && endBeat > fromBeat;
+  }
+
+  /**
+   * Determines if this change is to the notes of the piece, rather than to the whole piece.
+   *
+   * @return If notes were added or removed
+   */
+  public boolean isNoteChange() {
+    return type == Type.NOTES_ADDED || type == Type.NOTES_REMOVED;
+  }
+
+  @Override
+  public String toString() {
+    return type + " [" + startBeat + ", " + endBeat + ")";
+  }
+}
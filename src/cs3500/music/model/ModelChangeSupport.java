@@ -0,0 +1,69 @@
+package cs3500.music.model;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps the ModelListeners of a Music Editor and tells them about changes. Listeners can be added
+ * and removed while changes are being given out. Nothing is created for a change when there are
+ * no listeners, since editors check hasListeners first.
+ */
+final class ModelChangeSupport {
+  private final List<ModelListener> listeners = new CopyOnWriteArrayList<ModelListener>();
+
+  /**
+   * Adds the given listener.
+   *
+   * @param listener The listener to add
+   * @throws IllegalArgumentException If the listener is null
+   */
+  void add(ModelListener listener) throws IllegalArgumentException {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null");
+    }
+    listeners.add(listener);
+  }
+
+  /**
+   * Removes the given listener, if it was added.
+   *
+   * @param listener The listener to remove
+   */
+  void remove(ModelListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Determines if any listener has been added.
+   *
+   * @return If there are listeners
+   */
+  boolean hasListeners() {
+    return !listeners.isEmpty();
+  }
+
+  /**
+   * Gives the change to every listener.
+   *
+   * @param change The change that was made
+   */
+  void fire(ModelChange change) {
+    for (ModelListener listener : listeners) {
+      listener.modelChanged(change);
+    }
+  }
+
+  /**
+   * Tells every listener that the pitch range changed if the lowest or highest pitch is not the
+   * same as before.
+   *
+   * @param oldLow The lowest Midi pitch before the change
+   * @param oldHigh The highest Midi pitch before the change
+   * @param pitches The pitch histogram after the change
+   */
+  void firePitchRange(int oldLow, int oldHigh, PitchHistogram pitches) {
+    if (oldLow != pitches.getLowestMidi() || oldHigh != pitches.getHighestMidi()) {
+      fire(new ModelChange(ModelChange.Type.PITCH_RANGE_CHANGED));
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package cs3500.music.model;
+
+/**
+ * Listens for changes to a Music Editor. Listeners are told about every change after it has been
+ * made, on the thread that made it.
+ */
+public interface ModelListener {
+
+  /**
+   * Called after a change is made to the Music Editor the listener was added to.
+   *
+   * @param change The change that was made
+   */
+  void modelChanged(ModelChange change);
+}
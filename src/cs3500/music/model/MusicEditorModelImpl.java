@@ -1,7 +1,9 @@
 package cs3500.music.model;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
@@ -11,47 +13,37 @@ import cs3500.music.util.CompositionBuilder;
 
 /**
  * A Music Editor that is parameterized across the Music Note and Pitch classes. Notes in this
- * Music Editor are stored in a SortedMap where the beat number is mapped to the set of notes that
- * are played at that beat. This Music Editor allows capabilities for all functions in the
- * MusicEditorOperations interface (unlike the MusicEditorModelImplReadOnly).
+ * Music Editor are stored once each in an interval tree ordered by start beat, and the notes that
+ * are played at a beat are found by searching the tree. This Music Editor allows capabilities for
+ * all functions in the MusicEditorOperations interface (unlike the MusicEditorModelImplReadOnly).
  */
 public class MusicEditorModelImpl implements MusicEditorOperations<IMusicNote<IPitch>, IPitch> {
 
   /**
-   * The notes in this editor. The Integer represents each beat in the editor and each beat is
-   * mapped to a set of notes that is being played at that beat. A SortedMap is used so that it is
-   * easy to get the highest beat in the editor. Further, a map was used instead of a list because
-   * it is faster to add, remove, and retrieve from a map than a list. A set was used because a set
-   * does not allow duplicates and my model implementation does not allow duplicates.
+   * The notes in this editor. Each note is stored once, no matter how many beats it is played
+   * for, so adding and removing a note costs O(log n) regardless of its duration. The tree also
+   * knows the highest end beat of its notes, which makes it easy to get the highest beat in the
+   * editor. The tree does not allow duplicates and my model implementation does not allow
+   * duplicates.
    *
-   * <p>Class invariant: If the size of the SortedMap is 0 there are no beats in the piece of music
-   * and if the size of the SortedMap is not 0, the last key in the SortedMap is the highest beat in
-   * the piece of music.</p>
+   * <p>Class invariant: Every note in the tree has a positive duration, and the end beat of the
+   * tree is one past the highest beat in the piece of music.</p>
    */
-  private SortedMap<Integer, Set<IMusicNote<IPitch>>> notes;
+  private IntervalNoteTree notes;
 
   /**
-   * The lowest pitch in the piece of music.
+   * The number of notes at each pitch in the piece of music, which gives the lowest and highest
+   * pitches in O(1) after any change instead of rescanning the notes when an extreme is removed.
    *
-   * <p>Class invariant: The lowest pitch in the editor is either null or a valid Pitch (valid Pitch
-   * means it has an NoteName from C to B and an octave from 1 to 10).</p>
+   * <p>Class invariant: The histogram counts exactly the notes in the tree.</p>
    */
-  private IPitch lowestPitch;
+  private PitchHistogram pitches;
 
   /**
-   * The highest pitch in the piece of music.
-   *
-   * <p>Class invariant: The highest pitch in the editor is either null or a valid Pitch (valid
-   * Pitch means it has an NoteName from C to B and an octave from 1 to 10).</p>
-   */
-  private IPitch highestPitch;
-
-  /**
-   * The tempo of the piece of music in microseconds.
-   *
-   * <p>Class invariant: The tempo of the piece of music is always positive.</p>
+   * The tempos of the piece of music in microseconds per beat: the tempo at the start of the
+   * piece and every later tempo change.
    */
-  private int tempo;
+  private TempoMap tempoMap;
 
   /**
    * The beats per measure of the piece of music.
@@ -61,29 +53,54 @@ public class MusicEditorModelImpl implements MusicEditorOperations<IMusicNote<IP
   private int beatsPerMeasure;
 
   /**
-   * Constructor for MusicEditorModelImpl. Creates a new TreeMap and sets the lowest and highest
-   * pitches to null. Sets the tempo of the piece of music to 60 and sets the beats per measure of
-   * the piece of music to 4.
+   * The version of this editor, which is incremented every time the editor is modified. The live
+   * views returned by getNotesView and the range queries use it to detect changes while iterating.
+   */
+  private int version;
+
+  /**
+   * The listeners that are told about every change to this editor.
+   */
+  private final ModelChangeSupport listeners;
+
+  /**
+   * Constructor for MusicEditorModelImpl. Creates a new interval tree and an empty pitch histogram.
+   * Sets the tempo of the piece of music to 60 and sets the beats per measure of the piece of music
+   * to 4.
    */
   public MusicEditorModelImpl() {
-    notes = new TreeMap<Integer, Set<IMusicNote<IPitch>>>();
-    lowestPitch = null;
-    highestPitch = null;
-    tempo = 10000;
+    notes = new IntervalNoteTree();
+    pitches = new PitchHistogram();
+    tempoMap = TempoMap.constant(10000);
     beatsPerMeasure = 4;
+    listeners = new ModelChangeSupport();
   }
 
   @Override
   public int getTempo() {
-    return tempo;
+    return tempoMap.getTempo(0);
+  }
+
+  @Override
+  public TempoMap getTempoMap() {
+    return tempoMap;
   }
 
   @Override
   public void setTempo(int tempo) throws IllegalArgumentException {
-    if (tempo < 1) {
-      throw new IllegalArgumentException("Tempo must be positive");
+    setTempoMap(tempoMap.with(0, tempo));
+  }
+
+  @Override
+  public void setTempoMap(TempoMap tempoMap) throws IllegalArgumentException {
+    if (tempoMap == null) {
+      throw new IllegalArgumentException("Tempo map cannot be null");
+    }
+    this.tempoMap = tempoMap;
+    version++;
+    if (listeners.hasListeners()) {
+      listeners.fire(new ModelChange(ModelChange.Type.TEMPO_CHANGED));
     }
-    this.tempo = tempo;
   }
 
   @Override
@@ -97,20 +114,36 @@ public class MusicEditorModelImpl implements MusicEditorOperations<IMusicNote<IP
       throw new IllegalArgumentException("Beats per measure must be positive");
     }
     this.beatsPerMeasure = beatsPerMeasure;
+    version++;
+    if (listeners.hasListeners()) {
+      listeners.fire(new ModelChange(ModelChange.Type.BEATS_PER_MEASURE_CHANGED));
+    }
   }
 
   @Override
   public void newPiece() {
-    notes = new TreeMap<Integer, Set<IMusicNote<IPitch>>>();
-    lowestPitch = null;
-    highestPitch = null;
-    tempo = 60;
+    notes.clear();
+    pitches.clear();
+    tempoMap = TempoMap.constant(60);
     beatsPerMeasure = 4;
+    version++;
+    if (listeners.hasListeners()) {
+      listeners.fire(new ModelChange(ModelChange.Type.NEW_PIECE));
+    }
   }
 
   @Override
   public Map<Integer, Set<IMusicNote<IPitch>>> getNotes() {
-    return new TreeMap<Integer, Set<IMusicNote<IPitch>>>(notes);
+    Map<Integer, Set<IMusicNote<IPitch>>> copy = new TreeMap<Integer, Set<IMusicNote<IPitch>>>();
+    for (Map.Entry<Integer, Set<IMusicNote<IPitch>>> beat : getNotesView().entrySet()) {
+      copy.put(beat.getKey(), new HashSet<IMusicNote<IPitch>>(beat.getValue()));
+    }
+    return copy;
+  }
+
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> getNotesView() {
+    return new BeatMapView(this, notes);
   }
 
   @Override
@@ -119,17 +152,58 @@ public class MusicEditorModelImpl implements MusicEditorOperations<IMusicNote<IP
       throw new IllegalArgumentException("Note to add cannot be null");
     }
 
-    for (int i = note.getStartBeat(); i < note.getStartBeat() + note.getDuration(); i++) {
-      addBeatIfNeeded(i);
-      notes.get(i).add(new MusicNote(note));
+    int midi = IPitch.pitchToMidi(note.getPitch());
+    if (!PitchHistogram.inRange(midi)) {
+      throw new IllegalArgumentException("Pitch of the note is out of range");
+    }
+
+    MusicNote toAdd = toMusicNote(note);
+    int oldLow = pitches.getLowestMidi();
+    int oldHigh = pitches.getHighestMidi();
+    if (notes.add(toAdd)) {
+      pitches.add(midi);
+      version++;
+      if (listeners.hasListeners()) {
+        listeners.fire(ModelChange.ofNote(ModelChange.Type.NOTES_ADDED, toAdd));
+        listeners.firePitchRange(oldLow, oldHigh, pitches);
+      }
+    }
+  }
+
+  @Override
+  public void addAll(Collection<? extends IMusicNote<IPitch>> toAdd)
+          throws IllegalArgumentException {
+    if (toAdd == null) {
+      throw new IllegalArgumentException("Notes to add cannot be null");
     }
 
-    if (lowestPitch == null || note.getPitch().compareTo(lowestPitch) < 0) {
-      lowestPitch = new Pitch(note.getPitch());
+    List<MusicNote> checked = new ArrayList<MusicNote>(toAdd.size());
+    for (IMusicNote<IPitch> note : toAdd) {
+      if (note == null) {
+        throw new IllegalArgumentException("Note to add cannot be null");
+      }
+
+      if (!PitchHistogram.inRange(IPitch.pitchToMidi(note.getPitch()))) {
+        throw new IllegalArgumentException("Pitch of the note is out of range");
+      }
+      checked.add(toMusicNote(note));
     }
 
-    if (highestPitch == null || note.getPitch().compareTo(highestPitch) > 0) {
-      highestPitch = new Pitch(note.getPitch());
+    int oldLow = pitches.getLowestMidi();
+    int oldHigh = pitches.getHighestMidi();
+    int[] range = {Integer.MAX_VALUE, 0};
+    notes.addAll(checked, note -> {
+      pitches.add(IPitch.pitchToMidi(note.getPitch()));
+      range[0] = Math.min(range[0], note.getStartBeat());
+      range[1] = Math.max(range[1], note.getStartBeat() + note.getDuration());
+    });
+
+    if (range[0] < range[1]) {
+      version++;
+      if (listeners.hasListeners()) {
+        listeners.fire(new ModelChange(ModelChange.Type.NOTES_ADDED, range[0], range[1], null));
+        listeners.firePitchRange(oldLow, oldHigh, pitches);
+      }
     }
   }
 
@@ -139,26 +213,65 @@ public class MusicEditorModelImpl implements MusicEditorOperations<IMusicNote<IP
       throw new IllegalArgumentException("Note to remove cannot be null");
     }
 
-    if (!notes.containsKey(note.getStartBeat())) {
+    if (!notes.remove(note)) {
       throw new IllegalArgumentException("Note does not exist");
     }
+    int oldLow = pitches.getLowestMidi();
+    int oldHigh = pitches.getHighestMidi();
+    pitches.remove(IPitch.pitchToMidi(note.getPitch()));
+    version++;
+    if (listeners.hasListeners()) {
+      listeners.fire(ModelChange.ofNote(ModelChange.Type.NOTES_REMOVED, toMusicNote(note)));
+      listeners.firePitchRange(oldLow, oldHigh, pitches);
+    }
+  }
 
-    if (!notes.get(note.getStartBeat()).contains(note)) {
-      throw new IllegalArgumentException("Note does not exist");
+  @Override
+  public void removeAll(Collection<? extends IMusicNote<IPitch>> toRemove)
+          throws IllegalArgumentException {
+    if (toRemove == null) {
+      throw new IllegalArgumentException("Notes to remove cannot be null");
     }
 
-    for (int i = note.getStartBeat(); i < note.getStartBeat() + note.getDuration(); i++) {
-      notes.get(i).remove(note);
-      subBeatIfNeeded(i);
+    List<MusicNote> checked = new ArrayList<MusicNote>(toRemove.size());
+    for (IMusicNote<IPitch> note : toRemove) {
+      if (note == null) {
+        throw new IllegalArgumentException("Note to remove cannot be null");
+      }
+      checked.add(toMusicNote(note));
+    }
+
+    int oldLow = pitches.getLowestMidi();
+    int oldHigh = pitches.getHighestMidi();
+    int[] range = {Integer.MAX_VALUE, 0};
+    boolean removed = notes.removeAll(checked, note -> {
+      pitches.remove(IPitch.pitchToMidi(note.getPitch()));
+      range[0] = Math.min(range[0], note.getStartBeat());
+      range[1] = Math.max(range[1], note.getStartBeat() + note.getDuration());
+    });
+    if (!removed) {
+      throw new IllegalArgumentException("Note does not exist");
     }
 
-    if (note.getPitch().compareTo(lowestPitch) == 0
-            ||
-            note.getPitch().compareTo(highestPitch) == 0) {
-      updatePitchExtremes();
+    if (range[0] < range[1]) {
+      version++;
+      if (listeners.hasListeners()) {
+        listeners.fire(new ModelChange(ModelChange.Type.NOTES_REMOVED, range[0], range[1], null));
+        listeners.firePitchRange(oldLow, oldHigh, pitches);
+      }
     }
   }
 
+  @Override
+  public void addModelListener(ModelListener listener) throws IllegalArgumentException {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void removeModelListener(ModelListener listener) {
+    listeners.remove(listener);
+  }
+
   @Override
   public void replaceNote(IMusicNote<IPitch> oldNote, IMusicNote<IPitch> newNote)
           throws IllegalArgumentException {
@@ -175,39 +288,21 @@ public class MusicEditorModelImpl implements MusicEditorOperations<IMusicNote<IP
   }
 
   @Override
-  public void append(MusicEditorOperations toAppend) throws IllegalArgumentException {
+  public void append(MusicEditorOperations<?, ?> toAppend) throws IllegalArgumentException {
     if (toAppend == null) {
       throw new IllegalArgumentException("Editor to append cannot be null");
     }
 
-    int startBeatOffset = 0;
-    if (notes.size() != 0) {
-      startBeatOffset = this.notes.lastKey() + 1;
-    }
-
-    Map<Integer, Set<MusicNote>> notesToAdd = toAppend.getNotes();
-
-    for (Integer i : notesToAdd.keySet()) {
-      for (MusicNote note : notesToAdd.get(i)) {
-        this.addNote(new MusicNote(note.getPitch(), note.getDuration(),
-                note.getStartBeat() + startBeatOffset, note.getInstrument(), note.getVolume()));
-      }
-    }
+    this.addAll(uniqueNotes(new OffsetScoreView(asNoteEditor(toAppend), notes.getEndBeat(), 0)));
   }
 
   @Override
-  public void combine(MusicEditorOperations toCombine) throws IllegalArgumentException {
+  public void combine(MusicEditorOperations<?, ?> toCombine) throws IllegalArgumentException {
     if (toCombine == null) {
       throw new IllegalArgumentException("Editor to combine cannot be null");
     }
 
-    Map<Integer, Set<MusicNote>> notesToAdd = toCombine.getNotes();
-
-    for (Integer i : notesToAdd.keySet()) {
-      for (MusicNote note : notesToAdd.get(i)) {
-        this.addNote(new MusicNote(note));
-      }
-    }
+    this.addAll(uniqueNotes(asNoteEditor(toCombine)));
   }
 
   @Override
@@ -216,98 +311,205 @@ public class MusicEditorModelImpl implements MusicEditorOperations<IMusicNote<IP
       throw new IllegalArgumentException("Beat cannot be negative");
     }
 
-    if (!notes.containsKey(beat)) {
-      return new HashSet<IMusicNote<IPitch>>();
-    }
-    else {
-      return new HashSet(notes.get(beat));
+    return new HashSet<IMusicNote<IPitch>>(new BeatNoteSetView(this, notes, beat));
+  }
+
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> getNotesInRange(int startBeat, int endBeat)
+          throws IllegalArgumentException {
+    checkRange(startBeat, endBeat);
+    return new BeatMapView(this, notes, startBeat, endBeat);
+  }
+
+  @Override
+  public Set<IMusicNote<IPitch>> getNotesSoundingInRange(int startBeat, int endBeat)
+          throws IllegalArgumentException {
+    checkRange(startBeat, endBeat);
+    return new BeatNoteSetView(this, notes, startBeat, endBeat);
+  }
+
+  @Override
+  public Set<IMusicNote<IPitch>> getNotesStartingInRange(int startBeat, int endBeat)
+          throws IllegalArgumentException {
+    checkRange(startBeat, endBeat);
+    return new BeatNoteSetView(this, notes, startBeat, endBeat, true);
+  }
+
+  @Override
+  public PitchMask getPitchMaskAtBeat(int beat) throws IllegalArgumentException {
+    if (beat < 0) {
+      throw new IllegalArgumentException("Beat cannot be negative");
     }
+    return notes.pitchMaskAt(beat);
+  }
+
+  @Override
+  public int getVersion() {
+    return version;
+  }
+
+  @Override
+  public void forEachNote(NoteVisitor visitor) {
+    forEachNote(notes, visitor);
+  }
+
+  @Override
+  public void forEachNoteSoundingInRange(int startBeat, int endBeat, NoteVisitor visitor)
+          throws IllegalArgumentException {
+    checkRange(startBeat, endBeat);
+
+    forEachNoteSounding(notes, startBeat, endBeat, visitor);
+  }
+
+  /**
+   * Gets an immutable snapshot of this editor. The snapshot shares the interval tree of this editor
+   * as it is now, so it is taken in O(1) no matter how many notes there are, and it is not changed
+   * by later edits.
+   *
+   * @return The snapshot
+   */
+  @Override
+  public MusicEditorOperations<IMusicNote<IPitch>, IPitch> snapshot() {
+    return new ScoreSnapshot(notes.snapshot(), new PitchHistogram(pitches), tempoMap,
+            beatsPerMeasure, version);
   }
 
   @Override
   public Pitch getLowPitch() {
-    if (lowestPitch == null) {
-      return null;
-    }
-    return new Pitch(lowestPitch);
+    return pitches.getLowest();
   }
 
   @Override
   public Pitch getHighPitch() {
+    return pitches.getHighest();
+  }
+
+  /**
+   * Checks that [startBeat, endBeat) is a valid range of beats.
+   *
+   * @param startBeat The first beat in the range
+   * @param endBeat The beat after the last beat in the range
+   * @throws IllegalArgumentException If the start beat is negative or after the end beat
+   */
+  static void checkRange(int startBeat, int endBeat) throws IllegalArgumentException {
+    if (startBeat < 0) {
+      throw new IllegalArgumentException("Beat cannot be negative");
+    }
 
-    if (highestPitch == null) {
-      return null;
+    if (endBeat < startBeat) {
+      throw new IllegalArgumentException("End beat cannot be before start beat");
     }
-    return new Pitch(highestPitch);
   }
 
   /**
-   * Add a new key-value to the map if it does not exist.
-   * @param i The beat number to check
+   * Gives every note in the given tree to the given visitor, in order of start beat.
+   *
+   * @param notes The notes to visit
+   * @param visitor The visitor to give the notes to
    */
-  private void addBeatIfNeeded(int i) {
-    if (!notes.containsKey(i)) {
-      notes.put(i, new HashSet<IMusicNote<IPitch>>());
-    }
+  static void forEachNote(IntervalNoteTree notes, NoteVisitor visitor) {
+    notes.forEach(note -> visitor.visit(note.getStartBeat(), note.getDuration(),
+            IPitch.pitchToMidi(note.getPitch()), note.getInstrument(), note.getVolume()));
   }
 
   /**
-   * Remove an existing key-value from the map if it no longer has any notes in it.
-   * @param i The beat number to check
+   * Gives every note of the given tree played in [startBeat, endBeat) to the given visitor, in
+   * order of start beat. The range must already have been checked.
+   *
+   * @param notes The notes to visit
+   * @param startBeat The first beat in the range
+   * @param endBeat The beat after the last beat in the range
+   * @param visitor The visitor to give the notes to
    */
-  private void subBeatIfNeeded(int i) {
-    if (notes.get(i).size() == 0) {
-      notes.remove(i);
-    }
+  static void forEachNoteSounding(IntervalNoteTree notes, int startBeat, int endBeat,
+          NoteVisitor visitor) {
+    notes.forEachSounding(startBeat, endBeat, note -> visitor.visit(note.getStartBeat(),
+            note.getDuration(), IPitch.pitchToMidi(note.getPitch()), note.getInstrument(),
+            note.getVolume()));
   }
 
   /**
-   * Updates the highest and lowest pitches.
+   * Gets each note of the given editor once. The notes of another editor are listed before any of
+   * them are added, so an editor can be appended or combined with itself.
+   *
+   * @param editor The editor to get the notes of
+   * @return The notes of the editor, each listed once
    */
-  private void updatePitchExtremes() {
-    if (notes.size() == 0) {
-      lowestPitch = null;
-      highestPitch = null;
-      return;
+  private List<IMusicNote<IPitch>> uniqueNotes(
+          MusicEditorOperations<IMusicNote<IPitch>, IPitch> editor) {
+    if (editor instanceof MusicEditorModelImpl) {
+      List<IMusicNote<IPitch>> result = new ArrayList<IMusicNote<IPitch>>();
+      ((MusicEditorModelImpl) editor).notes.forEach(result::add);
+      return result;
     }
 
-    IPitch low = null;
-    IPitch high = null;
+    if (editor instanceof ScoreSnapshot) {
+      List<IMusicNote<IPitch>> result = new ArrayList<IMusicNote<IPitch>>();
+      ((ScoreSnapshot) editor).getTree().forEach(result::add);
+      return result;
+    }
 
-    for (Integer i : notes.keySet()) {
-      for (IMusicNote<IPitch> note: notes.get(i)) {
-        if (low == null || note.getPitch().compareTo(low) < 0) {
-          low = note.getPitch();
-        }
+    List<IMusicNote<IPitch>> result = new ArrayList<IMusicNote<IPitch>>();
+    editor.forEachNote((startBeat, duration, pitch, instrument, volume) ->
+            result.add(new MusicNote(Pitch.fromMidi(pitch), duration, startBeat, instrument,
+                    volume)));
+    return result;
+  }
 
-        if (high == null || note.getPitch().compareTo(high) > 0) {
-          high = note.getPitch();
-        }
-      }
-    }
+  /**
+   * Gets the given editor as an editor of IMusicNotes. append and combine take an editor of any
+   * type, but every editor holds IMusicNote notes with IPitch pitches, so this is the one place
+   * the unchecked cast is made.
+   *
+   * @param editor The editor
+   * @return The same editor
+   */
+  @SuppressWarnings("unchecked")
+  private static MusicEditorOperations<IMusicNote<IPitch>, IPitch> asNoteEditor(
+          MusicEditorOperations<?, ?> editor) {
+    return (MusicEditorOperations<IMusicNote<IPitch>, IPitch>) editor;
+  }
 
-    lowestPitch = new Pitch(low);
-    highestPitch = new Pitch(high);
+  /**
+   * Gets the given note as a MusicNote. MusicNotes are immutable, so they are used as they are
+   * and only other kinds of notes are copied.
+   *
+   * @param note The note to convert
+   * @return The note as a MusicNote
+   */
+  private static MusicNote toMusicNote(IMusicNote<IPitch> note) {
+    return note instanceof MusicNote ? (MusicNote) note : new MusicNote(note);
   }
 
   /**
-   * Builder used to create a model instance using text file input.
+   * Builder used to create a model instance using text file input. Notes are streamed into the
+   * model as they are read: they are kept in a small buffer that is added to the model with
+   * addAll each time it fills up, so the builder never holds a second copy of the score. A
+   * builder has no shared state, so separate builders can read separate files on separate
+   * threads. After build is called the builder starts a new, empty composition.
    */
   public static final class Builder implements CompositionBuilder<MusicEditorOperations> {
 
-    private Map<Integer, MusicNote> notes = new HashMap<Integer, MusicNote>(); // Notes in builder
+    /**
+     * The number of notes kept in the buffer before it is added to the model.
+     */
+    private static final int BATCH_SIZE = 4096;
+
+    private ProviderToCurrentModel model = new ProviderToCurrentModel(); // Model being built
+    private List<MusicNote> pending = new ArrayList<MusicNote>(); // Notes not yet in the model
     private int tempo; // tempo of builder
-    private static int i = 0; // note number
+    private SortedMap<Integer, Integer> tempoChanges = new TreeMap<Integer, Integer>();
 
     @Override
     public MusicEditorOperations build() {
-      ProviderToCurrentModel model = new ProviderToCurrentModel();
-      for (Integer i : notes.keySet()) {
-        model.addNote(notes.get(i));
-      }
-
-      model.setTempo(this.tempo);
-      return model;
+      flush();
+      ProviderToCurrentModel result = model;
+      tempoChanges.put(0, this.tempo);
+      result.setTempoMap(TempoMap.of(tempoChanges));
+      model = new ProviderToCurrentModel();
+      tempo = 0;
+      tempoChanges = new TreeMap<Integer, Integer>();
+      return result;
     }
 
     @Override
@@ -316,11 +518,42 @@ public class MusicEditorModelImpl implements MusicEditorOperations<IMusicNote<IP
       return this;
     }
 
+    @Override
+    public CompositionBuilder<MusicEditorOperations> addTempoChange(int beat, int tempo) {
+      if (beat == 0) {
+        this.tempo = tempo;
+      }
+      else {
+        tempoChanges.put(beat, tempo);
+      }
+      return this;
+    }
+
+    @Override
+    public CompositionBuilder<MusicEditorOperations> setBeatsPerMeasure(int beatsPerMeasure) {
+      model.setBeatsPerMeasure(beatsPerMeasure);
+      return this;
+    }
+
     @Override
     public CompositionBuilder<MusicEditorOperations> addNote(int start, int end, int instrument,
                                                              int pitch, int volume) {
-      notes.put(i, new MusicNote(intToPitch(pitch), end - start, start, instrument, volume));
-      i++;
+      pending.add(new MusicNote(intToPitch(pitch), end - start, start, instrument, volume));
+      if (pending.size() >= BATCH_SIZE) {
+        flush();
+      }
+      return this;
+    }
+
+    /**
+     * Adds the buffered notes to the model and empties the buffer.
+     */
+    @Override
+    public CompositionBuilder<MusicEditorOperations> flush() {
+      if (!pending.isEmpty()) {
+        model.addAll(pending);
+        pending.clear();
+      }
       return this;
     }
 
@@ -331,10 +564,7 @@ public class MusicEditorModelImpl implements MusicEditorOperations<IMusicNote<IP
      * @return The corresponding Pitch
      */
     private Pitch intToPitch(int i) {
-      int octave = (i / 12) - 1;
-      NoteName name = NoteName.values()[i % 12];
-
-      return new Pitch(name, octave);
+      return Pitch.fromMidi(i);
     }
   }
 }
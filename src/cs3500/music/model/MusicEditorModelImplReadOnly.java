@@ -1,11 +1,15 @@
 package cs3500.music.model;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
 
 /**
  * A Music Editor that is Read Only. This Music Editor cannot call methods that change data in a
- * Music Editor. Instead it can only get data from the Music Editor.
+ * Music Editor. Instead it can only get data from the Music Editor. Nothing is copied: the maps and
+ * sets it returns are the unmodifiable live views of the wrapped Music Editor, and getVersion can
+ * be used to find out if the wrapped editor changed since they were read.
  */
 public class MusicEditorModelImplReadOnly implements MusicEditorOperations<IMusicNote<IPitch>, IPitch> {
   private MusicEditorOperations<IMusicNote<IPitch>, IPitch> model; // The model to get values from
@@ -29,6 +33,11 @@ public class MusicEditorModelImplReadOnly implements MusicEditorOperations<IMusi
     throw new UnsupportedOperationException("Model cannot modify data");
   }
 
+  @Override
+  public void setTempoMap(TempoMap tempoMap) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException("Model cannot modify data");
+  }
+
   @Override
   public void setBeatsPerMeasure(int beatsPerMeasure) throws UnsupportedOperationException {
     throw new UnsupportedOperationException("Model cannot modify data");
@@ -44,11 +53,23 @@ public class MusicEditorModelImplReadOnly implements MusicEditorOperations<IMusi
     throw new UnsupportedOperationException("Model cannot modify data");
   }
 
+  @Override
+  public void addAll(Collection<? extends IMusicNote<IPitch>> notes)
+          throws UnsupportedOperationException {
+    throw new UnsupportedOperationException("Model cannot modify data");
+  }
+
   @Override
   public void removeNote(IMusicNote<IPitch> note) throws UnsupportedOperationException {
     throw new UnsupportedOperationException("Model cannot modify data");
   }
 
+  @Override
+  public void removeAll(Collection<? extends IMusicNote<IPitch>> notes)
+          throws UnsupportedOperationException {
+    throw new UnsupportedOperationException("Model cannot modify data");
+  }
+
   @Override
   public void replaceNote(IMusicNote<IPitch> oldNote, IMusicNote<IPitch> newNote)
           throws UnsupportedOperationException {
@@ -56,12 +77,12 @@ public class MusicEditorModelImplReadOnly implements MusicEditorOperations<IMusi
   }
 
   @Override
-  public void append(MusicEditorOperations toAppend) throws UnsupportedOperationException {
+  public void append(MusicEditorOperations<?, ?> toAppend) throws UnsupportedOperationException {
     throw new UnsupportedOperationException("Model cannot modify data");
   }
 
   @Override
-  public void combine(MusicEditorOperations toCombine) throws UnsupportedOperationException {
+  public void combine(MusicEditorOperations<?, ?> toCombine) throws UnsupportedOperationException {
     throw new UnsupportedOperationException("Model cannot modify data");
   }
 
@@ -70,6 +91,11 @@ public class MusicEditorModelImplReadOnly implements MusicEditorOperations<IMusi
     return this.model.getTempo();
   }
 
+  @Override
+  public TempoMap getTempoMap() {
+    return this.model.getTempoMap();
+  }
+
   @Override
   public int getBeatsPerMeasure() {
     return this.model.getBeatsPerMeasure();
@@ -77,12 +103,71 @@ public class MusicEditorModelImplReadOnly implements MusicEditorOperations<IMusi
 
   @Override
   public Map<Integer, Set<IMusicNote<IPitch>>> getNotes() {
-    return this.model.getNotes();
+    return this.model.getNotesView();
+  }
+
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> getNotesView() {
+    return this.model.getNotesView();
   }
 
   @Override
   public Set<IMusicNote<IPitch>> getNotesAtBeat(int beat) throws IllegalArgumentException {
-    return this.model.getNotesAtBeat(beat);
+    return this.model.getNotesSoundingInRange(beat, beat + 1);
+  }
+
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> getNotesInRange(int startBeat, int endBeat)
+          throws IllegalArgumentException {
+    return this.model.getNotesInRange(startBeat, endBeat);
+  }
+
+  @Override
+  public Set<IMusicNote<IPitch>> getNotesSoundingInRange(int startBeat, int endBeat)
+          throws IllegalArgumentException {
+    return this.model.getNotesSoundingInRange(startBeat, endBeat);
+  }
+
+  @Override
+  public Set<IMusicNote<IPitch>> getNotesStartingInRange(int startBeat, int endBeat)
+          throws IllegalArgumentException {
+    return this.model.getNotesStartingInRange(startBeat, endBeat);
+  }
+
+  @Override
+  public PitchMask getPitchMaskAtBeat(int beat) throws IllegalArgumentException {
+    return this.model.getPitchMaskAtBeat(beat);
+  }
+
+  @Override
+  public int getVersion() {
+    return this.model.getVersion();
+  }
+
+  @Override
+  public void forEachNote(NoteVisitor visitor) {
+    this.model.forEachNote(visitor);
+  }
+
+  @Override
+  public void forEachNoteSoundingInRange(int startBeat, int endBeat, NoteVisitor visitor)
+          throws IllegalArgumentException {
+    this.model.forEachNoteSoundingInRange(startBeat, endBeat, visitor);
+  }
+
+  @Override
+  public void addModelListener(ModelListener listener) throws IllegalArgumentException {
+    this.model.addModelListener(listener);
+  }
+
+  @Override
+  public void removeModelListener(ModelListener listener) {
+    this.model.removeModelListener(listener);
+  }
+
+  @Override
+  public MusicEditorOperations<IMusicNote<IPitch>, IPitch> snapshot() {
+    return this.model.snapshot();
   }
 
   @Override
@@ -1,7 +1,9 @@
 package cs3500.music.model;
 
-import java.util.Set;
+import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
 
 /**
  * A Music Editor contains a series of notes. The notion of note and a pitch is parameterized
@@ -13,14 +15,23 @@ import java.util.Map;
 public interface MusicEditorOperations<K, T> {
 
   /**
-   * Sets the tempo of the piece in microseconds. Throws an IllegalArgumentException if the
-   * tempo is not positive.
+   * Sets the tempo at the start of the piece in microseconds. Tempo changes later in the piece are
+   * kept. Throws an IllegalArgumentException if the tempo is not positive.
    *
    * @param tempo The new tempo of the piece
    * @throws IllegalArgumentException If the tempo is not positive
    */
   void setTempo(int tempo) throws IllegalArgumentException;
 
+  /**
+   * Sets the tempos of the piece, replacing the starting tempo and every tempo change. Throws an
+   * IllegalArgumentException if the tempo map is null.
+   *
+   * @param tempoMap The new tempos of the piece
+   * @throws IllegalArgumentException If the tempo map is null
+   */
+  void setTempoMap(TempoMap tempoMap) throws IllegalArgumentException;
+
   /**
    * Set the beats per measure of the piece of music. Throws an IllegalArgumentException if the
    * beatsPerMeasure is not positive.
@@ -41,13 +52,27 @@ public interface MusicEditorOperations<K, T> {
    * Adds the given note to the piece of music. If the notes are past the end of the current piece,
    * the beats will be added to the piece. Duplicate notes will not be added. Two notes are defined
    * as duplicate notes if they have the same Pitch, duration, and startBeat. Throws an
-   * IllegalArgumentException if the note to add is null.
+   * IllegalArgumentException if the note to add is null or if its pitch is outside of octaves -1
+   * to 10, which are the Midi values 0 to 143.
    *
    * @param note The note to add to the editor
-   * @throws IllegalArgumentException If the note to add is null
+   * @throws IllegalArgumentException If the note to add is null or its pitch is out of range
    */
   void addNote(K note) throws IllegalArgumentException;
 
+  /**
+   * Adds all the given notes to the piece of music, as if each was added with addNote. Duplicate
+   * notes are not added. Implementations can add the notes in bulk, which is much faster than
+   * adding them one at a time when loading or merging large pieces. Throws an
+   * IllegalArgumentException if the collection or any note in it is null, or if the pitch of any
+   * note is outside of octaves -1 to 10, in which case no notes are added.
+   *
+   * @param notes The notes to add to the editor
+   * @throws IllegalArgumentException If the collection or any note in it is null, or the pitch of
+   *                                  any note is out of range
+   */
+  void addAll(Collection<? extends K> notes) throws IllegalArgumentException;
+
   /**
    * Removes the given note from the piece of music. If the note was the last note being played, the
    * beats that are now empty are removed. Throws an IllegalArgumentException if the note to
@@ -58,6 +83,19 @@ public interface MusicEditorOperations<K, T> {
    */
   void removeNote(K note) throws IllegalArgumentException;
 
+  /**
+   * Removes all the given notes from the piece of music, as if each was removed with removeNote.
+   * Notes given more than once are removed once. Implementations can remove the notes in bulk,
+   * which is much faster than removing them one at a time when undoing a large paste or clearing a
+   * selection. Throws an IllegalArgumentException if the collection or any note in it is null, or
+   * if any note does not exist, in which case no notes are removed.
+   *
+   * @param notes The notes to remove from the editor
+   * @throws IllegalArgumentException If the collection or any note in it is null or does not
+   *                                  exist
+   */
+  void removeAll(Collection<? extends K> notes) throws IllegalArgumentException;
+
   /**
    * Removes the oldNote and replaces it with newNote. If the new note is a duplicate note to a note
    * that already exists, it will not be added, but the old note will still be removed. A duplicate
@@ -79,7 +117,7 @@ public interface MusicEditorOperations<K, T> {
    * @param toAppend The piece to be appended at the end of this piece
    * @throws IllegalArgumentException If the editor to be appended at the end is null
    */
-  void append(MusicEditorOperations toAppend) throws IllegalArgumentException;
+  void append(MusicEditorOperations<?, ?> toAppend) throws IllegalArgumentException;
 
   /**
    * Combine the given piece on top of this piece. The piece that is being combined will take on the
@@ -91,15 +129,22 @@ public interface MusicEditorOperations<K, T> {
    * @param toCombine The piece to be combined to this piece
    * @throws IllegalArgumentException If the piece to be combined is null
    */
-  void combine(MusicEditorOperations toCombine) throws IllegalArgumentException;
+  void combine(MusicEditorOperations<?, ?> toCombine) throws IllegalArgumentException;
 
   /**
-   * Gets the tempo of the piece of music in beats per minute.
+   * Gets the tempo at the start of the piece of music in microseconds.
    *
    * @return The tempo of the piece of music
    */
   int getTempo();
 
+  /**
+   * Gets the tempos of the piece of music: the starting tempo and every tempo change.
+   *
+   * @return The tempo map of the piece of music
+   */
+  TempoMap getTempoMap();
+
   /**
    * Gets the beats per measure of the piece of music.
    *
@@ -108,17 +153,35 @@ public interface MusicEditorOperations<K, T> {
   int getBeatsPerMeasure();
 
   /**
-   * Gets the notes from this music editor. The notes are the values in the returned SortedMap while
-   * the beats are the key in the returned SortedMap. If there are no notes at a certain beat, the
-   * key will not appear in the SortedMap.
+   * Gets the notes from this music editor. The notes are the values in the returned Map while the
+   * beats are the key in the returned Map. If there are no notes at a certain beat, the key will
+   * not appear in the Map. Editors that can be changed return a copy, so the editor can be
+   * changed while the map is walked; read-only editors and snapshots may return an unmodifiable
+   * view instead. Use getNotesView to get the notes as a SortedMap without copying them.
    *
    * @return The music notes from this music editor.
    */
   Map<Integer, Set<K>> getNotes();
 
+  /**
+   * Gets the notes from this music editor as an unmodifiable SortedMap from each beat to the notes
+   * played at that beat, like getNotes. Implementations may return a live view of the editor
+   * instead of a copy, which makes it cheap to find the first or last beat of a long piece. The
+   * iterators of a live view may throw a ConcurrentModificationException if the editor is changed
+   * while they are in use, so use getNotes to walk the notes while changing the editor. By
+   * default this is getNotesInRange over every beat.
+   *
+   * @return The music notes from this music editor, by beat
+   */
+  default SortedMap<Integer, Set<K>> getNotesView() {
+    return getNotesInRange(0, Integer.MAX_VALUE);
+  }
+
   /**
    * Gets all the notes that are playing at a certain beat. If there are no notes at a certain beat,
-   * an empty set will be returned. Throws an IllegalArgumentException if the beat is negative.
+   * an empty set will be returned. Throws an IllegalArgumentException if the beat is negative. Like
+   * getNotes, editors that can be changed return a copy, while read-only editors and snapshots
+   * may return an unmodifiable view.
    *
    * @param beat The beat to get the notes that are playing
    * @return The set of notes that are playing
@@ -126,6 +189,124 @@ public interface MusicEditorOperations<K, T> {
    */
   Set<K> getNotesAtBeat(int beat) throws IllegalArgumentException;
 
+  /**
+   * Gets the notes played at the beats in [startBeat, endBeat) as a SortedMap from each beat to the
+   * notes playing at that beat, like getNotes restricted to the range. Only the notes in the range
+   * need to be looked at, so the cost depends on the size of the range and not the length of the
+   * piece. Throws an IllegalArgumentException if the start beat is negative or after the end beat.
+   *
+   * @param startBeat The first beat in the range
+   * @param endBeat The beat after the last beat in the range
+   * @return The notes played in the range, by beat
+   * @throws IllegalArgumentException If the start beat is negative or after the end beat
+   */
+  SortedMap<Integer, Set<K>> getNotesInRange(int startBeat, int endBeat)
+          throws IllegalArgumentException;
+
+  /**
+   * Gets every note that is playing at some beat in [startBeat, endBeat), each note once. Notes
+   * that start before the range but are still playing in it are included. Throws an
+   * IllegalArgumentException if the start beat is negative or after the end beat. Like
+   * getNotesView, the returned set cannot be modified and may be a live view of the editor.
+   *
+   * @param startBeat The first beat in the range
+   * @param endBeat The beat after the last beat in the range
+   * @return The set of notes that are playing in the range
+   * @throws IllegalArgumentException If the start beat is negative or after the end beat
+   */
+  Set<K> getNotesSoundingInRange(int startBeat, int endBeat) throws IllegalArgumentException;
+
+  /**
+   * Gets every note that starts at some beat in [startBeat, endBeat), each note once and in order
+   * of start beat. Unlike getNotesSoundingInRange, notes that start before the range are left
+   * out, so walking a piece range by range with this method sees each note exactly once. Throws
+   * an IllegalArgumentException if the start beat is negative or after the end beat. Like
+   * getNotesView, the returned set cannot be modified and may be a live view of the editor.
+   *
+   * @param startBeat The first beat in the range
+   * @param endBeat The beat after the last beat in the range
+   * @return The set of notes that start in the range
+   * @throws IllegalArgumentException If the start beat is negative or after the end beat
+   */
+  Set<K> getNotesStartingInRange(int startBeat, int endBeat) throws IllegalArgumentException;
+
+  /**
+   * Gets the pitches of the notes played at the given beat as a PitchMask, without creating the
+   * set that getNotesAtBeat would. Throws an IllegalArgumentException if the beat is negative.
+   *
+   * @param beat The beat
+   * @return The mask of the pitches played at the beat
+   * @throws IllegalArgumentException If the beat is negative
+   */
+  PitchMask getPitchMaskAtBeat(int beat) throws IllegalArgumentException;
+
+  /**
+   * Gives every note in the Music Editor to the given visitor exactly once, in order of start
+   * beat. The fields of the notes are given as ints, so no note objects need to be created.
+   *
+   * @param visitor The visitor to give the notes to
+   */
+  void forEachNote(NoteVisitor visitor);
+
+  /**
+   * Gives every note played in [startBeat, endBeat) to the given visitor exactly once, in order of
+   * start beat. This is the same set of notes as getNotesSoundingInRange, but no note objects need
+   * to be created. By default every note is visited and the ones outside the range are skipped.
+   *
+   * @param startBeat The first beat in the range
+   * @param endBeat The beat after the last beat in the range
+   * @param visitor The visitor to give the notes to
+   * @throws IllegalArgumentException If the start beat is negative or after the end beat
+   */
+  default void forEachNoteSoundingInRange(int startBeat, int endBeat, NoteVisitor visitor)
+          throws IllegalArgumentException {
+    MusicEditorModelImpl.checkRange(startBeat, endBeat);
+
+    forEachNote((start, duration, pitch, instrument, volume) -> {
+      if (start < endBeat && start + duration > startBeat) {
+        visitor.visit(start, duration, pitch, instrument, volume);
+      }
+    });
+  }
+
+  /**
+   * Gets the version of the Music Editor. The version changes every time the Music Editor is
+   * modified, so a reader can compare versions to find out if the editor changed since it last
+   * read it.
+   *
+   * @return The version of the Music Editor
+   */
+  int getVersion();
+
+  /**
+   * Adds a listener that is told about every change to the Music Editor after it is made, such as
+   * notes being added or removed in a range of beats or the tempo changing. Views can use the
+   * changes to update only the part of the view that was affected. Throws an
+   * IllegalArgumentException if the listener is null.
+   *
+   * @param listener The listener to add
+   * @throws IllegalArgumentException If the listener is null
+   */
+  void addModelListener(ModelListener listener) throws IllegalArgumentException;
+
+  /**
+   * Removes a listener that was added with addModelListener. Nothing happens if the listener was
+   * not added.
+   *
+   * @param listener The listener to remove
+   */
+  void removeModelListener(ModelListener listener);
+
+  /**
+   * Gets an immutable snapshot of the Music Editor as it is now. The snapshot cannot be modified,
+   * and later changes to this Music Editor do not change it, so it can be handed to a view that
+   * reads it while the editor keeps being edited. Implementations should share data with the
+   * snapshot instead of copying all the notes.
+   *
+   * @return The snapshot of the Music Editor
+   */
+  MusicEditorOperations<K, T> snapshot();
+
   /**
    * Gets the lowest pitch in the Music Editor where lowest is defined as the lowest frequency of
    * a note in the Music Editor.
@@ -11,7 +11,7 @@ public final class MusicNote implements IMusicNote<IPitch> {
    * The pitch of the note.
    *
    * <p>Class invariant: The pitch of the note always has a NoteName from C to B and an octave from
-   * </p>
+   * 1 to 10. Pitches are immutable and shared, so the pitch is given out without copying it.</p>
    */
   private final IPitch pitch;
 
@@ -58,7 +58,7 @@ public final class MusicNote implements IMusicNote<IPitch> {
     }
     this.instrument = instrument;
     this.volume = volume;
-    this.pitch = pitch;
+    this.pitch = Pitch.of(pitch);
     this.duration = duration;
     this.startBeat = startBeat;
   }
@@ -69,7 +69,7 @@ public final class MusicNote implements IMusicNote<IPitch> {
    * @param note The MusicNote to copy
    */
   MusicNote(IMusicNote<IPitch> note) {
-    this.pitch = note.getPitch();
+    this.pitch = Pitch.of(note.getPitch());
     this.duration = note.getDuration();
     this.startBeat = note.getStartBeat();
     this.instrument = note.getInstrument();
@@ -88,7 +88,7 @@ public final class MusicNote implements IMusicNote<IPitch> {
 
   @Override
   public IPitch getPitch() {
-    return new Pitch(pitch);
+    return pitch;
   }
 
   @Override
@@ -0,0 +1,309 @@
+package cs3500.music.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Secondary indices on the notes of a Music Editor, by instrument, by Midi pitch and by volume.
+ * The indices are optional: an index is created for an editor only when it is needed, and it is
+ * kept up to date by listening to the editor's changes. A single added or removed note updates
+ * the indices directly. Notes added in bulk are found with getNotesStartingInRange over the beats
+ * the change affects, and notes removed in bulk are found by checking the indexed notes that start
+ * in those beats against the notes the editor still has there. Questions such as "every note on
+ * instrument 33" or "every note louder than 100" are then answered in time proportional to the
+ * notes in the smallest matching index entry, instead of walking the whole piece.
+ *
+ * <p>The index is changed on the thread that changes the editor, and its methods are
+ * synchronized, so it can be read from other threads.</p>
+ */
+public final class NoteIndex {
+  private final MusicEditorOperations<IMusicNote<IPitch>, IPitch> model; // The indexed editor
+  private final ModelListener listener; // Listens to the changes of the editor
+
+  private final Map<Integer, Set<IMusicNote<IPitch>>> byInstrument; // The notes by instrument
+  private final TreeMap<Integer, Set<IMusicNote<IPitch>>> byPitch; // The notes by Midi pitch
+  private final TreeMap<Integer, Set<IMusicNote<IPitch>>> byVolume; // The notes by volume
+  private final TreeMap<Integer, Set<IMusicNote<IPitch>>> byStart; // The notes by start beat
+  private int size; // The number of notes indexed
+
+  /**
+   * Constructor for NoteIndex. Indexes the notes the editor has now and starts listening to it.
+   *
+   * @param model The editor to index
+   * @throws IllegalArgumentException If the model is null
+   */
+  public NoteIndex(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model)
+          throws IllegalArgumentException {
+    if (model == null) {
+      throw new IllegalArgumentException("Model cannot be null");
+    }
+
+    this.model = model;
+    this.byInstrument = new HashMap<Integer, Set<IMusicNote<IPitch>>>();
+    this.byPitch = new TreeMap<Integer, Set<IMusicNote<IPitch>>>();
+    this.byVolume = new TreeMap<Integer, Set<IMusicNote<IPitch>>>();
+    this.byStart = new TreeMap<Integer, Set<IMusicNote<IPitch>>>();
+    this.listener = this::modelChanged;
+    model.addModelListener(listener);
+    addAll(model.getNotesStartingInRange(0, Integer.MAX_VALUE));
+  }
+
+  /**
+   * Stops listening to the editor. The index is not changed after this.
+   */
+  public void detach() {
+    model.removeModelListener(listener);
+  }
+
+  /**
+   * Gets the number of notes in the index.
+   *
+   * @return The number of notes
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Gets the instruments that at least one note is played on.
+   *
+   * @return The instruments
+   */
+  public synchronized Set<Integer> getInstruments() {
+    return Collections.unmodifiableSet(new HashSet<Integer>(byInstrument.keySet()));
+  }
+
+  /**
+   * Gets the notes played on the given instrument.
+   *
+   * @param instrument The instrument
+   * @return The notes, which are a copy of the index
+   */
+  public synchronized Set<IMusicNote<IPitch>> getNotesOnInstrument(int instrument) {
+    Set<IMusicNote<IPitch>> notes = byInstrument.get(instrument);
+    return notes == null ? Collections.emptySet()
+            : Collections.unmodifiableSet(new HashSet<IMusicNote<IPitch>>(notes));
+  }
+
+  /**
+   * Gets the notes played at the given pitch.
+   *
+   * @param pitch The pitch
+   * @return The notes, which are a copy of the index
+   * @throws IllegalArgumentException If the pitch is null
+   */
+  public synchronized Set<IMusicNote<IPitch>> getNotesAtPitch(IPitch pitch)
+          throws IllegalArgumentException {
+    if (pitch == null) {
+      throw new IllegalArgumentException("Pitch cannot be null");
+    }
+
+    Set<IMusicNote<IPitch>> notes = byPitch.get(IPitch.pitchToMidi(pitch));
+    return notes == null ? Collections.emptySet()
+            : Collections.unmodifiableSet(new HashSet<IMusicNote<IPitch>>(notes));
+  }
+
+  /**
+   * Finds the notes that match the given query. The smallest of the index entries the query
+   * limits is walked and filtered with the rest of the query. If the query only limits beats, the
+   * notes that start in its range are read from the editor.
+   *
+   * @param query The query
+   * @return The matching notes
+   * @throws IllegalArgumentException If the query is null
+   */
+  public synchronized Set<IMusicNote<IPitch>> find(NoteQuery query)
+          throws IllegalArgumentException {
+    if (query == null) {
+      throw new IllegalArgumentException("Query cannot be null");
+    }
+
+    Collection<? extends Collection<IMusicNote<IPitch>>> candidates = null;
+    long best = size;
+    if (query.getInstrument() != null) {
+      Set<IMusicNote<IPitch>> notes = byInstrument.get(query.getInstrument());
+      if (notes == null) {
+        return Collections.emptySet();
+      }
+      candidates = Collections.singleton(notes);
+      best = notes.size();
+    }
+    if (query.limitsPitch()) {
+      Collection<Set<IMusicNote<IPitch>>> notes = byPitch.subMap(query.getLowMidi(), true,
+              query.getHighMidi(), true).values();
+      long count = count(notes);
+      if (count < best || candidates == null) {
+        candidates = notes;
+        best = count;
+      }
+    }
+    if (query.limitsVolume()) {
+      Collection<Set<IMusicNote<IPitch>>> notes = byVolume.subMap(query.getMinVolume(), true,
+              query.getMaxVolume(), true).values();
+      long count = count(notes);
+      if (count < best || candidates == null) {
+        candidates = notes;
+        best = count;
+      }
+    }
+    if (candidates == null || (query.limitsBeats() && best > 0)) {
+      Set<IMusicNote<IPitch>> notes = model.getNotesStartingInRange(query.getStartBeat(),
+              query.getEndBeat());
+      if (candidates == null || notes.size() < best) {
+        candidates = Collections.singleton(notes);
+      }
+    }
+
+    Set<IMusicNote<IPitch>> result = new LinkedHashSet<IMusicNote<IPitch>>();
+    for (Collection<IMusicNote<IPitch>> notes : candidates) {
+      for (IMusicNote<IPitch> note : notes) {
+        if (query.matches(note)) {
+          result.add(note);
+        }
+      }
+    }
+    return Collections.unmodifiableSet(result);
+  }
+
+  /**
+   * Updates the index after the given change to the editor.
+   *
+   * @param change The change
+   */
+  private synchronized void modelChanged(ModelChange change) {
+    switch (change.getType()) {
+      case NOTES_ADDED:
+        if (change.getNote() != null) {
+          add(change.getNote());
+        }
+        else {
+          addAll(model.getNotesStartingInRange(change.getStartBeat(), change.getEndBeat()));
+        }
+        break;
+      case NOTES_REMOVED:
+        if (change.getNote() != null) {
+          remove(change.getNote());
+        }
+        else {
+          removeMissing(change.getStartBeat(), change.getEndBeat());
+        }
+        break;
+      case NEW_PIECE:
+        rebuild();
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Indexes the notes the editor has now, forgetting every indexed note.
+   */
+  private void rebuild() {
+    byInstrument.clear();
+    byPitch.clear();
+    byVolume.clear();
+    byStart.clear();
+    size = 0;
+    addAll(model.getNotesStartingInRange(0, Integer.MAX_VALUE));
+  }
+
+  /**
+   * Removes the indexed notes that start in [startBeat, endBeat) and that the editor no longer
+   * has. Every note removed by a bulk change starts in the beats the change affects, so only the
+   * notes that start there are checked.
+   *
+   * @param startBeat The first beat the change affects
+   * @param endBeat The beat after the last beat the change affects
+   */
+  private void removeMissing(int startBeat, int endBeat) {
+    if (startBeat >= endBeat) {
+      return;
+    }
+
+    Set<IMusicNote<IPitch>> kept = model.getNotesStartingInRange(startBeat, endBeat);
+    List<IMusicNote<IPitch>> missing = new ArrayList<IMusicNote<IPitch>>();
+    for (Set<IMusicNote<IPitch>> notes : byStart.subMap(startBeat, endBeat).values()) {
+      for (IMusicNote<IPitch> note : notes) {
+        if (!kept.contains(note)) {
+          missing.add(note);
+        }
+      }
+    }
+    for (IMusicNote<IPitch> note : missing) {
+      remove(note);
+    }
+  }
+
+  private void addAll(Collection<IMusicNote<IPitch>> notes) {
+    for (IMusicNote<IPitch> note : notes) {
+      add(note);
+    }
+  }
+
+  private void add(IMusicNote<IPitch> note) {
+    if (add(byInstrument, note.getInstrument(), note)) {
+      add(byPitch, IPitch.pitchToMidi(note.getPitch()), note);
+      add(byVolume, note.getVolume(), note);
+      add(byStart, note.getStartBeat(), note);
+      size++;
+    }
+  }
+
+  private void remove(IMusicNote<IPitch> note) {
+    if (remove(byInstrument, note.getInstrument(), note)) {
+      remove(byPitch, IPitch.pitchToMidi(note.getPitch()), note);
+      remove(byVolume, note.getVolume(), note);
+      remove(byStart, note.getStartBeat(), note);
+      size--;
+    }
+  }
+
+  /**
+   * Adds a note to the entry of an index with the given key.
+   *
+   * @return If the note was not in the entry
+   */
+  private static boolean add(Map<Integer, Set<IMusicNote<IPitch>>> index, int key,
+                             IMusicNote<IPitch> note) {
+    Set<IMusicNote<IPitch>> notes = index.get(key);
+    if (notes == null) {
+      notes = new HashSet<IMusicNote<IPitch>>();
+      index.put(key, notes);
+    }
+    return notes.add(note);
+  }
+
+  /**
+   * Removes a note from the entry of an index with the given key, and the entry if it is empty.
+   *
+   * @return If the note was in the entry
+   */
+  private static boolean remove(Map<Integer, Set<IMusicNote<IPitch>>> index, int key,
+                                IMusicNote<IPitch> note) {
+    Set<IMusicNote<IPitch>> notes = index.get(key);
+    if (notes == null || !notes.remove(note)) {
+      return false;
+    }
+    if (notes.isEmpty()) {
+      index.remove(key);
+    }
+    return true;
+  }
+
+  private static long count(Collection<Set<IMusicNote<IPitch>>> entries) {
+    long count = 0;
+    for (Set<IMusicNote<IPitch>> notes : entries) {
+      count += notes.size();
+    }
+    return count;
+  }
+}
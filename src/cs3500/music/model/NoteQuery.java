@@ -0,0 +1,155 @@
+package cs3500.music.model;
+
+/**
+ * A filter on the notes of a piece of music, used to find notes with a NoteIndex. A query can
+ * limit the instrument, the range of pitches, the range of volumes and the range of beats that
+ * notes start in; anything it does not limit matches every note. A NoteQuery is immutable, so
+ * each method that limits it returns a new query.
+ */
+public final class NoteQuery {
+
+  /**
+   * The query that matches every note.
+   */
+  public static final NoteQuery ALL = new NoteQuery(null, 0, Integer.MAX_VALUE,
+          Integer.MIN_VALUE, Integer.MAX_VALUE, 0, Integer.MAX_VALUE);
+
+  private final Integer instrument; // The instrument of the notes, or null for any instrument
+  private final int lowMidi; // The lowest Midi pitch of the notes
+  private final int highMidi; // The highest Midi pitch of the notes
+  private final int minVolume; // The lowest volume of the notes
+  private final int maxVolume; // The highest volume of the notes
+  private final int startBeat; // The first beat the notes can start at
+  private final int endBeat; // The beat after the last beat the notes can start at
+
+  /**
+   * Constructor for NoteQuery.
+   */
+  private NoteQuery(Integer instrument, int lowMidi, int highMidi, int minVolume, int maxVolume,
+                    int startBeat, int endBeat) {
+    this.instrument = instrument;
+    this.lowMidi = lowMidi;
+    this.highMidi = highMidi;
+    this.minVolume = minVolume;
+    this.maxVolume = maxVolume;
+    this.startBeat = startBeat;
+    this.endBeat = endBeat;
+  }
+
+  /**
+   * Gets a query that also limits the notes to the given instrument.
+   *
+   * @param instrument The instrument of the notes
+   * @return The new query
+   */
+  public NoteQuery onInstrument(int instrument) {
+    return new NoteQuery(instrument, lowMidi, highMidi, minVolume, maxVolume, startBeat,
+            endBeat);
+  }
+
+  /**
+   * Gets a query that also limits the notes to the pitches from low to high, inclusive.
+   *
+   * @param low The lowest pitch of the notes
+   * @param high The highest pitch of the notes
+   * @return The new query
+   * @throws IllegalArgumentException If either pitch is null or low is above high
+   */
+  public NoteQuery withPitchesBetween(IPitch low, IPitch high) throws IllegalArgumentException {
+    if (low == null || high == null) {
+      throw new IllegalArgumentException("Pitch cannot be null");
+    }
+
+    int lowMidi = IPitch.pitchToMidi(low);
+    int highMidi = IPitch.pitchToMidi(high);
+    if (lowMidi > highMidi) {
+      throw new IllegalArgumentException("Low pitch cannot be above high pitch");
+    }
+    return new NoteQuery(instrument, lowMidi, highMidi, minVolume, maxVolume, startBeat,
+            endBeat);
+  }
+
+  /**
+   * Gets a query that also limits the notes to the volumes from min to max, inclusive.
+   *
+   * @param min The lowest volume of the notes
+   * @param max The highest volume of the notes
+   * @return The new query
+   * @throws IllegalArgumentException If min is above max
+   */
+  public NoteQuery withVolumesBetween(int min, int max) throws IllegalArgumentException {
+    if (min > max) {
+      throw new IllegalArgumentException("Minimum volume cannot be above maximum volume");
+    }
+    return new NoteQuery(instrument, lowMidi, highMidi, min, max, startBeat, endBeat);
+  }
+
+  /**
+   * Gets a query that also limits the notes to those that start in [startBeat, endBeat).
+   *
+   * @param startBeat The first beat the notes can start at
+   * @param endBeat The beat after the last beat the notes can start at
+   * @return The new query
+   * @throws IllegalArgumentException If the start beat is negative or the end beat is before the
+   *                                  start beat
+   */
+  public NoteQuery startingIn(int startBeat, int endBeat) throws IllegalArgumentException {
+    MusicEditorModelImpl.checkRange(startBeat, endBeat);
+    return new NoteQuery(instrument, lowMidi, highMidi, minVolume, maxVolume, startBeat,
+            endBeat);
+  }
+
+  /**
+   * Determines if the given note matches this query.
+   *
+   * @param note The note
+   * @return If the note matches
+   */
+  public boolean matches(IMusicNote<IPitch> note) {
+    int midi = IPitch.pitchToMidi(note.getPitch());
+    return (instrument == null || note.getInstrument() == instrument)
+            && midi >= lowMidi && midi <= highMidi
+            && note.getVolume() >= minVolume && note.getVolume() <= maxVolume
+            && note.getStartBeat() >= startBeat && note.getStartBeat() < endBeat;
+  }
+
+  Integer getInstrument() {
+    return instrument;
+  }
+
+  boolean limitsPitch() {
+    return lowMidi > 0 || highMidi < Integer.MAX_VALUE;
+  }
+
+  int getLowMidi() {
+    return lowMidi;
+  }
+
+  int getHighMidi() {
+    return highMidi;
+  }
+
+  boolean limitsVolume() {
+    return minVolume > Integer.MIN_VALUE || maxVolume < Integer.MAX_VALUE;
+  }
+
+  int getMinVolume() {
+    return minVolume;
+  }
+
+  int getMaxVolume() {
+    return maxVolume;
+  }
+
+  boolean limitsBeats() {
+    return startBeat > 0 || endBeat < Integer.MAX_VALUE;
+  }
+
+  int getStartBeat() {
+    return startBeat;
+  }
+
+  int getEndBeat() {
+    return endBeat;
+  }
+}
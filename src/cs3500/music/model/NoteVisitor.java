@@ -0,0 +1,20 @@
+package cs3500.music.model;
+
+/**
+ * Visits the notes of a Music Editor one at a time. The fields of each note are given as plain
+ * ints so that a Music Editor can be walked without creating a note or pitch object for every
+ * note, which matters for views that go through every note of large pieces.
+ */
+public interface NoteVisitor {
+
+  /**
+   * Visits one note.
+   *
+   * @param startBeat The beat the note starts at
+   * @param duration The number of beats the note is played for
+   * @param pitch The Midi value of the pitch of the note, where 60 is middle C
+   * @param instrument The instrument of the note
+   * @param volume The volume of the note
+   */
+  void visit(int startBeat, int duration, int pitch, int instrument, int volume);
+}
@@ -0,0 +1,136 @@
+package cs3500.music.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * An unmodifiable view of a map from beats to the notes played at them, with every beat and note
+ * shifted by a number of beats and semitones. Keys are shifted as they are read and the sets of
+ * notes are OffsetNoteSetViews, so nothing is copied when the view is made.
+ */
+final class OffsetBeatMapView extends AbstractMap<Integer, Set<IMusicNote<IPitch>>>
+        implements SortedMap<Integer, Set<IMusicNote<IPitch>>> {
+  private final SortedMap<Integer, Set<IMusicNote<IPitch>>> notes; // The beats to shift
+  private final int beatOffset; // The number of beats to shift the notes later by
+  private final int pitchOffset; // The number of semitones to shift the notes up by
+
+  /**
+   * Constructor for OffsetBeatMapView.
+   *
+   * @param notes The map of beats to shift
+   * @param beatOffset The number of beats to shift the notes later by
+   * @param pitchOffset The number of semitones to shift the notes up by
+   */
+  OffsetBeatMapView(SortedMap<Integer, Set<IMusicNote<IPitch>>> notes, int beatOffset,
+                    int pitchOffset) {
+    this.notes = notes;
+    this.beatOffset = beatOffset;
+    this.pitchOffset = pitchOffset;
+  }
+
+  /**
+   * Gets the beat of the underlying map that is shown at the given beat. Beats before the offset
+   * are clamped to 0, since no shifted note is played before the offset.
+   *
+   * @param beat The shifted beat
+   * @return The unshifted beat
+   */
+  private int toSource(int beat) {
+    return beat < beatOffset ? 0 : beat - beatOffset;
+  }
+
+  @Override
+  public Comparator<? super Integer> comparator() {
+    return null;
+  }
+
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> subMap(Integer fromKey, Integer toKey) {
+    if (fromKey > toKey) {
+      throw new IllegalArgumentException("fromKey > toKey");
+    }
+    return new OffsetBeatMapView(notes.subMap(toSource(fromKey), toSource(toKey)), beatOffset,
+            pitchOffset);
+  }
+
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> headMap(Integer toKey) {
+    return new OffsetBeatMapView(notes.headMap(toSource(toKey)), beatOffset, pitchOffset);
+  }
+
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> tailMap(Integer fromKey) {
+    return new OffsetBeatMapView(notes.tailMap(toSource(fromKey)), beatOffset, pitchOffset);
+  }
+
+  @Override
+  public Integer firstKey() {
+    return notes.firstKey() + beatOffset;
+  }
+
+  @Override
+  public Integer lastKey() {
+    return notes.lastKey() + beatOffset;
+  }
+
+  @Override
+  public int size() {
+    return notes.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return notes.isEmpty();
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return key instanceof Integer && (Integer) key >= beatOffset
+            && notes.containsKey((Integer) key - beatOffset);
+  }
+
+  @Override
+  public Set<IMusicNote<IPitch>> get(Object key) {
+    if (!(key instanceof Integer) || (Integer) key < beatOffset) {
+      return null;
+    }
+    Set<IMusicNote<IPitch>> result = notes.get((Integer) key - beatOffset);
+    return result == null ? null : new OffsetNoteSetView(result, beatOffset, pitchOffset);
+  }
+
+  @Override
+  public Set<Map.Entry<Integer, Set<IMusicNote<IPitch>>>> entrySet() {
+    return new AbstractSet<Map.Entry<Integer, Set<IMusicNote<IPitch>>>>() {
+      @Override
+      public Iterator<Map.Entry<Integer, Set<IMusicNote<IPitch>>>> iterator() {
+        Iterator<Map.Entry<Integer, Set<IMusicNote<IPitch>>>> entries =
+                notes.entrySet().iterator();
+
+        return new Iterator<Map.Entry<Integer, Set<IMusicNote<IPitch>>>>() {
+          @Override
+          public boolean hasNext() {
+            return entries.hasNext();
+          }
+
+          @Override
+          public Map.Entry<Integer, Set<IMusicNote<IPitch>>> next() {
+            Map.Entry<Integer, Set<IMusicNote<IPitch>>> entry = entries.next();
+            return new SimpleImmutableEntry<Integer, Set<IMusicNote<IPitch>>>(
+                    entry.getKey() + beatOffset,
+                    new OffsetNoteSetView(entry.getValue(), beatOffset, pitchOffset));
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return notes.size();
+      }
+    };
+  }
+}
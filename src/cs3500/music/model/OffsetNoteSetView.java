@@ -0,0 +1,66 @@
+package cs3500.music.model;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * An unmodifiable view of a set of notes with every note shifted by a number of beats and
+ * semitones. The shifted notes are only created as they are iterated over, so nothing is copied
+ * when the view is made.
+ */
+final class OffsetNoteSetView extends AbstractSet<IMusicNote<IPitch>> {
+  private final Set<IMusicNote<IPitch>> notes; // The notes to shift
+  private final int beatOffset; // The number of beats to shift the notes later by
+  private final int pitchOffset; // The number of semitones to shift the notes up by
+
+  /**
+   * Constructor for OffsetNoteSetView.
+   *
+   * @param notes The notes to shift
+   * @param beatOffset The number of beats to shift the notes later by
+   * @param pitchOffset The number of semitones to shift the notes up by
+   */
+  OffsetNoteSetView(Set<IMusicNote<IPitch>> notes, int beatOffset, int pitchOffset) {
+    this.notes = notes;
+    this.beatOffset = beatOffset;
+    this.pitchOffset = pitchOffset;
+  }
+
+  @Override
+  public Iterator<IMusicNote<IPitch>> iterator() {
+    Iterator<IMusicNote<IPitch>> iterator = notes.iterator();
+
+    return new Iterator<IMusicNote<IPitch>>() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public IMusicNote<IPitch> next() {
+        return OffsetScoreView.shift(iterator.next(), beatOffset, pitchOffset);
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return notes.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return notes.isEmpty();
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    if (!(o instanceof IMusicNote)) {
+      return false;
+    }
+
+    IMusicNote<IPitch> note = OffsetScoreView.unshift((IMusicNote<?>) o, beatOffset, pitchOffset);
+    return note != null && notes.contains(note);
+  }
+}
@@ -0,0 +1,403 @@
+package cs3500.music.model;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * A Music Editor that shows another piece shifted later in time and transposed in pitch, without
+ * copying it. The view is made from a snapshot of the other piece, which is O(1) for the editors
+ * in this package, and every note read from the view is shifted as it is read. Making a view of a
+ * large piece, or of a section of one to preview it, therefore costs nothing until it is edited.
+ * The first change made to the view copies the shifted notes into a MusicEditorModelImpl, and
+ * from then on the view reads and changes that copy. Later changes to the other piece are never
+ * seen by the view.
+ */
+public class OffsetScoreView implements MusicEditorOperations<IMusicNote<IPitch>, IPitch> {
+  private final MusicEditorOperations<IMusicNote<IPitch>, IPitch> source; // The piece to shift
+  private final int beatOffset; // The number of beats to shift the piece later by
+  private final int pitchOffset; // The number of semitones to transpose the piece up by
+  private final ModelChangeSupport listeners; // The listeners of this view
+
+  /**
+   * The copy of the shifted piece that changes are made to, or null if the view has not been
+   * changed yet.
+   */
+  private MusicEditorModelImpl materialized;
+
+  /**
+   * Constructor for OffsetScoreView.
+   *
+   * @param source The piece to show
+   * @param beatOffset The number of beats to shift the piece later by
+   * @param pitchOffset The number of semitones to transpose the piece up by, which may be negative
+   * @throws IllegalArgumentException If the piece is null, the beat offset is negative or a
+   *                                  transposed pitch would be out of range
+   */
+  public OffsetScoreView(MusicEditorOperations<IMusicNote<IPitch>, IPitch> source, int beatOffset,
+                         int pitchOffset) throws IllegalArgumentException {
+    if (source == null) {
+      throw new IllegalArgumentException("Editor to view cannot be null");
+    }
+
+    if (beatOffset < 0) {
+      throw new IllegalArgumentException("Beat offset cannot be negative");
+    }
+
+    this.source = source.snapshot();
+    IPitch low = this.source.getLowPitch();
+    IPitch high = this.source.getHighPitch();
+    if (low != null && (!PitchHistogram.inRange(IPitch.pitchToMidi(low) + pitchOffset)
+            || !PitchHistogram.inRange(IPitch.pitchToMidi(high) + pitchOffset))) {
+      throw new IllegalArgumentException("Transposed pitches are out of range");
+    }
+    this.beatOffset = beatOffset;
+    this.pitchOffset = pitchOffset;
+    this.listeners = new ModelChangeSupport();
+    this.materialized = null;
+  }
+
+  /**
+   * Determines if the view has been changed and now holds its own copy of the shifted piece.
+   *
+   * @return If the view has been copied
+   */
+  public boolean isMaterialized() {
+    return materialized != null;
+  }
+
+  @Override
+  public void setTempo(int tempo) throws IllegalArgumentException {
+    materialize().setTempo(tempo);
+  }
+
+  @Override
+  public void setTempoMap(TempoMap tempoMap) throws IllegalArgumentException {
+    materialize().setTempoMap(tempoMap);
+  }
+
+  @Override
+  public void setBeatsPerMeasure(int beatsPerMeasure) throws IllegalArgumentException {
+    materialize().setBeatsPerMeasure(beatsPerMeasure);
+  }
+
+  @Override
+  public void newPiece() {
+    materialize().newPiece();
+  }
+
+  @Override
+  public void addNote(IMusicNote<IPitch> note) throws IllegalArgumentException {
+    materialize().addNote(note);
+  }
+
+  @Override
+  public void addAll(Collection<? extends IMusicNote<IPitch>> notes)
+          throws IllegalArgumentException {
+    materialize().addAll(notes);
+  }
+
+  @Override
+  public void removeNote(IMusicNote<IPitch> note) throws IllegalArgumentException {
+    materialize().removeNote(note);
+  }
+
+  @Override
+  public void removeAll(Collection<? extends IMusicNote<IPitch>> notes)
+          throws IllegalArgumentException {
+    materialize().removeAll(notes);
+  }
+
+  @Override
+  public void replaceNote(IMusicNote<IPitch> oldNote, IMusicNote<IPitch> newNote)
+          throws IllegalArgumentException {
+    materialize().replaceNote(oldNote, newNote);
+  }
+
+  @Override
+  public void append(MusicEditorOperations<?, ?> toAppend) throws IllegalArgumentException {
+    materialize().append(toAppend);
+  }
+
+  @Override
+  public void combine(MusicEditorOperations<?, ?> toCombine) throws IllegalArgumentException {
+    materialize().combine(toCombine);
+  }
+
+  @Override
+  public int getTempo() {
+    return materialized == null ? source.getTempo() : materialized.getTempo();
+  }
+
+  /**
+   * Gets the tempos of the shifted piece. Every tempo change of the piece is shifted by the same
+   * number of beats as its notes.
+   *
+   * @return The tempo map of the shifted piece
+   */
+  @Override
+  public TempoMap getTempoMap() {
+    return materialized == null ? source.getTempoMap().shift(beatOffset)
+            : materialized.getTempoMap();
+  }
+
+  @Override
+  public int getBeatsPerMeasure() {
+    return materialized == null ? source.getBeatsPerMeasure()
+            : materialized.getBeatsPerMeasure();
+  }
+
+  @Override
+  public Map<Integer, Set<IMusicNote<IPitch>>> getNotes() {
+    if (materialized != null) {
+      return materialized.getNotes();
+    }
+    return getNotesView();
+  }
+
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> getNotesView() {
+    if (materialized != null) {
+      return materialized.getNotesView();
+    }
+    return new OffsetBeatMapView(source.getNotesView(), beatOffset, pitchOffset);
+  }
+
+  @Override
+  public PitchMask getPitchMaskAtBeat(int beat) throws IllegalArgumentException {
+    if (materialized != null) {
+      return materialized.getPitchMaskAtBeat(beat);
+    }
+
+    if (beat < 0) {
+      throw new IllegalArgumentException("Beat cannot be negative");
+    }
+
+    if (beat < beatOffset) {
+      return PitchMask.EMPTY;
+    }
+    PitchMask mask = source.getPitchMaskAtBeat(beat - beatOffset);
+    if (pitchOffset == 0) {
+      return mask;
+    }
+    long[] words = new long[PitchMask.WORDS];
+    for (int midi = mask.nextMidi(0); midi >= 0; midi = mask.nextMidi(midi + 1)) {
+      PitchMask.set(words, midi + pitchOffset);
+    }
+    return new PitchMask(words);
+  }
+
+  @Override
+  public Set<IMusicNote<IPitch>> getNotesAtBeat(int beat) throws IllegalArgumentException {
+    if (materialized != null) {
+      return materialized.getNotesAtBeat(beat);
+    }
+
+    if (beat < 0) {
+      throw new IllegalArgumentException("Beat cannot be negative");
+    }
+
+    if (beat < beatOffset) {
+      return Collections.emptySet();
+    }
+    return new OffsetNoteSetView(source.getNotesAtBeat(beat - beatOffset), beatOffset,
+            pitchOffset);
+  }
+
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> getNotesInRange(int startBeat, int endBeat)
+          throws IllegalArgumentException {
+    if (materialized != null) {
+      return materialized.getNotesInRange(startBeat, endBeat);
+    }
+
+    MusicEditorModelImpl.checkRange(startBeat, endBeat);
+    return new OffsetBeatMapView(source.getNotesInRange(toSource(startBeat), toSource(endBeat)),
+            beatOffset, pitchOffset);
+  }
+
+  @Override
+  public Set<IMusicNote<IPitch>> getNotesSoundingInRange(int startBeat, int endBeat)
+          throws IllegalArgumentException {
+    if (materialized != null) {
+      return materialized.getNotesSoundingInRange(startBeat, endBeat);
+    }
+
+    MusicEditorModelImpl.checkRange(startBeat, endBeat);
+    return new OffsetNoteSetView(
+            source.getNotesSoundingInRange(toSource(startBeat), toSource(endBeat)), beatOffset,
+            pitchOffset);
+  }
+
+  @Override
+  public Set<IMusicNote<IPitch>> getNotesStartingInRange(int startBeat, int endBeat)
+          throws IllegalArgumentException {
+    if (materialized != null) {
+      return materialized.getNotesStartingInRange(startBeat, endBeat);
+    }
+
+    MusicEditorModelImpl.checkRange(startBeat, endBeat);
+    return new OffsetNoteSetView(
+            source.getNotesStartingInRange(toSource(startBeat), toSource(endBeat)), beatOffset,
+            pitchOffset);
+  }
+
+  @Override
+  public void forEachNote(NoteVisitor visitor) {
+    if (materialized != null) {
+      materialized.forEachNote(visitor);
+      return;
+    }
+
+    source.forEachNote((startBeat, duration, pitch, instrument, volume) ->
+            visitor.visit(startBeat + beatOffset, duration, pitch + pitchOffset, instrument,
+                    volume));
+  }
+
+  /**
+   * Gives every note played in [startBeat, endBeat) to the given visitor. Until the view is
+   * changed, the range is shifted back onto the source piece and only the notes the source plays
+   * there are visited.
+   *
+   * @param startBeat The first beat in the range
+   * @param endBeat The beat after the last beat in the range
+   * @param visitor The visitor to give the notes to
+   * @throws IllegalArgumentException If the start beat is negative or after the end beat
+   */
+  @Override
+  public void forEachNoteSoundingInRange(int startBeat, int endBeat, NoteVisitor visitor)
+          throws IllegalArgumentException {
+    MusicEditorModelImpl.checkRange(startBeat, endBeat);
+
+    if (materialized != null) {
+      materialized.forEachNoteSoundingInRange(startBeat, endBeat, visitor);
+      return;
+    }
+    if (endBeat - beatOffset <= 0) {
+      return;
+    }
+
+    source.forEachNoteSoundingInRange(Math.max(0, startBeat - beatOffset), endBeat - beatOffset,
+            (start, duration, pitch, instrument, volume) -> visitor.visit(start + beatOffset,
+                    duration, pitch + pitchOffset, instrument, volume));
+  }
+
+  /**
+   * Gets the version of this view. The version is 0 until the view is changed, since the piece it
+   * shows never changes until then.
+   *
+   * @return The version
+   */
+  @Override
+  public int getVersion() {
+    return materialized == null ? 0 : materialized.getVersion();
+  }
+
+  @Override
+  public void addModelListener(ModelListener listener) throws IllegalArgumentException {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void removeModelListener(ModelListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Gets an immutable snapshot of this view. Until the view is changed the snapshot is another
+   * view of the same piece, so it is taken in O(1) without copying the view.
+   *
+   * @return The snapshot
+   */
+  @Override
+  public MusicEditorOperations<IMusicNote<IPitch>, IPitch> snapshot() {
+    if (materialized != null) {
+      return materialized.snapshot();
+    }
+    return new MusicEditorModelImplReadOnly(new OffsetScoreView(source, beatOffset, pitchOffset));
+  }
+
+  @Override
+  public IPitch getLowPitch() {
+    if (materialized != null) {
+      return materialized.getLowPitch();
+    }
+    IPitch low = source.getLowPitch();
+    return low == null ? null : Pitch.fromMidi(IPitch.pitchToMidi(low) + pitchOffset);
+  }
+
+  @Override
+  public IPitch getHighPitch() {
+    if (materialized != null) {
+      return materialized.getHighPitch();
+    }
+    IPitch high = source.getHighPitch();
+    return high == null ? null : Pitch.fromMidi(IPitch.pitchToMidi(high) + pitchOffset);
+  }
+
+  /**
+   * Gets the beat of the piece that is shown at the given beat, clamped to 0 for beats before the
+   * offset.
+   *
+   * @param beat The shifted beat
+   * @return The beat of the piece
+   */
+  private int toSource(int beat) {
+    return beat < beatOffset ? 0 : beat - beatOffset;
+  }
+
+  /**
+   * Copies the shifted piece into a MusicEditorModelImpl the first time the view is changed. The
+   * listeners of this view are told about every change made to the copy.
+   *
+   * @return The copy
+   */
+  private MusicEditorModelImpl materialize() {
+    if (materialized == null) {
+      MusicEditorModelImpl model = new MusicEditorModelImpl();
+      model.setTempoMap(getTempoMap());
+      model.setBeatsPerMeasure(source.getBeatsPerMeasure());
+      model.combine(this);
+      model.addModelListener(listeners::fire);
+      materialized = model;
+    }
+    return materialized;
+  }
+
+  /**
+   * Shifts the given note later by a number of beats and up by a number of semitones.
+   *
+   * @param note The note to shift
+   * @param beatOffset The number of beats to shift the note by
+   * @param pitchOffset The number of semitones to shift the note by
+   * @return The shifted note
+   */
+  static IMusicNote<IPitch> shift(IMusicNote<IPitch> note, int beatOffset, int pitchOffset) {
+    return new MusicNote(Pitch.fromMidi(IPitch.pitchToMidi(note.getPitch()) + pitchOffset),
+            note.getDuration(), note.getStartBeat() + beatOffset, note.getInstrument(),
+            note.getVolume());
+  }
+
+  /**
+   * Undoes shift on the given note.
+   *
+   * @param note The shifted note
+   * @param beatOffset The number of beats the note was shifted by
+   * @param pitchOffset The number of semitones the note was shifted by
+   * @return The note before it was shifted, or null if no note shifts to the given note
+   */
+  static IMusicNote<IPitch> unshift(IMusicNote<?> note, int beatOffset, int pitchOffset) {
+    if (!(note.getPitch() instanceof IPitch) || note.getDuration() < 0) {
+      return null;
+    }
+
+    int midi = IPitch.pitchToMidi((IPitch) note.getPitch()) - pitchOffset;
+    if (note.getStartBeat() < beatOffset || !PitchHistogram.inRange(midi)) {
+      return null;
+    }
+    return new MusicNote(Pitch.fromMidi(midi), note.getDuration(),
+            note.getStartBeat() - beatOffset, note.getInstrument(), note.getVolume());
+  }
+}
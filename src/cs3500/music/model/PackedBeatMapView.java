@@ -0,0 +1,162 @@
+package cs3500.music.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * An unmodifiable, live view of the notes of a PackedMusicEditorModel as a map from each beat to
+ * the set of notes played at that beat, like BeatMapView is for the interval tree. No map is
+ * built: the first and last beats are found by searching the packed notes near them, so finding
+ * the end of a long piece does not depend on the number of notes in it. Only the set of notes at
+ * a beat is created, when it is asked for. Iterators throw a ConcurrentModificationException if
+ * the editor is changed while they are in use. The view only holds the beats in
+ * [fromBeat, toBeat).
+ */
+final class PackedBeatMapView extends AbstractMap<Integer, Set<IMusicNote<IPitch>>>
+        implements SortedMap<Integer, Set<IMusicNote<IPitch>>> {
+  private final PackedMusicEditorModel model; // The notes to view
+  private final int fromBeat; // The first beat in the view
+  private final int toBeat; // The beat after the last beat in the view
+
+  /**
+   * Constructor for PackedBeatMapView. Views the beats in [fromBeat, toBeat) of the given editor.
+   *
+   * @param model The notes to view
+   * @param fromBeat The first beat in the view
+   * @param toBeat The beat after the last beat in the view
+   */
+  PackedBeatMapView(PackedMusicEditorModel model, int fromBeat, int toBeat) {
+    this.model = model;
+    this.fromBeat = Math.max(0, fromBeat);
+    this.toBeat = toBeat;
+  }
+
+  @Override
+  public Comparator<? super Integer> comparator() {
+    return null;
+  }
+
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> subMap(Integer fromKey, Integer toKey) {
+    if (fromKey > toKey) {
+      throw new IllegalArgumentException("fromKey > toKey");
+    }
+    return new PackedBeatMapView(model, Math.max(fromBeat, fromKey), Math.min(toBeat, toKey));
+  }
+
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> headMap(Integer toKey) {
+    return new PackedBeatMapView(model, fromBeat, Math.min(toBeat, toKey));
+  }
+
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> tailMap(Integer fromKey) {
+    return new PackedBeatMapView(model, Math.max(fromBeat, fromKey), toBeat);
+  }
+
+  @Override
+  public Integer firstKey() {
+    int beat = nextBeat(fromBeat);
+    if (beat < 0) {
+      throw new NoSuchElementException();
+    }
+    return beat;
+  }
+
+  @Override
+  public Integer lastKey() {
+    int beat = model.endBeatBefore(toBeat) - 1;
+    if (beat < fromBeat) {
+      throw new NoSuchElementException();
+    }
+    return beat;
+  }
+
+  @Override
+  public int size() {
+    return fromBeat < toBeat ? model.countSoundingBeats(fromBeat, toBeat) : 0;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return nextBeat(fromBeat) < 0;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    if (!(key instanceof Integer)) {
+      return false;
+    }
+    int beat = (Integer) key;
+    return beat >= fromBeat && beat < toBeat && model.nextSoundingBeat(beat) == beat;
+  }
+
+  @Override
+  public Set<IMusicNote<IPitch>> get(Object key) {
+    if (!containsKey(key)) {
+      return null;
+    }
+    return model.getNotesAtBeat((Integer) key);
+  }
+
+  @Override
+  public Set<Map.Entry<Integer, Set<IMusicNote<IPitch>>>> entrySet() {
+    return new AbstractSet<Map.Entry<Integer, Set<IMusicNote<IPitch>>>>() {
+      @Override
+      public Iterator<Map.Entry<Integer, Set<IMusicNote<IPitch>>>> iterator() {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size() {
+        return PackedBeatMapView.this.size();
+      }
+    };
+  }
+
+  /**
+   * Gets the first beat in the view at or after the given beat that a note is played at.
+   *
+   * @param beat The beat to start looking from
+   * @return The beat, or -1 if there is none
+   */
+  private int nextBeat(int beat) {
+    int result = beat < toBeat ? model.nextSoundingBeat(beat) : -1;
+    return result < toBeat ? result : -1;
+  }
+
+  /**
+   * Iterates over the beats with notes in order, skipping empty beats.
+   */
+  private final class EntryIterator implements Iterator<Map.Entry<Integer,
+          Set<IMusicNote<IPitch>>>> {
+    private final int expectedVersion = model.getVersion();
+    private int next = nextBeat(fromBeat);
+
+    @Override
+    public boolean hasNext() {
+      return next >= 0;
+    }
+
+    @Override
+    public Map.Entry<Integer, Set<IMusicNote<IPitch>>> next() {
+      if (model.getVersion() != expectedVersion) {
+        throw new ConcurrentModificationException();
+      }
+      if (next < 0) {
+        throw new NoSuchElementException();
+      }
+      int beat = next;
+      next = nextBeat(beat + 1);
+      return new SimpleImmutableEntry<Integer, Set<IMusicNote<IPitch>>>(beat,
+              model.getNotesAtBeat(beat));
+    }
+  }
+}
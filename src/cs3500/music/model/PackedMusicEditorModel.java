@@ -0,0 +1,882 @@
+package cs3500.music.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import cs3500.music.util.CompositionBuilder;
+
+/**
+ * A Music Editor that keeps its notes as packed longs in a sorted primitive array instead of as
+ * note objects. Each note takes one long no matter how many beats it is played for, and notes are
+ * only turned into MusicNotes when they leave the editor through getNotes or getNotesAtBeat.
+ * Walking the notes with forEachNote does not create any objects. The packed form limits the
+ * notes this editor can hold: start beats must be below 4194304, durations below 262144,
+ * instruments from 0 to 255 and volumes from 0 to 127.
+ */
+public class PackedMusicEditorModel implements MusicEditorOperations<IMusicNote<IPitch>, IPitch> {
+
+  /**
+   * The packed notes in this editor (see PackedNotes for the layout).
+   *
+   * <p>Class invariant: The first size entries are sorted, have no duplicates and all have a
+   * positive duration.</p>
+   */
+  private long[] notes;
+
+  /**
+   * The number of notes in this editor.
+   */
+  private int size;
+
+  /**
+   * Whether the notes array is shared with a snapshot of this editor. A shared array is copied
+   * before it is next changed, so taking a snapshot does not copy anything.
+   */
+  private boolean shared;
+
+  /**
+   * The longest duration of a note in this editor. A note playing at a beat must start less than
+   * this many beats before it, which bounds the search in getNotesAtBeat.
+   *
+   * <p>Class invariant: No note has a duration longer than maxDuration.</p>
+   */
+  private int maxDuration;
+
+  /**
+   * The number of notes in this editor at each Midi pitch.
+   */
+  private final PitchHistogram pitches;
+
+  /**
+   * The version of this editor, which is incremented every time the editor is modified.
+   */
+  private int version;
+
+  /**
+   * The listeners that are told about every change to this editor.
+   */
+  private final ModelChangeSupport listeners;
+
+  /**
+   * The tempos of the piece of music in microseconds per beat: the tempo at the start of the
+   * piece and every later tempo change.
+   */
+  private TempoMap tempoMap;
+
+  /**
+   * The beats per measure of the piece of music.
+   *
+   * <p>Class invariant: The beats per minute of the piece of music is always positive.</p>
+   */
+  private int beatsPerMeasure;
+
+  /**
+   * Constructor for PackedMusicEditorModel. Creates an empty editor with the same tempo and beats
+   * per measure as a new MusicEditorModelImpl.
+   */
+  public PackedMusicEditorModel() {
+    this(16);
+  }
+
+  /**
+   * Constructor for PackedMusicEditorModel that makes room for the given number of notes up front.
+   *
+   * @param capacity The number of notes to make room for
+   * @throws IllegalArgumentException If the capacity is negative
+   */
+  public PackedMusicEditorModel(int capacity) throws IllegalArgumentException {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity cannot be negative");
+    }
+    notes = new long[capacity];
+    size = 0;
+    maxDuration = 0;
+    pitches = new PitchHistogram();
+    tempoMap = TempoMap.constant(10000);
+    beatsPerMeasure = 4;
+    listeners = new ModelChangeSupport();
+  }
+
+  /**
+   * Constructor for a snapshot of the given PackedMusicEditorModel, sharing its notes array.
+   *
+   * @param other The editor to take a snapshot of
+   */
+  private PackedMusicEditorModel(PackedMusicEditorModel other) {
+    notes = other.notes;
+    size = other.size;
+    shared = true;
+    maxDuration = other.maxDuration;
+    pitches = new PitchHistogram(other.pitches);
+    version = other.version;
+    tempoMap = other.tempoMap;
+    beatsPerMeasure = other.beatsPerMeasure;
+    listeners = new ModelChangeSupport();
+  }
+
+  @Override
+  public void setTempo(int tempo) throws IllegalArgumentException {
+    setTempoMap(tempoMap.with(0, tempo));
+  }
+
+  @Override
+  public void setTempoMap(TempoMap tempoMap) throws IllegalArgumentException {
+    if (tempoMap == null) {
+      throw new IllegalArgumentException("Tempo map cannot be null");
+    }
+    this.tempoMap = tempoMap;
+    version++;
+    if (listeners.hasListeners()) {
+      listeners.fire(new ModelChange(ModelChange.Type.TEMPO_CHANGED));
+    }
+  }
+
+  @Override
+  public void setBeatsPerMeasure(int beatsPerMeasure) throws IllegalArgumentException {
+    if (beatsPerMeasure < 1) {
+      throw new IllegalArgumentException("Beats per measure must be positive");
+    }
+    this.beatsPerMeasure = beatsPerMeasure;
+    version++;
+    if (listeners.hasListeners()) {
+      listeners.fire(new ModelChange(ModelChange.Type.BEATS_PER_MEASURE_CHANGED));
+    }
+  }
+
+  @Override
+  public void newPiece() {
+    size = 0;
+    maxDuration = 0;
+    pitches.clear();
+    tempoMap = TempoMap.constant(60);
+    beatsPerMeasure = 4;
+    version++;
+    if (listeners.hasListeners()) {
+      listeners.fire(new ModelChange(ModelChange.Type.NEW_PIECE));
+    }
+  }
+
+  @Override
+  public void addNote(IMusicNote<IPitch> note) throws IllegalArgumentException {
+    if (note == null) {
+      throw new IllegalArgumentException("Note to add cannot be null");
+    }
+
+    addPacked(note.getStartBeat(), note.getDuration(), IPitch.pitchToMidi(note.getPitch()),
+            note.getInstrument(), note.getVolume());
+  }
+
+  @Override
+  public void addAll(Collection<? extends IMusicNote<IPitch>> toAdd)
+          throws IllegalArgumentException {
+    if (toAdd == null) {
+      throw new IllegalArgumentException("Notes to add cannot be null");
+    }
+
+    PackedBuffer buffer = new PackedBuffer(toAdd.size());
+    for (IMusicNote<IPitch> note : toAdd) {
+      if (note == null) {
+        throw new IllegalArgumentException("Note to add cannot be null");
+      }
+      buffer.visit(note.getStartBeat(), note.getDuration(), IPitch.pitchToMidi(note.getPitch()),
+              note.getInstrument(), note.getVolume());
+    }
+    merge(buffer);
+  }
+
+  @Override
+  public void removeNote(IMusicNote<IPitch> note) throws IllegalArgumentException {
+    if (note == null) {
+      throw new IllegalArgumentException("Note to remove cannot be null");
+    }
+
+    int start = note.getStartBeat();
+    int duration = note.getDuration();
+    int pitch = IPitch.pitchToMidi(note.getPitch());
+    int instrument = note.getInstrument();
+    int volume = note.getVolume();
+    if (!PackedNotes.canPack(start, duration, pitch, instrument, volume)) {
+      throw new IllegalArgumentException("Note does not exist");
+    }
+
+    int index = Arrays.binarySearch(notes, 0, size,
+            PackedNotes.pack(start, duration, pitch, instrument, volume));
+    if (index < 0) {
+      throw new IllegalArgumentException("Note does not exist");
+    }
+
+    ensureCapacity(size);
+    System.arraycopy(notes, index + 1, notes, index, size - index - 1);
+    size--;
+    int oldLow = pitches.getLowestMidi();
+    int oldHigh = pitches.getHighestMidi();
+    pitches.remove(pitch);
+    if (duration == maxDuration) {
+      updateMaxDuration();
+    }
+    version++;
+    if (listeners.hasListeners()) {
+      listeners.fire(new ModelChange(ModelChange.Type.NOTES_REMOVED, start, start + duration,
+              PackedNotes.toNote(PackedNotes.pack(start, duration, pitch, instrument, volume))));
+      listeners.firePitchRange(oldLow, oldHigh, pitches);
+    }
+  }
+
+  @Override
+  public void removeAll(Collection<? extends IMusicNote<IPitch>> toRemove)
+          throws IllegalArgumentException {
+    if (toRemove == null) {
+      throw new IllegalArgumentException("Notes to remove cannot be null");
+    }
+
+    long[] outgoing = new long[toRemove.size()];
+    int count = 0;
+    for (IMusicNote<IPitch> note : toRemove) {
+      if (note == null) {
+        throw new IllegalArgumentException("Note to remove cannot be null");
+      }
+      int start = note.getStartBeat();
+      int duration = note.getDuration();
+      int pitch = IPitch.pitchToMidi(note.getPitch());
+      if (!PackedNotes.canPack(start, duration, pitch, note.getInstrument(), note.getVolume())) {
+        throw new IllegalArgumentException("Note does not exist");
+      }
+      outgoing[count++] = PackedNotes.pack(start, duration, pitch, note.getInstrument(),
+              note.getVolume());
+    }
+    Arrays.sort(outgoing, 0, count);
+    int unique = 0;
+    for (int i = 0; i < count; i++) {
+      if (unique == 0 || outgoing[unique - 1] != outgoing[i]) {
+        outgoing[unique++] = outgoing[i];
+      }
+    }
+    for (int i = 0; i < unique; i++) {
+      if (Arrays.binarySearch(notes, 0, size, outgoing[i]) < 0) {
+        throw new IllegalArgumentException("Note does not exist");
+      }
+    }
+    if (unique == 0) {
+      return;
+    }
+
+    // Every note before the first removed note stays where it is, and the rest are compacted
+    // over the removed notes in one pass.
+    ensureCapacity(size);
+    int oldLow = pitches.getLowestMidi();
+    int oldHigh = pitches.getHighestMidi();
+    int firstBeat = Integer.MAX_VALUE;
+    int lastBeat = 0;
+    boolean longest = false;
+    int kept = Arrays.binarySearch(notes, 0, size, outgoing[0]);
+    int j = 0;
+    for (int i = kept; i < size; i++) {
+      long note = notes[i];
+      if (j < unique && note == outgoing[j]) {
+        j++;
+        pitches.remove(PackedNotes.pitch(note));
+        longest |= PackedNotes.duration(note) == maxDuration;
+        firstBeat = Math.min(firstBeat, PackedNotes.startBeat(note));
+        lastBeat = Math.max(lastBeat, PackedNotes.startBeat(note) + PackedNotes.duration(note));
+      }
+      else {
+        notes[kept++] = note;
+      }
+    }
+    size = kept;
+    if (longest) {
+      updateMaxDuration();
+    }
+    version++;
+    if (listeners.hasListeners()) {
+      listeners.fire(new ModelChange(ModelChange.Type.NOTES_REMOVED, firstBeat, lastBeat, null));
+      listeners.firePitchRange(oldLow, oldHigh, pitches);
+    }
+  }
+
+  @Override
+  public void addModelListener(ModelListener listener) throws IllegalArgumentException {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void removeModelListener(ModelListener listener) {
+    listeners.remove(listener);
+  }
+
+  @Override
+  public void replaceNote(IMusicNote<IPitch> oldNote, IMusicNote<IPitch> newNote)
+          throws IllegalArgumentException {
+    if (oldNote == null) {
+      throw new IllegalArgumentException("The note to be replaced cannot be null");
+    }
+
+    if (newNote == null) {
+      throw new IllegalArgumentException("The note to be added cannot be null");
+    }
+
+    removeNote(oldNote);
+    addNote(newNote);
+  }
+
+  @Override
+  public void append(MusicEditorOperations<?, ?> toAppend) throws IllegalArgumentException {
+    if (toAppend == null) {
+      throw new IllegalArgumentException("Editor to append cannot be null");
+    }
+
+    int startBeatOffset = getEndBeat();
+    PackedBuffer buffer = new PackedBuffer(16);
+    toAppend.forEachNote((start, duration, pitch, instrument, volume) ->
+            buffer.visit(start + startBeatOffset, duration, pitch, instrument, volume));
+    merge(buffer);
+  }
+
+  @Override
+  public void combine(MusicEditorOperations<?, ?> toCombine) throws IllegalArgumentException {
+    if (toCombine == null) {
+      throw new IllegalArgumentException("Editor to combine cannot be null");
+    }
+
+    if (toCombine != this) {
+      PackedBuffer buffer = new PackedBuffer(16);
+      toCombine.forEachNote(buffer);
+      merge(buffer);
+    }
+  }
+
+  @Override
+  public int getTempo() {
+    return tempoMap.getTempo(0);
+  }
+
+  @Override
+  public TempoMap getTempoMap() {
+    return tempoMap;
+  }
+
+  @Override
+  public int getBeatsPerMeasure() {
+    return beatsPerMeasure;
+  }
+
+  @Override
+  public Map<Integer, Set<IMusicNote<IPitch>>> getNotes() {
+    TreeMap<Integer, Set<IMusicNote<IPitch>>> result =
+            new TreeMap<Integer, Set<IMusicNote<IPitch>>>();
+    for (int i = 0; i < size; i++) {
+      MusicNote note = PackedNotes.toNote(notes[i]);
+      for (int j = note.getStartBeat(); j < note.getStartBeat() + note.getDuration(); j++) {
+        result.computeIfAbsent(j, beat -> new HashSet<IMusicNote<IPitch>>()).add(note);
+      }
+    }
+    return Collections.unmodifiableSortedMap(result);
+  }
+
+  /**
+   * Gets a live, unmodifiable view of the notes by beat. The view reads the packed notes directly,
+   * so no map is built and lastKey only searches the notes near the end of the piece.
+   *
+   * @return The view of the notes
+   */
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> getNotesView() {
+    return new PackedBeatMapView(this, 0, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public Set<IMusicNote<IPitch>> getNotesAtBeat(int beat) throws IllegalArgumentException {
+    if (beat < 0) {
+      throw new IllegalArgumentException("Beat cannot be negative");
+    }
+
+    return getNotesSoundingInRange(beat, beat + 1);
+  }
+
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> getNotesInRange(int startBeat, int endBeat)
+          throws IllegalArgumentException {
+    MusicEditorModelImpl.checkRange(startBeat, endBeat);
+
+    TreeMap<Integer, Set<IMusicNote<IPitch>>> result =
+            new TreeMap<Integer, Set<IMusicNote<IPitch>>>();
+    int first = Math.max(0, startBeat - maxDuration + 1);
+    for (int i = lowerBound(first); i < size && PackedNotes.startBeat(notes[i]) < endBeat; i++) {
+      MusicNote note = PackedNotes.toNote(notes[i]);
+      int from = Math.max(startBeat, note.getStartBeat());
+      int to = Math.min(endBeat, note.getStartBeat() + note.getDuration());
+      for (int j = from; j < to; j++) {
+        result.computeIfAbsent(j, beat -> new HashSet<IMusicNote<IPitch>>()).add(note);
+      }
+    }
+    return Collections.unmodifiableSortedMap(result);
+  }
+
+  @Override
+  public Set<IMusicNote<IPitch>> getNotesSoundingInRange(int startBeat, int endBeat)
+          throws IllegalArgumentException {
+    MusicEditorModelImpl.checkRange(startBeat, endBeat);
+
+    Set<IMusicNote<IPitch>> result = new HashSet<IMusicNote<IPitch>>();
+    if (startBeat == endBeat) {
+      return Collections.unmodifiableSet(result);
+    }
+    int first = Math.max(0, startBeat - maxDuration + 1);
+    for (int i = lowerBound(first); i < size && PackedNotes.startBeat(notes[i]) < endBeat; i++) {
+      long note = notes[i];
+      if (PackedNotes.startBeat(note) + PackedNotes.duration(note) > startBeat) {
+        result.add(PackedNotes.toNote(note));
+      }
+    }
+    return Collections.unmodifiableSet(result);
+  }
+
+  /**
+   * Gets every note that starts in [startBeat, endBeat). The notes are stored in order of start
+   * beat, so they are one slice of the notes array found with two binary searches.
+   *
+   * @param startBeat The first beat in the range
+   * @param endBeat The beat after the last beat in the range
+   * @return The notes that start in the range, in order of start beat
+   * @throws IllegalArgumentException If the start beat is negative or after the end beat
+   */
+  @Override
+  public Set<IMusicNote<IPitch>> getNotesStartingInRange(int startBeat, int endBeat)
+          throws IllegalArgumentException {
+    MusicEditorModelImpl.checkRange(startBeat, endBeat);
+
+    int from = lowerBound(startBeat);
+    int to = lowerBound(endBeat);
+    Set<IMusicNote<IPitch>> result = new LinkedHashSet<IMusicNote<IPitch>>();
+    for (int i = from; i < to; i++) {
+      result.add(PackedNotes.toNote(notes[i]));
+    }
+    return Collections.unmodifiableSet(result);
+  }
+
+  /**
+   * Gets the pitches of the notes played at the given beat. The packed notes in the search window
+   * are read directly, so no notes are created.
+   *
+   * @param beat The beat
+   * @return The mask of the pitches played at the beat
+   * @throws IllegalArgumentException If the beat is negative
+   */
+  @Override
+  public PitchMask getPitchMaskAtBeat(int beat) throws IllegalArgumentException {
+    if (beat < 0) {
+      throw new IllegalArgumentException("Beat cannot be negative");
+    }
+
+    long[] words = new long[PitchMask.WORDS];
+    int first = Math.max(0, beat - maxDuration + 1);
+    for (int i = lowerBound(first); i < size && PackedNotes.startBeat(notes[i]) <= beat; i++) {
+      long note = notes[i];
+      if (PackedNotes.startBeat(note) + PackedNotes.duration(note) > beat) {
+        PitchMask.set(words, PackedNotes.pitch(note));
+      }
+    }
+    return new PitchMask(words);
+  }
+
+  @Override
+  public int getVersion() {
+    return version;
+  }
+
+  @Override
+  public void forEachNote(NoteVisitor visitor) {
+    for (int i = 0; i < size; i++) {
+      PackedNotes.visit(notes[i], visitor);
+    }
+  }
+
+  @Override
+  public void forEachNoteSoundingInRange(int startBeat, int endBeat, NoteVisitor visitor)
+          throws IllegalArgumentException {
+    MusicEditorModelImpl.checkRange(startBeat, endBeat);
+
+    if (startBeat == endBeat) {
+      return;
+    }
+    int first = Math.max(0, startBeat - maxDuration + 1);
+    for (int i = lowerBound(first); i < size && PackedNotes.startBeat(notes[i]) < endBeat; i++) {
+      long note = notes[i];
+      if (PackedNotes.startBeat(note) + PackedNotes.duration(note) > startBeat) {
+        PackedNotes.visit(note, visitor);
+      }
+    }
+  }
+
+  /**
+   * Gets an immutable snapshot of this editor. The snapshot shares the notes array of this editor,
+   * which is only copied if this editor is changed afterwards.
+   *
+   * @return The snapshot
+   */
+  @Override
+  public MusicEditorOperations<IMusicNote<IPitch>, IPitch> snapshot() {
+    shared = true;
+    return new MusicEditorModelImplReadOnly(new PackedMusicEditorModel(this));
+  }
+
+  @Override
+  public IPitch getLowPitch() {
+    return pitches.getLowest();
+  }
+
+  @Override
+  public IPitch getHighPitch() {
+    return pitches.getHighest();
+  }
+
+  /**
+   * Adds a note given by its fields. Duplicate notes and notes with a duration of 0 are not
+   * added.
+   *
+   * @throws IllegalArgumentException If the note does not fit in a packed note
+   */
+  private void addPacked(int start, int duration, int pitch, int instrument, int volume)
+          throws IllegalArgumentException {
+    if (!PackedNotes.canPack(start, duration, pitch, instrument, volume)) {
+      throw new IllegalArgumentException("Note is out of the range this editor can hold");
+    }
+
+    if (duration == 0) {
+      return;
+    }
+
+    long packed = PackedNotes.pack(start, duration, pitch, instrument, volume);
+    int index = Arrays.binarySearch(notes, 0, size, packed);
+    if (index >= 0) {
+      return;
+    }
+
+    index = -index - 1;
+    ensureCapacity(size + 1);
+    System.arraycopy(notes, index, notes, index + 1, size - index);
+    notes[index] = packed;
+    size++;
+    int oldLow = pitches.getLowestMidi();
+    int oldHigh = pitches.getHighestMidi();
+    pitches.add(pitch);
+    maxDuration = Math.max(maxDuration, duration);
+    version++;
+    if (listeners.hasListeners()) {
+      listeners.fire(new ModelChange(ModelChange.Type.NOTES_ADDED, start, start + duration,
+              PackedNotes.toNote(packed)));
+      listeners.firePitchRange(oldLow, oldHigh, pitches);
+    }
+  }
+
+  /**
+   * Merges the packed notes in the given buffer into this editor. The buffer is sorted once and
+   * merged with the notes of this editor in a single pass from the back, so merging n new notes
+   * into m notes takes O(n log n + m) time instead of one array insert per note. Large buffers are
+   * sorted in parallel. If this editor is empty and too small for the buffer, the buffer's array
+   * becomes the notes array, so the notes are not copied again.
+   *
+   * @param buffer The notes to merge
+   */
+  private void merge(PackedBuffer buffer) {
+    long[] incoming = buffer.notes;
+    int count = buffer.size;
+    Arrays.parallelSort(incoming, 0, count);
+
+    int unique = 0;
+    for (int i = 0; i < count; i++) {
+      if (PackedNotes.duration(incoming[i]) > 0
+              && (unique == 0 || incoming[unique - 1] != incoming[i])) {
+        incoming[unique++] = incoming[i];
+      }
+    }
+    if (unique == 0) {
+      return;
+    }
+
+    long[] result = size + unique <= notes.length && !shared ? notes
+            : size == 0 ? incoming : new long[size + unique];
+    int oldLow = pitches.getLowestMidi();
+    int oldHigh = pitches.getHighestMidi();
+    int i = size - 1;
+    int j = unique - 1;
+    int k = size + unique;
+    int added = 0;
+    int firstBeat = Integer.MAX_VALUE;
+    int lastBeat = 0;
+    while (j >= 0) {
+      if (i >= 0 && notes[i] >= incoming[j]) {
+        if (notes[i] == incoming[j]) {
+          j--;
+        }
+        result[--k] = notes[i--];
+      }
+      else {
+        long note = incoming[j--];
+        result[--k] = note;
+        pitches.add(PackedNotes.pitch(note));
+        maxDuration = Math.max(maxDuration, PackedNotes.duration(note));
+        firstBeat = Math.min(firstBeat, PackedNotes.startBeat(note));
+        lastBeat = Math.max(lastBeat, PackedNotes.startBeat(note) + PackedNotes.duration(note));
+        added++;
+      }
+    }
+
+    int head = i + 1;
+    int tail = size + unique - k;
+    if (result != notes) {
+      System.arraycopy(notes, 0, result, 0, head);
+    }
+    System.arraycopy(result, k, result, head, tail);
+    notes = result;
+    shared = false;
+    size = head + tail;
+    if (added > 0) {
+      version++;
+      if (listeners.hasListeners()) {
+        listeners.fire(new ModelChange(ModelChange.Type.NOTES_ADDED, firstBeat, lastBeat, null));
+        listeners.firePitchRange(oldLow, oldHigh, pitches);
+      }
+    }
+  }
+
+  /**
+   * Makes sure the notes array can hold the given number of notes and is not shared with a
+   * snapshot, copying it if needed.
+   *
+   * @param capacity The number of notes the array must hold
+   */
+  private void ensureCapacity(int capacity) {
+    if (capacity > notes.length) {
+      notes = Arrays.copyOf(notes, Math.max(Math.max(16, notes.length * 2), capacity));
+      shared = false;
+    }
+    else if (shared) {
+      notes = Arrays.copyOf(notes, notes.length);
+      shared = false;
+    }
+  }
+
+  /**
+   * Gets the index of the first note that starts at or after the given beat.
+   *
+   * @param beat The beat to look for
+   * @return The index of the note, or size if every note starts before the beat
+   */
+  private int lowerBound(int beat) {
+    if (beat > PackedNotes.MAX_START_BEAT) {
+      return size;
+    }
+
+    int index = Arrays.binarySearch(notes, 0, size, PackedNotes.firstAt(beat));
+    return index < 0 ? -index - 1 : index;
+  }
+
+  /**
+   * Gets the first beat at or after the given beat that a note is played at. Only the notes that
+   * start in the maxDuration beats before the given beat can still be playing at it, so the search
+   * starts there instead of at the first note.
+   *
+   * @param beat The beat to start looking from
+   * @return The beat, or -1 if no note is played at or after the beat
+   */
+  int nextSoundingBeat(int beat) {
+    int i = lowerBound(Math.max(0, beat - maxDuration + 1));
+    for (; i < size && PackedNotes.startBeat(notes[i]) < beat; i++) {
+      if (PackedNotes.startBeat(notes[i]) + PackedNotes.duration(notes[i]) > beat) {
+        return beat;
+      }
+    }
+    return i < size ? PackedNotes.startBeat(notes[i]) : -1;
+  }
+
+  /**
+   * Gets the beat after the last beat before the given beat that a note is played at. The notes
+   * are read backwards from the given beat, stopping once no earlier note can be long enough to
+   * end any later.
+   *
+   * @param beat The beat to look before
+   * @return The end beat, which is at most the given beat, or 0 if no note starts before the beat
+   */
+  int endBeatBefore(int beat) {
+    int end = 0;
+    for (int i = lowerBound(beat) - 1; i >= 0; i--) {
+      int start = PackedNotes.startBeat(notes[i]);
+      if (start + maxDuration <= end) {
+        break;
+      }
+      end = Math.max(end, Math.min(beat, start + PackedNotes.duration(notes[i])));
+    }
+    return end;
+  }
+
+  /**
+   * Counts the beats in [fromBeat, toBeat) that at least one note is played at.
+   *
+   * @param fromBeat The first beat to count
+   * @param toBeat The beat after the last beat to count
+   * @return The number of beats with notes
+   */
+  int countSoundingBeats(int fromBeat, int toBeat) {
+    int count = 0;
+    int covered = fromBeat; // Every beat before this one has been counted
+    int first = Math.max(0, fromBeat - maxDuration + 1);
+    for (int i = lowerBound(first); i < size && PackedNotes.startBeat(notes[i]) < toBeat; i++) {
+      int from = Math.max(covered, PackedNotes.startBeat(notes[i]));
+      int to = Math.min(toBeat, PackedNotes.startBeat(notes[i]) + PackedNotes.duration(notes[i]));
+      if (to > from) {
+        count += to - from;
+        covered = to;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Gets the beat after the last beat that a note is played at.
+   *
+   * @return The end beat, or 0 if there are no notes
+   */
+  private int getEndBeat() {
+    return endBeatBefore(Integer.MAX_VALUE);
+  }
+
+  /**
+   * Updates the longest duration of a note after a note is removed.
+   */
+  private void updateMaxDuration() {
+    maxDuration = 0;
+    for (int i = 0; i < size; i++) {
+      maxDuration = Math.max(maxDuration, PackedNotes.duration(notes[i]));
+    }
+  }
+
+  /**
+   * Builder used to create a PackedMusicEditorModel from text file input. Notes are packed as they
+   * are read into a single growable array of longs, which becomes the notes array of the built
+   * editor, so the score is never held as note objects or copied a second time. A builder has no
+   * shared state, so separate builders can read separate files on separate threads. After build
+   * is called the builder starts a new, empty composition.
+   */
+  public static final class Builder implements CompositionBuilder<MusicEditorOperations> {
+    private final int expectedNotes; // The number of notes to make room for
+    private PackedBuffer buffer; // The notes read so far
+    private int tempo; // tempo of builder
+    private SortedMap<Integer, Integer> tempoChanges; // tempo changes after beat 0 of builder
+    private int beatsPerMeasure; // beats per measure of builder
+
+    /**
+     * Constructor for Builder.
+     */
+    public Builder() {
+      this(1024);
+    }
+
+    /**
+     * Constructor for Builder that makes room for the given number of notes up front.
+     *
+     * @param expectedNotes The number of notes to make room for
+     * @throws IllegalArgumentException If the number of notes is negative
+     */
+    public Builder(int expectedNotes) throws IllegalArgumentException {
+      if (expectedNotes < 0) {
+        throw new IllegalArgumentException("Capacity cannot be negative");
+      }
+      this.expectedNotes = expectedNotes;
+      this.buffer = new PackedBuffer(expectedNotes);
+      this.tempoChanges = new TreeMap<Integer, Integer>();
+      this.beatsPerMeasure = 4;
+    }
+
+    @Override
+    public MusicEditorOperations build() {
+      PackedMusicEditorModel model = new PackedMusicEditorModel(0);
+      model.merge(buffer);
+      tempoChanges.put(0, this.tempo);
+      model.setTempoMap(TempoMap.of(tempoChanges));
+      model.setBeatsPerMeasure(beatsPerMeasure);
+      buffer = new PackedBuffer(expectedNotes);
+      tempo = 0;
+      tempoChanges = new TreeMap<Integer, Integer>();
+      beatsPerMeasure = 4;
+      return model;
+    }
+
+    @Override
+    public CompositionBuilder<MusicEditorOperations> setTempo(int tempo) {
+      this.tempo = tempo;
+      return this;
+    }
+
+    @Override
+    public CompositionBuilder<MusicEditorOperations> addTempoChange(int beat, int tempo) {
+      if (beat == 0) {
+        this.tempo = tempo;
+      }
+      else {
+        tempoChanges.put(beat, tempo);
+      }
+      return this;
+    }
+
+    /**
+     * Sets the beats per measure of the composition being built.
+     *
+     * @throws IllegalArgumentException If the number of beats is not positive
+     */
+    @Override
+    public CompositionBuilder<MusicEditorOperations> setBeatsPerMeasure(int beatsPerMeasure)
+            throws IllegalArgumentException {
+      if (beatsPerMeasure < 1) {
+        throw new IllegalArgumentException("Beats per measure must be positive");
+      }
+      this.beatsPerMeasure = beatsPerMeasure;
+      return this;
+    }
+
+    /**
+     * Adds a note to the composition being built.
+     *
+     * @throws IllegalArgumentException If the note is out of the range this editor can hold
+     */
+    @Override
+    public CompositionBuilder<MusicEditorOperations> addNote(int start, int end, int instrument,
+                                                             int pitch, int volume)
+            throws IllegalArgumentException {
+      buffer.visit(start, end - start, pitch, instrument, volume);
+      return this;
+    }
+  }
+
+  /**
+   * A growable array of packed notes that are waiting to be merged into the editor. Notes are
+   * checked as they are added, so a note that does not fit stops the merge before the editor is
+   * changed.
+   */
+  private static final class PackedBuffer implements NoteVisitor {
+    private long[] notes;
+    private int size;
+
+    private PackedBuffer(int capacity) {
+      notes = new long[Math.max(1, capacity)];
+    }
+
+    @Override
+    public void visit(int startBeat, int duration, int pitch, int instrument, int volume) {
+      if (!PackedNotes.canPack(startBeat, duration, pitch, instrument, volume)) {
+        throw new IllegalArgumentException("Note is out of the range this editor can hold");
+      }
+      if (size == notes.length) {
+        notes = Arrays.copyOf(notes, notes.length * 2);
+      }
+      notes[size++] = PackedNotes.pack(startBeat, duration, pitch, instrument, volume);
+    }
+  }
+}
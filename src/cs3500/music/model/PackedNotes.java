@@ -0,0 +1,111 @@
+package cs3500.music.model;
+
+/**
+ * Packs the fields of a music note into a single long. From the highest bits to the lowest, a
+ * packed note holds the start beat (22 bits), the Midi pitch (8 bits), the duration (18 bits),
+ * the instrument (8 bits) and the volume (7 bits). The sign bit is always 0, so comparing two
+ * packed notes as longs orders them by start beat, then pitch, duration, instrument and volume.
+ */
+final class PackedNotes {
+  static final int MAX_START_BEAT = (1 << 22) - 1;
+  static final int MAX_PITCH = (1 << 8) - 1;
+  static final int MAX_DURATION = (1 << 18) - 1;
+  static final int MAX_INSTRUMENT = (1 << 8) - 1;
+  static final int MAX_VOLUME = (1 << 7) - 1;
+
+  private static final int VOLUME_SHIFT = 0;
+  private static final int INSTRUMENT_SHIFT = 7;
+  private static final int DURATION_SHIFT = 15;
+  private static final int PITCH_SHIFT = 33;
+  private static final int START_SHIFT = 41;
+
+  private PackedNotes() {
+  }
+
+  /**
+   * Determines if a note with the given fields fits in a packed note.
+   *
+   * @return If the note can be packed
+   */
+  static boolean canPack(int startBeat, int duration, int pitch, int instrument, int volume) {
+    return startBeat >= 0 && startBeat <= MAX_START_BEAT
+            && duration >= 0 && duration <= MAX_DURATION
+            && PitchHistogram.inRange(pitch)
+            && instrument >= 0 && instrument <= MAX_INSTRUMENT
+            && volume >= 0 && volume <= MAX_VOLUME;
+  }
+
+  /**
+   * Packs the given fields of a note into a long. The fields must be in range.
+   *
+   * @return The packed note
+   */
+  static long pack(int startBeat, int duration, int pitch, int instrument, int volume) {
+    return ((long) startBeat << START_SHIFT)
+            | ((long) pitch << PITCH_SHIFT)
+            | ((long) duration << DURATION_SHIFT)
+            | ((long) instrument << INSTRUMENT_SHIFT)
+            | ((long) volume << VOLUME_SHIFT);
+  }
+
+  /**
+   * Gets the smallest packed note that starts at the given beat.
+   *
+   * @param startBeat The start beat
+   * @return The packed note
+   */
+  static long firstAt(int startBeat) {
+    return (long) startBeat << START_SHIFT;
+  }
+
+  static int startBeat(long note) {
+    return (int) (note >>> START_SHIFT);
+  }
+
+  static int pitch(long note) {
+    return (int) (note >>> PITCH_SHIFT) & MAX_PITCH;
+  }
+
+  static int duration(long note) {
+    return (int) (note >>> DURATION_SHIFT) & MAX_DURATION;
+  }
+
+  static int instrument(long note) {
+    return (int) (note >>> INSTRUMENT_SHIFT) & MAX_INSTRUMENT;
+  }
+
+  static int volume(long note) {
+    return (int) (note >>> VOLUME_SHIFT) & MAX_VOLUME;
+  }
+
+  /**
+   * Gives the fields of the packed note to the given visitor.
+   *
+   * @param note The packed note
+   * @param visitor The visitor to give the note to
+   */
+  static void visit(long note, NoteVisitor visitor) {
+    visitor.visit(startBeat(note), duration(note), pitch(note), instrument(note), volume(note));
+  }
+
+  /**
+   * Creates a MusicNote with the fields of the packed note.
+   *
+   * @param note The packed note
+   * @return The MusicNote
+   */
+  static MusicNote toNote(long note) {
+    return new MusicNote(toPitch(pitch(note)), duration(note), startBeat(note),
+            instrument(note), volume(note));
+  }
+
+  /**
+   * Converts the given Midi value to the correct pitch.
+   *
+   * @param midi The Midi value to convert
+   * @return The corresponding Pitch
+   */
+  static Pitch toPitch(int midi) {
+    return Pitch.fromMidi(midi);
+  }
+}
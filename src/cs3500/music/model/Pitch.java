@@ -1,12 +1,39 @@
 package cs3500.music.model;
 
-import java.util.Objects;
-
 /**
- * To represent a note pitch. A note pitch contains a NoteName and an octave.
+ * To represent a note pitch. A note pitch contains a NoteName and an octave. Pitches are immutable,
+ * so every pitch from octave -1 to octave 10 is created once and shared: use the static factory
+ * methods (fromMidi and of) instead of the constructors to get the shared instance.
  */
 public final class Pitch implements IPitch {
 
+  /**
+   * The lowest octave that has shared Pitch instances.
+   */
+  public static final int MIN_OCTAVE = -1;
+
+  /**
+   * The highest octave that has shared Pitch instances.
+   */
+  public static final int MAX_OCTAVE = 10;
+
+  /**
+   * The highest Midi value that has a shared Pitch instance (B10).
+   */
+  public static final int MAX_MIDI = (MAX_OCTAVE - MIN_OCTAVE + 1) * 12 - 1;
+
+  /**
+   * The shared Pitch instances, indexed by Midi value. Index 0 is C-1, 60 is middle C (C4), and
+   * the table goes past the 128 Midi pitches up to B10 since the model allows octave 10.
+   */
+  private static final Pitch[] PITCHES = new Pitch[MAX_MIDI + 1];
+
+  static {
+    for (int i = 0; i < PITCHES.length; i++) {
+      PITCHES[i] = new Pitch(NoteName.values()[i % 12], i / 12 + MIN_OCTAVE);
+    }
+  }
+
   /**
    * The note name of this pitch.
    *
@@ -21,6 +48,11 @@ public final class Pitch implements IPitch {
    */
   private final int octave; // The octave of this pitch
 
+  /**
+   * The Midi value of this pitch, where 60 is middle C.
+   */
+  private final int midi;
+
   /**
    * Constructor for Pitch. Takes in a NoteName and an octave.
    *
@@ -30,6 +62,7 @@ public final class Pitch implements IPitch {
   public Pitch(NoteName noteName, int octave) {
     this.noteName = noteName;
     this.octave = octave;
+    this.midi = (octave + 1) * 12 + noteName.ordinal();
   }
 
   /**
@@ -38,8 +71,59 @@ public final class Pitch implements IPitch {
    * @param pitch The Pitch to copy
    */
   public Pitch(IPitch pitch) {
-    this.noteName = pitch.getNoteName();
-    this.octave = pitch.getOctave();
+    this(pitch.getNoteName(), pitch.getOctave());
+  }
+
+  /**
+   * Gets the shared Pitch with the given Midi value.
+   *
+   * @param midi The Midi value of the pitch, where 60 is middle C
+   * @return The shared Pitch
+   * @throws IllegalArgumentException If the Midi value is not from 0 to 143
+   */
+  public static Pitch fromMidi(int midi) throws IllegalArgumentException {
+    if (midi < 0 || midi >= PITCHES.length) {
+      throw new IllegalArgumentException("Invalid midi value");
+    }
+    return PITCHES[midi];
+  }
+
+  /**
+   * Gets the shared Pitch with the given NoteName and octave. A new Pitch is created if the octave
+   * is outside of the shared octaves.
+   *
+   * @param noteName The NoteName for the pitch
+   * @param octave The octave for the pitch
+   * @return The Pitch
+   */
+  public static Pitch of(NoteName noteName, int octave) {
+    if (octave < MIN_OCTAVE || octave > MAX_OCTAVE) {
+      return new Pitch(noteName, octave);
+    }
+    return PITCHES[(octave - MIN_OCTAVE) * 12 + noteName.ordinal()];
+  }
+
+  /**
+   * Gets the shared Pitch equal to the given pitch.
+   *
+   * @param pitch The pitch to look up
+   * @return The Pitch
+   */
+  public static Pitch of(IPitch pitch) {
+    if (pitch instanceof Pitch) {
+      Pitch p = (Pitch) pitch;
+      return p.midi >= 0 && p.midi < PITCHES.length ? PITCHES[p.midi] : p;
+    }
+    return of(pitch.getNoteName(), pitch.getOctave());
+  }
+
+  /**
+   * Gets the Midi value of this Pitch, where 60 is middle C.
+   *
+   * @return The Midi value
+   */
+  public int getMidi() {
+    return midi;
   }
 
   /**
@@ -48,7 +132,10 @@ public final class Pitch implements IPitch {
    * @return The next Pitch
    */
   public Pitch nextPitch() {
-    if (noteName == NoteName.B) {
+    if (midi >= 0 && midi + 1 < PITCHES.length) {
+      return PITCHES[midi + 1];
+    }
+    else if (noteName == NoteName.B) {
       return new Pitch(NoteName.C, octave + 1);
     }
     else {
@@ -56,6 +143,23 @@ public final class Pitch implements IPitch {
     }
   }
 
+  /**
+   * Gets the Pitch before this Pitch.
+   *
+   * @return The previous Pitch
+   */
+  public Pitch previousPitch() {
+    if (midi > 0 && midi - 1 < PITCHES.length) {
+      return PITCHES[midi - 1];
+    }
+    else if (noteName == NoteName.C) {
+      return new Pitch(NoteName.B, octave - 1);
+    }
+    else {
+      return new Pitch(NoteName.values()[noteName.ordinal() - 1], octave);
+    }
+  }
+
   /**
    * Gets the distance between this Pitch and the passed in Pitch.
    *
@@ -143,6 +247,6 @@ public final class Pitch implements IPitch {
    */
   @Override
   public int hashCode() {
-    return Objects.hash(this.noteName, this.octave);
+    return midi;
   }
 }
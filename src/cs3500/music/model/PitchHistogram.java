@@ -0,0 +1,150 @@
+package cs3500.music.model;
+
+import java.util.Arrays;
+
+/**
+ * Counts how many notes a Music Editor has at each Midi pitch, and keeps track of the lowest and
+ * highest pitch that has at least one note. Adding and removing a note is O(1): the extremes only
+ * move when the count at an extreme drops to 0, and then they move inward past empty pitches,
+ * which is bounded by the number of pitches rather than the number of notes.
+ */
+final class PitchHistogram {
+
+  /**
+   * The number of notes at each Midi pitch.
+   */
+  private final int[] counts;
+
+  /**
+   * The lowest Midi pitch with a note.
+   *
+   * <p>Class invariant: lowest is -1 if and only if there are no notes, otherwise
+   * counts[lowest] is positive and every count below it is 0.</p>
+   */
+  private int lowest;
+
+  /**
+   * The highest Midi pitch with a note.
+   *
+   * <p>Class invariant: highest is -1 if and only if there are no notes, otherwise
+   * counts[highest] is positive and every count above it is 0.</p>
+   */
+  private int highest;
+
+  /**
+   * Constructor for PitchHistogram. Creates an empty histogram.
+   */
+  PitchHistogram() {
+    counts = new int[Pitch.MAX_MIDI + 1];
+    lowest = -1;
+    highest = -1;
+  }
+
+  /**
+   * Copy constructor for PitchHistogram.
+   *
+   * @param other The histogram to copy
+   */
+  PitchHistogram(PitchHistogram other) {
+    counts = Arrays.copyOf(other.counts, other.counts.length);
+    lowest = other.lowest;
+    highest = other.highest;
+  }
+
+  /**
+   * Determines if the histogram can count notes at the given Midi pitch.
+   *
+   * @param midi The Midi pitch
+   * @return If the pitch is in range
+   */
+  static boolean inRange(int midi) {
+    return midi >= 0 && midi <= Pitch.MAX_MIDI;
+  }
+
+  /**
+   * Counts one more note at the given Midi pitch.
+   *
+   * @param midi The Midi pitch of the note
+   */
+  void add(int midi) {
+    counts[midi]++;
+    if (lowest < 0 || midi < lowest) {
+      lowest = midi;
+    }
+    if (midi > highest) {
+      highest = midi;
+    }
+  }
+
+  /**
+   * Counts one less note at the given Midi pitch.
+   *
+   * @param midi The Midi pitch of the note
+   */
+  void remove(int midi) {
+    counts[midi]--;
+    if (counts[midi] > 0) {
+      return;
+    }
+
+    if (midi == lowest) {
+      while (lowest <= highest && counts[lowest] == 0) {
+        lowest++;
+      }
+    }
+    if (midi == highest) {
+      while (highest >= lowest && counts[highest] == 0) {
+        highest--;
+      }
+    }
+    if (lowest > highest) {
+      lowest = -1;
+      highest = -1;
+    }
+  }
+
+  /**
+   * Removes every note from the histogram.
+   */
+  void clear() {
+    Arrays.fill(counts, 0);
+    lowest = -1;
+    highest = -1;
+  }
+
+  /**
+   * Gets the lowest Midi pitch with a note.
+   *
+   * @return The lowest Midi pitch, or -1 if there are no notes
+   */
+  int getLowestMidi() {
+    return lowest;
+  }
+
+  /**
+   * Gets the highest Midi pitch with a note.
+   *
+   * @return The highest Midi pitch, or -1 if there are no notes
+   */
+  int getHighestMidi() {
+    return highest;
+  }
+
+  /**
+   * Gets the lowest pitch with a note.
+   *
+   * @return The lowest pitch, or null if there are no notes
+   */
+  Pitch getLowest() {
+    return lowest < 0 ? null : Pitch.fromMidi(lowest);
+  }
+
+  /**
+   * Gets the highest pitch with a note.
+   *
+   * @return The highest pitch, or null if there are no notes
+   */
+  Pitch getHighest() {
+    return highest < 0 ? null : Pitch.fromMidi(highest);
+  }
+}
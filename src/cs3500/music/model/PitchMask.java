@@ -0,0 +1,198 @@
+package cs3500.music.model;
+
+import java.util.Arrays;
+
+/**
+ * An immutable set of pitches stored as a bit mask, with one bit for each Midi pitch from 0 to
+ * Pitch.MAX_MIDI. The 144 pitches fit in three longs, so checking a pitch, adding one or
+ * comparing two masks takes a few bit operations and no objects other than the result.
+ */
+public final class PitchMask {
+
+  /**
+   * The number of longs in a mask.
+   */
+  static final int WORDS = (Pitch.MAX_MIDI >> 6) + 1;
+
+  /**
+   * The mask with no pitches.
+   */
+  public static final PitchMask EMPTY = new PitchMask(new long[WORDS]);
+
+  /**
+   * The bits of the mask. Bit m % 64 of word m / 64 is set if the Midi pitch m is in the mask.
+   */
+  private final long[] words;
+
+  /**
+   * Constructor for PitchMask. The given array must not be changed afterwards.
+   *
+   * @param words The bits of the mask
+   */
+  PitchMask(long[] words) {
+    this.words = words;
+  }
+
+  /**
+   * Creates a mask of the pitches of the given notes.
+   *
+   * @param notes The notes
+   * @return The mask of their pitches
+   * @throws IllegalArgumentException If the notes are null
+   */
+  public static PitchMask ofNotes(Iterable<? extends IMusicNote<IPitch>> notes)
+          throws IllegalArgumentException {
+    if (notes == null) {
+      throw new IllegalArgumentException("Notes cannot be null");
+    }
+
+    long[] words = new long[WORDS];
+    for (IMusicNote<IPitch> note : notes) {
+      set(words, IPitch.pitchToMidi(note.getPitch()));
+    }
+    return new PitchMask(words);
+  }
+
+  /**
+   * Sets the bit of the given Midi pitch in the given words.
+   *
+   * @param words The bits of a mask
+   * @param midi The Midi pitch to set
+   */
+  static void set(long[] words, int midi) {
+    words[midi >>> 6] |= 1L << midi;
+  }
+
+  /**
+   * Determines if the given Midi pitch is in this mask.
+   *
+   * @param midi The Midi pitch
+   * @return If the pitch is in the mask
+   */
+  public boolean contains(int midi) {
+    return PitchHistogram.inRange(midi) && (words[midi >>> 6] & (1L << midi)) != 0;
+  }
+
+  /**
+   * Determines if the given pitch is in this mask.
+   *
+   * @param pitch The pitch
+   * @return If the pitch is in the mask
+   * @throws IllegalArgumentException If the pitch is null
+   */
+  public boolean contains(IPitch pitch) throws IllegalArgumentException {
+    if (pitch == null) {
+      throw new IllegalArgumentException("Pitch cannot be null");
+    }
+    return contains(IPitch.pitchToMidi(pitch));
+  }
+
+  /**
+   * Gets a mask with the pitches of this mask and the given pitch.
+   *
+   * @param pitch The pitch to add
+   * @return The new mask
+   * @throws IllegalArgumentException If the pitch is null or out of range
+   */
+  public PitchMask with(IPitch pitch) throws IllegalArgumentException {
+    if (pitch == null) {
+      throw new IllegalArgumentException("Pitch cannot be null");
+    }
+
+    int midi = IPitch.pitchToMidi(pitch);
+    if (!PitchHistogram.inRange(midi)) {
+      throw new IllegalArgumentException("Pitch is out of range");
+    }
+    long[] result = words.clone();
+    set(result, midi);
+    return new PitchMask(result);
+  }
+
+  /**
+   * Determines if every pitch of the given mask is in this mask.
+   *
+   * @param other The other mask
+   * @return If this mask contains the other mask
+   */
+  public boolean containsAll(PitchMask other) {
+    for (int i = 0; i < WORDS; i++) {
+      if ((other.words[i] & ~words[i]) != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Determines if this mask has no pitches.
+   *
+   * @return If the mask is empty
+   */
+  public boolean isEmpty() {
+    for (long word : words) {
+      if (word != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the number of pitches in this mask.
+   *
+   * @return The number of pitches
+   */
+  public int size() {
+    int count = 0;
+    for (long word : words) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  /**
+   * Gets the lowest Midi pitch in this mask that is at least the given pitch. Every pitch of a
+   * mask is visited by starting at 0 and calling this again one pitch higher each time.
+   *
+   * @param midi The Midi pitch to start looking from
+   * @return The next Midi pitch in the mask, or -1 if there is none
+   */
+  public int nextMidi(int midi) {
+    int i = Math.max(0, midi) >>> 6;
+    if (i >= WORDS) {
+      return -1;
+    }
+    long word = words[i] & (-1L << Math.max(0, midi));
+    while (true) {
+      if (word != 0) {
+        return (i << 6) + Long.numberOfTrailingZeros(word);
+      }
+      if (++i == WORDS) {
+        return -1;
+      }
+      word = words[i];
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return this == o || (o instanceof PitchMask && Arrays.equals(words, ((PitchMask) o).words));
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(words);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("[");
+    for (int midi = nextMidi(0); midi >= 0; midi = nextMidi(midi + 1)) {
+      if (builder.length() > 1) {
+        builder.append(", ");
+      }
+      builder.append(Pitch.fromMidi(midi));
+    }
+    return builder.append("]").toString();
+  }
+}
@@ -0,0 +1,155 @@
+package cs3500.music.model;
+
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.SortedMap;
+import java.util.Set;
+
+import cs3500.music.provider.IBar;
+import cs3500.music.provider.Note;
+
+/**
+ * An unmodifiable list of the bars of a Music Editor's piece, as the provider views take them in
+ * drawNotes and addAllInfo. Bars are converted from the editor only when they are asked for, and
+ * the most recently used bars are cached, so handing a long piece to a provider view only
+ * converts the bars that are drawn or played. Every bar is read from one snapshot of the editor;
+ * when the editor is changed the list moves to a new snapshot and drops the cached bars. As in
+ * the provider adapter, a bar is 4 beats long.
+ */
+public final class ProviderBarList extends AbstractList<IBar> implements RandomAccess {
+
+  /**
+   * The number of beats in a bar.
+   */
+  public static final int BEATS_PER_BAR = 4;
+
+  /**
+   * The number of converted bars that are cached by default.
+   */
+  public static final int DEFAULT_WINDOW = 64;
+
+  private final MusicEditorOperations<IMusicNote<IPitch>, IPitch> model; // The editor to view
+  private final Map<Integer, IBar> cache; // The most recently used bars, by index
+  private MusicEditorOperations<IMusicNote<IPitch>, IPitch> snapshot; // The piece being viewed
+  private int version; // The version of the editor when the snapshot was taken
+  private int size; // The number of bars in the snapshot
+
+  /**
+   * Constructor for ProviderBarList that caches the default number of bars.
+   *
+   * @param model The editor to view the bars of
+   * @throws IllegalArgumentException If the model is null
+   */
+  public ProviderBarList(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model)
+          throws IllegalArgumentException {
+    this(model, DEFAULT_WINDOW);
+  }
+
+  /**
+   * Constructor for ProviderBarList.
+   *
+   * @param model The editor to view the bars of
+   * @param window The number of converted bars to cache
+   * @throws IllegalArgumentException If the model is null or the window is not positive
+   */
+  public ProviderBarList(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model, int window)
+          throws IllegalArgumentException {
+    if (model == null) {
+      throw new IllegalArgumentException("Model cannot be null");
+    }
+    if (window <= 0) {
+      throw new IllegalArgumentException("Window must be positive");
+    }
+
+    this.model = model;
+    this.cache = new LinkedHashMap<Integer, IBar>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, IBar> eldest) {
+        return size() > window;
+      }
+    };
+    this.snapshot = null;
+  }
+
+  /**
+   * Gets the bar at the given index, converting it from the editor if it is not cached.
+   *
+   * @param index The index of the bar
+   * @return The bar
+   * @throws IndexOutOfBoundsException If there is no bar at the index
+   */
+  @Override
+  public synchronized IBar get(int index) throws IndexOutOfBoundsException {
+    refresh();
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Bar " + index + " does not exist");
+    }
+
+    IBar bar = cache.get(index);
+    if (bar == null) {
+      bar = toBar(snapshot, index);
+      cache.put(index, bar);
+    }
+    return bar;
+  }
+
+  /**
+   * Gets the number of bars needed to hold every beat that a note is played at.
+   *
+   * @return The number of bars
+   */
+  @Override
+  public synchronized int size() {
+    refresh();
+    return size;
+  }
+
+  /**
+   * Moves to a new snapshot of the editor if the editor was changed since the last one was taken.
+   */
+  private void refresh() {
+    if (snapshot != null && model.getVersion() == version) {
+      return;
+    }
+
+    version = model.getVersion();
+    snapshot = model.snapshot();
+    SortedMap<Integer, Set<IMusicNote<IPitch>>> beats = snapshot.getNotesView();
+    size = beats.isEmpty() ? 0 : beats.lastKey() / BEATS_PER_BAR + 1;
+    cache.clear();
+  }
+
+  /**
+   * Converts the notes played during the given bar of a piece to a provider bar. A note is marked
+   * as starting at the beat it starts at and as continuing at every later beat it is played at.
+   *
+   * @param piece The piece to convert the bar of
+   * @param index The index of the bar
+   * @return The converted bar
+   */
+  static IBar toBar(MusicEditorOperations<IMusicNote<IPitch>, IPitch> piece, int index) {
+    Bar bar = new Bar();
+    for (int i = 0; i < BEATS_PER_BAR; i++) {
+      int beat = index * BEATS_PER_BAR + i;
+      for (IMusicNote<IPitch> note : piece.getNotesAtBeat(beat)) {
+        bar.addNote(toNote(note, note.getStartBeat() == beat), i);
+      }
+    }
+    return bar;
+  }
+
+  /**
+   * Converts a note to a provider note.
+   *
+   * @param note The note to convert
+   * @param start Whether the provider note marks the start of the note
+   * @return The provider note
+   */
+  static Note toNote(IMusicNote<IPitch> note, boolean start) {
+    IPitch pitch = note.getPitch();
+    return new Note(cs3500.music.provider.Pitch.values()[pitch.getNoteName().ordinal()],
+            pitch.getOctave(), note.getDuration(), note.getVolume(), note.getInstrument(), start);
+  }
+}
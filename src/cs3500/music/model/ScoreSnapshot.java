@@ -0,0 +1,220 @@
+package cs3500.music.model;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * An immutable snapshot of a MusicEditorModelImpl. The snapshot shares the nodes of the model's
+ * interval tree as they were when it was taken, so taking one does not copy any notes, and later
+ * changes to the model are never seen by it. Views can read a snapshot on any thread while the
+ * model is being edited, and always see one consistent version of the piece. Like
+ * MusicEditorModelImplReadOnly, a snapshot cannot call methods that change data.
+ */
+final class ScoreSnapshot implements MusicEditorOperations<IMusicNote<IPitch>, IPitch> {
+  private final IntervalNoteTree notes; // The notes of the piece
+  private final PitchHistogram pitches; // The number of notes at each pitch
+  private final TempoMap tempoMap; // The tempos of the piece in microseconds per beat
+  private final int beatsPerMeasure; // The beats per measure of the piece
+  private final int version; // The version of the model the snapshot was taken from
+
+  /**
+   * Constructor for ScoreSnapshot. The given tree and histogram must not be changed afterwards.
+   *
+   * @param notes A snapshot of the notes of the piece
+   * @param pitches A copy of the pitch histogram of the piece
+   * @param tempoMap The tempos of the piece
+   * @param beatsPerMeasure The beats per measure of the piece
+   * @param version The version of the model
+   */
+  ScoreSnapshot(IntervalNoteTree notes, PitchHistogram pitches, TempoMap tempoMap,
+                int beatsPerMeasure, int version) {
+    this.notes = notes;
+    this.pitches = pitches;
+    this.tempoMap = tempoMap;
+    this.beatsPerMeasure = beatsPerMeasure;
+    this.version = version;
+  }
+
+  @Override
+  public void setTempo(int tempo) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException("Model cannot modify data");
+  }
+
+  @Override
+  public void setTempoMap(TempoMap tempoMap) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException("Model cannot modify data");
+  }
+
+  @Override
+  public void setBeatsPerMeasure(int beatsPerMeasure) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException("Model cannot modify data");
+  }
+
+  @Override
+  public void newPiece() throws UnsupportedOperationException {
+    throw new UnsupportedOperationException("Model cannot modify data");
+  }
+
+  @Override
+  public void addNote(IMusicNote<IPitch> note) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException("Model cannot modify data");
+  }
+
+  @Override
+  public void addAll(Collection<? extends IMusicNote<IPitch>> notes)
+          throws UnsupportedOperationException {
+    throw new UnsupportedOperationException("Model cannot modify data");
+  }
+
+  @Override
+  public void removeNote(IMusicNote<IPitch> note) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException("Model cannot modify data");
+  }
+
+  @Override
+  public void removeAll(Collection<? extends IMusicNote<IPitch>> notes)
+          throws UnsupportedOperationException {
+    throw new UnsupportedOperationException("Model cannot modify data");
+  }
+
+  @Override
+  public void replaceNote(IMusicNote<IPitch> oldNote, IMusicNote<IPitch> newNote)
+          throws UnsupportedOperationException {
+    throw new UnsupportedOperationException("Model cannot modify data");
+  }
+
+  @Override
+  public void append(MusicEditorOperations<?, ?> toAppend) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException("Model cannot modify data");
+  }
+
+  @Override
+  public void combine(MusicEditorOperations<?, ?> toCombine) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException("Model cannot modify data");
+  }
+
+  @Override
+  public int getTempo() {
+    return tempoMap.getTempo(0);
+  }
+
+  @Override
+  public TempoMap getTempoMap() {
+    return tempoMap;
+  }
+
+  @Override
+  public int getBeatsPerMeasure() {
+    return beatsPerMeasure;
+  }
+
+  @Override
+  public Map<Integer, Set<IMusicNote<IPitch>>> getNotes() {
+    return getNotesView();
+  }
+
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> getNotesView() {
+    return new BeatMapView(this, notes);
+  }
+
+  @Override
+  public Set<IMusicNote<IPitch>> getNotesAtBeat(int beat) throws IllegalArgumentException {
+    if (beat < 0) {
+      throw new IllegalArgumentException("Beat cannot be negative");
+    }
+
+    return new BeatNoteSetView(this, notes, beat);
+  }
+
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> getNotesInRange(int startBeat, int endBeat)
+          throws IllegalArgumentException {
+    MusicEditorModelImpl.checkRange(startBeat, endBeat);
+    return new BeatMapView(this, notes, startBeat, endBeat);
+  }
+
+  @Override
+  public Set<IMusicNote<IPitch>> getNotesSoundingInRange(int startBeat, int endBeat)
+          throws IllegalArgumentException {
+    MusicEditorModelImpl.checkRange(startBeat, endBeat);
+    return new BeatNoteSetView(this, notes, startBeat, endBeat);
+  }
+
+  @Override
+  public Set<IMusicNote<IPitch>> getNotesStartingInRange(int startBeat, int endBeat)
+          throws IllegalArgumentException {
+    MusicEditorModelImpl.checkRange(startBeat, endBeat);
+    return new BeatNoteSetView(this, notes, startBeat, endBeat, true);
+  }
+
+  @Override
+  public PitchMask getPitchMaskAtBeat(int beat) throws IllegalArgumentException {
+    if (beat < 0) {
+      throw new IllegalArgumentException("Beat cannot be negative");
+    }
+    return notes.pitchMaskAt(beat);
+  }
+
+  @Override
+  public void forEachNote(NoteVisitor visitor) {
+    MusicEditorModelImpl.forEachNote(notes, visitor);
+  }
+
+  @Override
+  public void forEachNoteSoundingInRange(int startBeat, int endBeat, NoteVisitor visitor)
+          throws IllegalArgumentException {
+    MusicEditorModelImpl.checkRange(startBeat, endBeat);
+
+    MusicEditorModelImpl.forEachNoteSounding(notes, startBeat, endBeat, visitor);
+  }
+
+  @Override
+  public int getVersion() {
+    return version;
+  }
+
+  /**
+   * Does nothing but check the listener, since a snapshot never changes.
+   *
+   * @param listener The listener to add
+   * @throws IllegalArgumentException If the listener is null
+   */
+  @Override
+  public void addModelListener(ModelListener listener) throws IllegalArgumentException {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null");
+    }
+  }
+
+  @Override
+  public void removeModelListener(ModelListener listener) {
+    // A snapshot never has listeners
+  }
+
+  @Override
+  public MusicEditorOperations<IMusicNote<IPitch>, IPitch> snapshot() {
+    return this;
+  }
+
+  @Override
+  public IPitch getLowPitch() {
+    return pitches.getLowest();
+  }
+
+  @Override
+  public IPitch getHighPitch() {
+    return pitches.getHighest();
+  }
+
+  /**
+   * Gets the interval tree holding the notes of this snapshot.
+   *
+   * @return The interval tree
+   */
+  IntervalNoteTree getTree() {
+    return notes;
+  }
+}
@@ -0,0 +1,291 @@
+package cs3500.music.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * The tempos of a piece of music: a tempo that starts at beat 0, and any number of tempo changes
+ * at later beats. Each tempo lasts until the next change. A TempoMap is immutable.
+ *
+ * <p>Along with the beat and tempo of every change, the map keeps the time in microseconds at
+ * which each change starts, summed over the changes before it. Converting a beat to a time, or a
+ * time to a beat, finds the change in effect with a binary search and adds the time since it
+ * started, so either takes O(log n) for a map of n changes.</p>
+ */
+public final class TempoMap {
+  private final int[] beats; // The beat of each change, in increasing order, starting at 0
+  private final int[] tempos; // The tempo of each change in microseconds per beat
+  private final long[] micros; // The time in microseconds at which each change starts
+
+  /**
+   * Constructor for TempoMap. The arrays must be valid and are not copied.
+   *
+   * @param beats The beat of each change, in increasing order, starting at 0
+   * @param tempos The tempo of each change
+   */
+  private TempoMap(int[] beats, int[] tempos) {
+    this.beats = beats;
+    this.tempos = tempos;
+    this.micros = new long[beats.length];
+    for (int i = 1; i < beats.length; i++) {
+      micros[i] = micros[i - 1] + (long) (beats[i] - beats[i - 1]) * tempos[i - 1];
+    }
+  }
+
+  /**
+   * Creates a tempo map with one tempo for the whole piece.
+   *
+   * @param tempo The tempo in microseconds per beat
+   * @return The tempo map
+   * @throws IllegalArgumentException If the tempo is not positive
+   */
+  public static TempoMap constant(int tempo) throws IllegalArgumentException {
+    checkTempo(tempo);
+    return new TempoMap(new int[] {0}, new int[] {tempo});
+  }
+
+  /**
+   * Creates a tempo map from a map of beats to the tempos that start at them.
+   *
+   * @param changes The tempo changes, which must have a tempo at beat 0
+   * @return The tempo map
+   * @throws IllegalArgumentException If the changes are null, have no tempo at beat 0, or have a
+   *                                  negative beat or a tempo that is not positive
+   */
+  public static TempoMap of(SortedMap<Integer, Integer> changes) throws IllegalArgumentException {
+    if (changes == null) {
+      throw new IllegalArgumentException("Tempo changes cannot be null");
+    }
+
+    if (changes.isEmpty() || changes.firstKey() != 0) {
+      throw new IllegalArgumentException("There must be a tempo at beat 0");
+    }
+
+    int[] beats = new int[changes.size()];
+    int[] tempos = new int[changes.size()];
+    int i = 0;
+    for (Map.Entry<Integer, Integer> change : changes.entrySet()) {
+      checkTempo(change.getValue());
+      beats[i] = change.getKey();
+      tempos[i] = change.getValue();
+      i++;
+    }
+    return new TempoMap(beats, tempos);
+  }
+
+  /**
+   * Gets a tempo map with the given tempo starting at the given beat, replacing any change that
+   * already starts there. Every other change is kept.
+   *
+   * @param beat The beat the tempo starts at
+   * @param tempo The tempo in microseconds per beat
+   * @return The new tempo map
+   * @throws IllegalArgumentException If the beat is negative or the tempo is not positive
+   */
+  public TempoMap with(int beat, int tempo) throws IllegalArgumentException {
+    checkBeat(beat);
+    checkTempo(tempo);
+    int index = Arrays.binarySearch(beats, beat);
+    if (index >= 0) {
+      if (tempos[index] == tempo) {
+        return this;
+      }
+      int[] newTempos = tempos.clone();
+      newTempos[index] = tempo;
+      return new TempoMap(beats, newTempos);
+    }
+
+    int at = -index - 1;
+    int[] newBeats = new int[beats.length + 1];
+    int[] newTempos = new int[beats.length + 1];
+    System.arraycopy(beats, 0, newBeats, 0, at);
+    System.arraycopy(tempos, 0, newTempos, 0, at);
+    newBeats[at] = beat;
+    newTempos[at] = tempo;
+    System.arraycopy(beats, at, newBeats, at + 1, beats.length - at);
+    System.arraycopy(tempos, at, newTempos, at + 1, beats.length - at);
+    return new TempoMap(newBeats, newTempos);
+  }
+
+  /**
+   * Gets a tempo map without the change that starts at the given beat, so the tempo before it
+   * lasts until the next change.
+   *
+   * @param beat The beat of the change to remove
+   * @return The new tempo map, or this map if no change starts at the beat
+   * @throws IllegalArgumentException If the beat is 0, as the starting tempo cannot be removed
+   */
+  public TempoMap without(int beat) throws IllegalArgumentException {
+    if (beat == 0) {
+      throw new IllegalArgumentException("The starting tempo cannot be removed");
+    }
+
+    int index = Arrays.binarySearch(beats, beat);
+    if (index < 0) {
+      return this;
+    }
+
+    int[] newBeats = new int[beats.length - 1];
+    int[] newTempos = new int[beats.length - 1];
+    System.arraycopy(beats, 0, newBeats, 0, index);
+    System.arraycopy(tempos, 0, newTempos, 0, index);
+    System.arraycopy(beats, index + 1, newBeats, index, beats.length - index - 1);
+    System.arraycopy(tempos, index + 1, newTempos, index, beats.length - index - 1);
+    return new TempoMap(newBeats, newTempos);
+  }
+
+  /**
+   * Gets a tempo map with every change moved the given number of beats later. The starting tempo
+   * is kept for the beats before the first moved change.
+   *
+   * @param offset The number of beats to move the changes by
+   * @return The new tempo map
+   * @throws IllegalArgumentException If the offset is negative
+   */
+  public TempoMap shift(int offset) throws IllegalArgumentException {
+    if (offset < 0) {
+      throw new IllegalArgumentException("Offset cannot be negative");
+    }
+
+    if (offset == 0 || beats.length == 1) {
+      return this;
+    }
+
+    int[] newBeats = new int[beats.length];
+    for (int i = 1; i < beats.length; i++) {
+      newBeats[i] = beats[i] + offset;
+    }
+    return new TempoMap(newBeats, tempos);
+  }
+
+  /**
+   * Gets the number of tempos in this map, including the starting tempo.
+   *
+   * @return The number of tempos
+   */
+  public int size() {
+    return beats.length;
+  }
+
+  /**
+   * Gets the beat that the tempo with the given index starts at. The starting tempo has index 0.
+   *
+   * @param index The index of the tempo
+   * @return The beat the tempo starts at
+   * @throws IndexOutOfBoundsException If there is no tempo with the index
+   */
+  public int getBeat(int index) throws IndexOutOfBoundsException {
+    return beats[index];
+  }
+
+  /**
+   * Gets the tempo with the given index in microseconds per beat.
+   *
+   * @param index The index of the tempo
+   * @return The tempo
+   * @throws IndexOutOfBoundsException If there is no tempo with the index
+   */
+  public int getTempo(int index) throws IndexOutOfBoundsException {
+    return tempos[index];
+  }
+
+  /**
+   * Gets the tempo that the given beat is played at.
+   *
+   * @param beat The beat
+   * @return The tempo in microseconds per beat
+   * @throws IllegalArgumentException If the beat is negative
+   */
+  public int getTempoAt(int beat) throws IllegalArgumentException {
+    checkBeat(beat);
+    return tempos[indexAtBeat(beat)];
+  }
+
+  /**
+   * Gets the time from the start of the piece to the start of the given beat.
+   *
+   * @param beat The beat
+   * @return The time in microseconds
+   * @throws IllegalArgumentException If the beat is negative
+   */
+  public long beatToMicros(int beat) throws IllegalArgumentException {
+    checkBeat(beat);
+    int index = indexAtBeat(beat);
+    return micros[index] + (long) (beat - beats[index]) * tempos[index];
+  }
+
+  /**
+   * Gets the beat that is being played at the given time from the start of the piece.
+   *
+   * @param time The time in microseconds
+   * @return The beat
+   * @throws IllegalArgumentException If the time is negative
+   */
+  public int microsToBeat(long time) throws IllegalArgumentException {
+    if (time < 0) {
+      throw new IllegalArgumentException("Time cannot be negative");
+    }
+
+    int index = Arrays.binarySearch(micros, time);
+    if (index < 0) {
+      index = -index - 2;
+    }
+
+    long beat = beats[index] + (time - micros[index]) / tempos[index];
+    return (int) Math.min(beat, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Gets the index of the tempo that the given beat is played at.
+   *
+   * @param beat The beat, which is not negative
+   * @return The index of the tempo
+   */
+  private int indexAtBeat(int beat) {
+    int index = Arrays.binarySearch(beats, beat);
+    return index >= 0 ? index : -index - 2;
+  }
+
+  private static void checkBeat(int beat) throws IllegalArgumentException {
+    if (beat < 0) {
+      throw new IllegalArgumentException("Beat cannot be negative");
+    }
+  }
+
+  private static void checkTempo(int tempo) throws IllegalArgumentException {
+    if (tempo < 1) {
+      throw new IllegalArgumentException("Tempo must be positive");
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof TempoMap)) {
+      return false;
+    }
+
+    TempoMap that = (TempoMap) o;
+    return Arrays.equals(beats, that.beats) && Arrays.equals(tempos, that.tempos);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(beats) + Arrays.hashCode(tempos);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder("{");
+    for (int i = 0; i < beats.length; i++) {
+      if (i > 0) {
+        result.append(", ");
+      }
+      result.append(beats[i]).append('=').append(tempos[i]);
+    }
+    return result.append('}').toString();
+  }
+}
@@ -0,0 +1,657 @@
+package cs3500.music.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.LongSupplier;
+
+/**
+ * A Music Editor that adds undo and redo to another Music Editor. Every change made through this
+ * editor is passed on to the wrapped editor and recorded as a small delta that knows how to undo
+ * itself: the notes that were added or removed, or the old and new tempos or beats per measure.
+ * Appends, combines and bulk adds are recorded as one batch of the notes that were really added,
+ * so undoing them only removes those notes, with one removeAll, instead of replaying the history.
+ * Bulk removes are recorded as one batch the same way. MusicNotes are immutable, so the records
+ * hold the same note objects as the wrapped editor instead of copies.
+ *
+ * <p>Single note and tempo changes made within a short time of each other are coalesced into one
+ * undo step, so a burst of quick edits is undone together. The history is bounded: once the steps
+ * that can be undone hold more than a set number of notes, the oldest steps are forgotten.</p>
+ */
+public class UndoableMusicEditorModel
+        implements MusicEditorOperations<IMusicNote<IPitch>, IPitch> {
+
+  /**
+   * The default number of note records kept in the undo history.
+   */
+  public static final int DEFAULT_HISTORY_SIZE = 100000;
+
+  /**
+   * The default time in milliseconds within which single edits are coalesced into one step.
+   */
+  public static final long DEFAULT_COALESCE_MILLIS = 300;
+
+  private final MusicEditorOperations<IMusicNote<IPitch>, IPitch> model; // The wrapped editor
+  private final int historySize; // The most note records the undo history can hold
+  private final long coalesceMillis; // The time within which single edits are coalesced
+  private final LongSupplier clock; // Gives the current time in milliseconds
+
+  /**
+   * The steps that can be undone, with the most recent step first.
+   */
+  private final Deque<Step> undoSteps;
+
+  /**
+   * The steps that can be redone, with the most recently undone step first.
+   */
+  private final Deque<Step> redoSteps;
+
+  /**
+   * The number of note records in the undo steps.
+   */
+  private int weight;
+
+  /**
+   * Whether the next single edit may be coalesced into the most recent undo step.
+   */
+  private boolean coalescing;
+
+  /**
+   * Constructor for UndoableMusicEditorModel with the default history size and coalescing time.
+   *
+   * @param model The editor to add undo and redo to
+   * @throws IllegalArgumentException If the model is null
+   */
+  public UndoableMusicEditorModel(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model)
+          throws IllegalArgumentException {
+    this(model, DEFAULT_HISTORY_SIZE, DEFAULT_COALESCE_MILLIS, System::currentTimeMillis);
+  }
+
+  /**
+   * Constructor for UndoableMusicEditorModel.
+   *
+   * @param model The editor to add undo and redo to
+   * @param historySize The most note records the undo history can hold
+   * @param coalesceMillis The time in milliseconds within which single edits are coalesced, or 0
+   *                       to never coalesce edits
+   * @param clock Gives the current time in milliseconds
+   * @throws IllegalArgumentException If the model or clock is null, the history size is not
+   *                                  positive or the coalescing time is negative
+   */
+  public UndoableMusicEditorModel(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model,
+                                  int historySize, long coalesceMillis, LongSupplier clock)
+          throws IllegalArgumentException {
+    if (model == null) {
+      throw new IllegalArgumentException("Model cannot be null");
+    }
+
+    if (clock == null) {
+      throw new IllegalArgumentException("Clock cannot be null");
+    }
+
+    if (historySize < 1) {
+      throw new IllegalArgumentException("History size must be positive");
+    }
+
+    if (coalesceMillis < 0) {
+      throw new IllegalArgumentException("Coalescing time cannot be negative");
+    }
+    this.model = model;
+    this.historySize = historySize;
+    this.coalesceMillis = coalesceMillis;
+    this.clock = clock;
+    this.undoSteps = new ArrayDeque<Step>();
+    this.redoSteps = new ArrayDeque<Step>();
+  }
+
+  /**
+   * Determines if there is a change that can be undone.
+   *
+   * @return If undo would change the editor
+   */
+  public boolean canUndo() {
+    return !undoSteps.isEmpty();
+  }
+
+  /**
+   * Determines if there is an undone change that can be redone.
+   *
+   * @return If redo would change the editor
+   */
+  public boolean canRedo() {
+    return !redoSteps.isEmpty();
+  }
+
+  /**
+   * Undoes the most recent step of changes.
+   *
+   * @return True if a step was undone, false if there was nothing to undo
+   */
+  public boolean undo() {
+    coalescing = false;
+    Step step = undoSteps.pollFirst();
+    if (step == null) {
+      return false;
+    }
+
+    weight -= step.weight;
+    for (int i = step.edits.size() - 1; i >= 0; i--) {
+      step.edits.get(i).undo(model);
+    }
+    redoSteps.addFirst(step);
+    return true;
+  }
+
+  /**
+   * Redoes the most recently undone step of changes.
+   *
+   * @return True if a step was redone, false if there was nothing to redo
+   */
+  public boolean redo() {
+    coalescing = false;
+    Step step = redoSteps.pollFirst();
+    if (step == null) {
+      return false;
+    }
+
+    for (Edit edit : step.edits) {
+      edit.redo(model);
+    }
+    undoSteps.addFirst(step);
+    weight += step.weight;
+    trimHistory();
+    return true;
+  }
+
+  /**
+   * Forgets every change that could be undone or redone.
+   */
+  public void clearHistory() {
+    undoSteps.clear();
+    redoSteps.clear();
+    weight = 0;
+    coalescing = false;
+  }
+
+  @Override
+  public void setTempo(int tempo) throws IllegalArgumentException {
+    TempoMap oldTempos = model.getTempoMap();
+    model.setTempo(tempo);
+    record(new TempoEdit(oldTempos, model.getTempoMap()), true);
+  }
+
+  @Override
+  public void setTempoMap(TempoMap tempoMap) throws IllegalArgumentException {
+    TempoMap oldTempos = model.getTempoMap();
+    model.setTempoMap(tempoMap);
+    record(new TempoEdit(oldTempos, tempoMap), true);
+  }
+
+  @Override
+  public void setBeatsPerMeasure(int beatsPerMeasure) throws IllegalArgumentException {
+    int oldBeatsPerMeasure = model.getBeatsPerMeasure();
+    model.setBeatsPerMeasure(beatsPerMeasure);
+    record(new MeasureEdit(oldBeatsPerMeasure, beatsPerMeasure), true);
+  }
+
+  @Override
+  public void newPiece() {
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> before = model.snapshot();
+    model.newPiece();
+    record(new ResetEdit(before), false);
+  }
+
+  @Override
+  public void addNote(IMusicNote<IPitch> note) throws IllegalArgumentException {
+    if (note == null) {
+      throw new IllegalArgumentException("Note to add cannot be null");
+    }
+
+    MusicNote toAdd = toMusicNote(note);
+    int version = model.getVersion();
+    model.addNote(toAdd);
+    if (model.getVersion() != version) {
+      record(new NoteEdit(toAdd, true), true);
+    }
+  }
+
+  @Override
+  public void addAll(Collection<? extends IMusicNote<IPitch>> notes)
+          throws IllegalArgumentException {
+    if (notes == null) {
+      throw new IllegalArgumentException("Notes to add cannot be null");
+    }
+
+    Set<MusicNote> toAdd = new LinkedHashSet<MusicNote>();
+    for (IMusicNote<IPitch> note : notes) {
+      if (note == null) {
+        throw new IllegalArgumentException("Note to add cannot be null");
+      }
+      toAdd.add(toMusicNote(note));
+    }
+    addBatch(toAdd);
+  }
+
+  @Override
+  public void removeNote(IMusicNote<IPitch> note) throws IllegalArgumentException {
+    if (note == null) {
+      throw new IllegalArgumentException("Note to remove cannot be null");
+    }
+
+    MusicNote toRemove = toMusicNote(note);
+    model.removeNote(toRemove);
+    record(new NoteEdit(toRemove, false), true);
+  }
+
+  @Override
+  public void removeAll(Collection<? extends IMusicNote<IPitch>> notes)
+          throws IllegalArgumentException {
+    if (notes == null) {
+      throw new IllegalArgumentException("Notes to remove cannot be null");
+    }
+
+    Set<MusicNote> toRemove = new LinkedHashSet<MusicNote>();
+    for (IMusicNote<IPitch> note : notes) {
+      if (note == null) {
+        throw new IllegalArgumentException("Note to remove cannot be null");
+      }
+      toRemove.add(toMusicNote(note));
+    }
+    if (!toRemove.isEmpty()) {
+      model.removeAll(toRemove);
+      record(new BatchEdit(toRemove.toArray(new MusicNote[toRemove.size()]), false), false);
+    }
+  }
+
+  @Override
+  public void replaceNote(IMusicNote<IPitch> oldNote, IMusicNote<IPitch> newNote)
+          throws IllegalArgumentException {
+    if (oldNote == null) {
+      throw new IllegalArgumentException("The note to be replaced cannot be null");
+    }
+
+    if (newNote == null) {
+      throw new IllegalArgumentException("The note to be added cannot be null");
+    }
+
+    removeNote(oldNote);
+    addNote(newNote);
+  }
+
+  @Override
+  public void append(MusicEditorOperations<?, ?> toAppend) throws IllegalArgumentException {
+    if (toAppend == null) {
+      throw new IllegalArgumentException("Editor to append cannot be null");
+    }
+
+    SortedMap<Integer, Set<IMusicNote<IPitch>>> notes = model.getNotesView();
+    int startBeatOffset = notes.isEmpty() ? 0 : notes.lastKey() + 1;
+    Set<MusicNote> toAdd = new LinkedHashSet<MusicNote>();
+    toAppend.forEachNote((startBeat, duration, pitch, instrument, volume) ->
+            toAdd.add(new MusicNote(Pitch.fromMidi(pitch), duration, startBeat + startBeatOffset,
+                    instrument, volume)));
+    addBatch(toAdd);
+  }
+
+  @Override
+  public void combine(MusicEditorOperations<?, ?> toCombine) throws IllegalArgumentException {
+    if (toCombine == null) {
+      throw new IllegalArgumentException("Editor to combine cannot be null");
+    }
+
+    Set<MusicNote> toAdd = new LinkedHashSet<MusicNote>();
+    toCombine.forEachNote((startBeat, duration, pitch, instrument, volume) ->
+            toAdd.add(new MusicNote(Pitch.fromMidi(pitch), duration, startBeat, instrument,
+                    volume)));
+    addBatch(toAdd);
+  }
+
+  @Override
+  public int getTempo() {
+    return model.getTempo();
+  }
+
+  @Override
+  public TempoMap getTempoMap() {
+    return model.getTempoMap();
+  }
+
+  @Override
+  public int getBeatsPerMeasure() {
+    return model.getBeatsPerMeasure();
+  }
+
+  @Override
+  public Map<Integer, Set<IMusicNote<IPitch>>> getNotes() {
+    return model.getNotes();
+  }
+
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> getNotesView() {
+    return model.getNotesView();
+  }
+
+  @Override
+  public Set<IMusicNote<IPitch>> getNotesAtBeat(int beat) throws IllegalArgumentException {
+    return model.getNotesAtBeat(beat);
+  }
+
+  @Override
+  public SortedMap<Integer, Set<IMusicNote<IPitch>>> getNotesInRange(int startBeat, int endBeat)
+          throws IllegalArgumentException {
+    return model.getNotesInRange(startBeat, endBeat);
+  }
+
+  @Override
+  public Set<IMusicNote<IPitch>> getNotesSoundingInRange(int startBeat, int endBeat)
+          throws IllegalArgumentException {
+    return model.getNotesSoundingInRange(startBeat, endBeat);
+  }
+
+  @Override
+  public Set<IMusicNote<IPitch>> getNotesStartingInRange(int startBeat, int endBeat)
+          throws IllegalArgumentException {
+    return model.getNotesStartingInRange(startBeat, endBeat);
+  }
+
+  @Override
+  public PitchMask getPitchMaskAtBeat(int beat) throws IllegalArgumentException {
+    return model.getPitchMaskAtBeat(beat);
+  }
+
+  @Override
+  public void forEachNote(NoteVisitor visitor) {
+    model.forEachNote(visitor);
+  }
+
+  @Override
+  public void forEachNoteSoundingInRange(int startBeat, int endBeat, NoteVisitor visitor)
+          throws IllegalArgumentException {
+    model.forEachNoteSoundingInRange(startBeat, endBeat, visitor);
+  }
+
+  @Override
+  public int getVersion() {
+    return model.getVersion();
+  }
+
+  @Override
+  public void addModelListener(ModelListener listener) throws IllegalArgumentException {
+    model.addModelListener(listener);
+  }
+
+  @Override
+  public void removeModelListener(ModelListener listener) {
+    model.removeModelListener(listener);
+  }
+
+  @Override
+  public MusicEditorOperations<IMusicNote<IPitch>, IPitch> snapshot() {
+    return model.snapshot();
+  }
+
+  @Override
+  public IPitch getLowPitch() {
+    return model.getLowPitch();
+  }
+
+  @Override
+  public IPitch getHighPitch() {
+    return model.getHighPitch();
+  }
+
+  /**
+   * Adds the given notes to the wrapped editor in bulk and records the ones that were not already
+   * in it as one batch.
+   *
+   * @param notes The notes to add, each listed once
+   */
+  private void addBatch(Set<MusicNote> notes) {
+    List<MusicNote> added = new ArrayList<MusicNote>(notes.size());
+    for (MusicNote note : notes) {
+      if (note.getDuration() > 0 && !model.getNotesStartingInRange(note.getStartBeat(),
+              note.getStartBeat() + 1).contains(note)) {
+        added.add(note);
+      }
+    }
+
+    if (!added.isEmpty()) {
+      model.addAll(added);
+      record(new BatchEdit(added.toArray(new MusicNote[added.size()]), true), false);
+    }
+  }
+
+  /**
+   * Records a change that was made to the wrapped editor. Any undone steps can no longer be
+   * redone.
+   *
+   * @param edit The change that was made
+   * @param small If the change may be coalesced with other small changes made just before it
+   */
+  private void record(Edit edit, boolean small) {
+    redoSteps.clear();
+    long now = clock.getAsLong();
+    Step last = undoSteps.peekFirst();
+    if (small && coalescing && last != null && now - last.time <= coalesceMillis) {
+      last.edits.add(edit);
+      last.time = now;
+      last.weight += edit.weight();
+    }
+    else {
+      Step step = new Step(now);
+      step.edits.add(edit);
+      step.weight = edit.weight();
+      undoSteps.addFirst(step);
+    }
+    weight += edit.weight();
+    coalescing = small && coalesceMillis > 0;
+    trimHistory();
+  }
+
+  /**
+   * Forgets the oldest undo steps until the history holds at most historySize note records. The
+   * most recent step is always kept.
+   */
+  private void trimHistory() {
+    while (weight > historySize && undoSteps.size() > 1) {
+      weight -= undoSteps.pollLast().weight;
+    }
+  }
+
+  /**
+   * Gets the given note as a MusicNote, copying it only if it is some other kind of note.
+   *
+   * @param note The note to convert
+   * @return The note as a MusicNote
+   */
+  private static MusicNote toMusicNote(IMusicNote<IPitch> note) {
+    return note instanceof MusicNote ? (MusicNote) note : new MusicNote(note);
+  }
+
+  /**
+   * One undo step: the changes that are undone and redone together.
+   */
+  private static final class Step {
+    private final List<Edit> edits = new ArrayList<Edit>(1);
+    private long time; // The time of the most recent change in the step
+    private int weight; // The number of note records in the step
+
+    private Step(long time) {
+      this.time = time;
+    }
+  }
+
+  /**
+   * A recorded change to a Music Editor that can undo and redo itself.
+   */
+  private interface Edit {
+    void undo(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model);
+
+    void redo(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model);
+
+    /**
+     * Gets the number of notes this change holds on to, counted against the history size.
+     */
+    default int weight() {
+      return 1;
+    }
+  }
+
+  /**
+   * A single note that was added or removed.
+   */
+  private static final class NoteEdit implements Edit {
+    private final MusicNote note;
+    private final boolean added;
+
+    private NoteEdit(MusicNote note, boolean added) {
+      this.note = note;
+      this.added = added;
+    }
+
+    @Override
+    public void undo(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model) {
+      apply(model, !added);
+    }
+
+    @Override
+    public void redo(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model) {
+      apply(model, added);
+    }
+
+    private void apply(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model, boolean add) {
+      if (add) {
+        model.addNote(note);
+      }
+      else {
+        model.removeNote(note);
+      }
+    }
+  }
+
+  /**
+   * A batch of notes that were added together by an append, combine or bulk add, or removed
+   * together by a bulk remove. The whole batch is added with one addAll and removed with one
+   * removeAll.
+   */
+  private static final class BatchEdit implements Edit {
+    private final MusicNote[] notes;
+    private final boolean added;
+
+    private BatchEdit(MusicNote[] notes, boolean added) {
+      this.notes = notes;
+      this.added = added;
+    }
+
+    @Override
+    public void undo(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model) {
+      apply(model, !added);
+    }
+
+    @Override
+    public void redo(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model) {
+      apply(model, added);
+    }
+
+    private void apply(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model, boolean add) {
+      if (add) {
+        model.addAll(Arrays.asList(notes));
+      }
+      else {
+        model.removeAll(Arrays.asList(notes));
+      }
+    }
+
+    @Override
+    public int weight() {
+      return notes.length;
+    }
+  }
+
+  /**
+   * A change of tempo. TempoMaps are immutable, so the old and new maps are kept as they are.
+   */
+  private static final class TempoEdit implements Edit {
+    private final TempoMap oldTempos;
+    private final TempoMap newTempos;
+
+    private TempoEdit(TempoMap oldTempos, TempoMap newTempos) {
+      this.oldTempos = oldTempos;
+      this.newTempos = newTempos;
+    }
+
+    @Override
+    public void undo(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model) {
+      model.setTempoMap(oldTempos);
+    }
+
+    @Override
+    public void redo(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model) {
+      model.setTempoMap(newTempos);
+    }
+  }
+
+  /**
+   * A change of the beats per measure.
+   */
+  private static final class MeasureEdit implements Edit {
+    private final int oldBeatsPerMeasure;
+    private final int newBeatsPerMeasure;
+
+    private MeasureEdit(int oldBeatsPerMeasure, int newBeatsPerMeasure) {
+      this.oldBeatsPerMeasure = oldBeatsPerMeasure;
+      this.newBeatsPerMeasure = newBeatsPerMeasure;
+    }
+
+    @Override
+    public void undo(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model) {
+      model.setBeatsPerMeasure(oldBeatsPerMeasure);
+    }
+
+    @Override
+    public void redo(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model) {
+      model.setBeatsPerMeasure(newBeatsPerMeasure);
+    }
+  }
+
+  /**
+   * A new piece. The piece from before is kept as a snapshot, which shares its notes with the
+   * editor it was taken from instead of copying them.
+   */
+  private static final class ResetEdit implements Edit {
+    private final MusicEditorOperations<IMusicNote<IPitch>, IPitch> before;
+    private final int size;
+
+    private ResetEdit(MusicEditorOperations<IMusicNote<IPitch>, IPitch> before) {
+      this.before = before;
+      int[] count = new int[1];
+      before.forEachNote((startBeat, duration, pitch, instrument, volume) -> count[0]++);
+      this.size = count[0];
+    }
+
+    @Override
+    public void undo(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model) {
+      model.newPiece();
+      model.combine(before);
+      model.setTempoMap(before.getTempoMap());
+      model.setBeatsPerMeasure(before.getBeatsPerMeasure());
+    }
+
+    @Override
+    public void redo(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model) {
+      model.newPiece();
+    }
+
+    @Override
+    public int weight() {
+      return Math.max(1, size);
+    }
+  }
+}
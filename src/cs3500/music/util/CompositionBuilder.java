@@ -21,6 +21,27 @@ public interface CompositionBuilder<T> {
    */
   CompositionBuilder<T> setTempo(int tempo);
 
+  /**
+   * Adds a change of tempo to the piece, which lasts until the next change. A change at beat 0
+   * sets the tempo of the piece. Builders that only keep one tempo ignore later changes.
+   * @param beat The beat the new tempo starts at
+   * @param tempo The speed, in microseconds per beat
+   * @return This builder
+   */
+  default CompositionBuilder<T> addTempoChange(int beat, int tempo) {
+    return beat == 0 ? setTempo(tempo) : this;
+  }
+
+  /**
+   * Sets the number of beats in each measure of the piece. Builders that do not keep measures
+   * ignore it.
+   * @param beatsPerMeasure The number of beats in a measure
+   * @return This builder
+   */
+  default CompositionBuilder<T> setBeatsPerMeasure(int beatsPerMeasure) {
+    return this;
+  }
+
   /**
    * Adds a new note to the piece.
    * @param start The start time of the note, in beats
@@ -31,4 +52,14 @@ public interface CompositionBuilder<T> {
    * @return The composition builder
    */
   CompositionBuilder<T> addNote(int start, int end, int instrument, int pitch, int volume);
+
+  /**
+   * Passes on any notes the builder is holding back, so that a composition that is built while
+   * it is being read can show them. Streaming readers call this after each batch of lines.
+   * Builders that only produce a composition in build() do nothing.
+   * @return This builder
+   */
+  default CompositionBuilder<T> flush() {
+    return this;
+  }
 }
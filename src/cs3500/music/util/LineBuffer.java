@@ -0,0 +1,93 @@
+package cs3500.music.util;
+
+import java.util.Arrays;
+
+/**
+ * A builder that records the lines of music data it is given, as ints, so they can be given to
+ * another builder later in the same order. It lets part of a file be parsed before the lines
+ * before it are known.
+ */
+final class LineBuffer implements CompositionBuilder<LineBuffer> {
+  private static final int TEMPO = 0;
+  private static final int TEMPO_CHANGE = 1;
+  private static final int NOTE = 2;
+
+  private int[] lines; // The type of each line followed by its numbers
+  private int size; // The number of ints used in lines
+
+  /**
+   * Constructor for LineBuffer.
+   *
+   * @param capacity The number of ints to make room for
+   */
+  LineBuffer(int capacity) {
+    this.lines = new int[Math.max(capacity, 6)];
+    this.size = 0;
+  }
+
+  @Override
+  public LineBuffer build() {
+    return this;
+  }
+
+  @Override
+  public CompositionBuilder<LineBuffer> setTempo(int tempo) {
+    ensureRoom(2);
+    lines[size++] = TEMPO;
+    lines[size++] = tempo;
+    return this;
+  }
+
+  @Override
+  public CompositionBuilder<LineBuffer> addTempoChange(int beat, int tempo) {
+    ensureRoom(3);
+    lines[size++] = TEMPO_CHANGE;
+    lines[size++] = beat;
+    lines[size++] = tempo;
+    return this;
+  }
+
+  @Override
+  public CompositionBuilder<LineBuffer> addNote(int start, int end, int instrument, int pitch,
+                                                int volume) {
+    ensureRoom(6);
+    lines[size++] = NOTE;
+    lines[size++] = start;
+    lines[size++] = end;
+    lines[size++] = instrument;
+    lines[size++] = pitch;
+    lines[size++] = volume;
+    return this;
+  }
+
+  /**
+   * Gives every recorded line to the given builder, in the order they were recorded.
+   *
+   * @param piece The builder
+   */
+  void replay(CompositionBuilder<?> piece) {
+    int i = 0;
+    while (i < size) {
+      switch (lines[i]) {
+        case TEMPO:
+          piece.setTempo(lines[i + 1]);
+          i += 2;
+          break;
+        case TEMPO_CHANGE:
+          piece.addTempoChange(lines[i + 1], lines[i + 2]);
+          i += 3;
+          break;
+        default:
+          piece.addNote(lines[i + 1], lines[i + 2], lines[i + 3], lines[i + 4], lines[i + 5]);
+          i += 6;
+          break;
+      }
+    }
+  }
+
+  private void ensureRoom(int count) {
+    if (size + count > lines.length) {
+      lines = Arrays.copyOf(lines, Math.max(lines.length * 2, size + count));
+    }
+  }
+}
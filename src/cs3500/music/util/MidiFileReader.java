@@ -0,0 +1,198 @@
+package cs3500.music.util;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import javax.sound.midi.InvalidMidiDataException;
+import javax.sound.midi.MidiEvent;
+import javax.sound.midi.MidiMessage;
+import javax.sound.midi.MidiSystem;
+import javax.sound.midi.Sequence;
+import javax.sound.midi.ShortMessage;
+import javax.sound.midi.Track;
+
+/**
+ * A helper to read Standard Midi Files, of type 0 or 1, and construct a music composition from
+ * them. The file is only parsed into a Sequence; no synthesizer or sequencer is opened, so it
+ * works without any Midi devices.
+ *
+ * <p>Each note on is matched with the next note off (or note on of volume 0) of the same key on
+ * the same channel of its track, using a table of start ticks indexed by channel and key, and the
+ * note is given to the builder when it ends. The instrument of a note is the program of its
+ * channel when it starts, and its volume is its velocity. Tempo meta events become tempo changes.
+ * Beats are quarter notes unless a finer grid is asked for, and times are rounded to the nearest
+ * beat.</p>
+ */
+public final class MidiFileReader {
+
+  private static final int SET_TEMPO = 0x51; // The type of a tempo meta event
+  private static final int DEFAULT_TEMPO = 500000; // Microseconds per quarter note, by the SMF spec
+  private static final int CHANNELS = 16;
+  private static final int KEYS = 128;
+
+  private MidiFileReader() {
+  }
+
+  /**
+   * Produces a new music composition from the Midi file at the given path, with a beat for each
+   * quarter note.
+   *
+   * @param path The Midi file
+   * @param piece A builder for helping to construct a new composition
+   * @param <T> The main model interface type describing music compositions
+   * @return The model interface instance
+   * @throws IllegalArgumentException If the file is not a Midi file
+   * @throws IOException If the file cannot be read
+   */
+  public static <T> T parseFile(Path path, CompositionBuilder<T> piece) throws IOException {
+    return parseFile(path, piece, 1);
+  }
+
+  /**
+   * Produces a new music composition from the Midi file at the given path.
+   *
+   * @param path The Midi file
+   * @param piece A builder for helping to construct a new composition
+   * @param beatsPerQuarter The number of beats in a quarter note, such as 4 for a beat of a
+   *                        sixteenth note
+   * @param <T> The main model interface type describing music compositions
+   * @return The model interface instance
+   * @throws IllegalArgumentException If the file is not a Midi file, or beatsPerQuarter is not
+   *                                  positive
+   * @throws IOException If the file cannot be read
+   */
+  public static <T> T parseFile(Path path, CompositionBuilder<T> piece, int beatsPerQuarter)
+          throws IOException {
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+      return parseFile(in, piece, beatsPerQuarter);
+    }
+  }
+
+  /**
+   * Produces a new music composition from a Midi file read from the given stream, which is not
+   * closed.
+   *
+   * @param in The source of the Midi file
+   * @param piece A builder for helping to construct a new composition
+   * @param beatsPerQuarter The number of beats in a quarter note
+   * @param <T> The main model interface type describing music compositions
+   * @return The model interface instance
+   * @throws IllegalArgumentException If the data is not a Midi file, or beatsPerQuarter is not
+   *                                  positive
+   * @throws IOException If the stream cannot be read
+   */
+  public static <T> T parseFile(InputStream in, CompositionBuilder<T> piece, int beatsPerQuarter)
+          throws IOException {
+    if (beatsPerQuarter <= 0) {
+      throw new IllegalArgumentException("Beats per quarter note must be positive");
+    }
+
+    Sequence sequence;
+    try {
+      sequence = MidiSystem.getSequence(in);
+    } catch (InvalidMidiDataException e) {
+      throw new IllegalArgumentException("Not a Midi file: " + e.getMessage());
+    }
+    return read(sequence, piece, beatsPerQuarter);
+  }
+
+  /**
+   * Gives every note and tempo change of the given sequence to the builder and builds the
+   * composition.
+   *
+   * @param sequence The sequence
+   * @param piece A builder for helping to construct a new composition
+   * @param beatsPerQuarter The number of beats in a quarter note
+   * @param <T> The main model interface type describing music compositions
+   * @return The model interface instance
+   */
+  static <T> T read(Sequence sequence, CompositionBuilder<T> piece, int beatsPerQuarter) {
+    // Ticks are converted to beats as tick * beatsPerQuarter / ticksPerQuarter. SMPTE files have
+    // no quarter notes, so a quarter is taken to be the default tempo's half second.
+    double ticksPerQuarter = sequence.getDivisionType() == Sequence.PPQ
+            ? sequence.getResolution()
+            : sequence.getDivisionType() * sequence.getResolution() / 2.0;
+    double beatsPerTick = beatsPerQuarter / ticksPerQuarter;
+    piece.setTempo(Math.max(1, DEFAULT_TEMPO / beatsPerQuarter));
+
+    long[] startTicks = new long[CHANNELS * KEYS]; // Start of the sounding note, or -1
+    int[] velocities = new int[CHANNELS * KEYS]; // Velocity of the sounding note
+    int[] instruments = new int[CHANNELS * KEYS]; // Program of the sounding note
+    int[] programs = new int[CHANNELS]; // Current program of each channel
+    for (Track track : sequence.getTracks()) {
+      Arrays.fill(startTicks, -1);
+      Arrays.fill(programs, 0);
+      long lastTick = 0;
+      for (int i = 0; i < track.size(); i++) {
+        MidiEvent event = track.get(i);
+        MidiMessage message = event.getMessage();
+        long tick = event.getTick();
+        lastTick = tick;
+        int status = message.getStatus();
+
+        if (status == 0xFF) {
+          byte[] bytes = message.getMessage();
+          if (bytes.length >= 6 && (bytes[1] & 0xFF) == SET_TEMPO) {
+            int mpq = (bytes[3] & 0xFF) << 16 | (bytes[4] & 0xFF) << 8 | (bytes[5] & 0xFF);
+            if (mpq > 0) {
+              piece.addTempoChange(toBeat(tick, beatsPerTick),
+                      Math.max(1, mpq / beatsPerQuarter));
+            }
+          }
+          continue;
+        }
+        if (!(message instanceof ShortMessage)) {
+          continue;
+        }
+
+        ShortMessage shortMessage = (ShortMessage) message;
+        int channel = shortMessage.getChannel();
+        int command = shortMessage.getCommand();
+        if (command == ShortMessage.PROGRAM_CHANGE) {
+          programs[channel] = shortMessage.getData1();
+        }
+        else if (command == ShortMessage.NOTE_ON || command == ShortMessage.NOTE_OFF) {
+          int key = shortMessage.getData1();
+          int slot = channel * KEYS + key;
+          if (startTicks[slot] >= 0) {
+            addNote(piece, startTicks[slot], tick, beatsPerTick, instruments[slot], key,
+                    velocities[slot]);
+            startTicks[slot] = -1;
+          }
+          if (command == ShortMessage.NOTE_ON && shortMessage.getData2() > 0) {
+            startTicks[slot] = tick;
+            velocities[slot] = shortMessage.getData2();
+            instruments[slot] = programs[channel];
+          }
+        }
+      }
+
+      // Notes still sounding at the end of the track end with it
+      for (int slot = 0; slot < startTicks.length; slot++) {
+        if (startTicks[slot] >= 0) {
+          addNote(piece, startTicks[slot], lastTick, beatsPerTick, instruments[slot],
+                  slot % KEYS, velocities[slot]);
+        }
+      }
+    }
+    return piece.build();
+  }
+
+  /**
+   * Gives a note to the builder, lasting at least one beat.
+   */
+  private static void addNote(CompositionBuilder<?> piece, long startTick, long endTick,
+                              double beatsPerTick, int instrument, int pitch, int volume) {
+    int start = toBeat(startTick, beatsPerTick);
+    int end = Math.max(start + 1, toBeat(endTick, beatsPerTick));
+    piece.addNote(start, end, instrument, pitch, volume);
+  }
+
+  private static int toBeat(long tick, double beatsPerTick) {
+    return (int) Math.min(Integer.MAX_VALUE - 1, Math.round(tick * beatsPerTick));
+  }
+}
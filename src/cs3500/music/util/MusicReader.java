@@ -1,12 +1,48 @@
 package cs3500.music.util;
 
-import java.util.NoSuchElementException;
-import java.util.Scanner;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * A helper to read music data and construct a music composition from it.
+ *
+ * <p>The data is read into one reusable byte buffer and parsed by hand, a byte at a time, so
+ * reading a file does not create a String per token or run a regular expression: the numbers of
+ * each line are given straight to the builder as ints. Only ASCII is meaningful in the format.</p>
  */
 public class MusicReader {
+
+  /**
+   * The size of the buffer the data is read into.
+   */
+  static final int BUFFER_SIZE = 1 << 16;
+
+  /**
+   * The smallest chunk of a file parsed in parallel with others.
+   */
+  static final int MIN_CHUNK_SIZE = 1 << 16;
+
+  /**
+   * The number of chunks a file is split into for each thread of the pool that parses it, so a
+   * thread that finishes early can take another.
+   */
+  static final int CHUNKS_PER_THREAD = 4;
+
   /**
    * A factory for producing new music compositions, given a source of music and a
    * builder for constructing compositions.
@@ -15,7 +51,8 @@ public class MusicReader {
    *   The input file format consists of two types of lines:
    *   <ul>
    *     <li>Tempo lines: the keyword "tempo" followed by a number,
-   *      describing the tempo in microseconds per beat</li>
+   *      describing the tempo in microseconds per beat, or by two numbers
+   *      giving the beat a change of tempo starts at and the new tempo</li>
    *     <li>Note lines: the keyword "note" followed by five numbers indicating
    *      the start and end times of the note, the instrument,
    *      the pitch, and the volume</li>
@@ -25,36 +62,432 @@ public class MusicReader {
    * @param piece A builder for helping to construct a new composition
    * @param <T> The main model interface type describing music compositions
    * @return The model interface instance
+   * @throws IllegalArgumentException If a line is malformed, giving its line number
+   * @throws UncheckedIOException If the data cannot be read
    */
   public static <T> T parseFile(Readable readable, CompositionBuilder<T> piece) {
-    Scanner scanner = new Scanner(readable);
-    while (scanner.hasNext()) {
-      String lineType = scanner.next();
-      switch (lineType) {
-        case "tempo":
-          try {
-            piece.setTempo(scanner.nextInt());
-          } catch (NoSuchElementException e) {
-            throw new IllegalArgumentException("Malformed tempo line: " + scanner.nextLine());
+    CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    try {
+      return new Parser<T>(ByteBuffer.allocate(BUFFER_SIZE), buffer -> {
+        chars.clear();
+        int count = readable.read(chars);
+        chars.flip();
+        while (chars.hasRemaining()) {
+          char c = chars.get();
+          buffer.put(c < 0x80 ? (byte) c : (byte) '?');
+        }
+        return count;
+      }, piece).parse();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Produces a new music composition from the bytes of the given stream, in the format read by
+   * parseFile(Readable, CompositionBuilder). The stream is not closed.
+   *
+   * @param in The source of data for the music composition
+   * @param piece A builder for helping to construct a new composition
+   * @param <T> The main model interface type describing music compositions
+   * @return The model interface instance
+   * @throws IllegalArgumentException If a line is malformed, giving its line number
+   * @throws IOException If the stream cannot be read
+   */
+  public static <T> T parseFile(InputStream in, CompositionBuilder<T> piece) throws IOException {
+    return new Parser<T>(ByteBuffer.allocate(BUFFER_SIZE), buffer -> {
+      int count = in.read(buffer.array(), buffer.position(), buffer.remaining());
+      if (count > 0) {
+        buffer.position(buffer.position() + count);
+      }
+      return count;
+    }, piece).parse();
+  }
+
+  /**
+   * Produces a new music composition from the bytes of the given channel, such as a FileChannel,
+   * in the format read by parseFile(Readable, CompositionBuilder). The channel is read into a
+   * direct buffer and is not closed.
+   *
+   * @param channel The source of data for the music composition
+   * @param piece A builder for helping to construct a new composition
+   * @param <T> The main model interface type describing music compositions
+   * @return The model interface instance
+   * @throws IllegalArgumentException If a line is malformed, giving its line number
+   * @throws IOException If the channel cannot be read
+   */
+  public static <T> T parseFile(ReadableByteChannel channel, CompositionBuilder<T> piece)
+          throws IOException {
+    return new Parser<T>(ByteBuffer.allocateDirect(BUFFER_SIZE), channel::read, piece).parse();
+  }
+
+  /**
+   * Produces a new music composition from the file at the given path, parsing it in parallel on
+   * the common ForkJoinPool. See parseFile(Path, CompositionBuilder, ForkJoinPool).
+   *
+   * @param path The file of data for the music composition
+   * @param piece A builder for helping to construct a new composition
+   * @param <T> The main model interface type describing music compositions
+   * @return The model interface instance
+   * @throws IllegalArgumentException If a line is malformed, giving its line number
+   * @throws IOException If the file cannot be read
+   */
+  public static <T> T parseFile(Path path, CompositionBuilder<T> piece) throws IOException {
+    return parseFile(path, piece, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Produces a new music composition from the file at the given path, in the format read by
+   * parseFile(Readable, CompositionBuilder). The file is memory mapped and split into chunks at
+   * line breaks, and the chunks are parsed in parallel on the given pool. The lines of each chunk
+   * are kept until every chunk is parsed, then given to the builder in the order of the file, so
+   * the builder sees the same calls as it would from a sequential parse and is not called at all
+   * if a line is malformed. Files too small to split are parsed on the calling thread.
+   *
+   * @param path The file of data for the music composition
+   * @param piece A builder for helping to construct a new composition
+   * @param pool The pool to parse the chunks on
+   * @param <T> The main model interface type describing music compositions
+   * @return The model interface instance
+   * @throws IllegalArgumentException If a line is malformed, giving its line number
+   * @throws IOException If the file cannot be read
+   */
+  public static <T> T parseFile(Path path, CompositionBuilder<T> piece, ForkJoinPool pool)
+          throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long fileSize = channel.size();
+      if (fileSize < 2 * MIN_CHUNK_SIZE || fileSize > Integer.MAX_VALUE) {
+        return parseFile(channel, piece);
+      }
+
+      MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+      int chunkSize = (int) Math.max(MIN_CHUNK_SIZE,
+              fileSize / (pool.getParallelism() * CHUNKS_PER_THREAD));
+      List<ByteBuffer> chunks = new ArrayList<ByteBuffer>();
+      List<Callable<LineBuffer>> tasks = new ArrayList<Callable<LineBuffer>>();
+      int start = 0;
+      while (start < fileSize) {
+        int end = (int) Math.min(fileSize, (long) start + chunkSize);
+        while (end < fileSize && file.get(end - 1) != '\n') {
+          end++;
+        }
+        ByteBuffer chunk = file.duplicate();
+        chunk.limit(end).position(start);
+        chunks.add(chunk);
+        tasks.add(() -> new Parser<LineBuffer>(chunk.duplicate(), null,
+                new LineBuffer(chunk.remaining() / 2)).parse());
+        start = end;
+      }
+
+      List<LineBuffer> parsed = new ArrayList<LineBuffer>();
+      for (Future<LineBuffer> lines : pool.invokeAll(tasks)) {
+        try {
+          parsed.add(lines.get());
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof IllegalArgumentException) {
+            throw malformedChunk(file, chunks.get(parsed.size()),
+                    (IllegalArgumentException) e.getCause());
           }
-          break;
-        case "note":
-          try {
-            int startBeat = scanner.nextInt();
-            int endBeat = scanner.nextInt();
-            int instrument = scanner.nextInt();
-            int pitch = scanner.nextInt();
-            int volume = scanner.nextInt();
-            piece.addNote(startBeat, endBeat, instrument, pitch, volume);
-          } catch (NoSuchElementException e) {
-            throw new IllegalArgumentException("Malformed note line: " + scanner.nextLine());
+          if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
           }
-          break;
-        default:
-          throw new IllegalArgumentException("Bad line type: " + lineType);
+          throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted while parsing " + path);
+        }
+      }
+      for (LineBuffer lines : parsed) {
+        lines.replay(piece);
+      }
+      return piece.build();
+    }
+  }
+
+  /**
+   * Creates the exception for a malformed line in a chunk of a file parsed in parallel. The chunk
+   * only knows its own line numbers, so the lines that end before it are counted and the chunk is
+   * parsed again on its own, starting at its line number in the whole file, to give the same
+   * message as a sequential parse. The builder is not given any of its lines.
+   *
+   * @param file The whole file
+   * @param chunk The chunk that failed to parse
+   * @param cause The exception the chunk failed with
+   * @return The exception, with the line number in the whole file
+   * @throws IOException If the data cannot be read
+   */
+  private static IllegalArgumentException malformedChunk(ByteBuffer file, ByteBuffer chunk,
+          IllegalArgumentException cause) throws IOException {
+    int line = 1;
+    for (int i = 0; i < chunk.position(); i++) {
+      if (file.get(i) == '\n') {
+        line++;
       }
     }
 
-    return piece.build();
+    try {
+      new Parser<LineBuffer>(chunk.duplicate(), null, new LineBuffer(0), line).parseLines();
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+    return cause;
+  }
+
+  /**
+   * Reads bytes into a buffer, like ReadableByteChannel.read.
+   */
+  interface ByteSource {
+    /**
+     * Reads bytes into the remaining space of the given buffer.
+     *
+     * @param buffer The buffer to read into
+     * @return The number of bytes read, or -1 at the end of the data
+     * @throws IOException If the data cannot be read
+     */
+    int read(ByteBuffer buffer) throws IOException;
+  }
+
+  /**
+   * Parses music data from a buffer of bytes, refilling it from a source as it is used up, and
+   * gives each line to a builder.
+   *
+   * @param <T> The main model interface type describing music compositions
+   */
+  static final class Parser<T> {
+    private static final byte[] TEMPO = {'t', 'e', 'm', 'p', 'o'};
+    private static final byte[] NOTE = {'n', 'o', 't', 'e'};
+
+    private final ByteBuffer buffer; // The bytes read but not yet parsed
+    private final ByteSource source; // Refills the buffer, or null if the buffer holds everything
+    private final CompositionBuilder<T> piece; // The builder given each line
+    private final byte[] word; // The first bytes of the last keyword read
+    private int wordLength; // The length of the last keyword read
+    private int line; // The number of the line being parsed
+
+    /**
+     * Constructor for Parser.
+     *
+     * @param buffer The buffer to read into, or that holds all of the data if source is null
+     * @param source Refills the buffer, or null if the buffer already holds all of the data
+     * @param piece The builder given each line
+     */
+    Parser(ByteBuffer buffer, ByteSource source, CompositionBuilder<T> piece) {
+      this(buffer, source, piece, 1);
+    }
+
+    /**
+     * Constructor for Parser, for data that starts partway through a file.
+     *
+     * @param buffer The buffer to read into, or that holds all of the data if source is null
+     * @param source Refills the buffer, or null if the buffer already holds all of the data
+     * @param piece The builder given each line
+     * @param firstLine The number of the first line of the data in the file
+     */
+    Parser(ByteBuffer buffer, ByteSource source, CompositionBuilder<T> piece, int firstLine) {
+      this.buffer = buffer;
+      this.source = source;
+      this.piece = piece;
+      this.word = new byte[32];
+      this.line = firstLine;
+      if (source != null) {
+        buffer.limit(0);
+      }
+    }
+
+    /**
+     * Parses every line of the data and builds the composition.
+     *
+     * @return The composition
+     * @throws IllegalArgumentException If a line is malformed
+     * @throws IOException If the data cannot be read
+     */
+    T parse() throws IOException {
+      parseLines();
+      return piece.build();
+    }
+
+    /**
+     * Parses every line of the data, giving each to the builder.
+     *
+     * @throws IllegalArgumentException If a line is malformed
+     * @throws IOException If the data cannot be read
+     */
+    void parseLines() throws IOException {
+      while (skipSpace() >= 0) {
+        int lineNumber = line;
+        readWord();
+        if (isWord(TEMPO)) {
+          int first = readInt("tempo", lineNumber);
+          if (skipSpace() >= 0 && isIntStart(peek())) {
+            piece.addTempoChange(first, readInt("tempo", lineNumber));
+          }
+          else {
+            piece.setTempo(first);
+          }
+        }
+        else if (isWord(NOTE)) {
+          int startBeat = readInt("note", lineNumber);
+          int endBeat = readInt("note", lineNumber);
+          int instrument = readInt("note", lineNumber);
+          int pitch = readInt("note", lineNumber);
+          int volume = readInt("note", lineNumber);
+          piece.addNote(startBeat, endBeat, instrument, pitch, volume);
+        }
+        else {
+          throw new IllegalArgumentException("Bad line type on line " + lineNumber + ": "
+                  + new String(word, 0, Math.min(wordLength, word.length), "US-ASCII"));
+        }
+      }
+    }
+
+    /**
+     * Reads an int, which may have a sign and must be followed by whitespace or the end of the
+     * data.
+     *
+     * @param lineType The type of the line the int is on
+     * @param lineNumber The number of the line the int is on
+     * @return The int
+     * @throws IllegalArgumentException If there is no int
+     * @throws IOException If the data cannot be read
+     */
+    private int readInt(String lineType, int lineNumber) throws IOException {
+      int c = skipSpace();
+      boolean negative = c == '-';
+      if (c == '-' || c == '+') {
+        buffer.position(buffer.position() + 1);
+        c = peek();
+      }
+      if (c < '0' || c > '9') {
+        throw malformed(lineType, lineNumber);
+      }
+
+      long value = 0;
+      while (c >= '0' && c <= '9') {
+        value = value * 10 + (c - '0');
+        if (value > Integer.MAX_VALUE + 1L) {
+          throw malformed(lineType, lineNumber);
+        }
+        buffer.position(buffer.position() + 1);
+        c = peek();
+      }
+      value = negative ? -value : value;
+      if ((c >= 0 && !isSpace(c)) || value > Integer.MAX_VALUE) {
+        throw malformed(lineType, lineNumber);
+      }
+      return (int) value;
+    }
+
+    /**
+     * Reads a keyword up to the next whitespace, keeping its first bytes in word.
+     *
+     * @throws IOException If the data cannot be read
+     */
+    private void readWord() throws IOException {
+      wordLength = 0;
+      int c = peek();
+      while (c >= 0 && !isSpace(c)) {
+        if (wordLength < word.length) {
+          word[wordLength] = (byte) c;
+        }
+        wordLength++;
+        buffer.position(buffer.position() + 1);
+        c = peek();
+      }
+    }
+
+    private boolean isWord(byte[] keyword) {
+      if (wordLength != keyword.length) {
+        return false;
+      }
+      for (int i = 0; i < keyword.length; i++) {
+        if (word[i] != keyword[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Creates the exception for a malformed line, with the rest of the line as its text.
+     *
+     * @param lineType The type of the line
+     * @param lineNumber The number of the line
+     * @return The exception
+     * @throws IOException If the data cannot be read
+     */
+    private IllegalArgumentException malformed(String lineType, int lineNumber)
+            throws IOException {
+      StringBuilder rest = new StringBuilder();
+      if (line == lineNumber) {
+        int c = peek();
+        while (c >= 0 && c != '\n') {
+          rest.append((char) c);
+          buffer.position(buffer.position() + 1);
+          c = peek();
+        }
+      }
+      String text = rest.toString().trim();
+      return new IllegalArgumentException("Malformed " + lineType + " line " + lineNumber
+              + (text.isEmpty() ? "" : ": " + text));
+    }
+
+    /**
+     * Skips whitespace, counting the lines that end.
+     *
+     * @return The next byte, or -1 at the end of the data
+     * @throws IOException If the data cannot be read
+     */
+    private int skipSpace() throws IOException {
+      int c = peek();
+      while (c >= 0 && isSpace(c)) {
+        if (c == '\n') {
+          line++;
+        }
+        buffer.position(buffer.position() + 1);
+        c = peek();
+      }
+      return c;
+    }
+
+    /**
+     * Gets the next byte without consuming it, refilling the buffer if it is used up.
+     *
+     * @return The next byte, or -1 at the end of the data
+     * @throws IOException If the data cannot be read
+     */
+    private int peek() throws IOException {
+      if (!buffer.hasRemaining() && !fill()) {
+        return -1;
+      }
+      return buffer.get(buffer.position()) & 0xFF;
+    }
+
+    /**
+     * Refills the buffer from the source.
+     *
+     * @return If any bytes were read
+     * @throws IOException If the data cannot be read
+     */
+    private boolean fill() throws IOException {
+      if (source == null) {
+        return false;
+      }
+
+      buffer.clear();
+      int count;
+      do {
+        count = source.read(buffer);
+      } while (count == 0);
+      buffer.flip();
+      return count > 0 || buffer.hasRemaining();
+    }
+
+    private static boolean isSpace(int c) {
+      return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f' || c == 0x0B;
+    }
+
+    private static boolean isIntStart(int c) {
+      return (c >= '0' && c <= '9') || c == '-' || c == '+';
+    }
   }
 }
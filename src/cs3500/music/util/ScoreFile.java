@@ -0,0 +1,277 @@
+package cs3500.music.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import cs3500.music.model.MusicEditorOperations;
+import cs3500.music.model.NoteVisitor;
+import cs3500.music.model.Pitch;
+import cs3500.music.model.TempoMap;
+
+/**
+ * Reads and writes pieces of music in a compact binary format, which loads much faster than the
+ * text format read by MusicReader and can be used to cache pieces converted from it.
+ *
+ * <p>All numbers are big-endian ints unless noted. A score file starts with a header:
+ * <ul>
+ *   <li>The magic number 0x4D534352 ("MSCR") and the version of the format, which is 1</li>
+ *   <li>The number of tempo changes, then the beat and tempo of each, in order of beat, starting
+ *   at beat 0</li>
+ *   <li>The number of beats per measure</li>
+ *   <li>The lowest and highest Midi pitch of the notes, or -1 and -1 if there are none</li>
+ *   <li>The number of notes</li>
+ * </ul>
+ * followed by one record of 12 bytes for each note, in order of start beat: the start beat, the
+ * duration, then one byte each for the Midi pitch, the instrument and the volume, and a byte of
+ * 0 kept for later versions. Pitches go up to Pitch.MAX_MIDI, above the 127 of Midi itself, so
+ * every note an editor can hold can be stored.</p>
+ */
+public final class ScoreFile {
+
+  /**
+   * The number at the start of every score file.
+   */
+  public static final int MAGIC = 0x4D534352;
+
+  /**
+   * The version of the format written.
+   */
+  public static final int VERSION = 1;
+
+  /**
+   * The number of bytes in the record of a note.
+   */
+  static final int RECORD_SIZE = 12;
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private ScoreFile() {
+  }
+
+  /**
+   * Writes the given piece to a score file at the given path, replacing any file there.
+   *
+   * @param model The piece to write
+   * @param path The path of the file
+   * @throws IllegalArgumentException If the model is null, or a note cannot be stored in the
+   *                                  format
+   * @throws IOException If the file cannot be written
+   */
+  public static void write(MusicEditorOperations<?, ?> model, Path path) throws IOException {
+    try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      write(model, out);
+    }
+  }
+
+  /**
+   * Writes the given piece in the score format to the given channel, which is not closed. The
+   * notes are collected with forEachNote, so no note objects are created for editors that store
+   * notes packed.
+   *
+   * @param model The piece to write
+   * @param out The channel to write to
+   * @throws IllegalArgumentException If the model is null, or a note cannot be stored in the
+   *                                  format
+   * @throws IOException If the channel cannot be written
+   */
+  public static void write(MusicEditorOperations<?, ?> model, WritableByteChannel out)
+          throws IOException {
+    if (model == null) {
+      throw new IllegalArgumentException("Model cannot be null");
+    }
+
+    Records records = new Records();
+    model.forEachNote(records);
+    TempoMap tempos = model.getTempoMap();
+
+    ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    buffer.putInt(MAGIC).putInt(VERSION).putInt(tempos.size());
+    for (int i = 0; i < tempos.size(); i++) {
+      ensureRoom(out, buffer, 8);
+      buffer.putInt(tempos.getBeat(i)).putInt(tempos.getTempo(i));
+    }
+    ensureRoom(out, buffer, 16);
+    buffer.putInt(model.getBeatsPerMeasure());
+    buffer.putInt(records.size == 0 ? -1 : records.lowPitch);
+    buffer.putInt(records.size == 0 ? -1 : records.highPitch);
+    buffer.putInt(records.size);
+
+    long[] order = records.order();
+    for (int i = 0; i < records.size; i++) {
+      int note = order == null ? i : (int) order[i];
+      ensureRoom(out, buffer, RECORD_SIZE);
+      buffer.putInt(records.starts[note]).putInt(records.durations[note])
+              .putInt(records.sounds[note] << 8);
+    }
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      out.write(buffer);
+    }
+  }
+
+  /**
+   * Reads the score file at the given path and builds the piece in it.
+   *
+   * @param path The path of the file
+   * @param piece A builder for helping to construct a new composition
+   * @param <T> The main model interface type describing music compositions
+   * @return The model interface instance
+   * @throws IllegalArgumentException If the file is not a score file of a known version, or is
+   *                                  cut short or corrupt
+   * @throws IOException If the file cannot be read
+   */
+  public static <T> T read(Path path, CompositionBuilder<T> piece) throws IOException {
+    try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+      return read(in, piece);
+    }
+  }
+
+  /**
+   * Reads a score file from the given channel, which is not closed, and builds the piece in it.
+   * Tempo changes are given to the builder first, then the beats per measure, then each note in
+   * order of start beat.
+   *
+   * @param in The channel to read from
+   * @param piece A builder for helping to construct a new composition
+   * @param <T> The main model interface type describing music compositions
+   * @return The model interface instance
+   * @throws IllegalArgumentException If the data is not a score file of a known version, or is
+   *                                  cut short or corrupt
+   * @throws IOException If the channel cannot be read
+   */
+  public static <T> T read(ReadableByteChannel in, CompositionBuilder<T> piece)
+          throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    buffer.limit(0);
+    fill(in, buffer, 12);
+    if (buffer.getInt() != MAGIC) {
+      throw new IllegalArgumentException("Not a score file");
+    }
+    int version = buffer.getInt();
+    if (version != VERSION) {
+      throw new IllegalArgumentException("Unsupported score file version: " + version);
+    }
+
+    int tempoChanges = buffer.getInt();
+    if (tempoChanges < 1) {
+      throw new IllegalArgumentException("Score file is corrupt");
+    }
+    for (int i = 0; i < tempoChanges; i++) {
+      fill(in, buffer, 8);
+      piece.addTempoChange(buffer.getInt(), buffer.getInt());
+    }
+    fill(in, buffer, 16);
+    piece.setBeatsPerMeasure(buffer.getInt());
+    int lowPitch = buffer.getInt();
+    int highPitch = buffer.getInt();
+    int count = buffer.getInt();
+
+    int lastStart = 0;
+    for (int i = 0; i < count; i++) {
+      fill(in, buffer, RECORD_SIZE);
+      int start = buffer.getInt();
+      int duration = buffer.getInt();
+      int pitch = buffer.get() & 0xFF;
+      int instrument = buffer.get() & 0xFF;
+      int volume = buffer.get() & 0xFF;
+      buffer.get();
+      if (start < lastStart || pitch < lowPitch || pitch > highPitch) {
+        throw new IllegalArgumentException("Score file is corrupt");
+      }
+      lastStart = start;
+      piece.addNote(start, start + duration, instrument, pitch, volume);
+    }
+    return piece.build();
+  }
+
+  /**
+   * Writes out the buffer if it does not have room for the given number of bytes.
+   */
+  private static void ensureRoom(WritableByteChannel out, ByteBuffer buffer, int bytes)
+          throws IOException {
+    if (buffer.remaining() < bytes) {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        out.write(buffer);
+      }
+      buffer.clear();
+    }
+  }
+
+  /**
+   * Reads into the buffer until it has the given number of bytes remaining.
+   *
+   * @throws IllegalArgumentException If the data ends first
+   */
+  private static void fill(ReadableByteChannel in, ByteBuffer buffer, int bytes)
+          throws IOException {
+    if (buffer.remaining() >= bytes) {
+      return;
+    }
+    buffer.compact();
+    while (buffer.position() < bytes) {
+      if (in.read(buffer) < 0) {
+        throw new IllegalArgumentException("Score file is cut short");
+      }
+    }
+    buffer.flip();
+  }
+
+  /**
+   * The notes of a piece as the fields of their records, collected with forEachNote.
+   */
+  private static final class Records implements NoteVisitor {
+    private int[] starts = new int[1024]; // The start beat of each note
+    private int[] durations = new int[1024]; // The duration of each note
+    private int[] sounds = new int[1024]; // The pitch, instrument and volume bytes of each note
+    private int size; // The number of notes
+    private boolean sorted = true; // If the notes were visited in order of start beat
+    private int lowPitch = Integer.MAX_VALUE; // The lowest pitch of the notes
+    private int highPitch = Integer.MIN_VALUE; // The highest pitch of the notes
+
+    @Override
+    public void visit(int startBeat, int duration, int pitch, int instrument, int volume) {
+      if (startBeat < 0 || duration < 0 || pitch < 0 || pitch > Pitch.MAX_MIDI
+              || instrument < 0 || instrument > 255 || volume < 0 || volume > 127) {
+        throw new IllegalArgumentException("Note cannot be stored in a score file");
+      }
+      if (size == starts.length) {
+        starts = Arrays.copyOf(starts, size * 2);
+        durations = Arrays.copyOf(durations, size * 2);
+        sounds = Arrays.copyOf(sounds, size * 2);
+      }
+      sorted &= size == 0 || starts[size - 1] <= startBeat;
+      starts[size] = startBeat;
+      durations[size] = duration;
+      sounds[size] = pitch << 16 | instrument << 8 | volume;
+      size++;
+      lowPitch = Math.min(lowPitch, pitch);
+      highPitch = Math.max(highPitch, pitch);
+    }
+
+    /**
+     * Gets the order to write the notes in, by start beat.
+     *
+     * @return The index of each note in the low bits of a long sorted by start beat, or null if
+     *         the notes are already in order
+     */
+    private long[] order() {
+      if (sorted) {
+        return null;
+      }
+      long[] order = new long[size];
+      for (int i = 0; i < size; i++) {
+        order[i] = (long) starts[i] << 32 | i;
+      }
+      Arrays.sort(order);
+      return order;
+    }
+  }
+}
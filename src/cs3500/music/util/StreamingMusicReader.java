@@ -0,0 +1,245 @@
+package cs3500.music.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Reads music data on a background thread and delivers it to a builder in batches, so that a
+ * composition being built, such as the editor a view shows, fills in while the rest of the file
+ * is read instead of only after it has all been read.
+ *
+ * <p>The reading thread parses a batch of lines at a time and puts each batch in a queue that
+ * holds a limited number of them. If the batches are not delivered as fast as they are read, the
+ * reading thread waits for room in the queue, so a slow consumer bounds the memory used. Batches
+ * are given to the builder only on the thread that calls deliver or finish, which is followed by
+ * a flush of the builder, so the builder does not have to be thread safe. A Swing view can call
+ * deliver from a timer on the event thread; another thread can call finish.</p>
+ *
+ * @param <T> The main model interface type describing music compositions
+ */
+public final class StreamingMusicReader<T> {
+
+  /**
+   * The default number of lines in a batch.
+   */
+  public static final int DEFAULT_BATCH_LINES = 4096;
+
+  /**
+   * The default number of batches the queue holds.
+   */
+  public static final int DEFAULT_CAPACITY = 4;
+
+  private static final LineBuffer END = new LineBuffer(0); // Marks the end of the batches
+
+  private final CompositionBuilder<T> piece; // The builder the batches are given to
+  private final BlockingQueue<LineBuffer> batches; // Batches read but not yet delivered
+  private final Thread reader; // The thread that reads the batches
+  private volatile Throwable failure; // Why reading stopped early, or null
+  private volatile boolean done; // If the last batch has been delivered, or reading was cancelled
+
+  /**
+   * Constructor for StreamingMusicReader, with the default batch size and capacity.
+   *
+   * @param channel The source of data for the music composition, which is closed once read
+   * @param piece A builder for helping to construct a new composition
+   * @throws IllegalArgumentException If the channel or builder is null
+   */
+  public StreamingMusicReader(ReadableByteChannel channel, CompositionBuilder<T> piece)
+          throws IllegalArgumentException {
+    this(channel, piece, DEFAULT_BATCH_LINES, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructor for StreamingMusicReader. Reading starts straight away.
+   *
+   * @param channel The source of data for the music composition, which is closed once read
+   * @param piece A builder for helping to construct a new composition
+   * @param batchLines The number of lines in a batch
+   * @param capacity The number of batches that can wait to be delivered
+   * @throws IllegalArgumentException If the channel or builder is null, or the batch size or
+   *                                  capacity is not positive
+   */
+  public StreamingMusicReader(ReadableByteChannel channel, CompositionBuilder<T> piece,
+                              int batchLines, int capacity) throws IllegalArgumentException {
+    if (channel == null || piece == null) {
+      throw new IllegalArgumentException("Channel and builder cannot be null");
+    }
+    if (batchLines <= 0 || capacity <= 0) {
+      throw new IllegalArgumentException("Batch size and capacity must be positive");
+    }
+
+    this.piece = piece;
+    this.batches = new ArrayBlockingQueue<LineBuffer>(capacity);
+    this.reader = new Thread(() -> read(channel, batchLines), "music-reader");
+    this.reader.setDaemon(true);
+    this.reader.start();
+  }
+
+  /**
+   * Gives the batches that have been read so far to the builder, without waiting for more.
+   * At most as many batches as the queue holds are given, so the caller is not kept busy by a
+   * fast reader.
+   *
+   * @return If more batches may come; once false, finish returns at once
+   */
+  public boolean deliver() {
+    for (int i = batches.size(); i > 0 && !done; i--) {
+      LineBuffer lines = batches.poll();
+      if (lines == null) {
+        break;
+      }
+      deliver(lines);
+    }
+    return !done;
+  }
+
+  /**
+   * Waits for every batch to be read, gives them to the builder and builds the composition. If
+   * reading fails, the batches before the failure have already been given to the builder.
+   *
+   * @return The composition
+   * @throws IllegalArgumentException If a line is malformed, giving its line number
+   * @throws IOException If the data cannot be read, or the wait is interrupted
+   */
+  public T finish() throws IOException {
+    try {
+      while (!done) {
+        deliver(batches.take());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while reading music");
+    }
+
+    if (failure instanceof IOException) {
+      throw (IOException) failure;
+    }
+    if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    }
+    if (failure != null) {
+      throw new IOException(failure);
+    }
+    return piece.build();
+  }
+
+  /**
+   * Stops reading. Batches that have not been delivered are dropped, and the builder is not
+   * given anything more. It may be called from any thread, including while another thread is in
+   * deliver.
+   */
+  public void cancel() {
+    reader.interrupt();
+    done = true;
+    batches.clear();
+  }
+
+  /**
+   * Gives a batch to the builder, or notes that the batches have ended. Nothing is given once
+   * reading has been cancelled.
+   *
+   * @param lines The batch
+   */
+  private void deliver(LineBuffer lines) {
+    if (lines == END) {
+      done = true;
+    }
+    else if (!done) {
+      lines.replay(piece);
+      piece.flush();
+    }
+  }
+
+  /**
+   * Reads every line of the channel, putting each batch in the queue. Runs on the reading
+   * thread.
+   *
+   * @param channel The source of the data
+   * @param batchLines The number of lines in a batch
+   */
+  private void read(ReadableByteChannel channel, int batchLines) {
+    try (ReadableByteChannel in = channel) {
+      Batcher batcher = new Batcher(batchLines);
+      new MusicReader.Parser<Void>(ByteBuffer.allocate(MusicReader.BUFFER_SIZE), in::read,
+              batcher).parse();
+    } catch (CancellationException e) {
+      return;
+    } catch (IOException | RuntimeException e) {
+      failure = e;
+    }
+
+    try {
+      batches.put(END);
+    } catch (InterruptedException e) {
+      // Cancelled, so nothing is waiting for the end
+    }
+  }
+
+  /**
+   * A builder that collects lines into batches and puts each full batch in the queue.
+   */
+  private final class Batcher implements CompositionBuilder<Void> {
+    private final int batchLines; // The number of lines in a batch
+    private LineBuffer lines; // The batch being filled
+    private int count; // The number of lines in the batch being filled
+
+    Batcher(int batchLines) {
+      this.batchLines = batchLines;
+      this.lines = new LineBuffer(batchLines * 6);
+    }
+
+    @Override
+    public Void build() {
+      if (count > 0) {
+        put();
+      }
+      return null;
+    }
+
+    @Override
+    public CompositionBuilder<Void> setTempo(int tempo) {
+      lines.setTempo(tempo);
+      return added();
+    }
+
+    @Override
+    public CompositionBuilder<Void> addTempoChange(int beat, int tempo) {
+      lines.addTempoChange(beat, tempo);
+      return added();
+    }
+
+    @Override
+    public CompositionBuilder<Void> addNote(int start, int end, int instrument, int pitch,
+                                            int volume) {
+      lines.addNote(start, end, instrument, pitch, volume);
+      return added();
+    }
+
+    private CompositionBuilder<Void> added() {
+      if (++count == batchLines) {
+        put();
+      }
+      return this;
+    }
+
+    /**
+     * Puts the batch being filled in the queue, waiting for room, and starts a new one.
+     *
+     * @throws CancellationException If the reading thread is interrupted while it waits
+     */
+    private void put() {
+      try {
+        batches.put(lines);
+      } catch (InterruptedException e) {
+        throw new CancellationException("Music reading was cancelled");
+      }
+      lines = new LineBuffer(batchLines * 6);
+      count = 0;
+    }
+  }
+}
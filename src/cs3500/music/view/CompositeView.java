@@ -6,6 +6,8 @@ import java.awt.event.MouseListener;
 
 import cs3500.music.controller.MetaListener;
 import cs3500.music.model.IMusicNote;
+import cs3500.music.model.IPitch;
+import cs3500.music.model.ModelChange;
 import cs3500.music.model.MusicEditorOperations;
 
 /**
@@ -15,7 +17,8 @@ import cs3500.music.model.MusicEditorOperations;
  * pause of the view can be toggled using the SpaceBar.
  */
 public class CompositeView implements IGuiView<MusicEditorOperations>,
-        IKeyListenerView, IMouseListenerView, IMetaListenerView<IMusicNote>, IPlayPauseView {
+        IKeyListenerView, IMouseListenerView, IMetaListenerView<IMusicNote>, IPlayPauseView,
+        IModelListenerView<MusicEditorOperations<IMusicNote<IPitch>, IPitch>> {
   private GuiViewImpl guiView; // The gui view component of this view
   private MidiViewImpl midiView; // The midi view component of this view
 
@@ -54,6 +57,13 @@ public class CompositeView implements IGuiView<MusicEditorOperations>,
     this.guiView.redraw(model, currentBeat);
   }
 
+  @Override
+  public void modelChanged(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model,
+                           ModelChange change) {
+    this.midiView.modelChanged(model, change);
+    this.guiView.modelChanged(model, change);
+  }
+
   @Override
   public void display(MusicEditorOperations model) {
     this.midiView.display(model);
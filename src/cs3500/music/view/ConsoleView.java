@@ -1,12 +1,16 @@
 package cs3500.music.view;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Set;
 import java.util.SortedMap;
-import java.util.TreeMap;
 
 import cs3500.music.model.IMusicNote;
 import cs3500.music.model.IPitch;
+import cs3500.music.model.ModelChange;
 import cs3500.music.model.MusicEditorOperations;
 
 /**
@@ -14,15 +18,32 @@ import cs3500.music.model.MusicEditorOperations;
  * and the range of pitches from the lowest pitch of a note played to the highest pitch of a note
  * played is displayed across the top of the console. A start beat of a note is represented by an
  * "X" while the continuation of a beat is represented by a "|". If a note is not played at a
- * certain beat, the spot is blank.
+ * certain beat, the spot is blank. The line printed for each beat is kept, so when the view is
+ * told about changes to the model only the lines of the beats that changed are printed again.
  */
-public class ConsoleView implements IView<MusicEditorOperations<IMusicNote<IPitch>, IPitch>> {
+public class ConsoleView implements IView<MusicEditorOperations<IMusicNote<IPitch>, IPitch>>,
+        IModelListenerView<MusicEditorOperations<IMusicNote<IPitch>, IPitch>> {
 
   /**
    * The appendable to append output to the console.
    */
   private final Appendable appendable;
 
+  /**
+   * The line printed for each beat the last time this view was displayed, without beat numbers.
+   */
+  private final List<String> rows = new ArrayList<String>();
+
+  /**
+   * The beats whose lines must be printed again because the model changed.
+   */
+  private final BitSet dirty = new BitSet();
+
+  private boolean tracking; // Whether this view has been told about changes to the model
+  private int version; // The version of the model the lines are up to date with
+  private int lowMidi; // The Midi value of the lowest pitch when the lines were printed
+  private int highMidi; // The Midi value of the highest pitch when the lines were printed
+
   /**
    * Constructor for ConsoleView. Sets the Appendable for this ConsoleView.
    */
@@ -41,11 +62,11 @@ public class ConsoleView implements IView<MusicEditorOperations<IMusicNote<IPitc
 
   @Override
   public void display(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model) {
-    TreeMap<Integer, Set<IMusicNote<IPitch>>> notes =
-            new TreeMap<Integer, Set<IMusicNote<IPitch>>>(model.getNotes());
+    SortedMap<Integer, Set<IMusicNote<IPitch>>> notes = model.getNotesView();
     IPitch lowPitch = model.getLowPitch();
     IPitch highPitch = model.getHighPitch();
-    if (lowPitch == null || highPitch == null || notes.size() == 0) {
+    if (lowPitch == null || highPitch == null || notes.isEmpty()) {
+      rows.clear();
       try {
         appendable.append("");
       } catch (IOException e) {
@@ -54,51 +75,32 @@ public class ConsoleView implements IView<MusicEditorOperations<IMusicNote<IPitc
       return;
     }
 
-    int numBeatDigits = String.valueOf(notes.lastKey()).length();
-    StringBuilder builder = new StringBuilder(printPitches(notes, lowPitch, highPitch));
-    int highLowPitchDifference = lowPitch.getDifference(highPitch);
-
-    for (int i = 0; i < notes.lastKey() + 1; i++) {
+    int lastBeat = notes.lastKey();
+    int lowMidi = IPitch.pitchToMidi(lowPitch);
+    int highMidi = IPitch.pitchToMidi(highPitch);
+    if (!tracking || model.getVersion() != version || lowMidi != this.lowMidi
+            || highMidi != this.highMidi) {
+      rows.clear();
+    }
+    if (rows.size() > lastBeat + 1) {
+      rows.subList(lastBeat + 1, rows.size()).clear();
+    }
+    for (int i = dirty.nextSetBit(0); i >= 0 && i < rows.size(); i = dirty.nextSetBit(i + 1)) {
+      rows.set(i, printBeat(model.getNotesAtBeat(i), i, lowMidi, highMidi));
+    }
+    for (int i = rows.size(); i < lastBeat + 1; i++) {
+      rows.add(printBeat(model.getNotesAtBeat(i), i, lowMidi, highMidi));
+    }
+    dirty.clear();
+    version = model.getVersion();
+    this.lowMidi = lowMidi;
+    this.highMidi = highMidi;
+
+    int numBeatDigits = String.valueOf(lastBeat).length();
+    StringBuilder builder = new StringBuilder(printPitches(lastBeat, lowPitch, highPitch));
+    for (int i = 0; i < lastBeat + 1; i++) {
       builder.append(String.format("%" + numBeatDigits + "s", i));
-
-      if (!notes.containsKey(i)) {
-        for (int j = 0; j < highLowPitchDifference + 1; j++) {
-          builder.append("     ");
-        }
-      }
-      else {
-        IPitch toPrint = lowPitch;
-        for (int j = 0; j < highLowPitchDifference + 1; j++) {
-
-          Set<IMusicNote<IPitch>> notesToPrint = notes.get(i);
-          boolean printX = false;
-          boolean printLine = false;
-
-          for (IMusicNote<IPitch> note : notesToPrint) {
-            if (note.getPitch().compareTo(toPrint) == 0 && note.getStartBeat() == i) {
-              printX = true;
-              break;
-            }
-            else if (note.getPitch().compareTo(toPrint) == 0) {
-              printLine = true;
-            }
-          }
-
-          if (printX) {
-            builder.append("  X  ");
-          }
-          else if (printLine) {
-            builder.append("  |  ");
-          }
-          else {
-            builder.append("     ");
-          }
-
-          if (j != highLowPitchDifference) {
-            toPrint = toPrint.nextPitch();
-          }
-        }
-      }
+      builder.append(rows.get(i));
       builder.append("\n");
     }
     try {
@@ -108,14 +110,68 @@ public class ConsoleView implements IView<MusicEditorOperations<IMusicNote<IPitc
     }
   }
 
+  /**
+   * Marks the beats the change affects so that only their lines are printed again the next time
+   * this view is displayed. A change to the pitch range or a new piece means every line is printed
+   * again, and changes that are not shown in the console are ignored. Once this view is given a
+   * change, display must be given the model the change was made to, or a snapshot of it.
+   *
+   * @param model The Music Editor model after the change
+   * @param change The change that was made
+   */
+  @Override
+  public void modelChanged(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model,
+                           ModelChange change) {
+    tracking = true;
+    if (change.isNoteChange() && change.getStartBeat() < rows.size()) {
+      dirty.set(change.getStartBeat(), Math.min(change.getEndBeat(), rows.size()));
+    }
+    else if (change.getType() == ModelChange.Type.PITCH_RANGE_CHANGED
+            || change.getType() == ModelChange.Type.NEW_PIECE) {
+      rows.clear();
+    }
+    version = model.getVersion();
+  }
+
+  /**
+   * Prints the line for one beat without the beat number. Each pitch from the lowest to the
+   * highest gets an "X" if a note at that pitch starts at the beat, a "|" if a note at that pitch
+   * is played at the beat, or a blank.
+   *
+   * @param notesAtBeat The notes played at the beat
+   * @param beat The beat to print
+   * @param lowMidi The Midi value of the lowest pitch
+   * @param highMidi The Midi value of the highest pitch
+   * @return The line
+   */
+  private String printBeat(Set<IMusicNote<IPitch>> notesAtBeat, int beat, int lowMidi,
+                           int highMidi) {
+    char[] marks = new char[highMidi - lowMidi + 1];
+    Arrays.fill(marks, ' ');
+    for (IMusicNote<IPitch> note : notesAtBeat) {
+      int j = IPitch.pitchToMidi(note.getPitch()) - lowMidi;
+      if (note.getStartBeat() == beat) {
+        marks[j] = 'X';
+      }
+      else if (marks[j] != 'X') {
+        marks[j] = '|';
+      }
+    }
+
+    StringBuilder builder = new StringBuilder(marks.length * 5);
+    for (char mark : marks) {
+      builder.append("  ").append(mark).append("  ");
+    }
+    return builder.toString();
+  }
+
   /**
    * Prints the top line of the editor state, which is the pitches in order.
    * @return The pitches
    */
-  private String printPitches(SortedMap<Integer, Set<IMusicNote<IPitch>>> notes, IPitch low,
-                              IPitch high) {
+  private String printPitches(int lastBeat, IPitch low, IPitch high) {
     StringBuilder builder = new StringBuilder();
-    int numBeatDigits = String.valueOf(notes.lastKey()).length();
+    int numBeatDigits = String.valueOf(lastBeat).length();
 
     for (int i = 0; i < numBeatDigits; i++) {
       builder.append(' ');
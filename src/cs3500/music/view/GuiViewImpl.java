@@ -4,7 +4,6 @@ import java.awt.GridLayout;
 import java.awt.event.KeyListener;
 import java.awt.Dimension;
 import java.awt.event.MouseListener;
-import java.util.Collections;
 
 
 import javax.swing.JFrame;
@@ -14,6 +13,7 @@ import javax.swing.ScrollPaneConstants;
 
 import cs3500.music.model.IMusicNote;
 import cs3500.music.model.IPitch;
+import cs3500.music.model.ModelChange;
 import cs3500.music.model.MusicEditorOperations;
 
 /**
@@ -30,7 +30,7 @@ import cs3500.music.model.MusicEditorOperations;
  */
 public class GuiViewImpl extends JFrame
         implements IGuiView<MusicEditorOperations<IMusicNote<IPitch>, IPitch>>, IKeyListenerView,
-        IMouseListenerView {
+        IMouseListenerView, IModelListenerView<MusicEditorOperations<IMusicNote<IPitch>, IPitch>> {
   public static final int WIDTH = 1200; // The width of the view
   public static final int HEIGHT = 600; // The height of the view
 
@@ -62,7 +62,7 @@ public class GuiViewImpl extends JFrame
 
   @Override
   public void display(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model) {
-    this.scorePanel.setPreferredSize(new Dimension(Collections.max(model.getNotes().keySet()) * 15,
+    this.scorePanel.setPreferredSize(new Dimension(model.getNotesView().lastKey() * 15,
             (model.getLowPitch().getDifference(model.getHighPitch()) + 4) * 15));
     this.scrollPane.setViewportView(scorePanel);
     this.scorePanel.redraw(model, 0);
@@ -97,11 +97,30 @@ public class GuiViewImpl extends JFrame
   public void redraw(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model, int currentBeat) {
     this.scorePanel.redraw(model, currentBeat);
     this.keyboardPanel.redraw(model, currentBeat);
-    this.scorePanel.setPreferredSize(new Dimension(Collections.max(model.getNotes().keySet()) * 15,
-            (model.getLowPitch().getDifference(model.getHighPitch()) + 4) * 15));
+    if (!model.getNotesView().isEmpty()) {
+      this.scorePanel.setPreferredSize(new Dimension(model.getNotesView().lastKey() * 15,
+              (model.getLowPitch().getDifference(model.getHighPitch()) + 4) * 15));
+    }
     this.scrollPane.setViewportView(scorePanel);
   }
 
+  @Override
+  public void modelChanged(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model,
+                           ModelChange change) {
+    this.scorePanel.modelChanged(model, change);
+    this.keyboardPanel.modelChanged(model, change);
+    if (model.getNotesView().isEmpty()) {
+      return;
+    }
+
+    Dimension size = new Dimension(model.getNotesView().lastKey() * 15,
+            (model.getLowPitch().getDifference(model.getHighPitch()) + 4) * 15);
+    if (!size.equals(this.scorePanel.getPreferredSize())) {
+      this.scorePanel.setPreferredSize(size);
+      this.scorePanel.revalidate();
+    }
+  }
+
   @Override
   public void addMouseListener(MouseListener mouseListener) {
     super.addMouseListener(mouseListener);
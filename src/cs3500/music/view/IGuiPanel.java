@@ -1,5 +1,7 @@
 package cs3500.music.view;
 
+import cs3500.music.model.ModelChange;
+
 /**
  * Interface for a GUI Panels. Allows a GUI Panel to update its model and current beat.
  * Parameterized across the Music Editor model.
@@ -22,4 +24,13 @@ public interface IGuiPanel<T> {
    * @param currentBeat The current beat to redraw
    */
   void redraw(T model, int currentBeat);
+
+  /**
+   * Updates the model in the Panel after the given change was made to it. The Panel is only
+   * repainted if the change affects what it shows.
+   *
+   * @param model The Music Editor model after the change
+   * @param change The change that was made
+   */
+  void modelChanged(T model, ModelChange change);
 }
@@ -0,0 +1,19 @@
+package cs3500.music.view;
+
+import cs3500.music.model.ModelChange;
+
+/**
+ * Interface for views that can be updated as the Music Editor model is changed, instead of being
+ * redrawn from scratch. Views that implement this interface only update the part of the view that
+ * the change affects. Parameterized across the Music Editor model.
+ */
+public interface IModelListenerView<T> {
+
+  /**
+   * Updates the view after the given change was made to the model.
+   *
+   * @param model The Music Editor model after the change
+   * @param change The change that was made
+   */
+  void modelChanged(T model, ModelChange change);
+}
@@ -2,21 +2,21 @@ package cs3500.music.view;
 
 import java.awt.Graphics;
 import java.awt.Color;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.TreeMap;
 
 import javax.swing.JPanel;
 
 import cs3500.music.model.IMusicNote;
 import cs3500.music.model.IPitch;
+import cs3500.music.model.ModelChange;
 import cs3500.music.model.MusicEditorOperations;
 import cs3500.music.model.NoteName;
+import cs3500.music.model.Pitch;
+import cs3500.music.model.PitchMask;
 
 /**
  * Represents a keyboard containing ten octaves. Keeps track of all the notes of the Music Editor
  * and the current beat that is being played. Notes that are currently being played are shown as
- * orange keys.
+ * orange keys. The pitches played at the current beat are read from the model as a PitchMask.
  */
 public class KeyboardPanel extends JPanel implements
         IGuiPanel<MusicEditorOperations<IMusicNote<IPitch>, IPitch>> {
@@ -56,17 +56,27 @@ public class KeyboardPanel extends JPanel implements
     repaint();
   }
 
+  /**
+   * Repaints the keyboard only if the notes played at the current beat may have changed.
+   *
+   * @param model The Music Editor model after the change
+   * @param change The change that was made
+   */
+  @Override
+  public void modelChanged(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model,
+                           ModelChange change) {
+    this.model = model;
+    if (change.isNoteChange() ? change.affects(currentBeat, currentBeat + 1)
+            : change.getType() == ModelChange.Type.NEW_PIECE) {
+      repaint();
+    }
+  }
+
   @Override
   public void paintComponent(Graphics g) {
     super.paintComponent(g);
 
-    TreeMap<Integer, Set<IMusicNote<IPitch>>> notes =
-            new TreeMap<Integer, Set<IMusicNote<IPitch>>>(model.getNotes());
-    Set<IMusicNote<IPitch>> currentNotes = notes.get(currentBeat);
-
-    if (currentNotes == null) {
-      currentNotes = new HashSet<IMusicNote<IPitch>>();
-    }
+    PitchMask currentPitches = model.getPitchMaskAtBeat(currentBeat);
 
     for (int i = 0; i < 70; i++) {
       g.setColor(Color.WHITE);
@@ -83,32 +93,12 @@ public class KeyboardPanel extends JPanel implements
       }
     }
 
-    Set<IPitch> whiteKeys = new HashSet<IPitch>();
-    Set<IPitch> blackKeys = new HashSet<IPitch>();
-    for (IMusicNote<IPitch> n : currentNotes) {
-      IPitch pitch = n.getPitch();
-      switch (pitch.getNoteName()) {
-        case A_SHARP:
-          blackKeys.add(pitch);
-          break;
-        case C_SHARP:
-          blackKeys.add(pitch);
-          break;
-        case D_SHARP:
-          blackKeys.add(pitch);
-          break;
-        case F_SHARP:
-          blackKeys.add(pitch);
-          break;
-        case G_SHARP:
-          blackKeys.add(pitch);
-          break;
-        default:
-          whiteKeys.add(pitch);
+    for (int midi = currentPitches.nextMidi(0); midi >= 0;
+         midi = currentPitches.nextMidi(midi + 1)) {
+      if (isBlackKey(midi)) {
+        continue;
       }
-    }
-
-    for (IPitch p : whiteKeys) {
+      Pitch p = Pitch.fromMidi(midi);
       g.setColor(Color.ORANGE);
       int keyNum = pitchToKey(p);
       int mod12 = keyNum % 12;
@@ -133,9 +123,13 @@ public class KeyboardPanel extends JPanel implements
       }
     }
 
-    for (IPitch p : blackKeys) {
+    for (int midi = currentPitches.nextMidi(0); midi >= 0;
+         midi = currentPitches.nextMidi(midi + 1)) {
+      if (!isBlackKey(midi)) {
+        continue;
+      }
       g.setColor(Color.ORANGE);
-      int keyNum = pitchToKey(p);
+      int keyNum = midi;
       int mod12 = keyNum % 12;
       int toAddBlack = getBlackKeyToAdd(mod12);
       g.fillRect((keyNum / 12 * 7 + toAddBlack) * WHITE_KEY_WIDTH - BLACK_KEY_WIDTH / 2 + OFFSET,
@@ -146,6 +140,25 @@ public class KeyboardPanel extends JPanel implements
     }
   }
 
+  /**
+   * Determines if the key of the given Midi pitch is a black key.
+   *
+   * @param midi The Midi pitch
+   * @return If the key is black
+   */
+  private static boolean isBlackKey(int midi) {
+    switch (midi % 12) {
+      case 1:
+      case 3:
+      case 6:
+      case 8:
+      case 10:
+        return true;
+      default:
+        return false;
+    }
+  }
+
   /**
    * Gets the correct int needed to convert the key number to the correct black key number.
    *
@@ -203,10 +216,6 @@ public class KeyboardPanel extends JPanel implements
    * @return The key number of the pitch
    */
   private int pitchToKey(IPitch pitch) {
-    NoteName noteName = pitch.getNoteName();
-    int octave = pitch.getOctave();
-    int octaveKey = (octave + 1) * 12;
-
-    return octaveKey + noteName.ordinal();
+    return IPitch.pitchToMidi(pitch);
   }
 }
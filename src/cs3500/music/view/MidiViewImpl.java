@@ -1,10 +1,6 @@
 package cs3500.music.view;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
-
+import javax.sound.midi.InvalidMidiDataException;
 import javax.sound.midi.MetaMessage;
 import javax.sound.midi.MidiEvent;
 import javax.sound.midi.MidiSystem;
@@ -21,8 +17,9 @@ import javax.sound.midi.MidiChannel;
 import cs3500.music.controller.MetaListener;
 import cs3500.music.model.IMusicNote;
 import cs3500.music.model.IPitch;
+import cs3500.music.model.ModelChange;
 import cs3500.music.model.MusicEditorOperations;
-import cs3500.music.model.NoteName;
+import cs3500.music.model.TempoMap;
 
 /**
  * The Midi View for a Music Editor. When displayed, the Midi converts notes to their Midi
@@ -30,8 +27,10 @@ import cs3500.music.model.NoteName;
  * the notes are played to the user.
  */
 public class MidiViewImpl implements IView<MusicEditorOperations<IMusicNote<IPitch>, IPitch>>,
-        IMetaListenerView<IMusicNote<IPitch>>, IPlayPauseView {
+        IMetaListenerView<IMusicNote<IPitch>>, IPlayPauseView,
+        IModelListenerView<MusicEditorOperations<IMusicNote<IPitch>, IPitch>> {
   public static final int FACTOR = 7; // Factor used for resolution and tick multiplication
+  public static final int SET_TEMPO = 0x51; // Type of the MetaMessage that changes the tempo
 
   /**
    * The sequencer that contains the notes of the Music Editor.
@@ -44,9 +43,16 @@ public class MidiViewImpl implements IView<MusicEditorOperations<IMusicNote<IPit
   private Sequence sequence;
 
   /**
-   * The tempo of the song.
+   * The tempos of the song. Each change of tempo after the first beat is a SET_TEMPO MetaMessage
+   * in the meta track.
+   */
+  private TempoMap tempoMap;
+
+  /**
+   * The number of beats the meta track has a MetaMessage for. A MetaMessage is sent at the start
+   * of every beat after the first, up to the end of the last note.
    */
-  private int tempo;
+  private int metaBeats;
 
   /**
    * Constructor for the MidiView. Creates a new Sequencer.
@@ -109,50 +115,168 @@ public class MidiViewImpl implements IView<MusicEditorOperations<IMusicNote<IPit
    */
   @Override
   public void display(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model) {
-    Set<IMusicNote<IPitch>> allNotes = new HashSet<IMusicNote<IPitch>>();
-
     try {
-      Track track = sequence.createTrack();
-      Track metaTrack = sequence.createTrack();
-
-      tempo = model.getTempo();
-      Map<Integer, Set<IMusicNote<IPitch>>> notes = model.getNotes();
-      int max = Collections.max(notes.keySet()) + 1;
+      loadTracks(model);
+    } catch (Exception e) {
+      return;
+    }
+  }
 
-      for (int i = 1; i < max; i++) {
-        MetaMessage message = new MetaMessage();
-        MidiEvent event = new MidiEvent(message, i * FACTOR);
-        metaTrack.add(event);
+  /**
+   * Updates the sequence after the given change was made to the model. A single added note only
+   * has its events added to the sequence, as do notes added after the end of the piece, such as
+   * by an append, which are found with getNotesStartingInRange. New tempos replace the tempo
+   * events of the meta track. Changes that do not affect the sound are ignored, and any other
+   * change reloads the sequence from the model.
+   *
+   * @param model The Music Editor model after the change
+   * @param change The change that was made
+   */
+  @Override
+  public void modelChanged(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model,
+                           ModelChange change) {
+    try {
+      switch (change.getType()) {
+        case PITCH_RANGE_CHANGED:
+        case BEATS_PER_MEASURE_CHANGED:
+          break;
+        case TEMPO_CHANGED:
+          tempoMap = model.getTempoMap();
+          Track[] metaTracks = sequence.getTracks();
+          if (metaTracks.length == 2) {
+            loadTempoEvents(metaTracks[1]);
+            this.sequencer.setSequence(sequence);
+          }
+          sequencer.setTempoInMPQ(tempoMap.getTempoAt((int) (sequencer.getTickPosition()
+                  / FACTOR)));
+          break;
+        case NOTES_ADDED:
+          IMusicNote<IPitch> note = change.getNote();
+          Track[] tracks = sequence.getTracks();
+          if (note != null && tracks.length == 2) {
+            addNoteEvents(tracks[0], note.getStartBeat(), note.getDuration(),
+                    pitchToMIDI(note.getPitch()), note.getInstrument(), note.getVolume());
+            extendMetaTrack(tracks[1], note.getStartBeat() + note.getDuration());
+            this.sequencer.setSequence(sequence);
+            break;
+          }
+          if (tracks.length == 2 && change.getStartBeat() >= metaBeats) {
+            for (IMusicNote<IPitch> added : model.getNotesStartingInRange(change.getStartBeat(),
+                    change.getEndBeat())) {
+              addNoteEvents(tracks[0], added.getStartBeat(), added.getDuration(),
+                      pitchToMIDI(added.getPitch()), added.getInstrument(), added.getVolume());
+            }
+            extendMetaTrack(tracks[1], change.getEndBeat());
+            this.sequencer.setSequence(sequence);
+            break;
+          }
+          loadTracks(model);
+          break;
+        default:
+          loadTracks(model);
       }
+    } catch (Exception e) {
+      return;
+    }
+  }
 
-      for (Integer i : notes.keySet()) {
-        for (IMusicNote<IPitch> n : notes.get(i)) {
-          allNotes.add(n);
-        }
-      }
+  /**
+   * Replaces the tracks of the sequence with a track of the notes in the given model and a meta
+   * track, and gives the sequence to the sequencer.
+   *
+   * @param model The Music Editor model to load
+   * @throws InvalidMidiDataException If the sequence cannot be given to the sequencer
+   */
+  private void loadTracks(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model)
+          throws InvalidMidiDataException {
+    for (Track old : sequence.getTracks()) {
+      sequence.deleteTrack(old);
+    }
+    Track track = sequence.createTrack();
+    Track metaTrack = sequence.createTrack();
+    metaBeats = 1;
 
-      for (IMusicNote<IPitch> n : allNotes) {
-        ShortMessage start = new ShortMessage(ShortMessage.NOTE_ON, 0, pitchToMIDI(n.getPitch()),
-                n.getVolume());
-        ShortMessage stop = new ShortMessage(ShortMessage.NOTE_OFF, 0, pitchToMIDI(n.getPitch()),
-                n.getVolume());
-        ShortMessage instrument = new ShortMessage(ShortMessage.PROGRAM_CHANGE, 0,
-                n.getInstrument(), 0);
+    tempoMap = model.getTempoMap();
+    loadTempoEvents(metaTrack);
+    int[] max = new int[1];
 
-        MidiEvent instrumentEvent = new MidiEvent(instrument, n.getStartBeat() * FACTOR);
-        track.add(instrumentEvent);
+    model.forEachNote((startBeat, duration, pitch, instrument, volume) -> {
+      addNoteEvents(track, startBeat, duration, pitch, instrument, volume);
+      max[0] = Math.max(max[0], startBeat + duration);
+    });
 
-        MidiEvent startEvent = new MidiEvent(start, n.getStartBeat() * FACTOR);
-        track.add(startEvent);
+    if (max[0] == 0) {
+      return;
+    }
+
+    extendMetaTrack(metaTrack, max[0]);
+    this.sequencer.setSequence(sequence);
+  }
 
-        MidiEvent stopEvent = new MidiEvent(stop,
-                (n.getStartBeat() + n.getDuration()) * FACTOR - 1);
-        track.add(stopEvent);
+  /**
+   * Replaces the SET_TEMPO MetaMessages in the meta track with one for every change of tempo after
+   * the first beat. The tempo of the first beat is given to the sequencer when it starts playing.
+   * A SET_TEMPO message holds 3 bytes, so longer tempos are cut to the longest it can hold.
+   *
+   * @param metaTrack The meta track
+   * @throws InvalidMidiDataException If a tempo cannot be turned into a MetaMessage
+   */
+  private void loadTempoEvents(Track metaTrack) throws InvalidMidiDataException {
+    for (int i = metaTrack.size() - 1; i >= 0; i--) {
+      MidiEvent event = metaTrack.get(i);
+      if (event.getMessage() instanceof MetaMessage
+              && ((MetaMessage) event.getMessage()).getType() == SET_TEMPO) {
+        metaTrack.remove(event);
       }
+    }
 
-      this.sequencer.setSequence(sequence);
-    } catch (Exception e) {
-      return;
+    for (int i = 1; i < tempoMap.size(); i++) {
+      int tempo = Math.min(tempoMap.getTempo(i), 0xFFFFFF);
+      byte[] data = {(byte) (tempo >> 16), (byte) (tempo >> 8), (byte) tempo};
+      MetaMessage message = new MetaMessage(SET_TEMPO, data, data.length);
+      metaTrack.add(new MidiEvent(message, (long) tempoMap.getBeat(i) * FACTOR));
+    }
+  }
+
+  /**
+   * Adds a MetaMessage to the meta track at the start of every beat before the given beat that
+   * does not have one yet.
+   *
+   * @param metaTrack The meta track
+   * @param endBeat The beat after the last beat that needs a MetaMessage
+   */
+  private void extendMetaTrack(Track metaTrack, int endBeat) {
+    for (int i = metaBeats; i < endBeat; i++) {
+      MetaMessage message = new MetaMessage();
+      MidiEvent event = new MidiEvent(message, i * FACTOR);
+      metaTrack.add(event);
+    }
+    metaBeats = Math.max(metaBeats, endBeat);
+  }
+
+  /**
+   * Adds the program change, note on and note off events of a note to the given track.
+   *
+   * @param track The track to add the events to
+   * @param startBeat The start beat of the note
+   * @param duration The duration of the note
+   * @param pitch The MIDI value of the note
+   * @param instrument The instrument of the note
+   * @param volume The volume of the note
+   * @throws IllegalArgumentException If the note cannot be turned into MIDI messages
+   */
+  private void addNoteEvents(Track track, int startBeat, int duration, int pitch, int instrument,
+                             int volume) throws IllegalArgumentException {
+    try {
+      ShortMessage start = new ShortMessage(ShortMessage.NOTE_ON, 0, pitch, volume);
+      ShortMessage stop = new ShortMessage(ShortMessage.NOTE_OFF, 0, pitch, volume);
+      ShortMessage program = new ShortMessage(ShortMessage.PROGRAM_CHANGE, 0, instrument, 0);
+
+      track.add(new MidiEvent(program, startBeat * FACTOR));
+      track.add(new MidiEvent(start, startBeat * FACTOR));
+      track.add(new MidiEvent(stop, (startBeat + duration) * FACTOR - 1));
+    } catch (InvalidMidiDataException e) {
+      throw new IllegalArgumentException(e.getMessage());
     }
   }
 
@@ -163,11 +287,7 @@ public class MidiViewImpl implements IView<MusicEditorOperations<IMusicNote<IPit
    * @return The MIDI value
    */
   private int pitchToMIDI(IPitch p) {
-    NoteName noteName = p.getNoteName();
-    int octave = p.getOctave();
-    int octaveMIDI = (octave + 1) * 12;
-
-    return octaveMIDI + noteName.ordinal();
+    return IPitch.pitchToMidi(p);
   }
 
   @Override
@@ -212,7 +332,7 @@ public class MidiViewImpl implements IView<MusicEditorOperations<IMusicNote<IPit
   public void play(int currentBeat) {
     sequencer.setTickPosition(currentBeat * FACTOR);
     sequencer.start();
-    sequencer.setTempoInMPQ(tempo);
+    sequencer.setTempoInMPQ(tempoMap.getTempoAt(currentBeat));
   }
 
   @Override
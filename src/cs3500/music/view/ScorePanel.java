@@ -6,13 +6,12 @@ import java.awt.Graphics2D;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.BasicStroke;
-import java.util.Set;
-import java.util.TreeMap;
 
 import javax.swing.JPanel;
 
 import cs3500.music.model.IMusicNote;
 import cs3500.music.model.IPitch;
+import cs3500.music.model.ModelChange;
 import cs3500.music.model.MusicEditorOperations;
 
 /**
@@ -36,6 +35,9 @@ public class ScorePanel extends JPanel implements
   // The current beat being played
   private int currentBeat;
 
+  // The last beat of the model when the score was last painted
+  private int lastBeat;
+
   /**
    * Constructor for ScorePanel. Sets the model to a new ReadOnly model and the current beat being
    * played to 0.
@@ -43,6 +45,7 @@ public class ScorePanel extends JPanel implements
   public ScorePanel() {
     this.model = null;
     this.currentBeat = 0;
+    this.lastBeat = 0;
   }
 
   @Override
@@ -57,22 +60,38 @@ public class ScorePanel extends JPanel implements
     repaint();
   }
 
+  /**
+   * Repaints the score only if the change is not to the notes, or is to notes on the current
+   * screen or at the end of the piece, where the beat numbers along the top may change.
+   *
+   * @param model The Music Editor model after the change
+   * @param change The change that was made
+   */
+  @Override
+  public void modelChanged(MusicEditorOperations<IMusicNote<IPitch>, IPitch> model,
+                           ModelChange change) {
+    this.model = model;
+    int screenStart = currentBeat / 72 * 72;
+    if (!change.isNoteChange() || change.affects(screenStart, screenStart + 76)
+            || change.getEndBeat() > lastBeat) {
+      repaint();
+    }
+  }
+
   @Override
   public void paintComponent(Graphics g) {
     super.paintComponent(g);
 
-    Graphics2D graphics2D = (Graphics2D)g;
-    TreeMap<Integer, Set<IMusicNote<IPitch>>> notes =
-            new TreeMap<Integer, Set<IMusicNote<IPitch>>>(model.getNotes());
     if (model.getLowPitch() == null || model.getHighPitch() == null) {
       return;
     }
     IPitch lowPitch = model.getLowPitch();
     IPitch highPitch = model.getHighPitch();
 
-    drawNumbers(g, notes);
-    drawNotes(g, lowPitch, highPitch, notes);
-    drawPitchesAndBars(g, lowPitch, highPitch, notes);
+    lastBeat = model.getNotesView().lastKey();
+    drawNotes(g, highPitch);
+    drawNumbers(g, lastBeat);
+    drawPitchesAndBars(g, lowPitch, highPitch, lastBeat);
     drawLine(g, lowPitch, highPitch);
 
   }
@@ -80,11 +99,11 @@ public class ScorePanel extends JPanel implements
   /**
    * Draws the numbers along the top of the score.
    * @param g Graphics
-   * @param notes The notes in the model
+   * @param lastBeat The last beat of the model
    */
-  private void drawNumbers(Graphics g, TreeMap<Integer, Set<IMusicNote<IPitch>>> notes) {
+  private void drawNumbers(Graphics g, int lastBeat) {
     Graphics2D graphics2D = (Graphics2D)g;
-    int maxBeat = notes.lastKey();
+    int maxBeat = lastBeat;
     while (maxBeat % 4 != 0) {
       maxBeat++;
     }
@@ -105,52 +124,51 @@ public class ScorePanel extends JPanel implements
   }
 
   /**
-   * Draws the notes for the score view.
+   * Draws the notes for the score view. Only the notes that are played on the current screen are
+   * visited, and only the beats of them that are on the screen are drawn. The notes are visited as
+   * plain ints, so painting does not create a note object for each note on the screen.
    * @param g Graphics
-   * @param lowPitch The lowest pitch in the song
    * @param highPitch The highest pitch in the song
-   * @param notes The notes in the song
    */
-  private void drawNotes(Graphics g, IPitch lowPitch, IPitch highPitch,
-                         TreeMap<Integer, Set<IMusicNote<IPitch>>> notes) {
-    int pitchDifference = lowPitch.getDifference(highPitch);
-    IPitch currentPitch = lowPitch;
-    for (Integer i : notes.keySet()) {
+  private void drawNotes(Graphics g, IPitch highPitch) {
+    int highMidi = IPitch.pitchToMidi(highPitch);
+    int screenStart = currentBeat / 72 * 72;
 
-      if (i < currentBeat / 72 * 72 || i > currentBeat / 72 * 72 + 75) {
-        continue;
+    model.forEachNoteSoundingInRange(screenStart, screenStart + 76,
+            (startBeat, duration, pitch, instrument, volume) ->
+                    drawNote(g, screenStart, highMidi - pitch, startBeat, duration));
+  }
+
+  /**
+   * Draws the beats of one note that are on the current screen.
+   * @param g Graphics
+   * @param screenStart The first beat on the screen
+   * @param j The row of the note, counted down from the highest pitch in the song
+   * @param startBeat The beat the note starts at
+   * @param duration The number of beats the note is played for
+   */
+  private void drawNote(Graphics g, int screenStart, int j, int startBeat, int duration) {
+    int from = Math.max(startBeat, screenStart);
+    int to = Math.min(startBeat + duration - 1, screenStart + 75);
+
+    for (int i = from; i <= to; i++) {
+      if (i == startBeat) {
+        g.setColor(Color.BLACK);
+      }
+      else {
+        g.setColor(Color.GREEN);
       }
 
-      Set<IMusicNote<IPitch>> notesToDraw = notes.get(i);
-      for (int j = pitchDifference; j >= 0; j--) {
-        for (IMusicNote<IPitch> n : notesToDraw) {
-          if (n.getPitch().compareTo(currentPitch) == 0) {
-            if (n.getStartBeat() == i) {
-              g.setColor(Color.BLACK);
-            }
-            else {
-              g.setColor(Color.GREEN);
-            }
-
-            if (i < currentBeat / 72 * 72 + 72) {
-              g.fillRect(NOTE_DIMENSION * (i % 72) + X_OFFSET,
-                      j * NOTE_DIMENSION + NOTE_DIMENSION + Y_OFFSET,
-                      NOTE_DIMENSION, NOTE_DIMENSION);
-            }
-            else {
-              g.fillRect(NOTE_DIMENSION * (i % 72 + 72) + X_OFFSET,
-                      j * NOTE_DIMENSION + NOTE_DIMENSION + Y_OFFSET,
-                      NOTE_DIMENSION, NOTE_DIMENSION);
-            }
-            break;
-          }
-        }
-
-        if (j != 0) {
-          currentPitch = currentPitch.nextPitch();
-        }
+      if (i < screenStart + 72) {
+        g.fillRect(NOTE_DIMENSION * (i % 72) + X_OFFSET,
+                j * NOTE_DIMENSION + NOTE_DIMENSION + Y_OFFSET,
+                NOTE_DIMENSION, NOTE_DIMENSION);
+      }
+      else {
+        g.fillRect(NOTE_DIMENSION * (i % 72 + 72) + X_OFFSET,
+                j * NOTE_DIMENSION + NOTE_DIMENSION + Y_OFFSET,
+                NOTE_DIMENSION, NOTE_DIMENSION);
       }
-      currentPitch = lowPitch;
     }
   }
 
@@ -159,16 +177,15 @@ public class ScorePanel extends JPanel implements
    * @param g Graphics
    * @param lowPitch The lowest pitch of the composition
    * @param highPitch The highest pitch of the composition
-   * @param notes The notes in the composition
+   * @param lastBeat The last beat of the composition
    */
-  private void drawPitchesAndBars(Graphics g, IPitch lowPitch, IPitch highPitch,
-                           TreeMap<Integer, Set<IMusicNote<IPitch>>> notes) {
+  private void drawPitchesAndBars(Graphics g, IPitch lowPitch, IPitch highPitch, int lastBeat) {
     IPitch currentPitch = lowPitch;
     g.setColor(Color.BLACK);
     int pitchDifference = lowPitch.getDifference(highPitch);
     int lastScreen;
-    if (currentBeat >= notes.lastKey() / 72 * 72 && currentBeat <= notes.lastKey() + 1) {
-      lastScreen = (notes.lastKey() - notes.lastKey() / 72 * 72) / 4 + 1;
+    if (currentBeat >= lastBeat / 72 * 72 && currentBeat <= lastBeat + 1) {
+      lastScreen = (lastBeat - lastBeat / 72 * 72) / 4 + 1;
     }
     else {
       lastScreen = 21;
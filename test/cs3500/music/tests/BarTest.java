@@ -0,0 +1,140 @@
+package cs3500.music.tests;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import cs3500.music.model.Bar;
+import cs3500.music.model.MusicEditorModelImpl;
+import cs3500.music.model.MusicNote;
+import cs3500.music.model.NoteName;
+import cs3500.music.model.ProviderBarList;
+import cs3500.music.provider.IBar;
+import cs3500.music.provider.Note;
+import cs3500.music.provider.Pitch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the Bar and ProviderBarList used by the provider adapter.
+ */
+public class BarTest {
+
+  private Bar bar;
+  private Note c4;
+  private Note e4;
+  private Note g5;
+  private Note c3;
+
+  /**
+   * Sets up a bar with notes at the first and third beats.
+   */
+  @Before
+  public void setup() {
+    bar = new Bar();
+    c4 = new Note(Pitch.C, 4, 2, 64, 1, true);
+    e4 = new Note(Pitch.E, 4, 1, 64, 1, true);
+    g5 = new Note(Pitch.G, 5, 1, 64, 1, true);
+    c3 = new Note(Pitch.C, 3, 1, 64, 1, true);
+    bar.addNote(c4, 0);
+    bar.addNote(e4, 0);
+    bar.addNote(g5, 2);
+    bar.addNote(c3, 2);
+  }
+
+  /**
+   * Tests looking up notes by pitch and octave.
+   */
+  @Test
+  public void testGetNote() {
+    assertSame(c4, bar.getNote(0, Pitch.C, 4));
+    assertSame(e4, bar.getNote(0, Pitch.E, 4));
+    assertNull(bar.getNote(0, Pitch.C, 3));
+    assertNull(bar.getNote(1, Pitch.C, 4));
+    assertTrue(bar.hasNote(2, Pitch.G, 5));
+    assertFalse(bar.hasNote(2, Pitch.G, 4));
+    assertFalse(bar.hasNote(3, Pitch.G, 5));
+  }
+
+  /**
+   * Tests the highest and lowest notes as notes are added and removed.
+   */
+  @Test
+  public void testTopAndBottomNote() {
+    assertSame(g5, bar.topNote());
+    assertSame(c3, bar.bottomNote());
+
+    bar.removeNote(2, Pitch.G, 5);
+    bar.removeNote(2, Pitch.C, 3);
+    assertSame(e4, bar.topNote());
+    assertSame(c4, bar.bottomNote());
+
+    bar.removeNote(0, Pitch.C, 4);
+    bar.removeNote(0, Pitch.E, 4);
+    assertNull(bar.topNote());
+    assertNull(bar.bottomNote());
+  }
+
+  /**
+   * Tests that removing a note keeps the order of the rest of the beat, and that a second note of
+   * the same pitch at a beat is found once the first is removed.
+   */
+  @Test
+  public void testRemoveNote() {
+    Note again = new Note(Pitch.C, 4, 1, 30, 1, true);
+    bar.addNote(again, 0);
+    assertSame(c4, bar.removeNote(0, Pitch.C, 4));
+    assertEquals(2, bar.getBeat(0).size());
+    assertSame(e4, bar.getBeat(0).get(0));
+    assertSame(again, bar.getNote(0, Pitch.C, 4));
+    assertSame(again, bar.removeNote(0, Pitch.C, 4));
+    assertFalse(bar.hasNote(0, Pitch.C, 4));
+    assertEquals(0, bar.getBeat(1).size());
+  }
+
+  /**
+   * Tests removing a note that is not in the bar.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testRemoveMissingNote() {
+    bar.removeNote(1, Pitch.C, 4);
+  }
+
+  /**
+   * Tests that the bar list converts the bars of a model, and follows changes to the model.
+   */
+  @Test
+  public void testProviderBarList() {
+    MusicEditorModelImpl model = new MusicEditorModelImpl();
+    model.addNote(new MusicNote(new cs3500.music.model.Pitch(NoteName.C, 4), 3, 2, 1, 64));
+    model.addNote(new MusicNote(new cs3500.music.model.Pitch(NoteName.G, 5), 1, 9, 1, 64));
+    List<IBar> bars = new ProviderBarList(model, 1);
+    assertEquals(3, bars.size());
+
+    IBar first = bars.get(0);
+    assertTrue(first.getNote(2, Pitch.C, 4).getStart());
+    assertTrue(first.hasNote(3, Pitch.C, 4));
+    assertFalse(first.getNote(3, Pitch.C, 4).getStart());
+    assertSame(first, bars.get(0));
+    assertTrue(bars.get(1).hasNote(0, Pitch.C, 4));
+    assertTrue(bars.get(2).hasNote(1, Pitch.G, 5));
+    assertEquals(0, bars.get(0).getBeat(0).size());
+
+    model.addNote(new MusicNote(new cs3500.music.model.Pitch(NoteName.E, 3), 1, 16, 1, 64));
+    assertEquals(5, bars.size());
+    assertTrue(bars.get(4).hasNote(0, Pitch.E, 3));
+  }
+
+  /**
+   * Tests getting a bar past the end of the bar list.
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testProviderBarListOutOfBounds() {
+    new ProviderBarList(new MusicEditorModelImpl()).get(0);
+  }
+}
@@ -0,0 +1,134 @@
+package cs3500.music.tests;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import cs3500.music.model.ConcurrentMusicEditorModel;
+import cs3500.music.model.IMusicNote;
+import cs3500.music.model.IPitch;
+import cs3500.music.model.ModelChange;
+import cs3500.music.model.MusicEditorModelImpl;
+import cs3500.music.model.MusicEditorOperations;
+import cs3500.music.model.MusicNote;
+import cs3500.music.model.NoteName;
+import cs3500.music.model.Pitch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the ConcurrentMusicEditorModel.
+ */
+public class ConcurrentMusicEditorModelTest {
+
+  private MusicEditorOperations<IMusicNote<IPitch>, IPitch> model;
+  private MusicEditorOperations<IMusicNote<IPitch>, IPitch> concurrent;
+
+  /**
+   * Set the models back to their original states.
+   */
+  @Before
+  public void setup() {
+    model = new MusicEditorModelImpl();
+    concurrent = new ConcurrentMusicEditorModel(model);
+  }
+
+  /**
+   * Test that changes are passed on to the wrapped model and seen by later reads.
+   */
+  @Test
+  public void testReadsSeeWrites() {
+    MusicNote n = new MusicNote(new Pitch(NoteName.C, 4), 4, 2, 1, 64);
+    concurrent.addNote(n);
+    concurrent.setTempo(300);
+
+    assertTrue(model.getNotesAtBeat(3).contains(n));
+    assertTrue(concurrent.getNotesAtBeat(3).contains(n));
+    assertEquals(300, concurrent.getTempo());
+    assertEquals(new Pitch(NoteName.C, 4), concurrent.getHighPitch());
+
+    concurrent.combine(concurrent);
+    concurrent.append(concurrent);
+    assertEquals(model.getNotes(), concurrent.getNotes());
+    assertEquals(11, concurrent.getNotesView().lastKey().intValue());
+  }
+
+  /**
+   * Test that the same snapshot is given out until the model is changed.
+   */
+  @Test
+  public void testSnapshotReused() {
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> snapshot = concurrent.snapshot();
+    assertSame(snapshot, concurrent.snapshot());
+    assertNull(snapshot.getHighPitch());
+
+    concurrent.addNote(new MusicNote(new Pitch(NoteName.C, 4), 4, 2, 1, 64));
+    assertTrue(snapshot != concurrent.snapshot());
+    assertNull(snapshot.getHighPitch());
+  }
+
+  /**
+   * Test that the notes can be read on one thread while another thread edits them, without a
+   * ConcurrentModificationException.
+   */
+  @Test
+  public void testReadWhileWriting() throws InterruptedException {
+    AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+    Thread writer = new Thread(() -> {
+      try {
+        for (int i = 0; i < 2000; i++) {
+          concurrent.addNote(new MusicNote(Pitch.fromMidi(40 + i % 30), 1 + i % 7, i % 200,
+                  1, 64));
+          if (i % 3 == 0) {
+            concurrent.removeNote(new MusicNote(Pitch.fromMidi(40 + i % 30), 1 + i % 7,
+                    i % 200, 1, 64));
+          }
+        }
+      } catch (Throwable t) {
+        error.set(t);
+      }
+    });
+
+    writer.start();
+    while (writer.isAlive()) {
+      for (Map.Entry<Integer, Set<IMusicNote<IPitch>>> entry : concurrent.getNotes().entrySet()) {
+        for (IMusicNote<IPitch> note : entry.getValue()) {
+          assertTrue(note.getStartBeat() <= entry.getKey());
+        }
+      }
+    }
+    writer.join();
+
+    assertNull(error.get());
+    assertEquals(model.getNotes(), concurrent.getNotes());
+  }
+
+  /**
+   * Test that listeners are told about changes after the write lock is released, so they can
+   * read the model they are listening to.
+   */
+  @Test(timeout = 5000)
+  public void testListenerReadsModel() {
+    List<Integer> sizes = new ArrayList<Integer>();
+    concurrent.addModelListener(change -> {
+      if (change.getType() == ModelChange.Type.NOTES_ADDED) {
+        sizes.add(concurrent.getNotesAtBeat(change.getStartBeat()).size());
+      }
+    });
+
+    concurrent.addNote(new MusicNote(new Pitch(NoteName.C, 4), 4, 2, 1, 64));
+    concurrent.addNote(new MusicNote(new Pitch(NoteName.D, 4), 4, 2, 1, 64));
+    concurrent.setTempo(300);
+    assertEquals(2, sizes.size());
+    assertEquals(1, sizes.get(0).intValue());
+    assertEquals(2, sizes.get(1).intValue());
+  }
+}
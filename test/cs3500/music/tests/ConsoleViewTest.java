@@ -12,6 +12,7 @@ import cs3500.music.model.MusicNote;
 import cs3500.music.model.NoteName;
 import cs3500.music.model.Pitch;
 import cs3500.music.view.ConsoleView;
+import cs3500.music.view.IModelListenerView;
 import cs3500.music.view.IView;
 
 import static org.junit.Assert.assertEquals;
@@ -376,4 +377,30 @@ public class ConsoleViewTest {
 
     assertEquals(result, out.toString());
   }
+
+  /**
+   * Tests that a view told about changes to the model prints the same output as a new view after
+   * notes are added, removed and the pitch range changes.
+   */
+  @Test
+  public void testDisplayAfterChanges() {
+    ConsoleView listening = new ConsoleView(out);
+    model.addModelListener(change -> listening.modelChanged(model, change));
+    model.addNote(new MusicNote(new Pitch(NoteName.C, 4), 4, 0, 1, 1));
+    model.addNote(new MusicNote(new Pitch(NoteName.E, 4), 2, 3, 1, 1));
+    listening.display(model);
+
+    MusicNote n = new MusicNote(new Pitch(NoteName.D, 4), 6, 2, 1, 1);
+    model.addNote(n);
+    model.addNote(new MusicNote(new Pitch(NoteName.G, 4), 1, 1, 1, 1));
+    model.removeNote(n);
+    model.addNote(new MusicNote(new Pitch(NoteName.D, 4), 2, 12, 1, 1));
+
+    StringBuffer expected = new StringBuffer();
+    new ConsoleView(expected).display(model);
+    out.setLength(0);
+    listening.display(model);
+    assertEquals(expected.toString(), out.toString());
+    assertTrue(listening instanceof IModelListenerView);
+  }
 }
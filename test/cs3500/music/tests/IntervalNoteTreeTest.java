@@ -0,0 +1,317 @@
+package cs3500.music.tests;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.SortedMap;
+
+import cs3500.music.model.IMusicNote;
+import cs3500.music.model.IPitch;
+import cs3500.music.model.MusicEditorModelImpl;
+import cs3500.music.model.MusicEditorOperations;
+import cs3500.music.model.MusicNote;
+import cs3500.music.model.Pitch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the interval tree that holds the notes of a MusicEditorModelImpl. The tree is only
+ * reached through the model, so every query of the model is checked against the answer found by
+ * scanning a plain list of the same notes, after sequences of adds and removes chosen to rotate
+ * the tree and to remove nodes from each place in it.
+ */
+public class IntervalNoteTreeTest {
+
+  private MusicEditorOperations<IMusicNote<IPitch>, IPitch> model;
+  private List<IMusicNote<IPitch>> notes;
+
+  /**
+   * Set the model and the list of its notes back to empty.
+   */
+  @Before
+  public void setup() {
+    model = new MusicEditorModelImpl();
+    notes = new ArrayList<IMusicNote<IPitch>>();
+  }
+
+  /**
+   * Tests adding notes in increasing order, which keeps making the tree lean right, and then
+   * removing every other note.
+   */
+  @Test
+  public void testAscendingChain() {
+    for (int i = 0; i < 200; i++) {
+      add(note(i, 1 + i % 5, 40 + i % 30));
+    }
+    assertMatchesList();
+
+    for (int i = 0; i < 200; i += 2) {
+      remove(note(i, 1 + i % 5, 40 + i % 30));
+    }
+    assertMatchesList();
+  }
+
+  /**
+   * Tests adding notes in decreasing order, which keeps making the tree lean left, and then
+   * removing them from the front.
+   */
+  @Test
+  public void testDescendingChain() {
+    for (int i = 199; i >= 0; i--) {
+      add(note(i, 1 + i % 7, 80 - i % 30));
+    }
+    assertMatchesList();
+
+    for (int i = 0; i < 150; i++) {
+      remove(note(i, 1 + i % 7, 80 - i % 30));
+      if (i % 25 == 0) {
+        assertMatchesList();
+      }
+    }
+    assertMatchesList();
+  }
+
+  /**
+   * Tests notes that all start on the same beat, so they are ordered by pitch, duration,
+   * instrument and volume instead.
+   */
+  @Test
+  public void testSameStartBeat() {
+    for (int i = 0; i < 60; i++) {
+      add(new MusicNote(Pitch.fromMidi(50 + i % 12), 1 + i % 5, 3, 1 + i / 12, 64));
+    }
+    assertMatchesList();
+
+    for (int i = 0; i < 60; i += 3) {
+      remove(new MusicNote(Pitch.fromMidi(50 + i % 12), 1 + i % 5, 3, 1 + i / 12, 64));
+    }
+    assertMatchesList();
+  }
+
+  /**
+   * Tests removing the root of the tree. Seven notes added in order make a perfect tree with the
+   * fourth note at the root, and the root is removed until the tree is empty.
+   */
+  @Test
+  public void testRemoveRoot() {
+    for (int i = 0; i < 7; i++) {
+      add(note(i * 2, 3, 60 + i));
+    }
+
+    remove(note(6, 3, 63));
+    assertMatchesList();
+    remove(note(8, 3, 64));
+    assertMatchesList();
+    remove(note(4, 3, 62));
+    assertMatchesList();
+    while (!notes.isEmpty()) {
+      remove(notes.get(notes.size() / 2));
+      assertMatchesList();
+    }
+    assertTrue(model.getNotesView().isEmpty());
+    assertNull(model.getLowPitch());
+    assertNull(model.getHighPitch());
+  }
+
+  /**
+   * Tests removing notes with two children. Fifteen notes added in order make a perfect tree, and
+   * the notes with two children are removed from the bottom up, so each is replaced by the note
+   * after it.
+   */
+  @Test
+  public void testRemoveTwoChildren() {
+    for (int i = 0; i < 15; i++) {
+      add(note(i, 1 + i % 4, 55 + i));
+    }
+
+    for (int i : new int[]{1, 5, 9, 13, 3, 11, 7}) {
+      remove(note(i, 1 + i % 4, 55 + i));
+      assertMatchesList();
+    }
+  }
+
+  /**
+   * Tests removing long notes after the tree has been rotated around them, so the highest end beat
+   * of each subtree has to be recomputed from its new children.
+   */
+  @Test
+  public void testRemoveLongNotes() {
+    add(note(0, 100, 30));
+    for (int i = 1; i < 50; i++) {
+      add(note(i, 1, 60));
+    }
+    add(note(25, 80, 90));
+    assertMatchesList();
+
+    remove(note(0, 100, 30));
+    assertMatchesList();
+    remove(note(25, 80, 90));
+    assertMatchesList();
+  }
+
+  /**
+   * Tests a random mix of adding and removing single notes and batches of notes that overlap each
+   * other, checking the model against the list after every change.
+   */
+  @Test
+  public void testMixedAddsAndRemoves() {
+    Random random = new Random(7);
+    for (int i = 0; i < 400; i++) {
+      int choice = random.nextInt(10);
+      if (choice < 5 || notes.isEmpty()) {
+        add(note(random.nextInt(60), 1 + random.nextInt(12), 40 + random.nextInt(40)));
+      }
+      else if (choice < 8) {
+        remove(notes.get(random.nextInt(notes.size())));
+      }
+      else if (choice < 9) {
+        List<IMusicNote<IPitch>> batch = new ArrayList<IMusicNote<IPitch>>();
+        for (int j = 0; j < 20; j++) {
+          IMusicNote<IPitch> note = note(random.nextInt(60), 1 + random.nextInt(12),
+                  40 + random.nextInt(40));
+          if (!batch.contains(note)) {
+            batch.add(note);
+          }
+        }
+        model.addAll(batch);
+        for (IMusicNote<IPitch> note : batch) {
+          if (!notes.contains(note)) {
+            notes.add(note);
+          }
+        }
+      }
+      else {
+        List<IMusicNote<IPitch>> batch = new ArrayList<IMusicNote<IPitch>>();
+        for (IMusicNote<IPitch> note : notes) {
+          if (random.nextInt(4) == 0) {
+            batch.add(note);
+          }
+        }
+        model.removeAll(batch);
+        notes.removeAll(batch);
+      }
+      assertMatchesList();
+    }
+  }
+
+  /**
+   * Creates a note with instrument 1 and volume 64.
+   *
+   * @param startBeat The beat the note starts at
+   * @param duration The number of beats the note is played for
+   * @param midi The Midi value of the pitch of the note
+   * @return The note
+   */
+  private static IMusicNote<IPitch> note(int startBeat, int duration, int midi) {
+    return new MusicNote(Pitch.fromMidi(midi), duration, startBeat, 1, 64);
+  }
+
+  /**
+   * Adds a note to the model and to the list, if the list does not already have it.
+   *
+   * @param note The note to add
+   */
+  private void add(IMusicNote<IPitch> note) {
+    model.addNote(note);
+    if (!notes.contains(note)) {
+      notes.add(note);
+    }
+  }
+
+  /**
+   * Removes a note from the model and from the list.
+   *
+   * @param note The note to remove
+   */
+  private void remove(IMusicNote<IPitch> note) {
+    model.removeNote(note);
+    assertTrue(notes.remove(note));
+  }
+
+  /**
+   * Checks every query the tree answers against the answers found by scanning the list.
+   */
+  private void assertMatchesList() {
+    int firstBeat = -1;
+    int endBeat = 0;
+    int low = -1;
+    int high = -1;
+    for (IMusicNote<IPitch> note : notes) {
+      int midi = IPitch.pitchToMidi(note.getPitch());
+      if (firstBeat < 0 || note.getStartBeat() < firstBeat) {
+        firstBeat = note.getStartBeat();
+      }
+      endBeat = Math.max(endBeat, note.getStartBeat() + note.getDuration());
+      low = low < 0 ? midi : Math.min(low, midi);
+      high = Math.max(high, midi);
+    }
+
+    SortedMap<Integer, Set<IMusicNote<IPitch>>> view = model.getNotesView();
+    assertEquals(notes.isEmpty(), view.isEmpty());
+    if (!notes.isEmpty()) {
+      assertEquals(firstBeat, (int) view.firstKey());
+      assertEquals(endBeat - 1, (int) view.lastKey());
+      assertEquals(Pitch.fromMidi(low), model.getLowPitch());
+      assertEquals(Pitch.fromMidi(high), model.getHighPitch());
+    }
+
+    for (int beat = 0; beat <= endBeat + 1; beat++) {
+      assertEquals(sounding(beat, beat + 1), model.getNotesAtBeat(beat));
+    }
+    for (int from = 0; from <= endBeat + 1; from += 3) {
+      for (int to = from; to <= endBeat + 2; to += 5) {
+        assertEquals(sounding(from, to), model.getNotesSoundingInRange(from, to));
+
+        Set<IMusicNote<IPitch>> starting = model.getNotesStartingInRange(from, to);
+        assertEquals(starting(from, to), starting);
+        int previous = -1;
+        for (IMusicNote<IPitch> note : starting) {
+          assertTrue(note.getStartBeat() >= previous);
+          previous = note.getStartBeat();
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the notes in the list played at some beat in [from, to).
+   *
+   * @param from The first beat of the range
+   * @param to The beat after the last beat of the range
+   * @return The notes
+   */
+  private Set<IMusicNote<IPitch>> sounding(int from, int to) {
+    Set<IMusicNote<IPitch>> result = new HashSet<IMusicNote<IPitch>>();
+    for (IMusicNote<IPitch> note : notes) {
+      if (from < to && note.getStartBeat() < to
+              && note.getStartBeat() + note.getDuration() > from) {
+        result.add(note);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Gets the notes in the list that start in [from, to).
+   *
+   * @param from The first beat of the range
+   * @param to The beat after the last beat of the range
+   * @return The notes
+   */
+  private Set<IMusicNote<IPitch>> starting(int from, int to) {
+    Set<IMusicNote<IPitch>> result = new HashSet<IMusicNote<IPitch>>();
+    for (IMusicNote<IPitch> note : notes) {
+      if (note.getStartBeat() >= from && note.getStartBeat() < to) {
+        result.add(note);
+      }
+    }
+    return result;
+  }
+}
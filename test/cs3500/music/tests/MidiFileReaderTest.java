@@ -0,0 +1,123 @@
+package cs3500.music.tests;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import javax.sound.midi.InvalidMidiDataException;
+import javax.sound.midi.MetaMessage;
+import javax.sound.midi.MidiEvent;
+import javax.sound.midi.MidiSystem;
+import javax.sound.midi.Sequence;
+import javax.sound.midi.ShortMessage;
+import javax.sound.midi.Track;
+
+import cs3500.music.model.IMusicNote;
+import cs3500.music.model.IPitch;
+import cs3500.music.model.MusicEditorModelImpl;
+import cs3500.music.model.MusicEditorOperations;
+import cs3500.music.model.MusicNote;
+import cs3500.music.model.PackedMusicEditorModel;
+import cs3500.music.model.Pitch;
+import cs3500.music.model.TempoMap;
+import cs3500.music.util.MidiFileReader;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for reading Standard Midi Files.
+ */
+public class MidiFileReaderTest {
+
+  private byte[] file;
+
+  /**
+   * Sets up a type 1 Midi file with 4 ticks per quarter note. The first track holds the tempo
+   * changes; the second plays three notes on two channels, one ended by a note on of volume 0.
+   *
+   * @throws InvalidMidiDataException If a message is invalid
+   * @throws IOException If the file cannot be written
+   */
+  @Before
+  public void setup() throws InvalidMidiDataException, IOException {
+    Sequence sequence = new Sequence(Sequence.PPQ, 4);
+    Track tempos = sequence.createTrack();
+    tempos.add(new MidiEvent(tempo(400000), 0));
+    tempos.add(new MidiEvent(tempo(600000), 16));
+
+    Track notes = sequence.createTrack();
+    notes.add(new MidiEvent(new ShortMessage(ShortMessage.PROGRAM_CHANGE, 1, 20, 0), 0));
+    notes.add(new MidiEvent(new ShortMessage(ShortMessage.NOTE_ON, 0, 60, 64), 0));
+    notes.add(new MidiEvent(new ShortMessage(ShortMessage.NOTE_ON, 1, 67, 100), 4));
+    notes.add(new MidiEvent(new ShortMessage(ShortMessage.NOTE_OFF, 0, 60, 0), 8));
+    notes.add(new MidiEvent(new ShortMessage(ShortMessage.NOTE_ON, 1, 67, 0), 12));
+    notes.add(new MidiEvent(new ShortMessage(ShortMessage.NOTE_ON, 0, 62, 90), 16));
+    notes.add(new MidiEvent(new ShortMessage(ShortMessage.NOTE_OFF, 0, 62, 0), 18));
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    MidiSystem.write(sequence, 1, bytes);
+    file = bytes.toByteArray();
+  }
+
+  /**
+   * Tests reading the file with a beat for each quarter note.
+   *
+   * @throws IOException If the file cannot be read
+   */
+  @Test
+  public void testQuarterBeats() throws IOException {
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> model = MidiFileReader.parseFile(
+            new ByteArrayInputStream(file), new PackedMusicEditorModel.Builder(), 1);
+    assertEquals(new HashSet<IMusicNote<IPitch>>(Arrays.asList(
+            new MusicNote(Pitch.fromMidi(60), 2, 0, 0, 64),
+            new MusicNote(Pitch.fromMidi(67), 2, 1, 20, 100),
+            new MusicNote(Pitch.fromMidi(62), 1, 4, 0, 90))),
+            model.getNotesStartingInRange(0, Integer.MAX_VALUE));
+    assertEquals(TempoMap.constant(400000).with(4, 600000), model.getTempoMap());
+  }
+
+  /**
+   * Tests reading the file with a beat for each sixteenth note.
+   *
+   * @throws IOException If the file cannot be read
+   */
+  @Test
+  public void testSixteenthBeats() throws IOException {
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> model = MidiFileReader.parseFile(
+            new ByteArrayInputStream(file), new MusicEditorModelImpl.Builder(), 4);
+    assertEquals(new HashSet<IMusicNote<IPitch>>(Arrays.asList(
+            new MusicNote(Pitch.fromMidi(60), 8, 0, 0, 64),
+            new MusicNote(Pitch.fromMidi(67), 8, 4, 20, 100),
+            new MusicNote(Pitch.fromMidi(62), 2, 16, 0, 90))),
+            model.getNotesStartingInRange(0, Integer.MAX_VALUE));
+    assertEquals(TempoMap.constant(100000).with(16, 150000), model.getTempoMap());
+  }
+
+  /**
+   * Tests reading data that is not a Midi file.
+   *
+   * @throws IOException If the data cannot be read
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNotAMidiFile() throws IOException {
+    MidiFileReader.parseFile(new ByteArrayInputStream("tempo 100\n".getBytes("US-ASCII")),
+            new MusicEditorModelImpl.Builder(), 1);
+  }
+
+  /**
+   * Creates a tempo meta message.
+   *
+   * @param mpq The tempo, in microseconds per quarter note
+   * @return The message
+   * @throws InvalidMidiDataException If the message is invalid
+   */
+  private static MetaMessage tempo(int mpq) throws InvalidMidiDataException {
+    return new MetaMessage(0x51, new byte[]{(byte) (mpq >> 16), (byte) (mpq >> 8), (byte) mpq},
+            3);
+  }
+}
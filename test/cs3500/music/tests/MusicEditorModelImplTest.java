@@ -3,13 +3,18 @@ package cs3500.music.tests;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 
 import cs3500.music.model.IMusicNote;
 import cs3500.music.model.IPitch;
+import cs3500.music.model.ModelChange;
+import cs3500.music.model.ModelListener;
 import cs3500.music.model.MusicEditorModelImpl;
 import cs3500.music.model.MusicEditorModelImplReadOnly;
 import cs3500.music.model.MusicEditorOperations;
@@ -152,6 +157,29 @@ public class MusicEditorModelImplTest {
     model1.addNote(null);
   }
 
+  /**
+   * Test that notes with octaves outside of -1 to 10 are not added, and that the lowest and
+   * highest octaves are.
+   */
+  @Test
+  public void testAddNoteOctaveOutOfRange() {
+    for (int octave : new int[]{-2, 11}) {
+      try {
+        model1.addNote(new MusicNote(new Pitch(NoteName.C, octave), 1, 0, 1, 64));
+        fail();
+      }
+      catch (IllegalArgumentException e) {
+        assertEquals("Pitch of the note is out of range", e.getMessage());
+      }
+    }
+    assertTrue(model1.getNotes().isEmpty());
+
+    model1.addNote(new MusicNote(new Pitch(NoteName.C, -1), 1, 0, 1, 64));
+    model1.addNote(new MusicNote(new Pitch(NoteName.B, 10), 1, 0, 1, 64));
+    assertEquals(new Pitch(NoteName.C, -1), model1.getLowPitch());
+    assertEquals(new Pitch(NoteName.B, 10), model1.getHighPitch());
+  }
+
   /**
    * Test that a note can be added successfully.
    */
@@ -769,4 +797,435 @@ public class MusicEditorModelImplTest {
     model3 = new MusicEditorModelImplReadOnly(model1);
     assertNull(model3.getHighPitch());
   }
-}
\ No newline at end of file
+
+  /**
+   * Test that getNotesView and the getNotes and getNotesAtBeat of a read-only model are live views
+   * of the model.
+   */
+  @Test
+  public void testGetNotesIsLiveView() {
+    model3 = new MusicEditorModelImplReadOnly(model1);
+    Map<Integer, Set<IMusicNote<IPitch>>> view = model1.getNotesView();
+    Map<Integer, Set<IMusicNote<IPitch>>> notes = model3.getNotes();
+    Set<IMusicNote<IPitch>> atBeat = model3.getNotesAtBeat(3);
+    MusicNote n = new MusicNote(new Pitch(NoteName.C, 4), 4, 2, 1, 1);
+    model1.addNote(n);
+
+    assertEquals(4, view.size());
+    assertTrue(view.get(5).contains(n));
+    assertEquals(view, notes);
+    assertTrue(atBeat.contains(n));
+    assertEquals(5, model3.getNotesView().lastKey().intValue());
+  }
+
+  /**
+   * Test that getNotes and getNotesAtBeat return copies, so the model can be changed while they
+   * are walked.
+   */
+  @Test
+  public void testGetNotesIsCopy() {
+    MusicNote n = new MusicNote(new Pitch(NoteName.C, 4), 4, 2, 1, 1);
+    model1.addNote(n);
+    model1.addNote(new MusicNote(new Pitch(NoteName.E, 4), 2, 3, 1, 1));
+    model1.addNote(new MusicNote(new Pitch(NoteName.G, 4), 1, 3, 1, 1));
+    Map<Integer, Set<IMusicNote<IPitch>>> notes = model1.getNotes();
+    for (IMusicNote<IPitch> note : model1.getNotesAtBeat(3)) {
+      model1.removeNote(note);
+    }
+
+    assertTrue(model1.getNotesAtBeat(3).isEmpty());
+    assertTrue(notes.get(5).contains(n));
+  }
+
+  /**
+   * Test that the views returned by getNotesView cannot be modified.
+   */
+  @Test(expected = UnsupportedOperationException.class)
+  public void testGetNotesUnmodifiable() {
+    model1.getNotesView().put(0, new HashSet<IMusicNote<IPitch>>());
+  }
+
+  /**
+   * Test that getVersion changes when the model is modified.
+   */
+  @Test
+  public void testGetVersion() {
+    int version = model1.getVersion();
+    MusicNote n = new MusicNote(new Pitch(NoteName.C, 4), 4, 2, 1, 1);
+    model1.addNote(n);
+    assertFalse(version == model1.getVersion());
+
+    model3 = new MusicEditorModelImplReadOnly(model1);
+    version = model3.getVersion();
+    model1.removeNote(n);
+    assertFalse(version == model3.getVersion());
+  }
+
+  /**
+   * Test that the pitch range is updated when the lowest or highest note is removed, and only once
+   * no other note has that pitch.
+   */
+  @Test
+  public void testPitchRangeAfterRemove() {
+    MusicNote low = new MusicNote(new Pitch(NoteName.C, 2), 2, 0, 1, 1);
+    MusicNote low2 = new MusicNote(new Pitch(NoteName.C, 2), 2, 4, 1, 1);
+    MusicNote mid = new MusicNote(new Pitch(NoteName.E, 4), 2, 0, 1, 1);
+    MusicNote high = new MusicNote(new Pitch(NoteName.B, 7), 2, 0, 1, 1);
+    model2.addNote(low);
+    model2.addNote(low2);
+    model2.addNote(mid);
+    model2.addNote(high);
+
+    model2.removeNote(high);
+    assertEquals(new Pitch(NoteName.E, 4), model2.getHighPitch());
+    model2.removeNote(low);
+    assertEquals(new Pitch(NoteName.C, 2), model2.getLowPitch());
+    model2.removeNote(low2);
+    assertEquals(new Pitch(NoteName.E, 4), model2.getLowPitch());
+    model2.removeNote(mid);
+    assertNull(model2.getLowPitch());
+    assertNull(model2.getHighPitch());
+  }
+
+  /**
+   * Test that adding the same note twice does not keep its pitch in the range after it is removed.
+   */
+  @Test
+  public void testPitchRangeDuplicateNote() {
+    MusicNote mid = new MusicNote(new Pitch(NoteName.E, 4), 2, 0, 1, 1);
+    MusicNote high = new MusicNote(new Pitch(NoteName.B, 7), 2, 0, 1, 1);
+    model2.addNote(mid);
+    model2.addNote(high);
+    model2.addNote(high);
+    model2.removeNote(high);
+    assertEquals(new Pitch(NoteName.E, 4), model2.getHighPitch());
+  }
+
+  /**
+   * Tests the getNotesInRange method.
+   */
+  @Test
+  public void testGetNotesInRange() {
+    MusicNote n1 = new MusicNote(new Pitch(NoteName.C, 4), 4, 0, 1, 1);
+    MusicNote n2 = new MusicNote(new Pitch(NoteName.D, 4), 2, 6, 1, 1);
+    MusicNote n3 = new MusicNote(new Pitch(NoteName.E, 4), 3, 20, 1, 1);
+    model1.addNote(n1);
+    model1.addNote(n2);
+    model1.addNote(n3);
+
+    Map<Integer, Set<IMusicNote<IPitch>>> expected = new TreeMap<>();
+    expected.put(3, new HashSet<IMusicNote<IPitch>>());
+    expected.get(3).add(n1);
+    expected.put(6, new HashSet<IMusicNote<IPitch>>());
+    expected.get(6).add(n2);
+    assertEquals(expected, model1.getNotesInRange(3, 7));
+    assertEquals(expected, new MusicEditorModelImplReadOnly(model1).getNotesInRange(3, 7));
+    assertTrue(model1.getNotesInRange(8, 20).isEmpty());
+    assertTrue(model1.getNotesInRange(5, 5).isEmpty());
+  }
+
+  /**
+   * Tests the getNotesSoundingInRange method with notes that start before the range.
+   */
+  @Test
+  public void testGetNotesSoundingInRange() {
+    MusicNote n1 = new MusicNote(new Pitch(NoteName.C, 4), 4, 0, 1, 1);
+    MusicNote n2 = new MusicNote(new Pitch(NoteName.D, 4), 2, 6, 1, 1);
+    MusicNote n3 = new MusicNote(new Pitch(NoteName.E, 4), 3, 20, 1, 1);
+    model1.addNote(n1);
+    model1.addNote(n2);
+    model1.addNote(n3);
+
+    Set<IMusicNote<IPitch>> expected = new HashSet<IMusicNote<IPitch>>();
+    expected.add(n1);
+    expected.add(n2);
+    assertEquals(expected, model1.getNotesSoundingInRange(3, 20));
+    assertEquals(2, model1.getNotesSoundingInRange(3, 20).size());
+    assertFalse(model1.getNotesSoundingInRange(3, 20).contains(n3));
+    assertTrue(model1.getNotesSoundingInRange(3, 21).contains(n3));
+    assertTrue(model1.getNotesSoundingInRange(8, 20).isEmpty());
+  }
+
+  /**
+   * Tests that getNotesInRange throws an exception when the start beat is after the end beat.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetNotesInRangeBackwards() {
+    model1.getNotesInRange(5, 4);
+  }
+
+  /**
+   * Tests that getNotesSoundingInRange throws an exception when the start beat is negative.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetNotesSoundingInRangeNegative() {
+    model1.getNotesSoundingInRange(-1, 4);
+  }
+
+  /**
+   * Tests that addAll adds every note once, skipping duplicates and notes already in the model.
+   */
+  @Test
+  public void testAddAll() {
+    MusicNote n1 = new MusicNote(new Pitch(NoteName.C, 4), 4, 0, 1, 1);
+    MusicNote n2 = new MusicNote(new Pitch(NoteName.D, 2), 2, 6, 1, 1);
+    MusicNote n3 = new MusicNote(new Pitch(NoteName.E, 6), 3, 2, 1, 1);
+    model1.addNote(n1);
+    model2.addNote(n1);
+    model2.addNote(n2);
+    model2.addNote(n3);
+
+    model1.addAll(Arrays.asList(n3, n1, n2, n3));
+    assertEquals(model2.getNotes(), model1.getNotes());
+    assertEquals(new Pitch(NoteName.D, 2), model1.getLowPitch());
+    assertEquals(new Pitch(NoteName.E, 6), model1.getHighPitch());
+  }
+
+  /**
+   * Tests that addAll does not add any notes if one of them is null.
+   */
+  @Test
+  public void testAddAllNull() {
+    MusicNote n1 = new MusicNote(new Pitch(NoteName.C, 4), 4, 0, 1, 1);
+    try {
+      model1.addAll(Arrays.asList(n1, null));
+      fail();
+    }
+    catch (IllegalArgumentException e) {
+      assertTrue(model1.getNotes().isEmpty());
+    }
+  }
+
+  /**
+   * Tests that addAll does not add any notes if one of them has an octave outside of -1 to 10.
+   */
+  @Test
+  public void testAddAllOctaveOutOfRange() {
+    MusicNote n1 = new MusicNote(new Pitch(NoteName.C, 4), 4, 0, 1, 1);
+    try {
+      model1.addAll(Arrays.asList(n1, new MusicNote(new Pitch(NoteName.D, 11), 1, 2, 1, 1)));
+      fail();
+    }
+    catch (IllegalArgumentException e) {
+      assertEquals("Pitch of the note is out of range", e.getMessage());
+      assertTrue(model1.getNotes().isEmpty());
+    }
+  }
+
+  /**
+   * Tests that removeAll removes every note once with a single change for the listeners, and
+   * updates the pitch range.
+   */
+  @Test
+  public void testRemoveAll() {
+    MusicNote n1 = new MusicNote(new Pitch(NoteName.C, 4), 4, 0, 1, 1);
+    MusicNote n2 = new MusicNote(new Pitch(NoteName.D, 2), 2, 6, 1, 1);
+    MusicNote n3 = new MusicNote(new Pitch(NoteName.E, 6), 3, 2, 1, 1);
+    model1.addAll(Arrays.asList(n1, n2, n3));
+    model2.addNote(n1);
+    List<ModelChange> changes = new ArrayList<ModelChange>();
+    model1.addModelListener(changes::add);
+
+    model1.removeAll(Arrays.asList(n3, n2, n3));
+    assertEquals(model2.getNotes(), model1.getNotes());
+    assertEquals(new Pitch(NoteName.C, 4), model1.getLowPitch());
+    assertEquals(new Pitch(NoteName.C, 4), model1.getHighPitch());
+    assertEquals(ModelChange.Type.NOTES_REMOVED, changes.get(0).getType());
+    assertEquals(2, changes.get(0).getStartBeat());
+    assertEquals(8, changes.get(0).getEndBeat());
+    assertEquals(ModelChange.Type.PITCH_RANGE_CHANGED, changes.get(1).getType());
+    assertEquals(2, changes.size());
+  }
+
+  /**
+   * Tests that removeAll does not remove any notes if one of them is not in the model.
+   */
+  @Test
+  public void testRemoveAllNonexistent() {
+    MusicNote n1 = new MusicNote(new Pitch(NoteName.C, 4), 4, 0, 1, 1);
+    MusicNote n2 = new MusicNote(new Pitch(NoteName.D, 2), 2, 6, 1, 1);
+    model1.addNote(n1);
+    try {
+      model1.removeAll(Arrays.asList(n1, n2));
+      fail();
+    }
+    catch (IllegalArgumentException e) {
+      assertTrue(model1.getNotesAtBeat(0).contains(n1));
+    }
+  }
+
+  /**
+   * Tests that removeAll cannot be called on a read only model.
+   */
+  @Test(expected = UnsupportedOperationException.class)
+  public void testReadOnlyModelRemoveAll() {
+    model3.removeAll(new HashSet<IMusicNote<IPitch>>());
+  }
+
+  /**
+   * Tests that addAll cannot be called on a read only model.
+   */
+  @Test(expected = UnsupportedOperationException.class)
+  public void testReadOnlyModelAddAll() {
+    model3.addAll(new HashSet<IMusicNote<IPitch>>());
+  }
+
+  /**
+   * Tests that a snapshot keeps the notes, pitches and tempo the model had when it was taken.
+   */
+  @Test
+  public void testSnapshot() {
+    MusicNote n1 = new MusicNote(new Pitch(NoteName.C, 4), 4, 0, 1, 1);
+    MusicNote n2 = new MusicNote(new Pitch(NoteName.D, 6), 2, 6, 1, 1);
+    model1.addNote(n1);
+    model1.addNote(n2);
+    model1.setTempo(500);
+    model2.addNote(n1);
+    model2.addNote(n2);
+
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> snapshot = model1.snapshot();
+    model1.removeNote(n2);
+    model1.addNote(new MusicNote(new Pitch(NoteName.C, 2), 3, 1, 1, 1));
+    model1.setTempo(200);
+
+    assertEquals(model2.getNotes(), snapshot.getNotes());
+    assertEquals(7, snapshot.getNotesView().lastKey().intValue());
+    assertTrue(snapshot.getNotesAtBeat(6).contains(n2));
+    assertEquals(new Pitch(NoteName.C, 4), snapshot.getLowPitch());
+    assertEquals(new Pitch(NoteName.D, 6), snapshot.getHighPitch());
+    assertEquals(500, snapshot.getTempo());
+    assertEquals(4, model1.getNotes().size());
+  }
+
+  /**
+   * Tests that a snapshot cannot be modified.
+   */
+  @Test(expected = UnsupportedOperationException.class)
+  public void testSnapshotUnmodifiable() {
+    model1.snapshot().addNote(new MusicNote(new Pitch(NoteName.C, 4), 4, 0, 1, 1));
+  }
+
+  /**
+   * Tests that listeners are told about each change with the beats it affects, and that pitch
+   * range changes are only given out when the lowest or highest pitch changes.
+   */
+  @Test
+  public void testModelListener() {
+    List<ModelChange> changes = new ArrayList<ModelChange>();
+    model1.addModelListener(changes::add);
+    MusicNote n1 = new MusicNote(new Pitch(NoteName.C, 4), 4, 2, 1, 1);
+    MusicNote n2 = new MusicNote(new Pitch(NoteName.D, 3), 2, 6, 1, 1);
+
+    model1.addNote(n1);
+    assertEquals(2, changes.size());
+    assertEquals(ModelChange.Type.NOTES_ADDED, changes.get(0).getType());
+    assertEquals(2, changes.get(0).getStartBeat());
+    assertEquals(6, changes.get(0).getEndBeat());
+    assertEquals(n1, changes.get(0).getNote());
+    assertTrue(changes.get(0).affects(5, 10));
+    assertFalse(changes.get(0).affects(6, 10));
+    assertEquals(ModelChange.Type.PITCH_RANGE_CHANGED, changes.get(1).getType());
+
+    changes.clear();
+    model1.addNote(n1);
+    model1.addNote(new MusicNote(new Pitch(NoteName.C, 4), 1, 10, 1, 1));
+    assertEquals(1, changes.size());
+
+    changes.clear();
+    model1.addAll(Arrays.asList(n1, n2, new MusicNote(new Pitch(NoteName.C, 4), 3, 20, 1, 1)));
+    assertEquals(2, changes.size());
+    assertEquals(6, changes.get(0).getStartBeat());
+    assertEquals(23, changes.get(0).getEndBeat());
+    assertNull(changes.get(0).getNote());
+
+    changes.clear();
+    model1.removeNote(n2);
+    model1.setTempo(300);
+    assertEquals(ModelChange.Type.NOTES_REMOVED, changes.get(0).getType());
+    assertEquals(ModelChange.Type.PITCH_RANGE_CHANGED, changes.get(1).getType());
+    assertEquals(ModelChange.Type.TEMPO_CHANGED, changes.get(2).getType());
+    assertFalse(changes.get(2).isNoteChange());
+    assertTrue(changes.get(2).affects(1000, 1001));
+  }
+
+  /**
+   * Tests that a removed listener is no longer told about changes.
+   */
+  @Test
+  public void testRemoveModelListener() {
+    List<ModelChange> changes = new ArrayList<ModelChange>();
+    ModelListener listener = changes::add;
+    model1.addModelListener(listener);
+    model1.newPiece();
+    model1.removeModelListener(listener);
+    model1.setBeatsPerMeasure(3);
+    assertEquals(1, changes.size());
+    assertEquals(ModelChange.Type.NEW_PIECE, changes.get(0).getType());
+  }
+
+  /**
+   * Tests that a null listener cannot be added.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddNullModelListener() {
+    model1.addModelListener(null);
+  }
+
+  /**
+   * Tests combining and appending scores large enough to be sorted and built in parallel.
+   */
+  @Test
+  public void testLargeAppendAndCombine() {
+    List<IMusicNote<IPitch>> notes = new ArrayList<IMusicNote<IPitch>>();
+    for (int i = 0; i < 40000; i++) {
+      notes.add(new MusicNote(Pitch.fromMidi(24 + i % 60), 1 + i % 7, i / 3, 1, 64));
+    }
+    for (IMusicNote<IPitch> note : notes) {
+      model2.addNote(note);
+    }
+
+    model1.combine(model2);
+    assertEquals(model2.getNotes(), model1.getNotes());
+    assertEquals(model2.getNotesSoundingInRange(5000, 5100),
+            model1.getNotesSoundingInRange(5000, 5100));
+
+    int end = model1.getNotesView().lastKey() + 1;
+    model1.append(model2);
+    model1.addAll(notes);
+    assertEquals(model2.getNotesAtBeat(700), model1.getNotesAtBeat(700));
+    assertEquals(model2.getNotesAtBeat(700).size(), model1.getNotesAtBeat(end + 700).size());
+    assertEquals(2 * end - 1, model1.getNotesView().lastKey().intValue());
+  }
+
+  /**
+   * Tests that getNotesStartingInRange gives each note that starts in the range once, in order of
+   * start beat, and leaves out notes that started before the range.
+   */
+  @Test
+  public void testGetNotesStartingInRange() {
+    MusicNote n1 = new MusicNote(new Pitch(NoteName.C, 4), 10, 0, 1, 1);
+    MusicNote n2 = new MusicNote(new Pitch(NoteName.D, 4), 2, 5, 1, 1);
+    MusicNote n3 = new MusicNote(new Pitch(NoteName.E, 4), 3, 3, 1, 1);
+    MusicNote n4 = new MusicNote(new Pitch(NoteName.F, 4), 1, 8, 1, 1);
+    model1.addAll(Arrays.asList(n1, n2, n3, n4));
+
+    Set<IMusicNote<IPitch>> starting = model1.getNotesStartingInRange(2, 8);
+    assertEquals(Arrays.asList(n3, n2), new ArrayList<IMusicNote<IPitch>>(starting));
+    assertEquals(2, starting.size());
+    assertTrue(starting.contains(n2));
+    assertFalse(starting.contains(n1));
+    assertFalse(starting.contains(n4));
+    assertTrue(model1.getNotesStartingInRange(9, 20).isEmpty());
+    assertEquals(4, model1.getNotesStartingInRange(0, 9).size());
+    assertEquals(model1.getNotesStartingInRange(2, 8),
+            new MusicEditorModelImplReadOnly(model1).getNotesStartingInRange(2, 8));
+  }
+
+  /**
+   * Tests that getNotesStartingInRange does not allow a negative start beat.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetNotesStartingInRangeNegative() {
+    model1.getNotesStartingInRange(-1, 3);
+  }
+}
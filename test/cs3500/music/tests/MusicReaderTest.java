@@ -0,0 +1,327 @@
+package cs3500.music.tests;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import cs3500.music.model.IMusicNote;
+import cs3500.music.model.IPitch;
+import cs3500.music.model.LiveModelBuilder;
+import cs3500.music.model.ModelChange;
+import cs3500.music.model.MusicEditorModelImpl;
+import cs3500.music.model.MusicEditorOperations;
+import cs3500.music.model.MusicNote;
+import cs3500.music.model.PackedMusicEditorModel;
+import cs3500.music.model.Pitch;
+import cs3500.music.util.CompositionBuilder;
+import cs3500.music.util.MusicReader;
+import cs3500.music.util.StreamingMusicReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the MusicReader.
+ */
+public class MusicReaderTest {
+
+  /**
+   * Tests reading notes and a tempo, with extra whitespace and signs.
+   */
+  @Test
+  public void testParse() {
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> model = MusicReader.parseFile(
+            new StringReader("  tempo\t+250000\r\n\nnote 0 2 1 60 64\nnote 4 5 3 72 100"),
+            new PackedMusicEditorModel.Builder());
+    assertEquals(250000, model.getTempo());
+    assertEquals(2, model.getNotesStartingInRange(0, 10).size());
+    assertTrue(model.getNotesStartingInRange(4, 5).contains(
+            new MusicNote(Pitch.fromMidi(72), 1, 4, 3, 100)));
+  }
+
+  /**
+   * Tests that a stream, a channel and a reader of the same file give the same piece.
+   *
+   * @throws IOException If the file cannot be read
+   */
+  @Test
+  public void testSources() throws IOException {
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> fromReader;
+    try (FileReader in = new FileReader("df-ttfaf.txt")) {
+      fromReader = MusicReader.parseFile(in, new MusicEditorModelImpl.Builder());
+    }
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> fromStream;
+    try (FileInputStream in = new FileInputStream("df-ttfaf.txt")) {
+      fromStream = MusicReader.parseFile(in, new MusicEditorModelImpl.Builder());
+    }
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> fromChannel;
+    try (FileChannel in = FileChannel.open(Paths.get("df-ttfaf.txt"), StandardOpenOption.READ)) {
+      fromChannel = MusicReader.parseFile(in, new PackedMusicEditorModel.Builder());
+    }
+
+    assertTrue(fromReader.getNotesStartingInRange(0, Integer.MAX_VALUE).size() > 1000);
+    assertEquals(fromReader.getNotesStartingInRange(0, Integer.MAX_VALUE),
+            fromStream.getNotesStartingInRange(0, Integer.MAX_VALUE));
+    assertEquals(fromReader.getNotesStartingInRange(0, Integer.MAX_VALUE),
+            fromChannel.getNotesStartingInRange(0, Integer.MAX_VALUE));
+    assertEquals(fromReader.getTempoMap(), fromChannel.getTempoMap());
+  }
+
+  /**
+   * Tests that a malformed note line is reported with its line number.
+   */
+  @Test
+  public void testMalformedNote() {
+    try {
+      MusicReader.parseFile(new StringReader("tempo 100\nnote 0 2 1 60 64\nnote 0 2 x 60 64\n"),
+              new MusicEditorModelImpl.Builder());
+      fail();
+    }
+    catch (IllegalArgumentException e) {
+      assertEquals("Malformed note line 3: x 60 64", e.getMessage());
+    }
+  }
+
+  /**
+   * Tests that an unknown type of line is reported with its line number.
+   */
+  @Test
+  public void testBadLineType() {
+    try {
+      MusicReader.parseFile(new StringReader("tempo 100\n\nchord 1 2 3\n"),
+              new MusicEditorModelImpl.Builder());
+      fail();
+    }
+    catch (IllegalArgumentException e) {
+      assertEquals("Bad line type on line 3: chord", e.getMessage());
+    }
+  }
+
+  /**
+   * Tests a number too large for an int.
+   *
+   * @throws IOException If the stream cannot be read
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testOverflow() throws IOException {
+    MusicReader.parseFile(new ByteArrayInputStream("tempo 4294967296\n".getBytes("US-ASCII")),
+            new MusicEditorModelImpl.Builder());
+  }
+
+  /**
+   * Tests that parsing a file in parallel chunks gives the same piece as parsing it in order.
+   *
+   * @throws IOException If the file cannot be read
+   */
+  @Test
+  public void testParallel() throws IOException {
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> sequential;
+    try (FileReader in = new FileReader("df-ttfaf.txt")) {
+      sequential = MusicReader.parseFile(in, new MusicEditorModelImpl.Builder());
+    }
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      MusicEditorOperations<IMusicNote<IPitch>, IPitch> parallel = MusicReader.parseFile(
+              Paths.get("df-ttfaf.txt"), new PackedMusicEditorModel.Builder(), pool);
+      assertEquals(sequential.getNotesStartingInRange(0, Integer.MAX_VALUE),
+              parallel.getNotesStartingInRange(0, Integer.MAX_VALUE));
+      assertEquals(sequential.getTempoMap(), parallel.getTempoMap());
+    }
+    finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Tests that a malformed line late in a file parsed in parallel is reported with its line
+   * number in the whole file, and that tempo changes in later chunks are kept.
+   *
+   * @throws IOException If the file cannot be written or read
+   */
+  @Test
+  public void testParallelLineNumbers() throws IOException {
+    StringBuilder text = new StringBuilder("tempo 100\n");
+    for (int i = 0; i < 20000; i++) {
+      text.append("note ").append(i).append(' ').append(i + 2).append(" 1 60 64\n");
+    }
+    text.append("tempo 15000 300\n");
+    Path file = Files.createTempFile("music-reader", ".txt");
+    try {
+      Files.write(file, text.toString().getBytes(StandardCharsets.US_ASCII));
+      MusicEditorOperations<IMusicNote<IPitch>, IPitch> model = MusicReader.parseFile(file,
+              new PackedMusicEditorModel.Builder());
+      assertEquals(20000, model.getNotesStartingInRange(0, Integer.MAX_VALUE).size());
+      assertEquals(300, model.getTempoMap().getTempoAt(15000));
+
+      text.append("note 1 2 3 60\n");
+      Files.write(file, text.toString().getBytes(StandardCharsets.US_ASCII));
+      MusicReader.parseFile(file, new PackedMusicEditorModel.Builder());
+      fail();
+    }
+    catch (IllegalArgumentException e) {
+      assertEquals("Malformed note line 20003", e.getMessage());
+    }
+    finally {
+      Files.delete(file);
+    }
+  }
+
+  /**
+   * Tests that a malformed line in a middle chunk of a file parsed in parallel is reported with
+   * its line number in the whole file, and that the builder is not given any line of the file.
+   *
+   * @throws IOException If the file cannot be written or read
+   */
+  @Test
+  public void testParallelMalformedNotBuilt() throws IOException {
+    StringBuilder text = new StringBuilder("tempo 100\n");
+    for (int i = 0; i < 40000; i++) {
+      text.append(i == 20000 ? "note 1 2 3\n" : "note 1 2 1 60 64\n");
+    }
+    text.append("chord 1 2 3\n");
+    List<String> calls = new ArrayList<String>();
+    CompositionBuilder<Void> builder = new CompositionBuilder<Void>() {
+      @Override
+      public Void build() {
+        calls.add("build");
+        return null;
+      }
+
+      @Override
+      public CompositionBuilder<Void> setTempo(int tempo) {
+        calls.add("tempo");
+        return this;
+      }
+
+      @Override
+      public CompositionBuilder<Void> addNote(int start, int end, int instrument, int pitch,
+              int volume) {
+        calls.add("note");
+        return this;
+      }
+    };
+    Path file = Files.createTempFile("music-reader", ".txt");
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      Files.write(file, text.toString().getBytes(StandardCharsets.US_ASCII));
+      MusicReader.parseFile(file, builder, pool);
+      fail();
+    }
+    catch (IllegalArgumentException e) {
+      assertEquals("Malformed note line 20002", e.getMessage());
+      assertTrue(calls.isEmpty());
+    }
+    finally {
+      pool.shutdown();
+      Files.delete(file);
+    }
+  }
+
+  /**
+   * Tests streaming a file into a live model in batches, each of which reaches the model's
+   * listeners as one change.
+   *
+   * @throws IOException If the file cannot be read
+   */
+  @Test
+  public void testStreaming() throws IOException {
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> sequential;
+    try (FileReader in = new FileReader("df-ttfaf.txt")) {
+      sequential = MusicReader.parseFile(in, new MusicEditorModelImpl.Builder());
+    }
+
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> live = new PackedMusicEditorModel();
+    List<ModelChange> changes = new ArrayList<ModelChange>();
+    live.addModelListener(changes::add);
+    StreamingMusicReader<MusicEditorOperations<IMusicNote<IPitch>, IPitch>> reader =
+            new StreamingMusicReader<MusicEditorOperations<IMusicNote<IPitch>, IPitch>>(
+                    FileChannel.open(Paths.get("df-ttfaf.txt"), StandardOpenOption.READ),
+                    new LiveModelBuilder(live), 1000, 2);
+    while (reader.deliver() && changes.isEmpty()) {
+      Thread.yield();
+    }
+    assertTrue(live.getNotesStartingInRange(0, Integer.MAX_VALUE).size() > 0);
+
+    assertEquals(live, reader.finish());
+    assertEquals(sequential.getNotesStartingInRange(0, Integer.MAX_VALUE),
+            live.getNotesStartingInRange(0, Integer.MAX_VALUE));
+    assertEquals(sequential.getTempoMap(), live.getTempoMap());
+    assertTrue(changes.size() > 10);
+    assertFalse(reader.deliver());
+  }
+
+  /**
+   * Tests that a malformed line is reported by a streaming reader with its line number, after
+   * the batches before it are delivered.
+   *
+   * @throws IOException If the data cannot be read
+   */
+  @Test
+  public void testStreamingMalformed() throws IOException {
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> live = new MusicEditorModelImpl();
+    StreamingMusicReader<MusicEditorOperations<IMusicNote<IPitch>, IPitch>> reader =
+            new StreamingMusicReader<MusicEditorOperations<IMusicNote<IPitch>, IPitch>>(
+                    Channels.newChannel(new ByteArrayInputStream(
+                            "tempo 100\nnote 0 2 1 60 64\nnote 4 x\n".getBytes("US-ASCII"))),
+                    new LiveModelBuilder(live), 1, 1);
+    try {
+      reader.finish();
+      fail();
+    }
+    catch (IllegalArgumentException e) {
+      assertEquals("Malformed note line 3: x", e.getMessage());
+    }
+    assertEquals(1, live.getNotesStartingInRange(0, 10).size());
+  }
+
+  /**
+   * Tests cancelling a streaming reader from another thread while batches are being delivered.
+   * Delivering must stop without failing, and the builder must not be given anything afterwards.
+   *
+   * @throws InterruptedException If the cancelling thread is interrupted
+   */
+  @Test
+  public void testStreamingCancel() throws InterruptedException {
+    StringBuilder text = new StringBuilder("tempo 100\n");
+    for (int i = 0; i < 100000; i++) {
+      text.append("note ").append(i).append(' ').append(i + 1).append(" 1 60 64\n");
+    }
+    for (int round = 0; round < 20; round++) {
+      MusicEditorOperations<IMusicNote<IPitch>, IPitch> live = new PackedMusicEditorModel();
+      StreamingMusicReader<MusicEditorOperations<IMusicNote<IPitch>, IPitch>> reader =
+              new StreamingMusicReader<MusicEditorOperations<IMusicNote<IPitch>, IPitch>>(
+                      Channels.newChannel(new ByteArrayInputStream(
+                              text.toString().getBytes(StandardCharsets.US_ASCII))),
+                      new LiveModelBuilder(live), 10, 4);
+      Thread canceller = new Thread(reader::cancel);
+      while (live.getNotesView().isEmpty()) {
+        reader.deliver();
+      }
+      canceller.start();
+      while (reader.deliver()) {
+        Thread.yield();
+      }
+      canceller.join();
+
+      int count = live.getNotesStartingInRange(0, Integer.MAX_VALUE).size();
+      assertFalse(reader.deliver());
+      assertEquals(count, live.getNotesStartingInRange(0, Integer.MAX_VALUE).size());
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package cs3500.music.tests;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import cs3500.music.model.ConcurrentMusicEditorModel;
+import cs3500.music.model.IMusicNote;
+import cs3500.music.model.IPitch;
+import cs3500.music.model.MusicEditorModelImpl;
+import cs3500.music.model.MusicEditorOperations;
+import cs3500.music.model.MusicNote;
+import cs3500.music.model.NoteIndex;
+import cs3500.music.model.NoteName;
+import cs3500.music.model.NoteQuery;
+import cs3500.music.model.PackedMusicEditorModel;
+import cs3500.music.model.Pitch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the NoteIndex and NoteQuery.
+ */
+public class NoteIndexTest {
+
+  private MusicEditorOperations<IMusicNote<IPitch>, IPitch> model;
+  private NoteIndex index;
+  private MusicNote piano;
+  private MusicNote loudPiano;
+  private MusicNote organ;
+  private MusicNote loudOrgan;
+
+  /**
+   * Sets up a model with notes on two instruments at two volumes, and an index on it.
+   */
+  @Before
+  public void setup() {
+    model = new MusicEditorModelImpl();
+    piano = new MusicNote(new Pitch(NoteName.C, 4), 2, 0, 1, 64);
+    loudPiano = new MusicNote(new Pitch(NoteName.E, 4), 2, 4, 1, 120);
+    organ = new MusicNote(new Pitch(NoteName.G, 5), 1, 2, 20, 80);
+    loudOrgan = new MusicNote(new Pitch(NoteName.C, 3), 3, 8, 20, 110);
+    model.addAll(Arrays.asList(piano, loudPiano, organ));
+    model.addNote(loudOrgan);
+    index = new NoteIndex(model);
+  }
+
+  /**
+   * Tests the notes indexed by instrument and pitch.
+   */
+  @Test
+  public void testIndices() {
+    assertEquals(4, index.size());
+    assertEquals(new HashSet<Integer>(Arrays.asList(1, 20)), index.getInstruments());
+    assertEquals(new HashSet<IMusicNote<IPitch>>(Arrays.asList(organ, loudOrgan)),
+            index.getNotesOnInstrument(20));
+    assertEquals(0, index.getNotesOnInstrument(5).size());
+    assertEquals(new HashSet<IMusicNote<IPitch>>(Arrays.asList(piano)),
+            index.getNotesAtPitch(new Pitch(NoteName.C, 4)));
+  }
+
+  /**
+   * Tests queries that combine an instrument, volumes, pitches and beats.
+   */
+  @Test
+  public void testFind() {
+    assertEquals(new HashSet<IMusicNote<IPitch>>(Arrays.asList(loudPiano, loudOrgan)),
+            index.find(NoteQuery.ALL.withVolumesBetween(100, 127)));
+    assertEquals(new HashSet<IMusicNote<IPitch>>(Arrays.asList(loudOrgan)),
+            index.find(NoteQuery.ALL.onInstrument(20).withVolumesBetween(100, 127)));
+    assertEquals(new HashSet<IMusicNote<IPitch>>(Arrays.asList(piano, loudPiano)),
+            index.find(NoteQuery.ALL.withPitchesBetween(new Pitch(NoteName.C, 4),
+                    new Pitch(NoteName.B, 4))));
+    assertEquals(new HashSet<IMusicNote<IPitch>>(Arrays.asList(piano, organ)),
+            index.find(NoteQuery.ALL.startingIn(0, 4)));
+    assertEquals(new HashSet<IMusicNote<IPitch>>(Arrays.asList(organ)),
+            index.find(NoteQuery.ALL.startingIn(0, 4).onInstrument(20)));
+    assertEquals(4, index.find(NoteQuery.ALL).size());
+    assertEquals(0, index.find(NoteQuery.ALL.onInstrument(7)).size());
+  }
+
+  /**
+   * Tests that the index follows notes being added, removed and cleared.
+   */
+  @Test
+  public void testFollowsChanges() {
+    MusicNote added = new MusicNote(new Pitch(NoteName.A, 4), 1, 20, 33, 100);
+    model.addNote(added);
+    model.removeNote(organ);
+    assertEquals(new HashSet<IMusicNote<IPitch>>(Arrays.asList(loudOrgan)),
+            index.getNotesOnInstrument(20));
+    assertEquals(new HashSet<IMusicNote<IPitch>>(Arrays.asList(added)),
+            index.getNotesOnInstrument(33));
+
+    List<IMusicNote<IPitch>> batch = new ArrayList<IMusicNote<IPitch>>();
+    for (int i = 0; i < 50; i++) {
+      batch.add(new MusicNote(Pitch.fromMidi(40 + i % 20), 1 + i % 3, 30 + i, 33, 100));
+    }
+    model.addAll(batch);
+    assertEquals(51, index.getNotesOnInstrument(33).size());
+    assertEquals(54, index.size());
+
+    model.newPiece();
+    assertEquals(0, index.size());
+    index.detach();
+    model.addNote(added);
+    assertEquals(0, index.size());
+  }
+
+  /**
+   * Tests that the index drops the notes removed together, and keeps the notes that start among
+   * them but were not removed, on both kinds of model.
+   */
+  @Test
+  public void testFollowsBulkRemoval() {
+    List<MusicEditorOperations<IMusicNote<IPitch>, IPitch>> models =
+            new ArrayList<MusicEditorOperations<IMusicNote<IPitch>, IPitch>>();
+    models.add(model);
+    models.add(new PackedMusicEditorModel());
+    models.get(1).addAll(Arrays.asList(piano, loudPiano, organ, loudOrgan));
+    for (MusicEditorOperations<IMusicNote<IPitch>, IPitch> m : models) {
+      NoteIndex bulkIndex = new NoteIndex(m);
+      List<IMusicNote<IPitch>> batch = new ArrayList<IMusicNote<IPitch>>();
+      for (int i = 0; i < 30; i++) {
+        batch.add(new MusicNote(Pitch.fromMidi(40 + i % 20), 1 + i % 3, 2 + i, 33, 100));
+      }
+      m.addAll(batch);
+      assertEquals(34, bulkIndex.size());
+
+      m.removeAll(Arrays.asList(organ, batch.get(0), batch.get(10), batch.get(29)));
+      assertEquals(30, bulkIndex.size());
+      assertEquals(new HashSet<IMusicNote<IPitch>>(Arrays.asList(loudOrgan)),
+              bulkIndex.getNotesOnInstrument(20));
+      assertEquals(27, bulkIndex.getNotesOnInstrument(33).size());
+      assertEquals(new HashSet<IMusicNote<IPitch>>(Arrays.asList(piano, loudPiano)),
+              bulkIndex.getNotesOnInstrument(1));
+      assertTrue(bulkIndex.find(NoteQuery.ALL.onInstrument(33)).contains(batch.get(1)));
+      assertFalse(bulkIndex.find(NoteQuery.ALL.onInstrument(33)).contains(batch.get(10)));
+      bulkIndex.detach();
+    }
+  }
+
+  /**
+   * Tests an index on a packed model behind a concurrent model.
+   */
+  @Test
+  public void testIndexOnConcurrentModel() {
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> concurrent =
+            new ConcurrentMusicEditorModel(new PackedMusicEditorModel());
+    concurrent.addNote(piano);
+    NoteIndex packedIndex = new NoteIndex(concurrent);
+    concurrent.addAll(Arrays.asList(loudPiano, organ, loudOrgan));
+    concurrent.removeNote(piano);
+    assertEquals(3, packedIndex.size());
+    assertTrue(packedIndex.find(NoteQuery.ALL.onInstrument(1)).contains(loudPiano));
+  }
+
+  /**
+   * Tests a query with a pitch range that is upside down.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadPitchRange() {
+    NoteQuery.ALL.withPitchesBetween(new Pitch(NoteName.C, 5), new Pitch(NoteName.C, 4));
+  }
+}
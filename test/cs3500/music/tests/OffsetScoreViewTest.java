@@ -0,0 +1,132 @@
+package cs3500.music.tests;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import cs3500.music.model.IMusicNote;
+import cs3500.music.model.IPitch;
+import cs3500.music.model.ModelChange;
+import cs3500.music.model.MusicEditorModelImpl;
+import cs3500.music.model.MusicEditorOperations;
+import cs3500.music.model.MusicNote;
+import cs3500.music.model.NoteName;
+import cs3500.music.model.OffsetScoreView;
+import cs3500.music.model.Pitch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the OffsetScoreView.
+ */
+public class OffsetScoreViewTest {
+
+  private MusicEditorOperations<IMusicNote<IPitch>, IPitch> source;
+  private MusicEditorOperations<IMusicNote<IPitch>, IPitch> shifted;
+  private MusicNote n1;
+  private MusicNote n2;
+
+  /**
+   * Sets up a piece and the same piece with every note 8 beats later and 2 semitones higher.
+   */
+  @Before
+  public void setup() {
+    source = new MusicEditorModelImpl();
+    shifted = new MusicEditorModelImpl();
+    n1 = new MusicNote(new Pitch(NoteName.C, 4), 4, 0, 1, 64);
+    n2 = new MusicNote(new Pitch(NoteName.A, 5), 3, 2, 2, 80);
+    source.addNote(n1);
+    source.addNote(n2);
+    shifted.addNote(new MusicNote(new Pitch(NoteName.D, 4), 4, 8, 1, 64));
+    shifted.addNote(new MusicNote(new Pitch(NoteName.B, 5), 3, 10, 2, 80));
+  }
+
+  /**
+   * Tests that the view shows the shifted notes and pitches without being copied.
+   */
+  @Test
+  public void testShiftedReads() {
+    OffsetScoreView view = new OffsetScoreView(source, 8, 2);
+
+    assertEquals(shifted.getNotes(), view.getNotes());
+    assertEquals(shifted.getNotesAtBeat(10), view.getNotesAtBeat(10));
+    assertTrue(view.getNotesAtBeat(3).isEmpty());
+    assertEquals(shifted.getNotesSoundingInRange(0, 11), view.getNotesSoundingInRange(0, 11));
+    assertEquals(shifted.getNotesInRange(9, 12), view.getNotesInRange(9, 12));
+    assertEquals(12, view.getNotesView().lastKey().intValue());
+    assertEquals(new Pitch(NoteName.D, 4), view.getLowPitch());
+    assertEquals(new Pitch(NoteName.B, 5), view.getHighPitch());
+    assertEquals(shifted.getPitchMaskAtBeat(10), view.getPitchMaskAtBeat(10));
+    assertTrue(view.getPitchMaskAtBeat(3).isEmpty());
+    assertFalse(view.isMaterialized());
+
+    List<Integer> starts = new ArrayList<Integer>();
+    view.forEachNote((startBeat, duration, pitch, instrument, volume) -> starts.add(startBeat));
+    assertEquals(2, starts.size());
+    assertTrue(starts.contains(8) && starts.contains(10));
+  }
+
+  /**
+   * Tests that the view does not see changes to the piece it was made from.
+   */
+  @Test
+  public void testSourceChangesNotSeen() {
+    OffsetScoreView view = new OffsetScoreView(source, 8, 2);
+    source.removeNote(n2);
+    assertEquals(shifted.getNotes(), view.getNotes());
+  }
+
+  /**
+   * Tests that the first change copies the view, tells its listeners and leaves the piece it was
+   * made from unchanged.
+   */
+  @Test
+  public void testMaterializeOnWrite() {
+    OffsetScoreView view = new OffsetScoreView(source, 8, 2);
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> before = view.snapshot();
+    List<ModelChange> changes = new ArrayList<ModelChange>();
+    view.addModelListener(changes::add);
+
+    MusicNote n3 = new MusicNote(new Pitch(NoteName.E, 4), 2, 0, 1, 64);
+    view.addNote(n3);
+    shifted.addNote(n3);
+
+    assertTrue(view.isMaterialized());
+    assertEquals(shifted.getNotes(), view.getNotes());
+    assertEquals(ModelChange.Type.NOTES_ADDED, changes.get(0).getType());
+    assertEquals(2, source.getNotesAtBeat(2).size());
+    assertEquals(5, before.getNotes().size());
+    assertFalse(before.getNotesAtBeat(0).contains(n3));
+  }
+
+  /**
+   * Tests that appending uses the shifted notes of the appended piece.
+   */
+  @Test
+  public void testAppend() {
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> model = new MusicEditorModelImpl();
+    model.addNote(new MusicNote(new Pitch(NoteName.C, 4), 8, 0, 1, 64));
+    model.append(new OffsetScoreView(source, 0, 2));
+    assertEquals(shifted.getNotesAtBeat(10), model.getNotesAtBeat(10));
+  }
+
+  /**
+   * Tests that a negative beat offset is not allowed.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeBeatOffset() {
+    new OffsetScoreView(source, -1, 0);
+  }
+
+  /**
+   * Tests that transposing a pitch out of range is not allowed.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testPitchOffsetOutOfRange() {
+    new OffsetScoreView(source, 0, -100);
+  }
+}
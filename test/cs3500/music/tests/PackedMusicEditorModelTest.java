@@ -0,0 +1,353 @@
+package cs3500.music.tests;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+
+import cs3500.music.model.IMusicNote;
+import cs3500.music.model.IPitch;
+import cs3500.music.model.MusicEditorModelImpl;
+import cs3500.music.model.MusicEditorOperations;
+import cs3500.music.model.MusicNote;
+import cs3500.music.model.NoteName;
+import cs3500.music.model.PackedMusicEditorModel;
+import cs3500.music.model.Pitch;
+import cs3500.music.util.CompositionBuilder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the PackedMusicEditorModel.
+ */
+public class PackedMusicEditorModelTest {
+
+  private MusicEditorOperations<IMusicNote<IPitch>, IPitch> packed;
+  private MusicEditorOperations<IMusicNote<IPitch>, IPitch> model;
+  private MusicNote n1;
+  private MusicNote n2;
+  private MusicNote n3;
+
+  /**
+   * Set the models and notes back to their original states.
+   */
+  @Before
+  public void setup() {
+    packed = new PackedMusicEditorModel();
+    model = new MusicEditorModelImpl();
+    n1 = new MusicNote(new Pitch(NoteName.C, 4), 4, 0, 1, 64);
+    n2 = new MusicNote(new Pitch(NoteName.E, 4), 10, 2, 2, 100);
+    n3 = new MusicNote(new Pitch(NoteName.G_SHARP, 5), 1, 20, 1, 5);
+  }
+
+  /**
+   * Test that the packed model gives back the same notes as MusicEditorModelImpl.
+   */
+  @Test
+  public void testSameNotesAsModel() {
+    for (MusicNote n : new MusicNote[]{n1, n2, n3, n1}) {
+      packed.addNote(n);
+      model.addNote(n);
+    }
+
+    assertEquals(model.getNotes(), packed.getNotes());
+    assertEquals(model.getNotesAtBeat(3), packed.getNotesAtBeat(3));
+    assertEquals(model.getNotesAtBeat(11), packed.getNotesAtBeat(11));
+    assertEquals(new Pitch(NoteName.C, 4), packed.getLowPitch());
+    assertEquals(new Pitch(NoteName.G_SHARP, 5), packed.getHighPitch());
+  }
+
+  /**
+   * Test that forEachNote visits each note once in order of start beat.
+   */
+  @Test
+  public void testForEachNote() {
+    packed.addNote(n3);
+    packed.addNote(n2);
+    packed.addNote(n1);
+
+    List<Integer> starts = new ArrayList<Integer>();
+    packed.forEachNote((startBeat, duration, pitch, instrument, volume) -> starts.add(startBeat));
+
+    List<Integer> expected = new ArrayList<Integer>();
+    expected.add(0);
+    expected.add(2);
+    expected.add(20);
+    assertEquals(expected, starts);
+  }
+
+  /**
+   * Test removeNote updates the notes and pitches.
+   */
+  @Test
+  public void testRemoveNote() {
+    packed.addNote(n1);
+    packed.addNote(n2);
+    packed.removeNote(n2);
+
+    Set<IMusicNote<IPitch>> expected = new HashSet<IMusicNote<IPitch>>();
+    expected.add(n1);
+    assertEquals(expected, packed.getNotesAtBeat(3));
+    assertEquals(0, packed.getNotesAtBeat(5).size());
+    assertEquals(new Pitch(NoteName.C, 4), packed.getHighPitch());
+
+    packed.removeNote(n1);
+    assertNull(packed.getLowPitch());
+  }
+
+  /**
+   * Test exception thrown when removing a note that does not exist.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testRemoveNonexistentNote() {
+    packed.addNote(n1);
+    packed.removeNote(n2);
+  }
+
+  /**
+   * Test exception thrown when a note cannot be packed.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddNoteOutOfRange() {
+    packed.addNote(new MusicNote(new Pitch(NoteName.C, 4), 1, 0, 1, 200));
+  }
+
+  /**
+   * Test append and combine with another kind of model.
+   */
+  @Test
+  public void testAppendAndCombine() {
+    model.addNote(n1);
+    model.addNote(n2);
+    packed.addNote(n3);
+
+    packed.append(model);
+    assertTrue(packed.getNotesAtBeat(21).contains(
+            new MusicNote(new Pitch(NoteName.C, 4), 4, 21, 1, 64)));
+
+    packed.combine(model);
+    assertTrue(packed.getNotesAtBeat(0).contains(n1));
+    assertEquals(25, packed.getNotes().size());
+  }
+
+  /**
+   * Test that the packed model gives back the same notes in a range of beats as
+   * MusicEditorModelImpl.
+   */
+  @Test
+  public void testSameNotesInRangeAsModel() {
+    for (MusicNote n : new MusicNote[]{n1, n2, n3}) {
+      packed.addNote(n);
+      model.addNote(n);
+    }
+
+    assertEquals(model.getNotesInRange(3, 21), packed.getNotesInRange(3, 21));
+    assertEquals(model.getNotesSoundingInRange(3, 21), packed.getNotesSoundingInRange(3, 21));
+    assertEquals(model.getNotesSoundingInRange(12, 20), packed.getNotesSoundingInRange(12, 20));
+    assertEquals(model.getNotesStartingInRange(3, 21), packed.getNotesStartingInRange(3, 21));
+  }
+
+  /**
+   * Test that adding notes in bulk to the packed model gives the same notes as
+   * MusicEditorModelImpl, including when they are merged with notes already in the model.
+   */
+  @Test
+  public void testAddAllSameAsModel() {
+    packed.addNote(n2);
+    model.addNote(n2);
+    List<IMusicNote<IPitch>> toAdd = new ArrayList<IMusicNote<IPitch>>();
+    for (int i = 0; i < 40; i++) {
+      toAdd.add(new MusicNote(Pitch.fromMidi(40 + i % 12), 1 + i % 5, (i * 7) % 30, 1, 64));
+    }
+    toAdd.add(n2);
+    packed.addAll(toAdd);
+    model.addAll(toAdd);
+
+    assertEquals(model.getNotes(), packed.getNotes());
+    assertEquals(model.getLowPitch(), packed.getLowPitch());
+    assertEquals(model.getHighPitch(), packed.getHighPitch());
+  }
+
+  /**
+   * Test that removing notes in bulk from the packed model leaves the same notes as
+   * MusicEditorModelImpl, and that nothing is removed if one of the notes does not exist.
+   */
+  @Test
+  public void testRemoveAllSameAsModel() {
+    List<IMusicNote<IPitch>> toAdd = new ArrayList<IMusicNote<IPitch>>();
+    for (int i = 0; i < 40; i++) {
+      toAdd.add(new MusicNote(Pitch.fromMidi(40 + i % 12), 1 + i % 5, (i * 7) % 30, 1, 64));
+    }
+    packed.addAll(toAdd);
+    model.addAll(toAdd);
+    List<IMusicNote<IPitch>> toRemove = new ArrayList<IMusicNote<IPitch>>();
+    for (int i = 0; i < toAdd.size(); i += 3) {
+      toRemove.add(toAdd.get(i));
+    }
+    toRemove.add(toAdd.get(0));
+    packed.removeAll(toRemove);
+    model.removeAll(toRemove);
+
+    assertEquals(model.getNotes(), packed.getNotes());
+    assertEquals(model.getLowPitch(), packed.getLowPitch());
+    assertEquals(model.getHighPitch(), packed.getHighPitch());
+
+    try {
+      packed.removeAll(Arrays.asList(toAdd.get(1), n3));
+      fail();
+    }
+    catch (IllegalArgumentException e) {
+      assertEquals(model.getNotes(), packed.getNotes());
+    }
+  }
+
+  /**
+   * Test that the view of the notes of the packed model matches the model's, including its first
+   * and last beats and the gap between notes, and that it follows later edits.
+   */
+  @Test
+  public void testNotesView() {
+    MusicNote longNote = new MusicNote(new Pitch(NoteName.A, 3), 30, 1, 1, 64);
+    for (MusicNote n : new MusicNote[]{n1, n2, n3, longNote}) {
+      packed.addNote(n);
+      model.addNote(n);
+    }
+
+    SortedMap<Integer, Set<IMusicNote<IPitch>>> view = packed.getNotesView();
+    assertEquals(model.getNotesView(), view);
+    assertEquals(model.getNotesView().size(), view.size());
+    assertEquals(0, (int) view.firstKey());
+    assertEquals(30, (int) view.lastKey());
+    assertEquals(model.getNotesView().subMap(5, 25), view.subMap(5, 25));
+    assertEquals(2, (int) view.tailMap(2).firstKey());
+    assertEquals(19, (int) view.headMap(20).lastKey());
+    assertNull(view.get(50));
+
+    packed.removeNote(longNote);
+    assertEquals(20, (int) view.lastKey());
+    assertTrue(view.subMap(12, 20).isEmpty());
+    try {
+      view.subMap(12, 20).lastKey();
+      fail();
+    }
+    catch (NoSuchElementException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Test that the notes visited in a range are the notes played in that range.
+   */
+  @Test
+  public void testForEachNoteSoundingInRange() {
+    for (MusicNote n : new MusicNote[]{n1, n2, n3}) {
+      packed.addNote(n);
+      model.addNote(n);
+    }
+
+    for (int start = 0; start < 25; start++) {
+      for (int end = start; end < 25; end++) {
+        List<IMusicNote<IPitch>> visited = new ArrayList<IMusicNote<IPitch>>();
+        for (MusicEditorOperations<IMusicNote<IPitch>, IPitch> m : Arrays.asList(packed, model)) {
+          visited.clear();
+          m.forEachNoteSoundingInRange(start, end, (startBeat, duration, pitch, instrument,
+                  volume) -> visited.add(new MusicNote(Pitch.fromMidi(pitch), duration, startBeat,
+                  instrument, volume)));
+          assertEquals(m.getNotesSoundingInRange(start, end),
+                  new HashSet<IMusicNote<IPitch>>(visited));
+          assertEquals(visited.size(), m.getNotesSoundingInRange(start, end).size());
+        }
+      }
+    }
+  }
+
+  /**
+   * Test that a snapshot of the packed model is not changed by later edits to the model.
+   */
+  @Test
+  public void testSnapshot() {
+    packed.addNote(n1);
+    packed.addNote(n2);
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> snapshot = packed.snapshot();
+    packed.removeNote(n1);
+    packed.addNote(n3);
+
+    model.addNote(n1);
+    model.addNote(n2);
+    assertEquals(model.getNotes(), snapshot.getNotes());
+    assertEquals(new Pitch(NoteName.E, 4), packed.getLowPitch());
+    assertEquals(new Pitch(NoteName.C, 4), snapshot.getLowPitch());
+  }
+
+  /**
+   * Test that the packed builder and the model builder build the same piece, that separate
+   * builders do not share notes, and that a builder starts over after build.
+   */
+  @Test
+  public void testBuilders() {
+    CompositionBuilder<MusicEditorOperations> packedBuilder = new PackedMusicEditorModel.Builder();
+    CompositionBuilder<MusicEditorOperations> modelBuilder = new MusicEditorModelImpl.Builder();
+    CompositionBuilder<MusicEditorOperations> other = new MusicEditorModelImpl.Builder();
+    packedBuilder.setTempo(200000);
+    modelBuilder.setTempo(200000);
+    other.setTempo(200000);
+    for (int i = 0; i < 5000; i++) {
+      packedBuilder.addNote(i / 3, i / 3 + 1 + i % 4, 1 + i % 3, 40 + i % 30, 64);
+      modelBuilder.addNote(i / 3, i / 3 + 1 + i % 4, 1 + i % 3, 40 + i % 30, 64);
+    }
+    other.addNote(0, 2, 1, 60, 64);
+
+    MusicEditorOperations builtPacked = packedBuilder.build();
+    MusicEditorOperations builtModel = modelBuilder.build();
+    assertEquals(builtModel.getNotes(), builtPacked.getNotes());
+    assertEquals(200000, builtPacked.getTempo());
+    assertEquals(1, other.build().getNotesStartingInRange(0, 10).size());
+
+    packedBuilder.setTempo(100000);
+    packedBuilder.addNote(0, 2, 1, 60, 64);
+    assertEquals(1, packedBuilder.build().getNotesStartingInRange(0, 10000).size());
+    assertEquals(builtModel.getNotes(), builtPacked.getNotes());
+  }
+
+  /**
+   * Test that both builders forget the tempo after build, so a piece built next without a tempo
+   * is rejected instead of taking the tempo of the last piece.
+   */
+  @Test
+  public void testBuildersResetTempo() {
+    List<CompositionBuilder<MusicEditorOperations>> builders =
+            new ArrayList<CompositionBuilder<MusicEditorOperations>>();
+    builders.add(new PackedMusicEditorModel.Builder());
+    builders.add(new MusicEditorModelImpl.Builder());
+    for (CompositionBuilder<MusicEditorOperations> builder : builders) {
+      builder.setTempo(200000);
+      builder.addNote(0, 2, 1, 60, 64);
+      assertEquals(200000, builder.build().getTempo());
+      builder.addNote(0, 2, 1, 60, 64);
+      try {
+        builder.build();
+        fail();
+      }
+      catch (IllegalArgumentException e) {
+        assertEquals("Tempo must be positive", e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Test that the packed builder rejects a note it cannot hold.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBuilderOutOfRange() {
+    new PackedMusicEditorModel.Builder().addNote(0, 2, 1, 60, 200);
+  }
+}
@@ -0,0 +1,109 @@
+package cs3500.music.tests;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import cs3500.music.model.IMusicNote;
+import cs3500.music.model.IPitch;
+import cs3500.music.model.MusicEditorModelImpl;
+import cs3500.music.model.MusicEditorOperations;
+import cs3500.music.model.MusicNote;
+import cs3500.music.model.NoteName;
+import cs3500.music.model.PackedMusicEditorModel;
+import cs3500.music.model.Pitch;
+import cs3500.music.model.PitchMask;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the PitchMask and the pitch masks given out by the models.
+ */
+public class PitchMaskTest {
+
+  private MusicEditorOperations<IMusicNote<IPitch>, IPitch> model;
+  private MusicNote low;
+  private MusicNote middle;
+  private MusicNote high;
+
+  /**
+   * Sets up a model with a note at the lowest pitch, one in the middle and one at the highest.
+   */
+  @Before
+  public void setup() {
+    model = new MusicEditorModelImpl();
+    low = new MusicNote(Pitch.fromMidi(0), 4, 0, 1, 64);
+    middle = new MusicNote(new Pitch(NoteName.C_SHARP, 4), 2, 2, 1, 64);
+    high = new MusicNote(Pitch.fromMidi(Pitch.MAX_MIDI), 1, 3, 1, 64);
+    model.addAll(Arrays.asList(low, middle, high));
+  }
+
+  /**
+   * Tests the mask of the pitches played at a beat.
+   */
+  @Test
+  public void testMaskAtBeat() {
+    PitchMask mask = model.getPitchMaskAtBeat(3);
+    assertEquals(3, mask.size());
+    assertTrue(mask.contains(Pitch.fromMidi(0)));
+    assertTrue(mask.contains(new Pitch(NoteName.C_SHARP, 4)));
+    assertTrue(mask.contains(Pitch.MAX_MIDI));
+    assertFalse(mask.contains(new Pitch(NoteName.D, 4)));
+    assertEquals(PitchMask.ofNotes(model.getNotesAtBeat(1)), model.getPitchMaskAtBeat(1));
+    assertTrue(model.getPitchMaskAtBeat(4).isEmpty());
+    assertEquals(PitchMask.EMPTY, model.getPitchMaskAtBeat(4));
+  }
+
+  /**
+   * Tests that the packed model gives the same masks as MusicEditorModelImpl.
+   */
+  @Test
+  public void testPackedMaskSameAsModel() {
+    PackedMusicEditorModel packed = new PackedMusicEditorModel();
+    packed.combine(model);
+    for (int beat = 0; beat < 5; beat++) {
+      assertEquals(model.getPitchMaskAtBeat(beat), packed.getPitchMaskAtBeat(beat));
+    }
+  }
+
+  /**
+   * Tests adding pitches to a mask and comparing masks.
+   */
+  @Test
+  public void testWithAndContainsAll() {
+    PitchMask played = PitchMask.EMPTY.with(new Pitch(NoteName.C_SHARP, 4));
+    PitchMask expected = model.getPitchMaskAtBeat(2);
+    assertFalse(played.equals(expected));
+    assertTrue(expected.containsAll(played));
+    assertFalse(played.containsAll(expected));
+
+    played = played.with(Pitch.fromMidi(0));
+    assertEquals(expected, played);
+    assertEquals(expected.hashCode(), played.hashCode());
+    assertTrue(PitchMask.EMPTY.isEmpty());
+  }
+
+  /**
+   * Tests walking the pitches of a mask in order.
+   */
+  @Test
+  public void testNextMidi() {
+    PitchMask mask = model.getPitchMaskAtBeat(3);
+    int c4 = IPitch.pitchToMidi(new Pitch(NoteName.C_SHARP, 4));
+    assertEquals(0, mask.nextMidi(0));
+    assertEquals(c4, mask.nextMidi(1));
+    assertEquals(Pitch.MAX_MIDI, mask.nextMidi(c4 + 1));
+    assertEquals(-1, mask.nextMidi(Pitch.MAX_MIDI + 1));
+  }
+
+  /**
+   * Tests that a mask cannot be made for a negative beat.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeBeat() {
+    model.getPitchMaskAtBeat(-1);
+  }
+}
@@ -9,6 +9,7 @@ import cs3500.music.model.Pitch;
 import static cs3500.music.model.IPitch.midiToPitch;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
 
@@ -140,4 +141,33 @@ public class PitchTest {
   public void testMidiHighException() {
     String n = midiToPitch(128);
   }
-}
\ No newline at end of file
+
+  /**
+   * Test fromMidi gives back the shared pitch for a Midi value.
+   */
+  @Test
+  public void testFromMidi() {
+    assertEquals(new Pitch(NoteName.C, 4), Pitch.fromMidi(60));
+    assertEquals(new Pitch(NoteName.A, 5), Pitch.fromMidi(81));
+    assertSame(Pitch.fromMidi(60), Pitch.fromMidi(60));
+    assertSame(Pitch.fromMidi(60), Pitch.of(NoteName.C, 4));
+    assertSame(Pitch.fromMidi(60), Pitch.of(new Pitch(NoteName.C, 4)));
+    assertEquals(60, Pitch.fromMidi(60).getMidi());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFromMidiException() {
+    Pitch.fromMidi(144);
+  }
+
+  /**
+   * Test nextPitch and previousPitch give back shared pitches.
+   */
+  @Test
+  public void testNextAndPreviousPitch() {
+    assertSame(Pitch.fromMidi(61), Pitch.fromMidi(60).nextPitch());
+    assertSame(Pitch.fromMidi(59), Pitch.fromMidi(60).previousPitch());
+    assertEquals(new Pitch(NoteName.B, 0), new Pitch(NoteName.C, 1).previousPitch());
+    assertEquals(new Pitch(NoteName.F, 10), p3.previousPitch());
+  }
+}
@@ -0,0 +1,140 @@
+package cs3500.music.tests;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import cs3500.music.model.IMusicNote;
+import cs3500.music.model.IPitch;
+import cs3500.music.model.MusicEditorModelImpl;
+import cs3500.music.model.MusicEditorOperations;
+import cs3500.music.model.MusicNote;
+import cs3500.music.model.NoteName;
+import cs3500.music.model.PackedMusicEditorModel;
+import cs3500.music.model.Pitch;
+import cs3500.music.model.TempoMap;
+import cs3500.music.util.MusicReader;
+import cs3500.music.util.ScoreFile;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for reading and writing score files.
+ */
+public class ScoreFileTest {
+
+  /**
+   * Tests that a piece read from text, written to a score file and read back is the same piece.
+   *
+   * @throws IOException If a file cannot be read or written
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> original;
+    try (FileReader in = new FileReader("df-ttfaf.txt")) {
+      original = MusicReader.parseFile(in, new PackedMusicEditorModel.Builder());
+    }
+    original.setTempoMap(original.getTempoMap().with(64, 90000));
+    original.setBeatsPerMeasure(3);
+    Path file = Files.createTempFile("score", ".mscr");
+    try {
+      ScoreFile.write(original, file);
+      MusicEditorOperations<IMusicNote<IPitch>, IPitch> packed = ScoreFile.read(file,
+              new PackedMusicEditorModel.Builder());
+      MusicEditorOperations<IMusicNote<IPitch>, IPitch> impl = ScoreFile.read(file,
+              new MusicEditorModelImpl.Builder());
+      for (MusicEditorOperations<IMusicNote<IPitch>, IPitch> read : Arrays.asList(packed, impl)) {
+        assertEquals(original.getNotesStartingInRange(0, Integer.MAX_VALUE),
+                read.getNotesStartingInRange(0, Integer.MAX_VALUE));
+        assertEquals(original.getTempoMap(), read.getTempoMap());
+        assertEquals(3, read.getBeatsPerMeasure());
+      }
+    }
+    finally {
+      Files.delete(file);
+    }
+  }
+
+  /**
+   * Tests writing notes that the editor does not visit in order of start beat, and an empty
+   * piece.
+   *
+   * @throws IOException If the data cannot be read or written
+   */
+  @Test
+  public void testUnorderedAndEmpty() throws IOException {
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> model = new MusicEditorModelImpl();
+    model.addNote(new MusicNote(new Pitch(NoteName.C, 4), 2, 10, 1, 64));
+    model.addNote(new MusicNote(new Pitch(NoteName.G, 2), 4, 0, 5, 100));
+    model.addNote(new MusicNote(new Pitch(NoteName.E, 6), 1, 4, 2, 80));
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ScoreFile.write(model, Channels.newChannel(bytes));
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> read = ScoreFile.read(
+            Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())),
+            new PackedMusicEditorModel.Builder());
+    assertEquals(model.getNotesStartingInRange(0, 20), read.getNotesStartingInRange(0, 20));
+
+    bytes.reset();
+    ScoreFile.write(new PackedMusicEditorModel(), Channels.newChannel(bytes));
+    read = ScoreFile.read(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())),
+            new MusicEditorModelImpl.Builder());
+    assertEquals(0, read.getNotesStartingInRange(0, Integer.MAX_VALUE).size());
+    assertEquals(TempoMap.constant(10000), read.getTempoMap());
+  }
+
+  /**
+   * Tests that notes above the Midi range, up to the highest pitch an editor can hold, are kept.
+   *
+   * @throws IOException If the data cannot be read or written
+   */
+  @Test
+  public void testHighPitches() throws IOException {
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> model = new MusicEditorModelImpl();
+    model.addNote(new MusicNote(new Pitch(NoteName.C, 10), 2, 0, 1, 64));
+    model.addNote(new MusicNote(new Pitch(NoteName.B, 10), 1, 3, 1, 64));
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ScoreFile.write(model, Channels.newChannel(bytes));
+    for (MusicEditorOperations<IMusicNote<IPitch>, IPitch> read : Arrays.asList(
+            ScoreFile.read(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())),
+                    new MusicEditorModelImpl.Builder()),
+            ScoreFile.read(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())),
+                    new PackedMusicEditorModel.Builder()))) {
+      assertEquals(model.getNotesStartingInRange(0, 4), read.getNotesStartingInRange(0, 4));
+      assertEquals(new Pitch(NoteName.B, 10), read.getHighPitch());
+    }
+  }
+
+  /**
+   * Tests reading data that is not a score file.
+   *
+   * @throws IOException If the data cannot be read
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNotAScoreFile() throws IOException {
+    ScoreFile.read(Channels.newChannel(new ByteArrayInputStream(
+            "tempo 100\nnote 0 2 1 60 64\n".getBytes("US-ASCII"))),
+            new MusicEditorModelImpl.Builder());
+  }
+
+  /**
+   * Tests reading a score file that is cut short.
+   *
+   * @throws IOException If the data cannot be read or written
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testCutShort() throws IOException {
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> model = new MusicEditorModelImpl();
+    model.addNote(new MusicNote(new Pitch(NoteName.C, 4), 2, 10, 1, 64));
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ScoreFile.write(model, Channels.newChannel(bytes));
+    ScoreFile.read(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray(), 0,
+            bytes.size() - 1)), new MusicEditorModelImpl.Builder());
+  }
+}
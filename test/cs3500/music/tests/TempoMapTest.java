@@ -0,0 +1,171 @@
+package cs3500.music.tests;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import cs3500.music.model.IMusicNote;
+import cs3500.music.model.IPitch;
+import cs3500.music.model.MusicEditorModelImpl;
+import cs3500.music.model.MusicEditorOperations;
+import cs3500.music.model.OffsetScoreView;
+import cs3500.music.model.PackedMusicEditorModel;
+import cs3500.music.model.TempoMap;
+import cs3500.music.model.UndoableMusicEditorModel;
+import cs3500.music.util.MusicReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests for the TempoMap and the tempo maps kept by the models.
+ */
+public class TempoMapTest {
+
+  private TempoMap tempos;
+
+  /**
+   * Sets up a tempo map that starts at 100 microseconds per beat, slows to 300 at beat 10 and
+   * speeds up to 50 at beat 20.
+   */
+  @Before
+  public void setup() {
+    tempos = TempoMap.constant(100).with(10, 300).with(20, 50);
+  }
+
+  /**
+   * Tests getting the tempo at a beat.
+   */
+  @Test
+  public void testTempoAt() {
+    assertEquals(3, tempos.size());
+    assertEquals(100, tempos.getTempoAt(0));
+    assertEquals(100, tempos.getTempoAt(9));
+    assertEquals(300, tempos.getTempoAt(10));
+    assertEquals(300, tempos.getTempoAt(19));
+    assertEquals(50, tempos.getTempoAt(20));
+    assertEquals(50, tempos.getTempoAt(1000000));
+    assertEquals(20, tempos.getBeat(2));
+    assertEquals(50, tempos.getTempo(2));
+  }
+
+  /**
+   * Tests converting beats to times and times back to beats.
+   */
+  @Test
+  public void testConversion() {
+    assertEquals(0, tempos.beatToMicros(0));
+    assertEquals(500, tempos.beatToMicros(5));
+    assertEquals(1000, tempos.beatToMicros(10));
+    assertEquals(4000, tempos.beatToMicros(20));
+    assertEquals(4100, tempos.beatToMicros(22));
+
+    assertEquals(0, tempos.microsToBeat(0));
+    assertEquals(9, tempos.microsToBeat(999));
+    assertEquals(10, tempos.microsToBeat(1000));
+    assertEquals(10, tempos.microsToBeat(1299));
+    assertEquals(19, tempos.microsToBeat(3999));
+    assertEquals(22, tempos.microsToBeat(4100));
+    for (int beat = 0; beat < 40; beat++) {
+      assertEquals(beat, tempos.microsToBeat(tempos.beatToMicros(beat)));
+    }
+  }
+
+  /**
+   * Tests replacing, removing and shifting tempo changes.
+   */
+  @Test
+  public void testEdits() {
+    assertSame(tempos, tempos.with(10, 300));
+    assertEquals(TempoMap.constant(100).with(10, 200).with(20, 50), tempos.with(10, 200));
+    assertEquals(TempoMap.constant(100).with(20, 50), tempos.without(10));
+    assertSame(tempos, tempos.without(11));
+    assertEquals(TempoMap.constant(100).with(15, 300).with(25, 50), tempos.shift(5));
+    assertEquals("{0=100, 10=300, 20=50}", tempos.toString());
+
+    SortedMap<Integer, Integer> changes = new TreeMap<Integer, Integer>();
+    changes.put(20, 50);
+    changes.put(0, 100);
+    changes.put(10, 300);
+    assertEquals(tempos, TempoMap.of(changes));
+  }
+
+  /**
+   * Tests that a tempo map must start at beat 0.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testOfWithoutStartingTempo() {
+    SortedMap<Integer, Integer> changes = new TreeMap<Integer, Integer>();
+    changes.put(4, 100);
+    TempoMap.of(changes);
+  }
+
+  /**
+   * Tests that the starting tempo cannot be removed.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testRemoveStartingTempo() {
+    tempos.without(0);
+  }
+
+  /**
+   * Tests adding a tempo that is not positive.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonPositiveTempo() {
+    tempos.with(4, 0);
+  }
+
+  /**
+   * Tests that setting the tempo of a model only changes the starting tempo, and that tempo
+   * changes can be undone.
+   */
+  @Test
+  public void testModelTempoMap() {
+    UndoableMusicEditorModel model = new UndoableMusicEditorModel(new MusicEditorModelImpl(),
+            UndoableMusicEditorModel.DEFAULT_HISTORY_SIZE, 0, () -> 0);
+    model.setTempoMap(tempos);
+    model.setTempo(200);
+    assertEquals(200, model.getTempo());
+    assertEquals(tempos.with(0, 200), model.getTempoMap());
+    assertEquals(tempos.with(0, 200), model.snapshot().getTempoMap());
+
+    model.undo();
+    assertEquals(tempos, model.getTempoMap());
+    model.undo();
+    assertEquals(TempoMap.constant(10000), model.getTempoMap());
+    model.newPiece();
+    assertEquals(TempoMap.constant(60), model.getTempoMap());
+  }
+
+  /**
+   * Tests that an offset view shifts the tempo changes of its piece.
+   */
+  @Test
+  public void testOffsetTempoMap() {
+    PackedMusicEditorModel model = new PackedMusicEditorModel();
+    model.setTempoMap(tempos);
+    OffsetScoreView view = new OffsetScoreView(model, 8, 0);
+    assertEquals(tempos.shift(8), view.getTempoMap());
+    view.setBeatsPerMeasure(3);
+    assertEquals(tempos.shift(8), view.getTempoMap());
+  }
+
+  /**
+   * Tests reading tempo changes from a file.
+   */
+  @Test
+  public void testReadTempoChanges() {
+    String text = "tempo 100\ntempo 20 50\nnote 0 2 1 60 64\ntempo 10 300\n";
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> model = MusicReader.parseFile(
+            new StringReader(text), new PackedMusicEditorModel.Builder());
+    assertEquals(tempos, model.getTempoMap());
+
+    model = MusicReader.parseFile(new StringReader(text), new MusicEditorModelImpl.Builder());
+    assertEquals(tempos, model.getTempoMap());
+    assertEquals(100, model.getTempo());
+  }
+}
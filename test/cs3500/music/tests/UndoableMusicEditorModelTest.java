@@ -0,0 +1,176 @@
+package cs3500.music.tests;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import cs3500.music.model.IMusicNote;
+import cs3500.music.model.IPitch;
+import cs3500.music.model.MusicEditorModelImpl;
+import cs3500.music.model.MusicEditorOperations;
+import cs3500.music.model.MusicNote;
+import cs3500.music.model.NoteName;
+import cs3500.music.model.Pitch;
+import cs3500.music.model.UndoableMusicEditorModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the UndoableMusicEditorModel.
+ */
+public class UndoableMusicEditorModelTest {
+
+  private MusicEditorOperations<IMusicNote<IPitch>, IPitch> model;
+  private UndoableMusicEditorModel undoable;
+  private long[] time;
+  private MusicNote n1;
+  private MusicNote n2;
+  private MusicNote n3;
+
+  /**
+   * Set the models, clock and notes back to their original states. Edits are coalesced when they
+   * are at most 100 milliseconds apart, and the history holds at most 10 notes.
+   */
+  @Before
+  public void setup() {
+    model = new MusicEditorModelImpl();
+    time = new long[1];
+    undoable = new UndoableMusicEditorModel(model, 10, 100, () -> time[0]);
+    n1 = new MusicNote(new Pitch(NoteName.C, 4), 4, 0, 1, 64);
+    n2 = new MusicNote(new Pitch(NoteName.E, 4), 2, 2, 1, 64);
+    n3 = new MusicNote(new Pitch(NoteName.G, 4), 1, 8, 1, 64);
+  }
+
+  /**
+   * Test that single edits can be undone and redone one at a time when they are not coalesced.
+   */
+  @Test
+  public void testUndoRedoNotes() {
+    undoable.addNote(n1);
+    time[0] += 1000;
+    undoable.addNote(n2);
+    time[0] += 1000;
+    undoable.removeNote(n1);
+
+    assertTrue(undoable.undo());
+    assertTrue(model.getNotesAtBeat(0).contains(n1));
+    assertTrue(undoable.undo());
+    assertFalse(model.getNotesAtBeat(2).contains(n2));
+    assertTrue(undoable.redo());
+    assertTrue(model.getNotesAtBeat(2).contains(n2));
+    assertTrue(undoable.undo());
+    assertTrue(undoable.undo());
+    assertTrue(model.getNotes().isEmpty());
+    assertFalse(undoable.undo());
+  }
+
+  /**
+   * Test that quick edits are undone together and that a new edit clears the redo history.
+   */
+  @Test
+  public void testCoalescing() {
+    undoable.addNote(n1);
+    time[0] += 50;
+    undoable.addNote(n2);
+    time[0] += 50;
+    undoable.setTempo(200);
+    time[0] += 1000;
+    undoable.addNote(n3);
+
+    assertTrue(undoable.undo());
+    assertEquals(2, model.getNotesSoundingInRange(0, 10).size());
+    assertTrue(undoable.undo());
+    assertTrue(model.getNotes().isEmpty());
+    assertEquals(10000, model.getTempo());
+    assertTrue(undoable.canRedo());
+
+    undoable.addNote(n3);
+    assertFalse(undoable.canRedo());
+  }
+
+  /**
+   * Test that a combine is undone in one step and only removes the notes it added.
+   */
+  @Test
+  public void testUndoCombine() {
+    undoable.addNote(n1);
+    MusicEditorOperations<IMusicNote<IPitch>, IPitch> other = new MusicEditorModelImpl();
+    other.addNote(n1);
+    other.addNote(n2);
+    undoable.combine(other);
+    undoable.append(other);
+    assertEquals(8, model.getNotes().size());
+
+    assertTrue(undoable.undo());
+    assertTrue(undoable.undo());
+    assertEquals(4, model.getNotes().size());
+    assertTrue(model.getNotesAtBeat(0).contains(n1));
+    assertTrue(undoable.redo());
+    assertEquals(2, model.getNotesAtBeat(2).size());
+  }
+
+  /**
+   * Test that a new piece can be undone.
+   */
+  @Test
+  public void testUndoNewPiece() {
+    undoable.addNote(n1);
+    undoable.setTempo(500);
+    undoable.newPiece();
+    assertTrue(model.getNotes().isEmpty());
+
+    assertTrue(undoable.undo());
+    assertTrue(model.getNotesAtBeat(0).contains(n1));
+    assertEquals(500, model.getTempo());
+  }
+
+  /**
+   * Test that the oldest steps are forgotten once the history holds too many notes.
+   */
+  @Test
+  public void testBoundedHistory() {
+    List<IMusicNote<IPitch>> notes = new ArrayList<IMusicNote<IPitch>>();
+    for (int i = 0; i < 8; i++) {
+      notes.add(new MusicNote(new Pitch(NoteName.C, 5), 1, i, 1, 64));
+    }
+    undoable.addNote(n1);
+    undoable.addAll(notes);
+    time[0] += 1000;
+    undoable.addNote(n2);
+    time[0] += 1000;
+    undoable.addNote(n3);
+
+    assertTrue(undoable.undo());
+    assertTrue(undoable.undo());
+    assertTrue(undoable.undo());
+    assertFalse(undoable.undo());
+    assertTrue(model.getNotesAtBeat(0).contains(n1));
+  }
+
+  /**
+   * Test that a bulk remove is undone and redone in one step.
+   */
+  @Test
+  public void testUndoRemoveAll() {
+    undoable.addNote(n1);
+    undoable.addNote(n2);
+    undoable.addNote(n3);
+    time[0] += 1000;
+    List<IMusicNote<IPitch>> notes = new ArrayList<IMusicNote<IPitch>>();
+    notes.add(n1);
+    notes.add(n3);
+    undoable.removeAll(notes);
+    assertEquals(2, model.getNotes().size());
+
+    assertTrue(undoable.undo());
+    assertTrue(model.getNotesAtBeat(0).contains(n1));
+    assertTrue(model.getNotesAtBeat(8).contains(n3));
+    assertTrue(undoable.redo());
+    assertTrue(model.getNotesAtBeat(0).isEmpty());
+    assertEquals(2, model.getNotes().size());
+  }
+}